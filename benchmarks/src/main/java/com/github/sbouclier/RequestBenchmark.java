@@ -0,0 +1,150 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.benchmark.InMemoryTransport;
+import com.github.sbouclier.transport.ResponseHandler;
+import com.github.sbouclier.utils.Base64Utils;
+import com.github.sbouclier.utils.ByteUtils;
+import com.github.sbouclier.utils.CryptoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and signing requests, the per-request hot path before any I/O
+ * <p>
+ * The benchmark lives in the package of the client to reach its package-private helpers: post data and url
+ * builders, legacy signature and method urls. {@link #privateRequest()} and {@link #publicRequest()} measure a
+ * whole request over a transport answering without reading the body. Run with <code>-prof gc</code> to get
+ * allocation per operation.
+ *
+ * @author Stéphane Bouclier
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+
+    private static final String SECRET = "a3Jha2VuLWJlbmNobWFyay1zZWNyZXQta3Jha2VuLWJlbmNobWFyay1zZWNyZXQ=";
+    private static final ResponseHandler<Object> IGNORE_BODY = body -> null;
+
+    private final Map<String, String> params = new HashMap<>();
+    private String path;
+    private String nonce;
+    private String postData;
+    private byte[] key;
+    private byte[] hmacMessage;
+    private byte[] hmac;
+    private NonceGenerator nonces;
+    private KrakenSigner signer;
+    private HttpJsonClient privateClient;
+    private HttpJsonClient publicClient;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException, IOException {
+        params.put("pair", "XXBTZEUR");
+        params.put("type", "buy");
+        params.put("ordertype", "limit");
+        params.put("price", "2312.50000");
+        params.put("volume", "0.01000000");
+
+        path = KrakenApiMethod.OPEN_ORDERS.getUrl(0);
+        nonce = "1501609382482800";
+        postData = HttpJsonClient.buildPostData(params, nonce);
+        key = Base64Utils.base64Decode(SECRET);
+        hmacMessage = ByteUtils.concatArrays(ByteUtils.stringToBytes(path), CryptoUtils.sha256(nonce + postData));
+        hmac = CryptoUtils.hmacSha512(key, hmacMessage);
+
+        nonces = new NonceGenerator();
+        signer = new KrakenSigner(SECRET);
+        final InMemoryTransport transport = new InMemoryTransport(new byte[0]);
+        privateClient = new HttpJsonClient("apiKey", signer, nonces, transport);
+        publicClient = new HttpJsonClient(transport);
+    }
+
+    @Benchmark
+    public long nonce() {
+        return nonces.next();
+    }
+
+    @Benchmark
+    public String nonceString() {
+        return privateClient.generateNonce();
+    }
+
+    @Benchmark
+    public String buildPostData() {
+        return HttpJsonClient.buildPostData(params, nonce);
+    }
+
+    @Benchmark
+    public String buildPublicUrl() {
+        return HttpJsonClient.buildPublicUrl(KrakenAPIClient.BASE_URL, "/0/public/Depth", params);
+    }
+
+    @Benchmark
+    public String methodUrl() {
+        return KrakenApiMethod.ORDER_BOOK.getUrl(0);
+    }
+
+    @Benchmark
+    public byte[] sha256() throws GeneralSecurityException {
+        return CryptoUtils.sha256(nonce + postData);
+    }
+
+    @Benchmark
+    public byte[] hmacSha512() throws GeneralSecurityException {
+        return CryptoUtils.hmacSha512(key, hmacMessage);
+    }
+
+    @Benchmark
+    public byte[] base64Decode() {
+        return Base64Utils.base64Decode(SECRET);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64Utils.base64Encode(hmac);
+    }
+
+    /**
+     * Signature decoding the secret and creating digests on each call
+     */
+    @Benchmark
+    public String generateSignature() throws KrakenApiException {
+        return HttpJsonClient.generateSignature(SECRET, path, nonce, postData);
+    }
+
+    /**
+     * Signature of the shared signer, used by the client
+     */
+    @Benchmark
+    public String sign() throws KrakenApiException {
+        return signer.sign(path, nonce, postData);
+    }
+
+    @Benchmark
+    public Object privateRequest() throws IOException, KrakenApiException {
+        return privateClient.executePrivateQuery(KrakenAPIClient.BASE_URL, path, params, IGNORE_BODY);
+    }
+
+    @Benchmark
+    public Object publicRequest() throws IOException {
+        return publicClient.executePublicQuery(KrakenAPIClient.BASE_URL, "/0/public/Depth", params, IGNORE_BODY);
+    }
+}
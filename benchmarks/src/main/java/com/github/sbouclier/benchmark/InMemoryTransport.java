@@ -0,0 +1,37 @@
+package com.github.sbouclier.benchmark;
+
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.ResponseHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Http transport answering every request with the same body, without network
+ *
+ * @author Stéphane Bouclier
+ */
+public class InMemoryTransport implements HttpTransport {
+
+    private final byte[] body;
+
+    public InMemoryTransport(byte[] body) {
+        this.body = body;
+    }
+
+    @Override
+    public <R> R get(URL url, ResponseHandler<R> handler) throws IOException {
+        return handler.handle(new ByteArrayInputStream(body));
+    }
+
+    @Override
+    public <R> R post(URL url, Map<String, String> headers, String postData, ResponseHandler<R> handler) throws IOException {
+        return handler.handle(new ByteArrayInputStream(body));
+    }
+
+    @Override
+    public void close() {
+    }
+}
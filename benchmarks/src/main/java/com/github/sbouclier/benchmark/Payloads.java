@@ -0,0 +1,188 @@
+package com.github.sbouclier.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Response payloads: mock responses of the client tests, and scaled-up synthetic responses shaped like
+ * Kraken ones
+ * <p>
+ * Synthetic payloads are deterministic, so that all runs parse the same bytes.
+ *
+ * @author Stéphane Bouclier
+ */
+public final class Payloads {
+
+    private static final long START_TIME = 1501600000L;
+
+    private Payloads() {
+    }
+
+    /**
+     * Load a mock response of the client tests
+     *
+     * @param name name of the mock, e.g. "order_book"
+     * @return payload
+     */
+    public static byte[] fixture(String name) {
+        final String path = "/json/" + name + ".mock.json";
+        try (InputStream in = Payloads.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("unknown fixture: " + path);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @param depth number of asks and of bids
+     * @return order book of XXBTZEUR
+     */
+    public static byte[] orderBook(int depth) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"XXBTZEUR\":{\"asks\":[");
+        for (int i = 0; i < depth; i++) {
+            level(json, i, 2400.0 + i * 0.137, START_TIME - i).append(',');
+        }
+        json.setLength(json.length() - 1);
+        json.append("],\"bids\":[");
+        for (int i = 0; i < depth; i++) {
+            level(json, i, 2399.0 - i * 0.137, START_TIME - i).append(',');
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("]}}}"));
+    }
+
+    private static StringBuilder level(StringBuilder json, int i, double price, long time) {
+        return json.append("[\"").append(decimal(price, 5)).append("\",\"")
+                .append(decimal(0.001 + (i % 97) * 0.123, 3)).append("\",")
+                .append(time).append(']');
+    }
+
+    /**
+     * @param candles number of candles
+     * @return OHLC of XXBTZEUR
+     */
+    public static byte[] ohlc(int candles) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"XXBTZEUR\":[");
+        for (int i = 0; i < candles; i++) {
+            final double open = 2300.0 + (i % 50) * 1.7;
+            json.append('[').append(START_TIME + i * 60L).append(",\"")
+                    .append(decimal(open, 3)).append("\",\"")
+                    .append(decimal(open + 12.5, 3)).append("\",\"")
+                    .append(decimal(open - 9.25, 3)).append("\",\"")
+                    .append(decimal(open + 3.1, 3)).append("\",\"")
+                    .append(decimal(open + 1.4, 3)).append("\",\"")
+                    .append(decimal(10 + (i % 13) * 3.21, 8)).append("\",")
+                    .append(100 + i % 400).append("],");
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("],\"last\":").append(START_TIME + (candles - 1) * 60L).append("}}"));
+    }
+
+    /**
+     * @param trades number of trades
+     * @return recent trades of XXBTZEUR
+     */
+    public static byte[] recentTrades(int trades) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"XXBTZEUR\":[");
+        for (int i = 0; i < trades; i++) {
+            json.append("[\"").append(decimal(2312.0 + (i % 31) * 0.5, 5)).append("\",\"")
+                    .append(decimal(0.01 + (i % 89) * 0.0371, 8)).append("\",")
+                    .append(decimal(START_TIME + i * 0.25, 4)).append(",\"")
+                    .append(i % 2 == 0 ? 'b' : 's').append("\",\"")
+                    .append(i % 3 == 0 ? 'm' : 'l').append("\",\"\"],");
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("],\"last\":\"").append((START_TIME + trades) * 1_000_000_000L).append("\"}}"));
+    }
+
+    /**
+     * @param spreads number of spreads
+     * @return recent spreads of XXBTZEUR
+     */
+    public static byte[] recentSpreads(int spreads) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"XXBTZEUR\":[");
+        for (int i = 0; i < spreads; i++) {
+            final double bid = 2342.0 + (i % 41) * 0.3;
+            json.append('[').append(START_TIME + i).append(",\"")
+                    .append(decimal(bid, 5)).append("\",\"")
+                    .append(decimal(bid + 0.1 + (i % 7) * 0.2, 5)).append("\"],");
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("],\"last\":").append(START_TIME + spreads - 1).append("}}"));
+    }
+
+    /**
+     * @param trades number of trades
+     * @return trades history
+     */
+    public static byte[] tradesHistory(int trades) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"trades\":{");
+        for (int i = 0; i < trades; i++) {
+            final double price = 3800.0 - (i % 60) * 2.5;
+            json.append('"').append(id('T', i)).append("\":{")
+                    .append("\"ordertxid\":\"").append(id('O', i)).append("\",")
+                    .append("\"pair\":\"XXBTZEUR\",")
+                    .append("\"time\":").append(decimal(START_TIME - i * 37.5, 4)).append(',')
+                    .append("\"type\":\"").append(i % 2 == 0 ? "buy" : "sell").append("\",")
+                    .append("\"ordertype\":\"limit\",")
+                    .append("\"price\":\"").append(decimal(price, 5)).append("\",")
+                    .append("\"cost\":\"").append(decimal(price * 0.002, 5)).append("\",")
+                    .append("\"fee\":\"").append(decimal(price * 0.002 * 0.0016, 5)).append("\",")
+                    .append("\"vol\":\"0.00200000\",")
+                    .append("\"margin\":\"0.00000\",")
+                    .append("\"misc\":\"\"},");
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("},\"count\":").append(trades).append("}}"));
+    }
+
+    /**
+     * @param entries number of ledger entries
+     * @return ledgers information
+     */
+    public static byte[] ledgersInformation(int entries) {
+        final StringBuilder json = new StringBuilder("{\"error\":[],\"result\":{\"ledger\":{");
+        for (int i = 0; i < entries; i++) {
+            json.append('"').append(id('L', i)).append("\":{")
+                    .append("\"refid\":\"").append(id('T', i)).append("\",")
+                    .append("\"time\":").append(decimal(START_TIME - i * 61.25, 4)).append(',')
+                    .append("\"type\":\"").append(i % 3 == 0 ? "margin" : "trade").append("\",")
+                    .append("\"aclass\":\"currency\",")
+                    .append("\"asset\":\"").append(i % 2 == 0 ? "ZEUR" : "XXBT").append("\",")
+                    .append("\"amount\":\"").append(decimal((i % 19) * 1.25 - 10, 4)).append("\",")
+                    .append("\"fee\":\"").append(decimal((i % 7) * 0.0031, 4)).append("\",")
+                    .append("\"balance\":\"").append(decimal(100 + i * 0.5, 4)).append("\"},");
+        }
+        json.setLength(json.length() - 1);
+        return bytes(json.append("},\"count\":").append(entries).append("}}"));
+    }
+
+    /**
+     * Build an id shaped like Kraken ones, e.g. "TKA24P-Q3KRM-UWMQIN"
+     */
+    private static String id(char prefix, int i) {
+        final String digits = String.format(Locale.ROOT, "%017d", i * 7919L);
+        return prefix + digits.substring(0, 5) + "-" + digits.substring(5, 10) + "-" + digits.substring(10, 16);
+    }
+
+    private static String decimal(double value, int scale) {
+        return String.format(Locale.ROOT, "%." + scale + "f", value);
+    }
+
+    private static byte[] bytes(StringBuilder json) {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.sbouclier.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.sbouclier.HttpApiClient;
+import com.github.sbouclier.HttpJsonClient;
+import com.github.sbouclier.JsonReaderRegistry;
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of unmarshalling each result type
+ * <p>
+ * {@link #call()} goes through the real {@link HttpApiClient} path, from the transport handing over the body to
+ * the checked result, private calls including their signature. {@link #unmarshal()} only runs the json reader
+ * of the result, to tell Jackson apart from the client. Run with <code>-prof gc</code> to get allocation per
+ * operation.
+ *
+ * @author Stéphane Bouclier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultParsingBenchmark {
+
+    @Param
+    private ResultPayload payload;
+
+    private byte[] body;
+    private HttpApiClient<Result> client;
+    private Class<Result> resultClass;
+    private ObjectReader reader;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws KrakenApiException {
+        body = payload.body();
+        resultClass = (Class<Result>) payload.getResultClass();
+        reader = JsonReaderRegistry.getDefault().getReader(resultClass);
+
+        final InMemoryTransport transport = new InMemoryTransport(body);
+        final HttpJsonClient jsonClient = payload.getMethod().isPrivate()
+                ? new HttpJsonClient("apiKey", "a3Jha2VuLWJlbmNobWFyay1zZWNyZXQ=", transport)
+                : new HttpJsonClient(transport);
+        client = new HttpApiClient<>(jsonClient);
+
+        // fail fast on payloads the client rejects
+        call();
+    }
+
+    @Benchmark
+    public Result call() throws KrakenApiException {
+        if (payload.getMethod().isPrivate()) {
+            return client.callPrivate(KrakenAPIClient.BASE_URL, payload.getMethod(), resultClass);
+        }
+        if (payload.hasLastId()) {
+            return client.callPublicWithLastId(KrakenAPIClient.BASE_URL, payload.getMethod(), resultClass, null);
+        }
+        return client.callPublic(KrakenAPIClient.BASE_URL, payload.getMethod(), resultClass);
+    }
+
+    @Benchmark
+    public Result unmarshal() throws IOException {
+        return reader.readValue(body);
+    }
+}
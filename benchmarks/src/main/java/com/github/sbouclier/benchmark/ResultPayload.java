@@ -0,0 +1,81 @@
+package com.github.sbouclier.benchmark;
+
+import com.github.sbouclier.KrakenApiMethod;
+import com.github.sbouclier.result.*;
+
+import java.util.function.Supplier;
+
+/**
+ * Payload of each result type: one per mock response of the client tests, then scaled-up synthetic ones
+ *
+ * @author Stéphane Bouclier
+ */
+public enum ResultPayload {
+
+    SERVER_TIME(KrakenApiMethod.SERVER_TIME, ServerTimeResult.class, () -> Payloads.fixture("server_time")),
+    ASSET_INFORMATION(KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class, () -> Payloads.fixture("assets_information")),
+    ASSET_PAIRS(KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class, () -> Payloads.fixture("asset_pairs")),
+    TICKER_INFORMATION(KrakenApiMethod.TICKER_INFORMATION, TickerInformationResult.class, () -> Payloads.fixture("ticker_information")),
+    OHLC(KrakenApiMethod.OHLC, OHLCResult.class, () -> Payloads.fixture("ohlc")),
+    OHLC_COLUMNS(KrakenApiMethod.OHLC, ColumnarOHLCResult.class, () -> Payloads.fixture("ohlc")),
+    ORDER_BOOK(KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, () -> Payloads.fixture("order_book")),
+    RECENT_TRADES(KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, () -> Payloads.fixture("recent_trades")),
+    RECENT_TRADES_COLUMNS(KrakenApiMethod.RECENT_TRADES, ColumnarRecentTradeResult.class, () -> Payloads.fixture("recent_trades")),
+    RECENT_SPREADS(KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, () -> Payloads.fixture("recent_spread")),
+    RECENT_SPREADS_COLUMNS(KrakenApiMethod.RECENT_SPREADS, ColumnarRecentSpreadResult.class, () -> Payloads.fixture("recent_spread")),
+    ACCOUNT_BALANCE(KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class, () -> Payloads.fixture("account_balance")),
+    TRADE_BALANCE(KrakenApiMethod.TRADE_BALANCE, TradeBalanceResult.class, () -> Payloads.fixture("trade_balance")),
+    OPEN_ORDERS(KrakenApiMethod.OPEN_ORDERS, OpenOrdersResult.class, () -> Payloads.fixture("open_orders")),
+    CLOSED_ORDERS(KrakenApiMethod.CLOSED_ORDERS, ClosedOrdersResult.class, () -> Payloads.fixture("closed_orders")),
+    ORDERS_INFORMATION(KrakenApiMethod.ORDERS_INFORMATION, OrdersInformationResult.class, () -> Payloads.fixture("orders_information")),
+    TRADES_HISTORY(KrakenApiMethod.TRADES_HISTORY, TradesHistoryResult.class, () -> Payloads.fixture("trades_history")),
+    TRADES_INFORMATION(KrakenApiMethod.TRADES_INFORMATION, TradesInformationResult.class, () -> Payloads.fixture("trades_information")),
+    OPEN_POSITIONS(KrakenApiMethod.OPEN_POSITIONS, OpenPositionsResult.class, () -> Payloads.fixture("open_positions")),
+    LEDGERS_INFORMATION(KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class, () -> Payloads.fixture("ledgers_information")),
+    QUERY_LEDGERS(KrakenApiMethod.QUERY_LEDGERS, LedgersResult.class, () -> Payloads.fixture("ledgers")),
+    TRADE_VOLUME(KrakenApiMethod.TRADE_VOLUME, TradeVolumeResult.class, () -> Payloads.fixture("trade_volume")),
+
+    ORDER_BOOK_500(KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, () -> Payloads.orderBook(500)),
+    OHLC_720(KrakenApiMethod.OHLC, OHLCResult.class, () -> Payloads.ohlc(720)),
+    OHLC_COLUMNS_720(KrakenApiMethod.OHLC, ColumnarOHLCResult.class, () -> Payloads.ohlc(720)),
+    RECENT_TRADES_1000(KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, () -> Payloads.recentTrades(1000)),
+    RECENT_TRADES_COLUMNS_1000(KrakenApiMethod.RECENT_TRADES, ColumnarRecentTradeResult.class, () -> Payloads.recentTrades(1000)),
+    RECENT_SPREADS_1000(KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, () -> Payloads.recentSpreads(1000)),
+    RECENT_SPREADS_COLUMNS_1000(KrakenApiMethod.RECENT_SPREADS, ColumnarRecentSpreadResult.class, () -> Payloads.recentSpreads(1000)),
+    TRADES_HISTORY_1000(KrakenApiMethod.TRADES_HISTORY, TradesHistoryResult.class, () -> Payloads.tradesHistory(1000)),
+    LEDGERS_INFORMATION_1000(KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class, () -> Payloads.ledgersInformation(1000));
+
+    private final KrakenApiMethod method;
+    private final Class<? extends Result> resultClass;
+    private final Supplier<byte[]> body;
+
+    ResultPayload(KrakenApiMethod method, Class<? extends Result> resultClass, Supplier<byte[]> body) {
+        this.method = method;
+        this.resultClass = resultClass;
+        this.body = body;
+    }
+
+    public KrakenApiMethod getMethod() {
+        return method;
+    }
+
+    public Class<? extends Result> getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * @return true if the result carries a last id, extracted by the client
+     */
+    public boolean hasLastId() {
+        return ResultWithLastId.class.isAssignableFrom(resultClass);
+    }
+
+    /**
+     * Build the response body
+     *
+     * @return new payload
+     */
+    public byte[] body() {
+        return body.get();
+    }
+}
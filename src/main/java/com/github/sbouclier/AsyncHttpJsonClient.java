@@ -0,0 +1,196 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.ratelimit.RateLimiter;
+import com.github.sbouclier.transport.AsyncHttpTransport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking Http Json API client
+ * <p>
+ * Kraken rejects a nonce lower than the last one received for the API key, so private queries are sent one
+ * at a time, in call order: each one gets its nonce and is sent once the previous one is answered. When a
+ * {@link RateLimiter} is set, each private query reserves its cost on call and is delayed until the call
+ * counter allows it. Use a single client per API key.
+ *
+ * @author Stéphane Bouclier
+ */
+public class AsyncHttpJsonClient implements Closeable {
+
+    private String apiKey;
+    private String secret;
+    private volatile KrakenSigner signer;
+    private volatile NonceGenerator nonces;
+    private AsyncHttpTransport transport;
+    private RateLimiter rateLimiter;
+    private CompletableFuture<?> lastPrivateQuery = CompletableFuture.completedFuture(null);
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    public AsyncHttpJsonClient(AsyncHttpTransport transport) {
+        this.transport = transport;
+    }
+
+    public AsyncHttpJsonClient(String apiKey, String secret, AsyncHttpTransport transport) {
+        this(transport);
+        this.apiKey = apiKey;
+        this.secret = secret;
+    }
+
+    public AsyncHttpJsonClient(String apiKey, String secret, RateLimiter rateLimiter, AsyncHttpTransport transport) {
+        this(apiKey, secret, transport);
+        this.rateLimiter = rateLimiter;
+    }
+
+    public AsyncHttpJsonClient(String apiKey, KrakenSigner signer, AsyncHttpTransport transport) {
+        this(transport);
+        this.apiKey = apiKey;
+        this.signer = signer;
+    }
+
+    public AsyncHttpJsonClient(String apiKey, KrakenSigner signer, NonceGenerator nonces, AsyncHttpTransport transport) {
+        this(apiKey, signer, transport);
+        this.nonces = nonces;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    public CompletableFuture<String> executePublicQuery(String baseUrl, String urlMethod) {
+        return executePublicQuery(baseUrl, urlMethod, null);
+    }
+
+    public CompletableFuture<String> executePublicQuery(String baseUrl, String urlMethod, Map<String, String> params) {
+        try {
+            return transport.get(new URL(HttpJsonClient.buildPublicUrl(baseUrl, urlMethod, params)));
+        } catch (MalformedURLException ex) {
+            return failed(ex);
+        }
+    }
+
+    public CompletableFuture<String> executePrivateQuery(String baseUrl, String urlMethod) {
+        return executePrivateQuery(baseUrl, urlMethod, null);
+    }
+
+    /**
+     * Execute private query once the previous private query of the client is answered and, with a rate
+     * limiter, once the call counter allows it
+     *
+     * @param baseUrl   base url
+     * @param urlMethod method url
+     * @param params    POST parameters
+     * @return future response body
+     */
+    public CompletableFuture<String> executePrivateQuery(String baseUrl, String urlMethod, Map<String, String> params) {
+        if (this.apiKey == null || (this.secret == null && this.signer == null)) {
+            return failed(new KrakenApiException("must provide API key and secret"));
+        }
+
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        final CompletableFuture<?> previous;
+        final long sendAt;
+        synchronized (this) {
+            previous = lastPrivateQuery;
+            lastPrivateQuery = response;
+            sendAt = System.nanoTime() + reserve(urlMethod);
+        }
+
+        previous.whenComplete((body, throwable) -> {
+            final long delay = sendAt - System.nanoTime();
+            if (delay > 0) {
+                Scheduler.INSTANCE.schedule(() -> send(baseUrl, urlMethod, params, response), delay, TimeUnit.NANOSECONDS);
+            } else {
+                send(baseUrl, urlMethod, params, response);
+            }
+        });
+        return response;
+    }
+
+    private long reserve(String urlMethod) {
+        if (rateLimiter == null) {
+            return 0;
+        }
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            if (method.isPrivate() && urlMethod.equals(method.getUrl(0))) {
+                return rateLimiter.reserve(method);
+            }
+        }
+        return 0;
+    }
+
+    private void send(String baseUrl, String urlMethod, Map<String, String> params, CompletableFuture<String> response) {
+        try {
+            final String nonce = generateNonce();
+            final String postData = HttpJsonClient.buildPostData(params, nonce);
+
+            final Map<String, String> headers = new HashMap<>();
+            headers.put("API-Key", apiKey);
+            headers.put("API-Sign", getSigner().sign(urlMethod, nonce, postData));
+
+            transport.post(new URL(baseUrl + urlMethod), headers, postData).whenComplete((body, throwable) -> {
+                if (throwable != null) {
+                    response.completeExceptionally(throwable);
+                } else {
+                    response.complete(body);
+                }
+            });
+        } catch (KrakenApiException | MalformedURLException | RuntimeException ex) {
+            response.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Generate nonce from the generator shared by all clients of the API key
+     *
+     * @return strictly increasing nonce
+     */
+    public String generateNonce() {
+        NonceGenerator n = nonces;
+        if (n == null) {
+            nonces = n = NonceGenerator.forKey(apiKey != null ? apiKey : "");
+        }
+        return String.valueOf(n.next());
+    }
+
+    private KrakenSigner getSigner() throws KrakenApiException {
+        KrakenSigner s = signer;
+        if (s == null) {
+            signer = s = HttpJsonClient.newSigner(secret);
+        }
+        return s;
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    /**
+     * Scheduler of private queries delayed by the rate limiter, created on first use
+     */
+    private static final class Scheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "kraken-async-rate-limit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static CompletableFuture<String> failed(Throwable ex) {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
+import com.github.sbouclier.metrics.ApiMetrics;
+import com.github.sbouclier.ratelimit.VerificationTier;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.StreamStatistics;
+
+/**
+ * Options of the clients created by a {@link HttpApiClientFactory}, filled in by {@link KrakenAPIClient.Builder}
+ * <p>
+ * Null options are disabled. Public clients use the coalescer and the retry policy, private clients use the
+ * rate limiter of their API key.
+ *
+ * @author Stéphane Bouclier
+ */
+final class ClientOptions {
+
+    HttpTransport transport;
+    JsonReaderRegistry readers = JsonReaderRegistry.getDefault();
+    StreamStatistics statistics;
+    VerificationTier tier;
+    RequestCoalescer coalescer;
+    RetryPolicy retryPolicy;
+    CircuitBreaker circuitBreaker;
+    ApiMetrics metrics = ApiMetrics.NOOP;
+
+    ClientOptions withTransport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    ClientOptions withJsonReaders(JsonReaderRegistry readers) {
+        this.readers = readers;
+        return this;
+    }
+
+    ClientOptions withStatistics(StreamStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    ClientOptions withRateLimit(VerificationTier tier) {
+        this.tier = tier;
+        return this;
+    }
+
+    ClientOptions withCoalescer(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+        return this;
+    }
+
+    ClientOptions withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    ClientOptions withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    ClientOptions withMetrics(ApiMetrics metrics) {
+        this.metrics = metrics != null ? metrics : ApiMetrics.NOOP;
+        return this;
+    }
+}
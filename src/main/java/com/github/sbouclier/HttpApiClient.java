@@ -1,13 +1,19 @@
 package com.github.sbouclier;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
+import com.github.sbouclier.metrics.ApiMetrics;
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.metrics.RequestTrace;
+import com.github.sbouclier.ratelimit.RateLimiter;
 import com.github.sbouclier.result.Result;
 import com.github.sbouclier.result.ResultWithLastId;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.ResponseHandler;
+import com.github.sbouclier.transport.StreamStatistics;
 
 import java.io.IOException;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Http API client
@@ -17,6 +23,13 @@ import java.util.regex.Pattern;
 public class HttpApiClient<T extends Result> {
 
     private HttpJsonClient client;
+    private JsonReaderRegistry readers = JsonReaderRegistry.getDefault();
+    private StreamStatistics statistics;
+    private RateLimiter rateLimiter;
+    private RequestCoalescer coalescer;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private ApiMetrics metrics = ApiMetrics.NOOP;
     private int apiVersion = 0;
 
     public HttpApiClient() {
@@ -31,6 +44,24 @@ public class HttpApiClient<T extends Result> {
         this.client = client;
     }
 
+    /**
+     * Constructor of the clients created by {@link HttpApiClientFactory}
+     *
+     * @param client      json client
+     * @param options     client options
+     * @param rateLimiter rate limiter of the API key of private calls, null to disable rate limiting
+     */
+    HttpApiClient(HttpJsonClient client, ClientOptions options, RateLimiter rateLimiter) {
+        this.client = client;
+        this.readers = options.readers;
+        this.statistics = options.statistics;
+        this.rateLimiter = rateLimiter;
+        this.coalescer = options.coalescer;
+        this.retryPolicy = options.retryPolicy;
+        this.circuitBreaker = options.circuitBreaker;
+        this.metrics = options.metrics != null ? options.metrics : ApiMetrics.NOOP;
+    }
+
     /**
      * Call public kraken method
      *
@@ -41,18 +72,7 @@ public class HttpApiClient<T extends Result> {
      * @throws KrakenApiException
      */
     public T callPublic(String baseUrl, KrakenApiMethod method, Class<T> result) throws KrakenApiException {
-        try {
-            final String responseString = this.client.executePublicQuery(baseUrl, method.getUrl(apiVersion));
-            T res = new ObjectMapper().readValue(responseString, result);
-
-            if (!res.getError().isEmpty()) {
-                throw new KrakenApiException(res.getError());
-            }
-
-            return res;
-        } catch (IOException ex) {
-            throw new KrakenApiException("unable to query Kraken API", ex);
-        }
+        return callPublic(baseUrl, method, result, null);
     }
 
     /**
@@ -66,18 +86,28 @@ public class HttpApiClient<T extends Result> {
      * @throws KrakenApiException
      */
     public T callPublic(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
-        try {
-            final String responseString = this.client.executePublicQuery(baseUrl, method.getUrl(apiVersion), params);
-            T res = new ObjectMapper().readValue(responseString, result);
+        if (coalescer != null) {
+            return coalescer.execute(baseUrl, method, result, params, () -> retryPublic(baseUrl, method, result, params));
+        }
+        return retryPublic(baseUrl, method, result, params);
+    }
 
-            if (!res.getError().isEmpty()) {
-                throw new KrakenApiException(res.getError());
-            }
+    private T retryPublic(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        if (retryPolicy != null) {
+            return retryPolicy.execute(method, () -> guardQueryPublic(baseUrl, method, result, params));
+        }
+        return guardQueryPublic(baseUrl, method, result, params);
+    }
 
-            return res;
-        } catch (IOException ex) {
-            throw new KrakenApiException("unable to query Kraken API", ex);
+    private T guardQueryPublic(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        if (circuitBreaker != null) {
+            return circuitBreaker.execute(method, () -> queryPublic(baseUrl, method, result, params));
         }
+        return queryPublic(baseUrl, method, result, params);
+    }
+
+    private T queryPublic(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        return measure(method, trace -> checkErrors(this.client.executePublicQuery(baseUrl, method.getUrl(apiVersion), params, reader(result, trace))));
     }
 
     /**
@@ -91,22 +121,28 @@ public class HttpApiClient<T extends Result> {
      * @throws KrakenApiException
      */
     public T callPublicWithLastId(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
-        try {
-            final String responseString = this.client.executePublicQuery(baseUrl, method.getUrl(apiVersion), params);
-
-            LastIdExtractedResult extractedResult = extractLastId(responseString);
-
-            T res = new ObjectMapper().readValue(extractedResult.responseWithoutLastId, result);
-            ((ResultWithLastId) res).setLastId(extractedResult.lastId);
+        if (coalescer != null) {
+            return coalescer.execute(baseUrl, method, result, params, () -> retryPublicWithLastId(baseUrl, method, result, params));
+        }
+        return retryPublicWithLastId(baseUrl, method, result, params);
+    }
 
-            if (!res.getError().isEmpty()) {
-                throw new KrakenApiException(res.getError());
-            }
+    private T retryPublicWithLastId(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        if (retryPolicy != null) {
+            return retryPolicy.execute(method, () -> guardQueryPublicWithLastId(baseUrl, method, result, params));
+        }
+        return guardQueryPublicWithLastId(baseUrl, method, result, params);
+    }
 
-            return res;
-        } catch (IOException ex) {
-            throw new KrakenApiException("unable to query Kraken API", ex);
+    private T guardQueryPublicWithLastId(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        if (circuitBreaker != null) {
+            return circuitBreaker.execute(method, () -> queryPublicWithLastId(baseUrl, method, result, params));
         }
+        return queryPublicWithLastId(baseUrl, method, result, params);
+    }
+
+    private T queryPublicWithLastId(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        return measure(method, trace -> checkLastId(this.client.executePublicQuery(baseUrl, method.getUrl(apiVersion), params, reader(result, trace))));
     }
 
     /**
@@ -119,18 +155,7 @@ public class HttpApiClient<T extends Result> {
      * @throws KrakenApiException
      */
     public T callPrivate(String baseUrl, KrakenApiMethod method, Class<T> result) throws KrakenApiException {
-        try {
-            final String responseString = this.client.executePrivateQuery(baseUrl, method.getUrl(apiVersion));
-            T res = new ObjectMapper().readValue(responseString, result);
-
-            if (!res.getError().isEmpty()) {
-                throw new KrakenApiException(res.getError());
-            }
-
-            return res;
-        } catch (IOException ex) {
-            throw new KrakenApiException("unable to query Kraken API", ex);
-        }
+        return callPrivate(baseUrl, method, result, null);
     }
 
     /**
@@ -144,52 +169,197 @@ public class HttpApiClient<T extends Result> {
      * @throws KrakenApiException
      */
     public T callPrivate(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        if (circuitBreaker == null) {
+            acquire(method);
+            return queryPrivate(baseUrl, method, result, params);
+        }
+
+        // an open circuit fails fast, before consuming the call counter
+        final long permission = circuitBreaker.acquirePermission(method);
         try {
-            final String responseString = this.client.executePrivateQuery(baseUrl, method.getUrl(apiVersion), params);
-            T res = new ObjectMapper().readValue(responseString, result);
+            acquire(method);
+        } catch (KrakenApiException ex) {
+            circuitBreaker.releasePermission(method, permission);
+            throw ex;
+        }
+        return circuitBreaker.record(method, permission, () -> queryPrivate(baseUrl, method, result, params));
+    }
 
-            if (!res.getError().isEmpty()) {
-                throw new KrakenApiException(res.getError());
-            }
+    private T queryPrivate(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params) throws KrakenApiException {
+        return measure(method, trace -> checkErrors(this.client.executePrivateQuery(baseUrl, method.getUrl(apiVersion), params, reader(result, trace))));
+    }
+
+    /**
+     * Query sending one request
+     *
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    private interface Query<R> {
+        R execute(RequestTrace trace) throws IOException, KrakenApiException;
+    }
 
-            return res;
+    /**
+     * Send one request, tracing it into the metrics unless they are disabled
+     *
+     * @param method kraken method
+     * @param query  query sending the request, with the trace of the request or null
+     * @return result
+     * @throws KrakenApiException if the query fails
+     */
+    private T measure(KrakenApiMethod method, Query<T> query) throws KrakenApiException {
+        final RequestTrace trace = metrics != ApiMetrics.NOOP ? RequestTrace.begin() : null;
+        try {
+            return query.execute(trace);
         } catch (IOException ex) {
-            throw new KrakenApiException("unable to query Kraken API", ex);
+            throw recordErrors(method, new KrakenApiException("unable to query Kraken API", ex));
+        } catch (KrakenApiException ex) {
+            throw recordErrors(method, ex);
+        } finally {
+            if (trace != null) {
+                trace.end();
+                metrics.recordRequest(method);
+                for (Phase phase : Phase.values()) {
+                    final long nanos = trace.getNanos(phase);
+                    if (nanos >= 0) {
+                        metrics.recordTiming(method, phase, nanos);
+                    }
+                }
+                if (trace.getBytesReceived() >= 0) {
+                    metrics.recordBytes(method, trace.getBytesReceived(), trace.getBytesAllocated());
+                }
+            }
+        }
+    }
+
+    private KrakenApiException recordErrors(KrakenApiMethod method, KrakenApiException exception) {
+        if (metrics != ApiMetrics.NOOP) {
+            for (String error : exception.getErrors()) {
+                metrics.recordError(method, errorCode(error));
+            }
+        }
+        return exception;
+    }
+
+    /**
+     * Get code of a Kraken error, without its additional text, e.g. "EGeneral:Invalid arguments" of
+     * "EGeneral:Invalid arguments:volume"
+     *
+     * @param error kraken error
+     * @return error code
+     */
+    static String errorCode(String error) {
+        if (error == null) {
+            return "unknown";
         }
+        final int category = error.indexOf(':');
+        final int detail = category >= 0 ? error.indexOf(':', category + 1) : -1;
+        return detail >= 0 ? error.substring(0, detail) : error;
     }
 
     /**
-     * LastId extracted class result
+     * Wait until the API key call counter allows the call
+     *
+     * @param method kraken method
+     * @throws KrakenApiException if interrupted while waiting
      */
-    private class LastIdExtractedResult {
-        public String responseWithoutLastId;
-        public Long lastId;
+    private void acquire(KrakenApiMethod method) throws KrakenApiException {
+        if (rateLimiter == null) {
+            return;
+        }
 
-        public LastIdExtractedResult(String responseWithoutLastId, Long lastId) {
-            this.responseWithoutLastId = responseWithoutLastId;
-            this.lastId = lastId;
+        try {
+            rateLimiter.acquire(method);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException("interrupted while waiting for rate limit", ex);
         }
     }
 
     /**
-     * Extract last id from string and wrap it with response without it
+     * Build handler unmarshalling response body while it is received
      *
-     * @param response
-     * @return extracted result
-     * @throws KrakenApiException
+     * @param result result class
+     * @param trace  trace of the request, null if metrics are disabled
+     * @return response handler
+     */
+    private ResponseHandler<T> reader(Class<T> result, RequestTrace trace) {
+        final ObjectReader reader = readers.getReader(result);
+        final ResponseHandler<T> handler = body -> reader.readValue(body);
+        if (trace == null) {
+            return statistics != null ? statistics.record(handler) : handler;
+        }
+
+        // the trace already counts bytes received and allocated, statistics reuse them instead of measuring twice
+        final ResponseHandler<T> traced = trace.wrap(handler);
+        if (statistics == null) {
+            return traced;
+        }
+        return body -> {
+            try {
+                return traced.handle(body);
+            } finally {
+                statistics.record(trace.getBytesReceived(), trace.getBytesAllocated());
+            }
+        };
+    }
+
+    /**
+     * Unmarshal response and check for errors
+     *
+     * @param readers  json readers
+     * @param response json response
+     * @param result   result class
+     * @return result
+     * @throws IOException        if response cannot be unmarshalled
+     * @throws KrakenApiException if response contains errors
+     */
+    static <R extends Result> R parse(JsonReaderRegistry readers, String response, Class<R> result) throws IOException, KrakenApiException {
+        return checkErrors(readers.getReader(result).readValue(response));
+    }
+
+    /**
+     * Check for errors
+     *
+     * @param res unmarshalled result
+     * @return result
+     * @throws KrakenApiException if result contains errors
      */
-    private LastIdExtractedResult extractLastId(String response) throws KrakenApiException {
-        final String lastPattern = ",(\\s*)\"last\":\"{0,1}([0-9]+)\"{0,1}";
+    static <R extends Result> R checkErrors(R res) throws KrakenApiException {
+        if (!res.getError().isEmpty()) {
+            throw new KrakenApiException(res.getError());
+        }
 
-        Pattern pattern = Pattern.compile(lastPattern);
-        Matcher matcher = pattern.matcher(response);
+        return res;
+    }
 
-        if (matcher.find()) {
-            response = response.replaceAll(lastPattern, "");
+    /**
+     * Unmarshal response, check for last id and errors
+     *
+     * @param readers  json readers
+     * @param response json response
+     * @param result   result class
+     * @return result
+     * @throws IOException        if response cannot be unmarshalled
+     * @throws KrakenApiException if response contains errors or last id is missing
+     */
+    static <R extends Result> R parseWithLastId(JsonReaderRegistry readers, String response, Class<R> result) throws IOException, KrakenApiException {
+        return checkLastId(readers.getReader(result).readValue(response));
+    }
 
-            return new LastIdExtractedResult(response, Long.valueOf(matcher.group(2)));
-        } else {
+    /**
+     * Check for errors, then for last id captured by the result deserializer, error responses have no last id
+     *
+     * @param res unmarshalled result
+     * @return result
+     * @throws KrakenApiException if result contains errors or last id is missing
+     */
+    static <R extends Result> R checkLastId(R res) throws KrakenApiException {
+        checkErrors(res);
+        if (((ResultWithLastId) res).getLastId() == null) {
             throw new KrakenApiException("unable to extract last id");
         }
+
+        return res;
     }
 }
@@ -1,64 +1,209 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
+import com.github.sbouclier.metrics.ApiMetrics;
+import com.github.sbouclier.ratelimit.RateLimiter;
 import com.github.sbouclier.result.*;
 import com.github.sbouclier.result.LedgersInformationResult;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.StreamStatistics;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * HttpApiClient factory
+ * <p>
+ * Clients are thread-safe and long-lived: they are created on first use, one per method for public
+ * methods and one per method and API key for private methods, and then reused by all calls. Private
+ * clients of an API key share the same {@link HttpJsonClient}, hence the same signer and nonce generator.
  *
  * @author Stéphane Bouclier
  */
 public class HttpApiClientFactory {
 
+    private final ClientOptions options;
+
+    private final AtomicReferenceArray<HttpApiClient<? extends Result>> publicClients =
+            new AtomicReferenceArray<>(KrakenApiMethod.values().length);
+    private final ConcurrentMap<String, PrivateClients> privateClients = new ConcurrentHashMap<>();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Default constructor, clients open a new {@link java.net.HttpURLConnection} per request
+     */
+    public HttpApiClientFactory() {
+        this(new ClientOptions());
+    }
+
+    /**
+     * Constructor sharing options between all created clients
+     *
+     * @param options client options
+     */
+    HttpApiClientFactory(ClientOptions options) {
+        this.options = options;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get statistics of responses received by created clients
+     *
+     * @return stream statistics, null if disabled
+     */
+    public StreamStatistics getStatistics() {
+        return options.statistics;
+    }
+
+    /**
+     * Get request coalescer of public clients
+     *
+     * @return request coalescer, null if coalescing is disabled
+     */
+    public RequestCoalescer getCoalescer() {
+        return options.coalescer;
+    }
+
+    /**
+     * Get retry policy of public clients
+     *
+     * @return retry policy, null if retries are disabled
+     */
+    public RetryPolicy getRetryPolicy() {
+        return options.retryPolicy;
+    }
+
+    /**
+     * Get circuit breaker of all clients
+     *
+     * @return circuit breaker, null if disabled
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return options.circuitBreaker;
+    }
+
+    /**
+     * Get metrics of all clients
+     *
+     * @return metrics, {@link ApiMetrics#NOOP} if disabled
+     */
+    public ApiMetrics getMetrics() {
+        return options.metrics;
+    }
+
     public HttpApiClient<? extends Result> getHttpApiClient(KrakenApiMethod method) {
+        HttpApiClient<? extends Result> client = publicClients.get(method.ordinal());
+        if (client == null) {
+            final HttpApiClient<? extends Result> created = newPublicClient(method, new HttpJsonClient(options.transport));
+            client = publicClients.compareAndSet(method.ordinal(), null, created) ? created : publicClients.get(method.ordinal());
+        }
+        return client;
+    }
+
+    /**
+     * Get rate limiter of an API key
+     *
+     * @param apiKey API key
+     * @return rate limiter, null if rate limiting is disabled
+     */
+    public RateLimiter getRateLimiter(String apiKey) {
+        return options.tier != null && apiKey != null ? RateLimiter.forKey(apiKey, options.tier) : null;
+    }
+
+    public HttpApiClient<? extends Result> getHttpApiClient(String apiKey, String apiSecret, KrakenApiMethod method) {
+        if (apiKey == null) {
+            // not cached, calls fail on missing credentials
+            return newPrivateClient(method, new HttpJsonClient(null, apiSecret, options.transport), null);
+        }
+
+        PrivateClients clients = privateClients.get(apiKey);
+        if (clients == null || !Objects.equals(clients.apiSecret, apiSecret)) {
+            clients = new PrivateClients(apiSecret, new HttpJsonClient(apiKey, apiSecret, options.transport), getRateLimiter(apiKey));
+            privateClients.put(apiKey, clients);
+        }
+
+        HttpApiClient<? extends Result> client = clients.clients.get(method.ordinal());
+        if (client == null) {
+            final HttpApiClient<? extends Result> created = newPrivateClient(method, clients.jsonClient, clients.rateLimiter);
+            client = clients.clients.compareAndSet(method.ordinal(), null, created) ? created : clients.clients.get(method.ordinal());
+        }
+        return client;
+    }
+
+    private HttpApiClient<? extends Result> newPublicClient(KrakenApiMethod method, HttpJsonClient jsonClient) {
         switch(method) {
             case SERVER_TIME:
-                return new HttpApiClient<ServerTimeResult>();
+                return new HttpApiClient<ServerTimeResult>(jsonClient, options, null);
             case ASSET_INFORMATION:
-                return new HttpApiClient<AssetsInformationResult>();
+                return new HttpApiClient<AssetsInformationResult>(jsonClient, options, null);
             case ASSET_PAIRS:
-                return new HttpApiClient<AssetPairsResult>();
+                return new HttpApiClient<AssetPairsResult>(jsonClient, options, null);
             case TICKER_INFORMATION:
-                return new HttpApiClient<TickerInformationResult>();
+                return new HttpApiClient<TickerInformationResult>(jsonClient, options, null);
             case OHLC:
-                return new HttpApiClient<OHLCResult>();
+                return new HttpApiClient<OHLCResult>(jsonClient, options, null);
             case ORDER_BOOK:
-                return new HttpApiClient<OrderBookResult>();
+                return new HttpApiClient<OrderBookResult>(jsonClient, options, null);
             case RECENT_TRADES:
-                return new HttpApiClient<RecentTradeResult>();
+                return new HttpApiClient<RecentTradeResult>(jsonClient, options, null);
             case RECENT_SPREADS:
-                return new HttpApiClient<RecentSpreadResult>();
+                return new HttpApiClient<RecentSpreadResult>(jsonClient, options, null);
             default:
                 throw new IllegalArgumentException("Unknown Kraken API method");
         }
     }
 
-    public HttpApiClient<? extends Result> getHttpApiClient(String apiKey, String apiSecret, KrakenApiMethod method) {
+    private HttpApiClient<? extends Result> newPrivateClient(KrakenApiMethod method, HttpJsonClient jsonClient, RateLimiter rateLimiter) {
         switch(method) {
             case ACCOUNT_BALANCE:
-                return new HttpApiClient<AccountBalanceResult>(apiKey, apiSecret);
+                return new HttpApiClient<AccountBalanceResult>(jsonClient, options, rateLimiter);
             case TRADE_BALANCE:
-                return new HttpApiClient<TradeBalanceResult>(apiKey, apiSecret);
+                return new HttpApiClient<TradeBalanceResult>(jsonClient, options, rateLimiter);
             case OPEN_ORDERS:
-                return new HttpApiClient<OpenOrdersResult>(apiKey, apiSecret);
+                return new HttpApiClient<OpenOrdersResult>(jsonClient, options, rateLimiter);
             case CLOSED_ORDERS:
-                return new HttpApiClient<ClosedOrdersResult>(apiKey, apiSecret);
+                return new HttpApiClient<ClosedOrdersResult>(jsonClient, options, rateLimiter);
             case ORDERS_INFORMATION:
-                return new HttpApiClient<OrdersInformationResult>(apiKey, apiSecret);
+                return new HttpApiClient<OrdersInformationResult>(jsonClient, options, rateLimiter);
             case TRADES_HISTORY:
-                return new HttpApiClient<TradesHistoryResult>(apiKey, apiSecret);
+                return new HttpApiClient<TradesHistoryResult>(jsonClient, options, rateLimiter);
             case TRADES_INFORMATION:
-                return new HttpApiClient<TradesInformationResult>(apiKey, apiSecret);
+                return new HttpApiClient<TradesInformationResult>(jsonClient, options, rateLimiter);
             case OPEN_POSITIONS:
-                return new HttpApiClient<OpenPositionsResult>(apiKey, apiSecret);
+                return new HttpApiClient<OpenPositionsResult>(jsonClient, options, rateLimiter);
             case LEDGERS_INFORMATION:
-                return new HttpApiClient<LedgersInformationResult>(apiKey, apiSecret);
+                return new HttpApiClient<LedgersInformationResult>(jsonClient, options, rateLimiter);
             case QUERY_LEDGERS:
-                return new HttpApiClient<LedgersInformationResult>(apiKey, apiSecret);
+                return new HttpApiClient<LedgersInformationResult>(jsonClient, options, rateLimiter);
             case TRADE_VOLUME:
-                return new HttpApiClient<TradeVolumeResult>(apiKey, apiSecret);
+                return new HttpApiClient<TradeVolumeResult>(jsonClient, options, rateLimiter);
             default:
                 throw new IllegalArgumentException("Unknown Kraken API method");
         }
     }
+
+    /**
+     * Private clients of an API key
+     */
+    private static class PrivateClients {
+        private final String apiSecret;
+        private final HttpJsonClient jsonClient;
+        private final RateLimiter rateLimiter;
+        private final AtomicReferenceArray<HttpApiClient<? extends Result>> clients =
+                new AtomicReferenceArray<>(KrakenApiMethod.values().length);
+
+        PrivateClients(String apiSecret, HttpJsonClient jsonClient, RateLimiter rateLimiter) {
+            this.apiSecret = apiSecret;
+            this.jsonClient = jsonClient;
+            this.rateLimiter = rateLimiter;
+        }
+    }
 }
@@ -1,15 +1,18 @@
 package com.github.sbouclier;
 
-import com.github.sbouclier.utils.Base64Utils;
-import com.github.sbouclier.utils.ByteUtils;
-import com.github.sbouclier.utils.CryptoUtils;
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.metrics.RequestTrace;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.ResponseHandler;
 
-import javax.net.ssl.HttpsURLConnection;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -21,6 +24,9 @@ public class HttpJsonClient {
 
     private String apiKey;
     private String secret;
+    private volatile KrakenSigner signer;
+    private volatile NonceGenerator nonces;
+    private HttpTransport transport;
 
     // ----------------
     // - CONSTRUCTORS -
@@ -34,6 +40,53 @@ public class HttpJsonClient {
         this.secret = secret;
     }
 
+    /**
+     * Constructor using a custom transport, a null transport falls back on {@link HttpURLConnection}
+     *
+     * @param transport http transport
+     */
+    public HttpJsonClient(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Constructor using a custom transport, a null transport falls back on {@link HttpURLConnection}
+     *
+     * @param apiKey    API key
+     * @param secret    API secret
+     * @param transport http transport
+     */
+    public HttpJsonClient(String apiKey, String secret, HttpTransport transport) {
+        this(apiKey, secret);
+        this.transport = transport;
+    }
+
+    /**
+     * Constructor sharing a signer, a null transport falls back on {@link HttpURLConnection}
+     *
+     * @param apiKey    API key
+     * @param signer    signer of the API secret
+     * @param transport http transport
+     */
+    public HttpJsonClient(String apiKey, KrakenSigner signer, HttpTransport transport) {
+        this.apiKey = apiKey;
+        this.signer = signer;
+        this.transport = transport;
+    }
+
+    /**
+     * Constructor sharing a signer and a nonce generator, a null transport falls back on {@link HttpURLConnection}
+     *
+     * @param apiKey    API key
+     * @param signer    signer of the API secret
+     * @param nonces    nonce generator of the API key
+     * @param transport http transport
+     */
+    public HttpJsonClient(String apiKey, KrakenSigner signer, NonceGenerator nonces, HttpTransport transport) {
+        this(apiKey, signer, transport);
+        this.nonces = nonces;
+    }
+
     // -----------
     // - METHODS -
     // -----------
@@ -43,19 +96,15 @@ public class HttpJsonClient {
     }
 
     public String executePublicQuery(String baseUrl, String urlMethod, Map<String, String> params) throws IOException {
-        final StringBuilder url = new StringBuilder(baseUrl).append(urlMethod).append("?");
-
-        if (params != null && !params.isEmpty()) {
-            params.forEach((k, v) -> {
-                url.append(k).append("=").append(v).append("&");
-            });
-        }
-
-        return getPublicJsonResponse(new URL(url.toString()));
+        return getPublicJsonResponse(new URL(buildPublicUrl(baseUrl, urlMethod, params)));
     }
 
     public String getPublicJsonResponse(URL url) throws IOException {
-        final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+        if (transport != null) {
+            return transport.get(url);
+        }
+
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
 
         try {
             connection.setRequestMethod("GET");
@@ -65,44 +114,138 @@ public class HttpJsonClient {
         }
     }
 
+    /**
+     * Execute public query and stream response body to the handler
+     *
+     * @param baseUrl   base url
+     * @param urlMethod method url
+     * @param params    query parameters
+     * @param handler   response body handler
+     * @return handled response
+     * @throws IOException
+     */
+    public <R> R executePublicQuery(String baseUrl, String urlMethod, Map<String, String> params, ResponseHandler<R> handler) throws IOException {
+        return getPublicResponse(new URL(buildPublicUrl(baseUrl, urlMethod, params)), handler);
+    }
+
+    public <R> R getPublicResponse(URL url, ResponseHandler<R> handler) throws IOException {
+        if (transport != null) {
+            return transport.get(url, handler);
+        }
+
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("GET");
+
+        return getResponse(connection, handler);
+    }
+
     public String executePrivateQuery(String baseUrl, String urlMethod) throws IOException, KrakenApiException {
         return executePrivateQuery(baseUrl, urlMethod, null);
     }
 
     public String executePrivateQuery(String baseUrl, String urlMethod, Map<String, String> params) throws IOException, KrakenApiException {
-        if (this.apiKey == null || this.secret == null) {
+        if (this.apiKey == null || (this.secret == null && this.signer == null)) {
             throw new KrakenApiException("must provide API key and secret");
         }
 
         final String nonce = generateNonce();
         final String postData = buildPostData(params, nonce);
-        final String signature = generateSignature(urlMethod, nonce, postData);
+        final String signature = sign(urlMethod, nonce, postData);
 
         return getPrivateJsonResponse(new URL(baseUrl + urlMethod), postData, signature);
     }
 
     public String getPrivateJsonResponse(URL url, String postData, String signature) throws IOException {
-        HttpsURLConnection connection = null;
-        try {
-            connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.addRequestProperty("API-Key", apiKey);
-            connection.addRequestProperty("API-Sign", signature);
-
-            if (postData != null && !postData.toString().isEmpty()) {
-                connection.setDoOutput(true);
-                try (OutputStreamWriter out = new OutputStreamWriter(connection.getOutputStream())) {
-                    out.write(postData.toString());
-                }
-            }
+        if (transport != null) {
+            return transport.post(url, buildHeaders(signature), postData);
+        }
 
+        HttpURLConnection connection = null;
+        try {
+            connection = openPrivateConnection(url, postData, signature);
             return getJsonResponse(connection);
         } finally {
-            connection.disconnect();
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Execute private query and stream response body to the handler
+     *
+     * @param baseUrl   base url
+     * @param urlMethod method url
+     * @param params    POST parameters
+     * @param handler   response body handler
+     * @return handled response
+     * @throws IOException
+     * @throws KrakenApiException if API key or secret are missing
+     */
+    public <R> R executePrivateQuery(String baseUrl, String urlMethod, Map<String, String> params, ResponseHandler<R> handler) throws IOException, KrakenApiException {
+        if (this.apiKey == null || (this.secret == null && this.signer == null)) {
+            throw new KrakenApiException("must provide API key and secret");
+        }
+
+        final String nonce = generateNonce();
+        final String postData = buildPostData(params, nonce);
+        final String signature = sign(urlMethod, nonce, postData);
+
+        return getPrivateResponse(new URL(baseUrl + urlMethod), postData, signature, handler);
+    }
+
+    public <R> R getPrivateResponse(URL url, String postData, String signature, ResponseHandler<R> handler) throws IOException {
+        if (transport != null) {
+            return transport.post(url, buildHeaders(signature), postData, handler);
+        }
+
+        return getResponse(openPrivateConnection(url, postData, signature), handler);
+    }
+
+    private HttpURLConnection openPrivateConnection(URL url, String postData, String signature) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.addRequestProperty("API-Key", apiKey);
+        connection.addRequestProperty("API-Sign", signature);
+
+        if (postData != null && !postData.isEmpty()) {
+            connection.setDoOutput(true);
+            try (OutputStreamWriter out = new OutputStreamWriter(connection.getOutputStream())) {
+                out.write(postData);
+            }
+        }
+
+        return connection;
+    }
+
+    private Map<String, String> buildHeaders(String signature) {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("API-Key", apiKey);
+        headers.put("API-Sign", signature);
+        return headers;
+    }
+
+    /**
+     * Build public query url
+     *
+     * @param baseUrl   base url
+     * @param urlMethod method url
+     * @param params    query parameters
+     * @return url with query string
+     */
+    static String buildPublicUrl(String baseUrl, String urlMethod, Map<String, String> params) {
+        final StringBuilder url = new StringBuilder(baseUrl).append(urlMethod).append("?");
+
+        if (params != null && !params.isEmpty()) {
+            params.forEach((k, v) -> {
+                url.append(k).append("=").append(v).append("&");
+            });
         }
+
+        return url.toString();
     }
 
-    private String buildPostData(Map<String, String> params, String nonce) {
+    static String buildPostData(Map<String, String> params, String nonce) {
         final StringBuilder postData = new StringBuilder();
         if (params != null && !params.isEmpty()) {
             params.forEach((k, v) -> {
@@ -113,39 +256,72 @@ public class HttpJsonClient {
         return postData.toString();
     }
 
+    /**
+     * Generate nonce from the generator shared by all clients of the API key
+     *
+     * @return strictly increasing nonce
+     */
     public String generateNonce() {
-        return String.valueOf(System.currentTimeMillis() * 1000);
+        NonceGenerator n = nonces;
+        if (n == null) {
+            nonces = n = NonceGenerator.forKey(apiKey != null ? apiKey : "");
+        }
+        return String.valueOf(n.next());
     }
 
     /**
-     * Generate signature
+     * Get signer of the API secret, decoding the secret on first use
      *
-     * @param path     URI path
-     * @param nonce
-     * @param postData POST data
-     * @return generated signature
-     * @throws KrakenApiException
+     * @return signer
+     * @throws KrakenApiException if secret is not valid base64
      */
-    private String generateSignature(String path, String nonce, String postData) throws KrakenApiException {
-        // Algorithm: HMAC-SHA512 of (URI path + SHA256(nonce + POST data)) and base64 decoded secret API key
+    private KrakenSigner getSigner() throws KrakenApiException {
+        KrakenSigner s = signer;
+        if (s == null) {
+            signer = s = newSigner(secret);
+        }
+        return s;
+    }
 
-        String hmacDigest = null;
+    /**
+     * Sign a request, recording its duration in the request trace of the thread if any
+     *
+     * @param urlMethod method url
+     * @param nonce     nonce
+     * @param postData  POST data
+     * @return signature
+     * @throws KrakenApiException if secret is not valid base64
+     */
+    private String sign(String urlMethod, String nonce, String postData) throws KrakenApiException {
+        final long start = System.nanoTime();
+        final String signature = getSigner().sign(urlMethod, nonce, postData);
+        RequestTrace.record(Phase.SIGN, System.nanoTime() - start);
+        return signature;
+    }
 
+    static KrakenSigner newSigner(String secret) throws KrakenApiException {
         try {
-            byte[] bytePath = ByteUtils.stringToBytes(path);
-            byte[] sha256 = CryptoUtils.sha256(nonce + postData);
-            byte[] hmacMessage = ByteUtils.concatArrays(bytePath, sha256);
-
-            byte[] hmacKey = Base64Utils.base64Decode(this.secret);
-
-            hmacDigest = Base64Utils.base64Encode(CryptoUtils.hmacSha512(hmacKey, hmacMessage));
-        } catch (Throwable ex) {
+            return new KrakenSigner(secret);
+        } catch (IllegalArgumentException ex) {
             throw new KrakenApiException("unable to generate signature");
         }
-        return hmacDigest;
     }
 
-    public String getJsonResponse(HttpsURLConnection connection) throws IOException {
+    /**
+     * Generate signature, prefer a shared {@link KrakenSigner} to sign many requests
+     *
+     * @param secret   base64 encoded API secret
+     * @param path     URI path
+     * @param nonce
+     * @param postData POST data
+     * @return generated signature
+     * @throws KrakenApiException
+     */
+    static String generateSignature(String secret, String path, String nonce, String postData) throws KrakenApiException {
+        return newSigner(secret).sign(path, nonce, postData);
+    }
+
+    public String getJsonResponse(HttpURLConnection connection) throws IOException {
         try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
             StringBuilder response = new StringBuilder();
             String line;
@@ -154,9 +330,27 @@ public class HttpJsonClient {
                 response.append(line);
             }
 
-            System.out.println(response);
-
             return response.toString();
         }
     }
+
+    /**
+     * Stream response body of the connection to the handler
+     * <p>
+     * The connection is not disconnected on success, so that the JDK can keep the underlying
+     * socket alive for the next request once the body has been fully read and closed.
+     *
+     * @param connection opened connection
+     * @param handler    response body handler
+     * @return handled response
+     * @throws IOException
+     */
+    public <R> R getResponse(HttpURLConnection connection, ResponseHandler<R> handler) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return handler.handle(in);
+        } catch (IOException | RuntimeException ex) {
+            connection.disconnect();
+            throw ex;
+        }
+    }
 }
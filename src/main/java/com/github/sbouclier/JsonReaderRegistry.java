@@ -0,0 +1,113 @@
+package com.github.sbouclier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.sbouclier.result.FixedPointDecimals;
+import com.github.sbouclier.result.FixedPointModule;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of pre-built {@link ObjectReader}, one per result class
+ * <p>
+ * All readers share the same {@link ObjectMapper}, so serializer/deserializer caches and bean
+ * introspection are only computed once per result class. Readers are immutable and thread-safe.
+ *
+ * @author Stéphane Bouclier
+ */
+public class JsonReaderRegistry {
+
+    private static final JsonReaderRegistry DEFAULT = new JsonReaderRegistry();
+
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Default constructor using a default {@link ObjectMapper}
+     */
+    public JsonReaderRegistry() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Constructor using a custom {@link ObjectMapper}, it must not be reconfigured afterwards
+     *
+     * @param mapper object mapper
+     */
+    public JsonReaderRegistry(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Get process-wide registry
+     *
+     * @return default registry
+     */
+    public static JsonReaderRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Create registry deserializing market data prices and volumes to fixed-point longs
+     *
+     * @param decimals decimals of pairs
+     * @return new registry
+     * @see FixedPointModule
+     */
+    public static JsonReaderRegistry fixedPoint(FixedPointDecimals decimals) {
+        return new JsonReaderRegistry(new ObjectMapper().registerModule(new FixedPointModule(decimals)));
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get reader of a result class, building it on first use
+     *
+     * @param resultClass result class
+     * @return reader
+     */
+    public ObjectReader getReader(Class<?> resultClass) {
+        ObjectReader reader = readers.get(resultClass);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(resultClass, mapper::readerFor);
+        }
+        return reader;
+    }
+
+    /**
+     * Eagerly build readers, and their root deserializers, of all Kraken API methods results
+     *
+     * @return this registry
+     */
+    public JsonReaderRegistry warmUp() {
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            getReader(method.getResultClass());
+        }
+        return this;
+    }
+
+    /**
+     * Get number of built readers
+     *
+     * @return number of readers
+     */
+    public int size() {
+        return readers.size();
+    }
+
+    /**
+     * Get shared object mapper
+     *
+     * @return object mapper
+     */
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+}
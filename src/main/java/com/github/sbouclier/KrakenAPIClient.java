@@ -1,8 +1,15 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
 import com.github.sbouclier.input.InfoInput;
 import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.metrics.ApiMetrics;
+import com.github.sbouclier.ratelimit.RateLimiter;
+import com.github.sbouclier.ratelimit.VerificationTier;
 import com.github.sbouclier.result.*;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.StreamStatistics;
 
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +29,7 @@ public class KrakenAPIClient {
 
     private String apiKey;
     private String apiSecret;
+    private String baseUrl;
 
     // ----------------
     // - CONSTRUCTORS -
@@ -65,6 +73,69 @@ public class KrakenAPIClient {
         this.clientFactory = clientFactory;
     }
 
+    /**
+     * Create a builder to configure the client
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get rate limiter of the API key
+     *
+     * @return rate limiter, null if rate limiting is disabled
+     */
+    public RateLimiter getRateLimiter() {
+        return clientFactory.getRateLimiter(apiKey);
+    }
+
+    /**
+     * Get base url of the calls of this client
+     *
+     * @return base url, {@link #BASE_URL} unless set by {@link Builder#withBaseUrl(String)}
+     */
+    public String getBaseUrl() {
+        return baseUrl != null ? baseUrl : BASE_URL;
+    }
+
+    /**
+     * Get coalescer of identical public calls
+     *
+     * @return request coalescer, null if coalescing is disabled
+     */
+    public RequestCoalescer getCoalescer() {
+        return clientFactory.getCoalescer();
+    }
+
+    /**
+     * Get retry policy of public calls
+     *
+     * @return retry policy, null if retries are disabled
+     */
+    public RetryPolicy getRetryPolicy() {
+        return clientFactory.getRetryPolicy();
+    }
+
+    /**
+     * Get circuit breaker of all calls
+     *
+     * @return circuit breaker, null if disabled
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return clientFactory.getCircuitBreaker();
+    }
+
+    /**
+     * Get metrics of all requests
+     *
+     * @return metrics, {@link ApiMetrics#NOOP} if disabled
+     */
+    public ApiMetrics getMetrics() {
+        return clientFactory.getMetrics();
+    }
+
     // -----------
     // - METHODS -
     // -----------
@@ -77,7 +148,7 @@ public class KrakenAPIClient {
      */
     public ServerTimeResult getServerTime() throws KrakenApiException {
         HttpApiClient<ServerTimeResult> client = (HttpApiClient<ServerTimeResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.SERVER_TIME);
-        return client.callPublic(BASE_URL, KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
     }
 
     /**
@@ -88,7 +159,7 @@ public class KrakenAPIClient {
      */
     public AssetsInformationResult getAssetsInformation() throws KrakenApiException {
         HttpApiClient<AssetsInformationResult> client = (HttpApiClient<AssetsInformationResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.ASSET_INFORMATION);
-        return client.callPublic(BASE_URL, KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class);
     }
 
     /**
@@ -104,7 +175,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("asset", String.join(",", assets));
 
-        return client.callPublic(BASE_URL, KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class, params);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class, params);
     }
 
     /**
@@ -115,7 +186,7 @@ public class KrakenAPIClient {
      */
     public AssetPairsResult getAssetPairs() throws KrakenApiException {
         HttpApiClient<AssetPairsResult> client = (HttpApiClient<AssetPairsResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.ASSET_PAIRS);
-        return client.callPublic(BASE_URL, KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class);
     }
 
     /**
@@ -133,7 +204,7 @@ public class KrakenAPIClient {
         params.put("info", info.getValue());
         params.put("pair", String.join(",", assetPairs));
 
-        return client.callPublic(BASE_URL, KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class, params);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class, params);
     }
 
     /**
@@ -149,7 +220,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("pair", String.join(",", pairs));
 
-        return client.callPublic(BASE_URL, KrakenApiMethod.TICKER_INFORMATION, TickerInformationResult.class, params);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.TICKER_INFORMATION, TickerInformationResult.class, params);
     }
 
 
@@ -170,7 +241,7 @@ public class KrakenAPIClient {
         params.put("interval", String.valueOf(interval.getMinutes()));
         params.put("since", String.valueOf(since));
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.OHLC, OHLCResult.class, params);
     }
 
     /**
@@ -188,7 +259,60 @@ public class KrakenAPIClient {
         params.put("pair", pair);
         params.put("interval", String.valueOf(interval.getMinutes()));
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.OHLC, OHLCResult.class, params);
+    }
+
+    /**
+     * Get OHLC data in columnar representation
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @param since    data since given id
+     * @return data (OHLC columns + last id)
+     * @throws KrakenApiException
+     */
+    public ColumnarOHLCResult getOHLCColumns(String pair, Interval interval, Integer since) throws KrakenApiException {
+        return getOHLCColumns(pair, interval, since != null ? Long.valueOf(since) : null);
+    }
+
+    /**
+     * Get OHLC data in columnar representation
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @param since    data since given id, e.g. last id of the previous call, all data if null
+     * @return data (OHLC columns + last id)
+     * @throws KrakenApiException
+     */
+    public ColumnarOHLCResult getOHLCColumns(String pair, Interval interval, Long since) throws KrakenApiException {
+        HttpApiClient<ColumnarOHLCResult> client = (HttpApiClient<ColumnarOHLCResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.OHLC);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+        if (since != null) {
+            params.put("since", String.valueOf(since));
+        }
+
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
+    }
+
+    /**
+     * Get OHLC data in columnar representation
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @return data (OHLC columns + last id)
+     * @throws KrakenApiException
+     */
+    public ColumnarOHLCResult getOHLCColumns(String pair, Interval interval) throws KrakenApiException {
+        HttpApiClient<ColumnarOHLCResult> client = (HttpApiClient<ColumnarOHLCResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.OHLC);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
     }
 
     /**
@@ -206,7 +330,7 @@ public class KrakenAPIClient {
         params.put("pair", pair);
         params.put("count", String.valueOf(count));
 
-        return client.callPublic(BASE_URL, KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
     }
 
     /**
@@ -222,7 +346,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("pair", pair);
 
-        return client.callPublic(BASE_URL, KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
+        return client.callPublic(getBaseUrl(), KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
     }
 
     /**
@@ -238,7 +362,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("pair", pair);
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
     }
 
     /**
@@ -256,7 +380,27 @@ public class KrakenAPIClient {
         params.put("pair", pair);
         params.put("since", String.valueOf(since));
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
+    }
+
+    /**
+     * Get recent trades in columnar representation
+     *
+     * @param pair  asset pair
+     * @param since return trade data since given id, all recent trades if null
+     * @return recent trades
+     * @throws KrakenApiException
+     */
+    public ColumnarRecentTradeResult getRecentTradesColumns(String pair, Long since) throws KrakenApiException {
+        HttpApiClient<ColumnarRecentTradeResult> client = (HttpApiClient<ColumnarRecentTradeResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.RECENT_TRADES);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        if (since != null) {
+            params.put("since", String.valueOf(since));
+        }
+
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_TRADES, ColumnarRecentTradeResult.class, params);
     }
 
     /**
@@ -272,7 +416,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("pair", pair);
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
     }
 
     /**
@@ -290,7 +434,27 @@ public class KrakenAPIClient {
         params.put("pair", pair);
         params.put("since", String.valueOf(since));
 
-        return client.callPublicWithLastId(BASE_URL, KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
+    }
+
+    /**
+     * Get recent spreads in columnar representation
+     *
+     * @param pair  asset pair
+     * @param since return spread data since given id, all recent spreads if null
+     * @return recent spreads
+     * @throws KrakenApiException
+     */
+    public ColumnarRecentSpreadResult getRecentSpreadsColumns(String pair, Long since) throws KrakenApiException {
+        HttpApiClient<ColumnarRecentSpreadResult> client = (HttpApiClient<ColumnarRecentSpreadResult>) this.clientFactory.getHttpApiClient(KrakenApiMethod.RECENT_SPREADS);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        if (since != null) {
+            params.put("since", String.valueOf(since));
+        }
+
+        return client.callPublicWithLastId(getBaseUrl(), KrakenApiMethod.RECENT_SPREADS, ColumnarRecentSpreadResult.class, params);
     }
 
     /**
@@ -301,7 +465,7 @@ public class KrakenAPIClient {
      */
     public AccountBalanceResult getAccountBalance() throws KrakenApiException {
         HttpApiClient<AccountBalanceResult> client = (HttpApiClient<AccountBalanceResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.ACCOUNT_BALANCE);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
     }
 
     /**
@@ -312,7 +476,7 @@ public class KrakenAPIClient {
      */
     public TradeBalanceResult getTradeBalance() throws KrakenApiException {
         HttpApiClient<TradeBalanceResult> client = (HttpApiClient<TradeBalanceResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.TRADE_BALANCE);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.TRADE_BALANCE, TradeBalanceResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.TRADE_BALANCE, TradeBalanceResult.class);
     }
 
     /**
@@ -323,7 +487,7 @@ public class KrakenAPIClient {
      */
     public OpenOrdersResult getOpenOrders() throws KrakenApiException {
         HttpApiClient<OpenOrdersResult> client = (HttpApiClient<OpenOrdersResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.OPEN_ORDERS);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.OPEN_ORDERS, OpenOrdersResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.OPEN_ORDERS, OpenOrdersResult.class);
     }
 
     /**
@@ -334,7 +498,7 @@ public class KrakenAPIClient {
      */
     public ClosedOrdersResult getClosedOrders() throws KrakenApiException {
         HttpApiClient<ClosedOrdersResult> client = (HttpApiClient<ClosedOrdersResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.CLOSED_ORDERS);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.CLOSED_ORDERS, ClosedOrdersResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.CLOSED_ORDERS, ClosedOrdersResult.class);
     }
 
     /**
@@ -350,7 +514,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("txid", transactions.stream().collect(Collectors.joining(",")));
 
-        return client.callPrivate(BASE_URL, KrakenApiMethod.ORDERS_INFORMATION, OrdersInformationResult.class, params);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.ORDERS_INFORMATION, OrdersInformationResult.class, params);
     }
 
     /**
@@ -361,7 +525,7 @@ public class KrakenAPIClient {
      */
     public TradesHistoryResult getTradesHistory() throws KrakenApiException {
         HttpApiClient<TradesHistoryResult> client = (HttpApiClient<TradesHistoryResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.TRADES_HISTORY);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.TRADES_HISTORY, TradesHistoryResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.TRADES_HISTORY, TradesHistoryResult.class);
     }
 
     /**
@@ -377,7 +541,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("txid", transactions.stream().collect(Collectors.joining(",")));
 
-        return client.callPrivate(BASE_URL, KrakenApiMethod.TRADES_INFORMATION, TradesInformationResult.class, params);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.TRADES_INFORMATION, TradesInformationResult.class, params);
     }
 
     /**
@@ -393,7 +557,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("txid", transactions.stream().collect(Collectors.joining(",")));
 
-        return client.callPrivate(BASE_URL, KrakenApiMethod.OPEN_POSITIONS, OpenPositionsResult.class, params);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.OPEN_POSITIONS, OpenPositionsResult.class, params);
     }
 
     /**
@@ -404,7 +568,7 @@ public class KrakenAPIClient {
      */
     public LedgersInformationResult getLedgersInformation() throws KrakenApiException {
         HttpApiClient<LedgersInformationResult> client = (HttpApiClient<LedgersInformationResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.LEDGERS_INFORMATION);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class);
     }
 
     /**
@@ -420,7 +584,7 @@ public class KrakenAPIClient {
         Map<String, String> params = new HashMap<>();
         params.put("id", ledgerIds.stream().collect(Collectors.joining(",")));
 
-        return client.callPrivate(BASE_URL, KrakenApiMethod.QUERY_LEDGERS, LedgersResult.class, params);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.QUERY_LEDGERS, LedgersResult.class, params);
     }
 
     /**
@@ -431,6 +595,153 @@ public class KrakenAPIClient {
      */
     public TradeVolumeResult getTradeVolume() throws KrakenApiException {
         HttpApiClient<TradeVolumeResult> client = (HttpApiClient<TradeVolumeResult>) this.clientFactory.getHttpApiClient(apiKey, apiSecret, KrakenApiMethod.TRADE_VOLUME);
-        return client.callPrivate(BASE_URL, KrakenApiMethod.TRADE_VOLUME, TradeVolumeResult.class);
+        return client.callPrivate(getBaseUrl(), KrakenApiMethod.TRADE_VOLUME, TradeVolumeResult.class);
+    }
+
+    /**
+     * KrakenAPIClient builder
+     */
+    public static class Builder {
+        private String apiKey;
+        private String apiSecret;
+        private final ClientOptions options = new ClientOptions();
+        private boolean warmUp;
+        private String baseUrl;
+
+        private Builder() {
+        }
+
+        /**
+         * Set credentials to call private API requests
+         *
+         * @param apiKey    API key
+         * @param apiSecret API secret
+         * @return builder
+         */
+        public Builder withCredentials(String apiKey, String apiSecret) {
+            this.apiKey = apiKey;
+            this.apiSecret = apiSecret;
+            return this;
+        }
+
+        /**
+         * Set http transport, e.g. {@link com.github.sbouclier.transport.PooledHttpTransport}
+         *
+         * @param transport http transport
+         * @return builder
+         */
+        public Builder withTransport(HttpTransport transport) {
+            options.withTransport(transport);
+            return this;
+        }
+
+        /**
+         * Set json readers registry, default is the process-wide {@link JsonReaderRegistry#getDefault()}
+         *
+         * @param readers json readers
+         * @return builder
+         */
+        public Builder withJsonReaders(JsonReaderRegistry readers) {
+            options.withJsonReaders(readers);
+            return this;
+        }
+
+        /**
+         * Build json readers of all results when the client is built instead of on first call
+         *
+         * @return builder
+         */
+        public Builder withWarmUp() {
+            this.warmUp = true;
+            return this;
+        }
+
+        /**
+         * Set statistics recording number of responses, bytes received and bytes allocated to read them,
+         * disabled by default
+         *
+         * @param statistics stream statistics
+         * @return builder
+         */
+        public Builder withStatistics(StreamStatistics statistics) {
+            options.withStatistics(statistics);
+            return this;
+        }
+
+        /**
+         * Limit private calls to the call counter of the verification tier, calls wait just-in-time
+         * instead of failing with "EAPI:Rate limit exceeded"
+         *
+         * @param tier verification tier of the account
+         * @return builder
+         */
+        public Builder withRateLimit(VerificationTier tier) {
+            options.withRateLimit(tier);
+            return this;
+        }
+
+        /**
+         * Share one request between identical public calls in flight at the same time, e.g. bursts of
+         * getOrderBook or getServerTime from many threads
+         *
+         * @return builder
+         */
+        public Builder withRequestCoalescing() {
+            options.withCoalescer(new RequestCoalescer());
+            return this;
+        }
+
+        /**
+         * Retry failed public calls, and optionally hedge slow ones, according to a policy
+         *
+         * @param retryPolicy retry policy, e.g. <code>RetryPolicy.builder().build()</code>
+         * @return builder
+         */
+        public Builder withRetryPolicy(RetryPolicy retryPolicy) {
+            options.withRetryPolicy(retryPolicy);
+            return this;
+        }
+
+        /**
+         * Fail calls of a method fast while Kraken fails or slows down on it, see {@link CircuitBreaker}
+         *
+         * @param circuitBreaker circuit breaker, e.g. <code>CircuitBreaker.builder().build()</code>
+         * @return builder
+         */
+        public Builder withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            options.withCircuitBreaker(circuitBreaker);
+            return this;
+        }
+
+        /**
+         * Record requests, errors, timings of their phases and bytes by method, default is {@link ApiMetrics#NOOP}
+         *
+         * @param metrics metrics, e.g. {@link com.github.sbouclier.metrics.InMemoryMetrics}
+         * @return builder
+         */
+        public Builder withMetrics(ApiMetrics metrics) {
+            options.withMetrics(metrics);
+            return this;
+        }
+
+        /**
+         * Set base url of the calls, e.g. of a local server in tests, default is {@link KrakenAPIClient#BASE_URL}
+         *
+         * @param baseUrl base url without trailing slash, e.g. "http://localhost:8080"
+         * @return builder
+         */
+        public Builder withBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public KrakenAPIClient build() {
+            if (warmUp) {
+                options.readers.warmUp();
+            }
+            final KrakenAPIClient client = new KrakenAPIClient(apiKey, apiSecret, new HttpApiClientFactory(options));
+            client.baseUrl = baseUrl;
+            return client;
+        }
     }
 }
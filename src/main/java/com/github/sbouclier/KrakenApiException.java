@@ -1,6 +1,7 @@
 package com.github.sbouclier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,6 +30,15 @@ public class KrakenApiException extends Exception {
         this.errors.add(error);
     }
 
+    /**
+     * Get errors, as returned by Kraken, e.g. "EService:Unavailable"
+     *
+     * @return errors
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
     public String getMessage() {
         return errors.toString();
     }
@@ -1,5 +1,7 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.result.*;
+
 /**
  * Kraken API methods
  *
@@ -7,36 +9,61 @@ package com.github.sbouclier;
  */
 public enum KrakenApiMethod {
 
-    SERVER_TIME("Time", false),
-    ASSET_INFORMATION("Assets", false),
-    ASSET_PAIRS("AssetPairs", false),
-    TICKER_INFORMATION("Ticker", false),
-    OHLC("OHLC", false),
-    ORDER_BOOK("Depth", false),
-    RECENT_TRADES("Trades", false),
-    RECENT_SPREADS("Spread", false),
-
-    ACCOUNT_BALANCE("Balance", true),
-    TRADE_BALANCE("TradeBalance", true),
-    OPEN_ORDERS("OpenOrders", true),
-    CLOSED_ORDERS("ClosedOrders", true),
-    ORDERS_INFORMATION("QueryOrders", true),
-    TRADES_HISTORY("TradesHistory", true),
-    TRADES_INFORMATION("QueryTrades", true),
-    OPEN_POSITIONS("OpenPositions", true),
-    LEDGERS_INFORMATION("Ledgers", true),
-    QUERY_LEDGERS("QueryLedgers", true),
-    TRADE_VOLUME("TradeVolume", true);
+    SERVER_TIME("Time", false, ServerTimeResult.class),
+    ASSET_INFORMATION("Assets", false, AssetsInformationResult.class),
+    ASSET_PAIRS("AssetPairs", false, AssetPairsResult.class),
+    TICKER_INFORMATION("Ticker", false, TickerInformationResult.class),
+    OHLC("OHLC", false, OHLCResult.class),
+    ORDER_BOOK("Depth", false, OrderBookResult.class),
+    RECENT_TRADES("Trades", false, RecentTradeResult.class),
+    RECENT_SPREADS("Spread", false, RecentSpreadResult.class),
+
+    ACCOUNT_BALANCE("Balance", true, AccountBalanceResult.class),
+    TRADE_BALANCE("TradeBalance", true, TradeBalanceResult.class),
+    OPEN_ORDERS("OpenOrders", true, OpenOrdersResult.class),
+    CLOSED_ORDERS("ClosedOrders", true, ClosedOrdersResult.class),
+    ORDERS_INFORMATION("QueryOrders", true, OrdersInformationResult.class),
+    TRADES_HISTORY("TradesHistory", true, TradesHistoryResult.class, 2),
+    TRADES_INFORMATION("QueryTrades", true, TradesInformationResult.class),
+    OPEN_POSITIONS("OpenPositions", true, OpenPositionsResult.class),
+    LEDGERS_INFORMATION("Ledgers", true, LedgersInformationResult.class, 2),
+    QUERY_LEDGERS("QueryLedgers", true, LedgersResult.class, 2),
+    TRADE_VOLUME("TradeVolume", true, TradeVolumeResult.class);
 
     private String url;
     private boolean isPrivate;
+    private Class<? extends Result> resultClass;
+    private int cost;
 
-    KrakenApiMethod(String url, boolean isPrivate) {
+    KrakenApiMethod(String url, boolean isPrivate, Class<? extends Result> resultClass) {
+        this(url, isPrivate, resultClass, isPrivate ? 1 : 0);
+    }
+
+    KrakenApiMethod(String url, boolean isPrivate, Class<? extends Result> resultClass, int cost) {
         this.url = url;
         this.isPrivate = isPrivate;
+        this.resultClass = resultClass;
+        this.cost = cost;
     }
 
     String getUrl(int apiVersion) {
         return "/" + apiVersion + "/" + (isPrivate ? "private/" : "public/") + url;
     }
+
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    public Class<? extends Result> getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * Get increase of the API key call counter, public methods are not counted
+     *
+     * @return call cost
+     */
+    public int getCost() {
+        return cost;
+    }
 }
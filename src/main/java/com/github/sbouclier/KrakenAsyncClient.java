@@ -0,0 +1,490 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.input.InfoInput;
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.ratelimit.RateLimiter;
+import com.github.sbouclier.ratelimit.VerificationTier;
+import com.github.sbouclier.result.*;
+import com.github.sbouclier.transport.PooledAsyncHttpTransport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Asynchronous Kraken API client
+ * <p>
+ * Same methods as {@link KrakenAPIClient}, but each call returns immediately with a future
+ * completed with the result, or exceptionally with a {@link KrakenApiException}.
+ * Responses are unmarshalled on the given executor, so I/O threads are never blocked by parsing.
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenAsyncClient implements Closeable {
+
+    private AsyncHttpJsonClient client;
+    private Executor executor;
+    private JsonReaderRegistry readers = JsonReaderRegistry.getDefault();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Default constructor to call public API requests
+     */
+    public KrakenAsyncClient() {
+        this(new AsyncHttpJsonClient(new PooledAsyncHttpTransport()));
+    }
+
+    /**
+     * Secure constructor to call private API requests
+     *
+     * @param apiKey
+     * @param apiSecret
+     */
+    public KrakenAsyncClient(String apiKey, String apiSecret) {
+        this(new AsyncHttpJsonClient(apiKey, apiSecret, new PooledAsyncHttpTransport()));
+    }
+
+    /**
+     * Secure constructor to call private API requests within the call counter of the verification tier,
+     * shared with all clients of the API key
+     *
+     * @param apiKey
+     * @param apiSecret
+     * @param tier      verification tier of the account
+     */
+    public KrakenAsyncClient(String apiKey, String apiSecret, VerificationTier tier) {
+        this(new AsyncHttpJsonClient(apiKey, apiSecret, RateLimiter.forKey(apiKey, tier), new PooledAsyncHttpTransport()));
+    }
+
+    /**
+     * Constructor injecting {@link com.github.sbouclier.AsyncHttpJsonClient}, responses are unmarshalled
+     * on the common fork join pool
+     *
+     * @param client
+     */
+    public KrakenAsyncClient(AsyncHttpJsonClient client) {
+        this(client, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor injecting {@link com.github.sbouclier.AsyncHttpJsonClient} and executor used to unmarshal responses
+     *
+     * @param client
+     * @param executor
+     */
+    public KrakenAsyncClient(AsyncHttpJsonClient client, Executor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Constructor injecting {@link com.github.sbouclier.AsyncHttpJsonClient}, executor used to unmarshal responses
+     * and {@link com.github.sbouclier.JsonReaderRegistry}
+     *
+     * @param client
+     * @param executor
+     * @param readers
+     */
+    public KrakenAsyncClient(AsyncHttpJsonClient client, Executor executor, JsonReaderRegistry readers) {
+        this(client, executor);
+        this.readers = readers;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get server time
+     *
+     * @return future server time
+     */
+    public CompletableFuture<ServerTimeResult> getServerTime() {
+        return callPublic(KrakenApiMethod.SERVER_TIME, ServerTimeResult.class, null);
+    }
+
+    /**
+     * Get assets information
+     *
+     * @return future assets information
+     */
+    public CompletableFuture<AssetsInformationResult> getAssetsInformation() {
+        return callPublic(KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class, null);
+    }
+
+    /**
+     * Get assets information
+     *
+     * @param assets to retrieve information
+     * @return future assets information
+     */
+    public CompletableFuture<AssetsInformationResult> getAssetsInformation(String... assets) {
+        Map<String, String> params = new HashMap<>();
+        params.put("asset", String.join(",", assets));
+
+        return callPublic(KrakenApiMethod.ASSET_INFORMATION, AssetsInformationResult.class, params);
+    }
+
+    /**
+     * Get tradable asset pairs
+     *
+     * @return future asset pairs
+     */
+    public CompletableFuture<AssetPairsResult> getAssetPairs() {
+        return callPublic(KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class, null);
+    }
+
+    /**
+     * Get tradable asset pairs
+     *
+     * @param info       informations to retrieve
+     * @param assetPairs asset pairs to retrieve
+     * @return future asset pairs
+     */
+    public CompletableFuture<AssetPairsResult> getAssetPairs(InfoInput info, String... assetPairs) {
+        Map<String, String> params = new HashMap<>();
+        params.put("info", info.getValue());
+        params.put("pair", String.join(",", assetPairs));
+
+        return callPublic(KrakenApiMethod.ASSET_PAIRS, AssetPairsResult.class, params);
+    }
+
+    /**
+     * Get ticker information of pairs
+     *
+     * @param pairs list of pair
+     * @return future ticker information
+     */
+    public CompletableFuture<TickerInformationResult> getTickerInformation(List<String> pairs) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", String.join(",", pairs));
+
+        return callPublic(KrakenApiMethod.TICKER_INFORMATION, TickerInformationResult.class, params);
+    }
+
+    /**
+     * Get OHLC data
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @param since    data since given id
+     * @return future data (OHLC + last id)
+     */
+    public CompletableFuture<OHLCResult> getOHLC(String pair, Interval interval, Integer since) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+        params.put("since", String.valueOf(since));
+
+        return callPublicWithLastId(KrakenApiMethod.OHLC, OHLCResult.class, params);
+    }
+
+    /**
+     * Get OHLC data
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @return future data (OHLC + last id)
+     */
+    public CompletableFuture<OHLCResult> getOHLC(String pair, Interval interval) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+
+        return callPublicWithLastId(KrakenApiMethod.OHLC, OHLCResult.class, params);
+    }
+
+    /**
+     * Get OHLC data in columnar representation
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @param since    data since given id
+     * @return future data (OHLC columns + last id)
+     */
+    public CompletableFuture<ColumnarOHLCResult> getOHLCColumns(String pair, Interval interval, Integer since) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+        params.put("since", String.valueOf(since));
+
+        return callPublicWithLastId(KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
+    }
+
+    /**
+     * Get OHLC data in columnar representation
+     *
+     * @param pair     currency pair
+     * @param interval interval of time
+     * @return future data (OHLC columns + last id)
+     */
+    public CompletableFuture<ColumnarOHLCResult> getOHLCColumns(String pair, Interval interval) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("interval", String.valueOf(interval.getMinutes()));
+
+        return callPublicWithLastId(KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
+    }
+
+    /**
+     * Get order book
+     *
+     * @param pair  asset pair
+     * @param count maximum number of asks/bids
+     * @return future order book
+     */
+    public CompletableFuture<OrderBookResult> getOrderBook(String pair, Integer count) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("count", String.valueOf(count));
+
+        return callPublic(KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
+    }
+
+    /**
+     * Get order book
+     *
+     * @param pair asset pair
+     * @return future order book
+     */
+    public CompletableFuture<OrderBookResult> getOrderBook(String pair) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+
+        return callPublic(KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, params);
+    }
+
+    /**
+     * Get recent trades
+     *
+     * @param pair asset pair
+     * @return future recent trades
+     */
+    public CompletableFuture<RecentTradeResult> getRecentTrades(String pair) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+
+        return callPublicWithLastId(KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
+    }
+
+    /**
+     * Get recent trades
+     *
+     * @param pair  asset pair
+     * @param since return trade data since given id
+     * @return future recent trades
+     */
+    public CompletableFuture<RecentTradeResult> getRecentTrades(String pair, Integer since) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("since", String.valueOf(since));
+
+        return callPublicWithLastId(KrakenApiMethod.RECENT_TRADES, RecentTradeResult.class, params);
+    }
+
+    /**
+     * Get recent spreads
+     *
+     * @param pair asset pair
+     * @return future recent spreads
+     */
+    public CompletableFuture<RecentSpreadResult> getRecentSpreads(String pair) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+
+        return callPublicWithLastId(KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
+    }
+
+    /**
+     * Get recent spreads
+     *
+     * @param pair  asset pair
+     * @param since return spreads since given id
+     * @return future recent spreads
+     */
+    public CompletableFuture<RecentSpreadResult> getRecentSpreads(String pair, Integer since) {
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", pair);
+        params.put("since", String.valueOf(since));
+
+        return callPublicWithLastId(KrakenApiMethod.RECENT_SPREADS, RecentSpreadResult.class, params);
+    }
+
+    /**
+     * Get account balance
+     *
+     * @return future map of pair/balance
+     */
+    public CompletableFuture<AccountBalanceResult> getAccountBalance() {
+        return callPrivate(KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class, null);
+    }
+
+    /**
+     * Get tradable balance
+     *
+     * @return future trade balance
+     */
+    public CompletableFuture<TradeBalanceResult> getTradeBalance() {
+        return callPrivate(KrakenApiMethod.TRADE_BALANCE, TradeBalanceResult.class, null);
+    }
+
+    /**
+     * Get open orders
+     *
+     * @return future open orders
+     */
+    public CompletableFuture<OpenOrdersResult> getOpenOrders() {
+        return callPrivate(KrakenApiMethod.OPEN_ORDERS, OpenOrdersResult.class, null);
+    }
+
+    /**
+     * Get closed orders
+     *
+     * @return future closed orders
+     */
+    public CompletableFuture<ClosedOrdersResult> getClosedOrders() {
+        return callPrivate(KrakenApiMethod.CLOSED_ORDERS, ClosedOrdersResult.class, null);
+    }
+
+    /**
+     * Get orders information
+     *
+     * @param transactions list of transactions
+     * @return future orders information
+     */
+    public CompletableFuture<OrdersInformationResult> getOrdersInformation(List<String> transactions) {
+        Map<String, String> params = new HashMap<>();
+        params.put("txid", String.join(",", transactions));
+
+        return callPrivate(KrakenApiMethod.ORDERS_INFORMATION, OrdersInformationResult.class, params);
+    }
+
+    /**
+     * Get trades history
+     *
+     * @return future trades history
+     */
+    public CompletableFuture<TradesHistoryResult> getTradesHistory() {
+        return callPrivate(KrakenApiMethod.TRADES_HISTORY, TradesHistoryResult.class, null);
+    }
+
+    /**
+     * Get trades information
+     *
+     * @param transactions list of transactions
+     * @return future trades information
+     */
+    public CompletableFuture<TradesInformationResult> getTradesInformation(List<String> transactions) {
+        Map<String, String> params = new HashMap<>();
+        params.put("txid", String.join(",", transactions));
+
+        return callPrivate(KrakenApiMethod.TRADES_INFORMATION, TradesInformationResult.class, params);
+    }
+
+    /**
+     * Get open positions
+     *
+     * @param transactions list of transactions
+     * @return future open positions
+     */
+    public CompletableFuture<OpenPositionsResult> getOpenPositions(List<String> transactions) {
+        Map<String, String> params = new HashMap<>();
+        params.put("txid", String.join(",", transactions));
+
+        return callPrivate(KrakenApiMethod.OPEN_POSITIONS, OpenPositionsResult.class, params);
+    }
+
+    /**
+     * Get ledgers information
+     *
+     * @return future ledgers information
+     */
+    public CompletableFuture<LedgersInformationResult> getLedgersInformation() {
+        return callPrivate(KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class, null);
+    }
+
+    /**
+     * Get ledgers
+     *
+     * @param ledgerIds list of ledger ids
+     * @return future ledgers
+     */
+    public CompletableFuture<LedgersResult> getLedgers(List<String> ledgerIds) {
+        Map<String, String> params = new HashMap<>();
+        params.put("id", String.join(",", ledgerIds));
+
+        return callPrivate(KrakenApiMethod.QUERY_LEDGERS, LedgersResult.class, params);
+    }
+
+    /**
+     * Get trade volume
+     *
+     * @return future trade volume
+     */
+    public CompletableFuture<TradeVolumeResult> getTradeVolume() {
+        return callPrivate(KrakenApiMethod.TRADE_VOLUME, TradeVolumeResult.class, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    private <T extends Result> CompletableFuture<T> callPublic(KrakenApiMethod method, Class<T> result, Map<String, String> params) {
+        return unmarshal(client.executePublicQuery(KrakenAPIClient.BASE_URL, method.getUrl(0), params), result, false);
+    }
+
+    private <T extends Result> CompletableFuture<T> callPublicWithLastId(KrakenApiMethod method, Class<T> result, Map<String, String> params) {
+        return unmarshal(client.executePublicQuery(KrakenAPIClient.BASE_URL, method.getUrl(0), params), result, true);
+    }
+
+    private <T extends Result> CompletableFuture<T> callPrivate(KrakenApiMethod method, Class<T> result, Map<String, String> params) {
+        return unmarshal(client.executePrivateQuery(KrakenAPIClient.BASE_URL, method.getUrl(0), params), result, false);
+    }
+
+    /**
+     * Unmarshal response on the executor, the returned future is always completed: with the result, a
+     * {@link KrakenApiException}, or the error thrown while unmarshalling
+     */
+    private <T extends Result> CompletableFuture<T> unmarshal(CompletableFuture<String> response, Class<T> result, boolean withLastId) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        response.whenComplete((body, throwable) -> {
+            try {
+                executor.execute(() -> complete(future, body, throwable, result, withLastId));
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(new KrakenApiException("unable to unmarshal Kraken API response", ex));
+            }
+        });
+
+        return future;
+    }
+
+    private <T extends Result> void complete(CompletableFuture<T> future, String body, Throwable throwable, Class<T> result, boolean withLastId) {
+        if (throwable != null) {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            future.completeExceptionally(cause instanceof KrakenApiException ? cause : new KrakenApiException("unable to query Kraken API", cause));
+            return;
+        }
+
+        try {
+            future.complete(withLastId ? HttpApiClient.parseWithLastId(readers, body, result) : HttpApiClient.parse(readers, body, result));
+        } catch (KrakenApiException ex) {
+            future.completeExceptionally(ex);
+        } catch (IOException | RuntimeException ex) {
+            future.completeExceptionally(new KrakenApiException("unable to query Kraken API", ex));
+        } catch (Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.utils.Base64Utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API-Sign header generator bound to one API secret
+ * <p>
+ * Algorithm: HMAC-SHA512 of (URI path + SHA256(nonce + POST data)) and base64 decoded secret API key.
+ * <p>
+ * The secret is decoded once, initialized {@link Mac} and {@link MessageDigest} along with reusable
+ * buffers are borrowed from a small lock-free pool, so signing a request only allocates the returned
+ * header value, on pooled platform threads as well as on a new virtual thread per request. Instances
+ * are thread-safe and meant to be shared by all clients of a key.
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenSigner {
+
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    private static final String SHA256 = "SHA-256";
+
+    private static final int SHA256_LENGTH = 32;
+    private static final int HMAC_SHA512_LENGTH = 64;
+    private static final int SIGNATURE_LENGTH = 88;
+
+    /**
+     * Maximum number of idle states kept, states of higher signing concurrency are dropped once used
+     */
+    static final int MAX_POOLED = 16;
+
+    private final SecretKeySpec key;
+    private final Queue<State> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor
+     *
+     * @param secret base64 encoded API secret
+     * @throws IllegalArgumentException if secret is not valid base64
+     */
+    public KrakenSigner(String secret) {
+        this.key = new SecretKeySpec(Base64Utils.base64Decode(secret), HMAC_SHA512);
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Sign a private request
+     *
+     * @param path     URI path, e.g. /0/private/Balance
+     * @param nonce    nonce included in POST data
+     * @param postData url-encoded POST data
+     * @return API-Sign header value
+     * @throws KrakenApiException if signature cannot be computed
+     */
+    public String sign(String path, String nonce, String postData) throws KrakenApiException {
+        final State s = borrow();
+        try {
+            return sign(s, path, nonce, postData);
+        } finally {
+            release(s);
+        }
+    }
+
+    private static String sign(State s, String path, String nonce, String postData) throws KrakenApiException {
+        try {
+            s.sha256.update(s.encode(nonce), 0, s.length);
+            s.sha256.update(s.encode(postData), 0, s.length);
+            s.sha256.digest(s.digest, 0, SHA256_LENGTH);
+
+            s.mac.update(s.encode(path), 0, s.length);
+            s.mac.update(s.digest, 0, SHA256_LENGTH);
+            s.mac.doFinal(s.hmac, 0);
+        } catch (GeneralSecurityException ex) {
+            s.sha256.reset();
+            s.mac.reset();
+            throw new KrakenApiException("unable to generate signature");
+        }
+
+        final int length = Base64.getEncoder().encode(s.hmac, s.signature);
+        return new String(s.signature, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private State borrow() {
+        final State s = pool.poll();
+        if (s == null) {
+            return newState();
+        }
+        pooled.decrementAndGet();
+        return s;
+    }
+
+    private void release(State s) {
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            pool.offer(s);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of idle states in the pool
+     */
+    int getPooledCount() {
+        return pooled.get();
+    }
+
+    private State newState() {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_SHA512);
+            mac.init(key);
+            return new State(mac, MessageDigest.getInstance(SHA256));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA512 is not available", ex);
+        }
+    }
+
+    /**
+     * Algorithms and buffers, used by one thread at a time
+     */
+    private static class State {
+        private final Mac mac;
+        private final MessageDigest sha256;
+
+        private final byte[] digest = new byte[SHA256_LENGTH];
+        private final byte[] hmac = new byte[HMAC_SHA512_LENGTH];
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        State(Mac mac, MessageDigest sha256) {
+            this.mac = mac;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * Encode string to UTF-8 into the reusable buffer, avoiding allocation for ASCII strings
+         *
+         * @param value string to encode, may be null
+         * @return buffer holding {@link #length} encoded bytes
+         */
+        byte[] encode(String value) {
+            if (value == null) {
+                length = 0;
+                return buffer;
+            }
+
+            final int n = value.length();
+            if (buffer.length < n) {
+                buffer = new byte[Math.max(n, buffer.length * 2)];
+            }
+
+            for (int i = 0; i < n; i++) {
+                final char c = value.charAt(i);
+                if (c >= 0x80) {
+                    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    length = bytes.length;
+                    return bytes;
+                }
+                buffer[i] = (byte) c;
+            }
+
+            length = n;
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.sbouclier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strictly increasing nonce source
+ * <p>
+ * Nonces are microseconds since epoch, taken from a monotonic clock anchored on the wall clock at
+ * creation. When two calls fall in the same microsecond, or the clock is behind the last issued
+ * nonce (e.g. after a restart restoring a stored generator), the last nonce is incremented instead.
+ * Generation is lock-free.
+ * <p>
+ * Kraken rejects a nonce lower or equal to the previous one of the same API key, so all clients
+ * of a key must share the same generator, see {@link #forKey(String)}.
+ *
+ * @author Stéphane Bouclier
+ */
+public class NonceGenerator {
+
+    private static final ConcurrentMap<String, NonceGenerator> GENERATORS = new ConcurrentHashMap<>();
+
+    private final AtomicLong last;
+    private final long originMicros;
+    private final long originNanos;
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Default constructor
+     */
+    public NonceGenerator() {
+        this(0);
+    }
+
+    /**
+     * Constructor resuming from a previously issued nonce
+     *
+     * @param lastNonce last issued nonce, next nonces will be greater
+     */
+    public NonceGenerator(long lastNonce) {
+        this.last = new AtomicLong(lastNonce);
+        this.originMicros = System.currentTimeMillis() * 1000;
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * Get generator shared by all clients of an API key, creating it on first use
+     *
+     * @param apiKey API key
+     * @return nonce generator
+     */
+    public static NonceGenerator forKey(String apiKey) {
+        return GENERATORS.computeIfAbsent(apiKey, k -> new NonceGenerator());
+    }
+
+    /**
+     * Get generator shared by all clients of an API key, restoring it from a file on first use
+     *
+     * @param apiKey API key
+     * @param file   file written by {@link #store(Path)}
+     * @return nonce generator
+     * @throws UncheckedIOException if file cannot be read
+     */
+    public static NonceGenerator forKey(String apiKey, Path file) {
+        return GENERATORS.computeIfAbsent(apiKey, k -> {
+            try {
+                return load(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("unable to load nonce from " + file, ex);
+            }
+        });
+    }
+
+    /**
+     * Restore generator from a file written by {@link #store(Path)}
+     *
+     * @param file nonce file, may not exist
+     * @return nonce generator issuing nonces greater than the stored one
+     * @throws IOException if file cannot be read
+     */
+    public static NonceGenerator load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new NonceGenerator();
+        }
+
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+        try {
+            return new NonceGenerator(Long.parseLong(content));
+        } catch (NumberFormatException ex) {
+            throw new IOException("invalid nonce in " + file + ": " + content, ex);
+        }
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Generate next nonce
+     *
+     * @return nonce greater than all nonces previously issued by this generator
+     */
+    public long next() {
+        final long now = currentMicros();
+        return last.updateAndGet(previous -> now > previous ? now : previous + 1);
+    }
+
+    /**
+     * Get last issued nonce
+     *
+     * @return last nonce, or the nonce the generator was resumed from
+     */
+    public long getLast() {
+        return last.get();
+    }
+
+    /**
+     * Store last issued nonce, replacing the file atomically
+     *
+     * @param file nonce file
+     * @throws IOException if file cannot be written
+     */
+    public void store(Path file) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+
+        try {
+            Files.write(temp, Long.toString(getLast()).getBytes(StandardCharsets.US_ASCII));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long currentMicros() {
+        return originMicros + (System.nanoTime() - originNanos) / 1000;
+    }
+}
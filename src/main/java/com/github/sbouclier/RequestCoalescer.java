@@ -0,0 +1,115 @@
+package com.github.sbouclier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight of identical public calls
+ * <p>
+ * While a call is in flight, identical calls, i.e. same base url, method, parameters and result class, wait
+ * for it and share its result or its exception instead of sending another request. A call arriving once the
+ * in-flight call is completed sends a new request, so no result is served from a cache.
+ * <p>
+ * Shared results are the same instance for all callers, they must not be modified.
+ *
+ * @author Stéphane Bouclier
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Call sending a request
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws KrakenApiException;
+    }
+
+    /**
+     * Execute a call, or wait for the identical call in flight
+     *
+     * @param baseUrl kraken base url
+     * @param method  kraken method
+     * @param result  result class
+     * @param params  method parameters, may be null
+     * @param call    call sending the request
+     * @return result
+     * @throws KrakenApiException if the call fails, or if interrupted while waiting for it
+     */
+    public <T> T execute(String baseUrl, KrakenApiMethod method, Class<T> result, Map<String, String> params,
+                         Call<T> call) throws KrakenApiException {
+        final List<Object> key = Arrays.asList(baseUrl, method, result,
+                params != null ? new HashMap<>(params) : Collections.emptyMap());
+
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            shared.increment();
+            return result.cast(join(existing));
+        }
+
+        requests.increment();
+        try {
+            final T value = call.call();
+            future.complete(value);
+            return value;
+        } catch (KrakenApiException | RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) throws KrakenApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException("interrupted while waiting for identical call", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof KrakenApiException) {
+                throw (KrakenApiException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    /**
+     * @return number of sent requests
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return number of calls which shared the result of a call in flight
+     */
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    /**
+     * @return number of calls in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
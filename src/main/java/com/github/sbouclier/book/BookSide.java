@@ -0,0 +1,272 @@
+package com.github.sbouclier.book;
+
+import java.util.Arrays;
+
+/**
+ * One side of a {@link LocalOrderBook}: price levels sorted by priority in primitive arrays
+ * <p>
+ * Levels are stored by ascending key, the key being the price for asks and the negated price for
+ * bids, so that level 0 is always the best price and all lookups are plain binary searches. The
+ * cumulative volume of each level is maintained on update, queries are O(log n) at most and never
+ * allocate. Arrays are double-buffered and only grow, so updates do not allocate once the book has
+ * reached its usual depth.
+ *
+ * @author Stéphane Bouclier
+ */
+public final class BookSide {
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final Side side;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] volumes = new long[INITIAL_CAPACITY];
+    private long[] cumulativeVolumes = new long[INITIAL_CAPACITY];
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private long[] nextKeys = new long[INITIAL_CAPACITY];
+    private long[] nextVolumes = new long[INITIAL_CAPACITY];
+    private long[] nextCumulativeVolumes = new long[INITIAL_CAPACITY];
+    private int[] nextTimestamps = new int[INITIAL_CAPACITY];
+    private int nextSize;
+
+    BookSide(Side side) {
+        this.side = side;
+    }
+
+    // -----------
+    // - UPDATE  -
+    // -----------
+
+    void beginUpdate() {
+        nextSize = 0;
+    }
+
+    void add(long price, long volume, int timestamp) {
+        final long key = toKey(price);
+        if (nextSize > 0 && key <= nextKeys[nextSize - 1]) {
+            throw new IllegalArgumentException(side + " levels must be sorted by priority without duplicates, at price " + price);
+        }
+
+        if (nextSize == nextKeys.length) {
+            final int capacity = nextKeys.length * 2;
+            nextKeys = Arrays.copyOf(nextKeys, capacity);
+            nextVolumes = Arrays.copyOf(nextVolumes, capacity);
+            nextCumulativeVolumes = Arrays.copyOf(nextCumulativeVolumes, capacity);
+            nextTimestamps = Arrays.copyOf(nextTimestamps, capacity);
+        }
+
+        nextKeys[nextSize] = key;
+        nextVolumes[nextSize] = volume;
+        nextCumulativeVolumes[nextSize] = nextSize > 0 ? nextCumulativeVolumes[nextSize - 1] + volume : volume;
+        nextTimestamps[nextSize] = timestamp;
+        nextSize++;
+    }
+
+    /**
+     * Compare new levels with current ones, notify changes and make new levels current
+     *
+     * @param listener listener of changed levels, may be null
+     * @return number of changed levels
+     */
+    int commit(OrderBookListener listener) {
+        int changes = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < size || j < nextSize) {
+            if (j == nextSize || (i < size && keys[i] < nextKeys[j])) {
+                changes++;
+                notify(listener, keys[i], volumes[i], 0);
+                i++;
+            } else if (i == size || nextKeys[j] < keys[i]) {
+                changes++;
+                notify(listener, nextKeys[j], 0, nextVolumes[j]);
+                j++;
+            } else {
+                if (volumes[i] != nextVolumes[j]) {
+                    changes++;
+                    notify(listener, keys[i], volumes[i], nextVolumes[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+
+        swap();
+        return changes;
+    }
+
+    private void notify(OrderBookListener listener, long key, long previousVolume, long volume) {
+        if (listener != null) {
+            listener.onLevelChange(side, toPrice(key), previousVolume, volume);
+        }
+    }
+
+    private void swap() {
+        long[] tmp = keys;
+        keys = nextKeys;
+        nextKeys = tmp;
+
+        tmp = volumes;
+        volumes = nextVolumes;
+        nextVolumes = tmp;
+
+        tmp = cumulativeVolumes;
+        cumulativeVolumes = nextCumulativeVolumes;
+        nextCumulativeVolumes = tmp;
+
+        final int[] tmpTimestamps = timestamps;
+        timestamps = nextTimestamps;
+        nextTimestamps = tmpTimestamps;
+
+        size = nextSize;
+    }
+
+    private long toKey(long price) {
+        return side == Side.ASK ? price : -price;
+    }
+
+    private long toPrice(long key) {
+        return side == Side.ASK ? key : -key;
+    }
+
+    // -----------
+    // - QUERIES -
+    // -----------
+
+    public Side getSide() {
+        return side;
+    }
+
+    /**
+     * Get number of price levels
+     *
+     * @return number of levels
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get best price, i.e. highest bid or lowest ask
+     *
+     * @return best price, 0 if side is empty
+     */
+    public long getBestPrice() {
+        return size > 0 ? toPrice(keys[0]) : 0;
+    }
+
+    /**
+     * Get volume at best price
+     *
+     * @return best volume, 0 if side is empty
+     */
+    public long getBestVolume() {
+        return size > 0 ? volumes[0] : 0;
+    }
+
+    /**
+     * @param level level index, 0 being the best price
+     * @return price of the level
+     */
+    public long getPrice(int level) {
+        checkLevel(level);
+        return toPrice(keys[level]);
+    }
+
+    /**
+     * @param level level index, 0 being the best price
+     * @return volume of the level
+     */
+    public long getVolume(int level) {
+        checkLevel(level);
+        return volumes[level];
+    }
+
+    /**
+     * @param level level index, 0 being the best price
+     * @return timestamp of the level
+     */
+    public int getTimestamp(int level) {
+        checkLevel(level);
+        return timestamps[level];
+    }
+
+    /**
+     * @param level level index, 0 being the best price
+     * @return volume of all levels from the best price to this level included
+     */
+    public long getCumulativeVolume(int level) {
+        checkLevel(level);
+        return cumulativeVolumes[level];
+    }
+
+    /**
+     * Find level of a price
+     *
+     * @param price price
+     * @return level index, or <code>(-(insertion level) - 1)</code> if there is no level at this price
+     */
+    public int indexOf(long price) {
+        return Arrays.binarySearch(keys, 0, size, toKey(price));
+    }
+
+    /**
+     * Get volume at a price
+     *
+     * @param price price
+     * @return volume, 0 if there is no level at this price
+     */
+    public long getVolumeAt(long price) {
+        final int level = indexOf(price);
+        return level >= 0 ? volumes[level] : 0;
+    }
+
+    /**
+     * Get volume of all levels priced at or better than a price
+     *
+     * @param price price limit, included
+     * @return cumulative volume
+     */
+    public long getCumulativeVolumeAt(long price) {
+        final int level = indexOf(price);
+        final int count = level >= 0 ? level + 1 : -level - 1;
+        return count > 0 ? cumulativeVolumes[count - 1] : 0;
+    }
+
+    /**
+     * Get worst price reached when filling a volume from the best price
+     *
+     * @param volume volume to fill
+     * @return price of the level completing the volume, 0 if the side is not deep enough
+     */
+    public long getPriceForVolume(long volume) {
+        if (size == 0 || volume > cumulativeVolumes[size - 1]) {
+            return 0;
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulativeVolumes[mid] < volume) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return toPrice(keys[low]);
+    }
+
+    private void checkLevel(int level) {
+        if (level < 0 || level >= size) {
+            throw new IndexOutOfBoundsException("level " + level + " out of " + size);
+        }
+    }
+}
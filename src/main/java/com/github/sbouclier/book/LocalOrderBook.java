@@ -0,0 +1,199 @@
+package com.github.sbouclier.book;
+
+import com.github.sbouclier.result.AssetPairsResult;
+import com.github.sbouclier.result.OrderBookResult;
+import com.github.sbouclier.utils.FixedPointUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Local level 2 order book of one pair, fed with successive <code>Depth</code> snapshots
+ * <p>
+ * Prices and volumes are fixed-point longs scaled by the price and volume decimals of the pair, see
+ * {@link FixedPointUtils}. Each update compares the snapshot with the current levels, reports changed
+ * levels to an optional {@link OrderBookListener} and replaces the current levels.
+ * <p>
+ * Snapshots deserialized with {@link com.github.sbouclier.result.FixedPointModule} are used as is,
+ * without conversion, their decimals must be the ones of this book.
+ * <p>
+ * Instances are not thread-safe: updates and queries are expected from the same thread, e.g. the
+ * polling loop of the pair.
+ *
+ * @author Stéphane Bouclier
+ */
+public class LocalOrderBook {
+
+    private final String pair;
+    private final int priceDecimals;
+    private final int volumeDecimals;
+
+    private final BookSide bids = new BookSide(Side.BID);
+    private final BookSide asks = new BookSide(Side.ASK);
+
+    private long updates;
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor
+     *
+     * @param pair           pair name
+     * @param priceDecimals  number of decimals of prices
+     * @param volumeDecimals number of decimals of volumes
+     */
+    public LocalOrderBook(String pair, int priceDecimals, int volumeDecimals) {
+        this.pair = pair;
+        this.priceDecimals = priceDecimals;
+        this.volumeDecimals = volumeDecimals;
+    }
+
+    /**
+     * Constructor using decimals of an asset pair
+     *
+     * @param pair      pair name
+     * @param assetPair asset pair from getAssetPairs
+     */
+    public LocalOrderBook(String pair, AssetPairsResult.AssetPair assetPair) {
+        this(pair, assetPair.pairDecimals, assetPair.lotDecimals);
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Replace levels with a snapshot
+     *
+     * @param snapshot order book from getOrderBook
+     * @return number of changed levels
+     */
+    public int update(OrderBookResult.OrderBook snapshot) {
+        return update(snapshot, null);
+    }
+
+    /**
+     * Replace levels with a snapshot and report changed levels, bids first
+     *
+     * @param snapshot order book from getOrderBook
+     * @param listener listener of changed levels, may be null
+     * @return number of changed levels
+     * @throws IllegalArgumentException if levels are not sorted by priority, the book is left unchanged
+     */
+    public int update(OrderBookResult.OrderBook snapshot, OrderBookListener listener) {
+        fill(bids, snapshot.bids);
+        fill(asks, snapshot.asks);
+
+        updates++;
+        return bids.commit(listener) + asks.commit(listener);
+    }
+
+    private void fill(BookSide side, List<OrderBookResult.Market> levels) {
+        side.beginUpdate();
+        if (levels == null) {
+            return;
+        }
+
+        for (int i = 0, n = levels.size(); i < n; i++) {
+            final OrderBookResult.Market level = levels.get(i);
+            side.add(
+                    level.price != null ? FixedPointUtils.toFixed(level.price, priceDecimals) : level.fixedPrice,
+                    level.volume != null ? FixedPointUtils.toFixed(level.volume, volumeDecimals) : level.fixedVolume,
+                    level.timestamp != null ? level.timestamp : 0);
+        }
+    }
+
+    public String getPair() {
+        return pair;
+    }
+
+    public int getPriceDecimals() {
+        return priceDecimals;
+    }
+
+    public int getVolumeDecimals() {
+        return volumeDecimals;
+    }
+
+    /**
+     * Get number of applied snapshots
+     *
+     * @return number of updates
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    public BookSide getBids() {
+        return bids;
+    }
+
+    public BookSide getAsks() {
+        return asks;
+    }
+
+    public BookSide getSide(Side side) {
+        return side == Side.BID ? bids : asks;
+    }
+
+    /**
+     * @return highest bid price, 0 if there is no bid
+     */
+    public long getBestBid() {
+        return bids.getBestPrice();
+    }
+
+    /**
+     * @return lowest ask price, 0 if there is no ask
+     */
+    public long getBestAsk() {
+        return asks.getBestPrice();
+    }
+
+    /**
+     * @return best ask minus best bid, 0 if a side is empty
+     */
+    public long getSpread() {
+        return bids.isEmpty() || asks.isEmpty() ? 0 : asks.getBestPrice() - bids.getBestPrice();
+    }
+
+    /**
+     * Convert a fixed-point price of this book to decimal
+     *
+     * @param price fixed-point price
+     * @return decimal price
+     */
+    public BigDecimal toPrice(long price) {
+        return FixedPointUtils.toBigDecimal(price, priceDecimals);
+    }
+
+    /**
+     * Convert a decimal price to fixed-point price of this book
+     *
+     * @param price decimal price
+     * @return fixed-point price
+     */
+    public long toFixedPrice(BigDecimal price) {
+        return FixedPointUtils.toFixed(price, priceDecimals);
+    }
+
+    /**
+     * Convert a fixed-point volume of this book to decimal
+     *
+     * @param volume fixed-point volume
+     * @return decimal volume
+     */
+    public BigDecimal toVolume(long volume) {
+        return FixedPointUtils.toBigDecimal(volume, volumeDecimals);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalOrderBook[" + pair
+                + ", bid=" + (bids.isEmpty() ? "-" : toPrice(bids.getBestPrice()))
+                + ", ask=" + (asks.isEmpty() ? "-" : toPrice(asks.getBestPrice()))
+                + ", levels=" + bids.size() + "/" + asks.size() + "]";
+    }
+}
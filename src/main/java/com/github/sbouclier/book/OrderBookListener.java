@@ -0,0 +1,23 @@
+package com.github.sbouclier.book;
+
+/**
+ * Listener of price levels changed between two order book snapshots
+ * <p>
+ * Prices and volumes are fixed-point values scaled by the decimals of the book. A level is added when
+ * the previous volume is 0, removed when the new volume is 0, changed otherwise.
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface OrderBookListener {
+
+    /**
+     * Called for each changed price level, in price priority order
+     *
+     * @param side           book side
+     * @param price          price of the level
+     * @param previousVolume volume in previous snapshot, 0 if level is added
+     * @param volume         volume in new snapshot, 0 if level is removed
+     */
+    void onLevelChange(Side side, long price, long previousVolume, long volume);
+}
@@ -0,0 +1,11 @@
+package com.github.sbouclier.book;
+
+/**
+ * Order book side
+ *
+ * @author Stéphane Bouclier
+ */
+public enum Side {
+    BID,
+    ASK
+}
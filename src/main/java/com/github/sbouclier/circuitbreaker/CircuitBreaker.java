@@ -0,0 +1,415 @@
+package com.github.sbouclier.circuitbreaker;
+
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.KrakenApiMethod;
+import com.github.sbouclier.retry.ErrorClass;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker with one circuit per {@link KrakenApiMethod}
+ * <p>
+ * A closed circuit records the outcome of the latest calls of its method in a sliding window. Once the window
+ * holds at least <code>minimumCalls</code> calls and the rate of failures, or of calls slower than
+ * <code>slowCallDuration</code>, reaches its threshold, the circuit opens: calls fail fast with a
+ * {@link CircuitOpenException}, without request nor rate limit wait. After <code>openDuration</code>, the
+ * circuit is half-open and lets <code>halfOpenCalls</code> trial calls through: it closes once they all
+ * succeed, and opens again on the first failed or slow one. Outcomes of calls allowed before the latest
+ * state change are ignored, e.g. a call allowed while closed and completing once half-open is not a trial.
+ * <p>
+ * Only failures telling that Kraken degrades are counted: network errors, service unavailable and internal
+ * errors, see {@link ErrorClass}. Invalid calls and rate limit errors are not.
+ *
+ * @author Stéphane Bouclier
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of a circuit
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Call guarded by the circuit breaker
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws KrakenApiException;
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private final Circuit[] circuits = new Circuit[KrakenApiMethod.values().length];
+    private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+
+    private CircuitBreaker(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallNanos = builder.slowCallNanos;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.openNanos = builder.openNanos;
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.clock = builder.clock;
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            circuits[method.ordinal()] = new Circuit(method);
+        }
+    }
+
+    /**
+     * Create a builder with default settings: a window of 20 calls, opening from 10 calls with 50% of
+     * failures or 80% of calls slower than 5 s, open during 30 s, and closing after 3 successful trial calls
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Execute a call if the circuit of its method allows it, recording its outcome
+     *
+     * @param method kraken method
+     * @param call   call sending the request
+     * @return result
+     * @throws KrakenApiException {@link CircuitOpenException} if the circuit is open, or failure of the call
+     */
+    public <T> T execute(KrakenApiMethod method, Call<T> call) throws KrakenApiException {
+        final long permission = acquirePermission(method);
+        return record(method, permission, call);
+    }
+
+    /**
+     * Check that the circuit of a method allows a call, the call must then be {@link #record recorded} or
+     * its permission {@link #releasePermission released}
+     *
+     * @param method kraken method
+     * @return permission, i.e. generation of the circuit state allowing the call
+     * @throws CircuitOpenException if the circuit is open, or half-open with all trial calls in flight
+     */
+    public long acquirePermission(KrakenApiMethod method) throws CircuitOpenException {
+        return circuits[method.ordinal()].acquire();
+    }
+
+    /**
+     * Release the permission of a call given up before its request
+     *
+     * @param method     kraken method
+     * @param permission permission of the call
+     */
+    public void releasePermission(KrakenApiMethod method, long permission) {
+        circuits[method.ordinal()].release(permission);
+    }
+
+    /**
+     * Execute an allowed call and record its outcome
+     *
+     * @param method     kraken method
+     * @param permission permission of the call, outcome is ignored if the circuit changed state since
+     * @param call       call sending the request
+     * @return result
+     * @throws KrakenApiException failure of the call
+     */
+    public <T> T record(KrakenApiMethod method, long permission, Call<T> call) throws KrakenApiException {
+        final Circuit circuit = circuits[method.ordinal()];
+        final long start = clock.getAsLong();
+        final T result;
+        try {
+            result = call.call();
+        } catch (KrakenApiException ex) {
+            circuit.record(permission, clock.getAsLong() - start, counted(ex));
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            circuit.release(permission);
+            throw ex;
+        }
+        circuit.record(permission, clock.getAsLong() - start, false);
+        return result;
+    }
+
+    private static boolean counted(KrakenApiException exception) {
+        final ErrorClass errorClass = ErrorClass.of(exception);
+        return errorClass == ErrorClass.NETWORK
+                || errorClass == ErrorClass.SERVICE_UNAVAILABLE
+                || errorClass == ErrorClass.INTERNAL_ERROR;
+    }
+
+    /**
+     * Get state of the circuit of a method
+     *
+     * @param method kraken method
+     * @return state
+     */
+    public State getState(KrakenApiMethod method) {
+        return circuits[method.ordinal()].state();
+    }
+
+    /**
+     * Force the circuit of a method back to closed, e.g. once Kraken announces the end of an incident
+     *
+     * @param method kraken method
+     */
+    public void reset(KrakenApiMethod method) {
+        circuits[method.ordinal()].transition(State.CLOSED);
+    }
+
+    public void addListener(CircuitBreakerListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CircuitBreakerListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Circuit of one method, synchronized on itself without calling out while locked
+     */
+    private final class Circuit {
+        private final KrakenApiMethod method;
+        private final byte[] outcomes = new byte[windowSize];
+
+        private State state = State.CLOSED;
+        private long generation;
+        private long calls;
+        private int failed;
+        private int slow;
+        private long openedAt;
+        private int trialsInFlight;
+        private int trialsSucceeded;
+
+        Circuit(KrakenApiMethod method) {
+            this.method = method;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        long acquire() throws CircuitOpenException {
+            State from = null;
+            State rejected = null;
+            final long permission;
+            synchronized (this) {
+                if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+                    from = setState(State.HALF_OPEN);
+                }
+                if (state == State.OPEN) {
+                    rejected = State.OPEN;
+                } else if (state == State.HALF_OPEN) {
+                    if (trialsInFlight + trialsSucceeded < halfOpenCalls) {
+                        trialsInFlight++;
+                    } else {
+                        rejected = State.HALF_OPEN;
+                    }
+                }
+                permission = generation;
+            }
+
+            if (from != null) {
+                notify(from, State.HALF_OPEN);
+            }
+            if (rejected != null) {
+                throw new CircuitOpenException(method, rejected);
+            }
+            return permission;
+        }
+
+        synchronized void release(long permission) {
+            if (permission == generation && state == State.HALF_OPEN && trialsInFlight > 0) {
+                trialsInFlight--;
+            }
+        }
+
+        void record(long permission, long nanos, boolean failure) {
+            final byte outcome = (byte) ((failure ? FAILED : 0) | (nanos >= slowCallNanos ? SLOW : 0));
+            State from = null;
+            State to = null;
+            synchronized (this) {
+                if (permission != generation) {
+                    // allowed before the latest state change, e.g. a call allowed while closed is not a trial
+                    return;
+                }
+                if (state == State.CLOSED) {
+                    add(outcome);
+                    if (calls >= minimumCalls && exceeded()) {
+                        to = State.OPEN;
+                    }
+                } else if (state == State.HALF_OPEN) {
+                    if (trialsInFlight > 0) {
+                        trialsInFlight--;
+                    }
+                    if (outcome != 0) {
+                        to = State.OPEN;
+                    } else if (++trialsSucceeded >= halfOpenCalls) {
+                        to = State.CLOSED;
+                    }
+                }
+                if (to != null) {
+                    from = setState(to);
+                }
+            }
+
+            if (to != null) {
+                notify(from, to);
+            }
+        }
+
+        private void add(byte outcome) {
+            final int slot = (int) (calls++ % windowSize);
+            if (calls > windowSize) {
+                failed -= outcomes[slot] & FAILED;
+                slow -= (outcomes[slot] & SLOW) >> 1;
+            }
+            outcomes[slot] = outcome;
+            failed += outcome & FAILED;
+            slow += (outcome & SLOW) >> 1;
+        }
+
+        private boolean exceeded() {
+            final int size = (int) Math.min(calls, windowSize);
+            return failed >= failureRateThreshold * size || slow >= slowCallRateThreshold * size;
+        }
+
+        void transition(State to) {
+            final State from;
+            synchronized (this) {
+                from = setState(to);
+            }
+            if (from != to) {
+                notify(from, to);
+            }
+        }
+
+        /**
+         * Set state, resetting the window and trial calls, and starting a new generation of permissions
+         *
+         * @return previous state
+         */
+        private State setState(State to) {
+            final State from = state;
+            state = to;
+            generation++;
+            calls = 0;
+            failed = 0;
+            slow = 0;
+            trialsInFlight = 0;
+            trialsSucceeded = 0;
+            if (to == State.OPEN) {
+                openedAt = clock.getAsLong();
+            }
+            return from;
+        }
+
+        private void notify(State from, State to) {
+            for (CircuitBreakerListener listener : listeners) {
+                listener.onStateChange(method, from, to);
+            }
+        }
+    }
+
+    /**
+     * Builder of {@link CircuitBreaker}
+     */
+    public static class Builder {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        private long slowCallNanos = TimeUnit.SECONDS.toNanos(5);
+        private double slowCallRateThreshold = 0.8;
+        private long openNanos = TimeUnit.SECONDS.toNanos(30);
+        private int halfOpenCalls = 3;
+        private LongSupplier clock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Set sliding window
+         *
+         * @param windowSize   number of latest calls recorded
+         * @param minimumCalls number of calls needed before the circuit may open
+         * @return builder
+         */
+        public Builder withWindow(int windowSize, int minimumCalls) {
+            if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("invalid window: " + minimumCalls + "/" + windowSize);
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param threshold rate of failed calls opening the circuit, in ]0, 1]
+         * @return builder
+         */
+        public Builder withFailureRateThreshold(double threshold) {
+            this.failureRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * @param duration  duration from which a call is slow
+         * @param unit      unit of duration
+         * @param threshold rate of slow calls opening the circuit, in ]0, 1]
+         * @return builder
+         */
+        public Builder withSlowCalls(long duration, TimeUnit unit, double threshold) {
+            this.slowCallNanos = unit.toNanos(duration);
+            this.slowCallRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * @param duration      duration during which an open circuit rejects calls
+         * @param unit          unit of duration
+         * @param halfOpenCalls number of successful trial calls closing a half-open circuit
+         * @return builder
+         */
+        public Builder withOpenDuration(long duration, TimeUnit unit, int halfOpenCalls) {
+            if (halfOpenCalls < 1) {
+                throw new IllegalArgumentException("halfOpenCalls must be positive: " + halfOpenCalls);
+            }
+            this.openNanos = unit.toNanos(duration);
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        Builder withClock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        private static double checkRate(double rate) {
+            if (rate <= 0 || rate > 1) {
+                throw new IllegalArgumentException("rate must be in ]0, 1]: " + rate);
+            }
+            return rate;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.sbouclier.circuitbreaker;
+
+import com.github.sbouclier.KrakenApiMethod;
+
+/**
+ * Listener of state changes of a {@link CircuitBreaker}
+ * <p>
+ * Listeners are called on the thread of the call causing the change, they should be quick.
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    /**
+     * Called when the circuit of a method changes state
+     *
+     * @param method kraken method
+     * @param from   previous state
+     * @param to     new state
+     */
+    void onStateChange(KrakenApiMethod method, CircuitBreaker.State from, CircuitBreaker.State to);
+}
@@ -0,0 +1,36 @@
+package com.github.sbouclier.circuitbreaker;
+
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.KrakenApiMethod;
+
+/**
+ * Exception of a call rejected without request because the circuit of its method is open
+ *
+ * @author Stéphane Bouclier
+ */
+public class CircuitOpenException extends KrakenApiException {
+
+    private final KrakenApiMethod method;
+    private final CircuitBreaker.State state;
+
+    public CircuitOpenException(KrakenApiMethod method, CircuitBreaker.State state) {
+        super("circuit breaker of " + method + " is " + state);
+        this.method = method;
+        this.state = state;
+    }
+
+    /**
+     * @return method of the rejected call
+     */
+    public KrakenApiMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return state of the circuit, {@link CircuitBreaker.State#OPEN} or {@link CircuitBreaker.State#HALF_OPEN}
+     * if all trial calls are in flight
+     */
+    public CircuitBreaker.State getState() {
+        return state;
+    }
+}
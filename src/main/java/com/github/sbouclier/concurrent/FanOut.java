@@ -0,0 +1,144 @@
+package com.github.sbouclier.concurrent;
+
+import com.github.sbouclier.KrakenApiException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Structured fan-out of blocking calls, one task per key
+ * <p>
+ * {@link #invokeAll(Collection, KeyedCall)} runs one call per key and returns once all calls are done: it
+ * returns all results, or throws the first failure after cancelling the calls still running, so no call
+ * outlives the invocation. By default calls run on virtual threads, see {@link VirtualThreads}.
+ *
+ * <pre>
+ * try (FanOut fanOut = new FanOut()) {
+ *     Map&lt;String, OrderBookResult&gt; books = fanOut.invokeAll(pairs, pair -&gt; client.getOrderBook(pair, 10));
+ * }
+ * </pre>
+ *
+ * @author Stéphane Bouclier
+ */
+public class FanOut implements Closeable {
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+
+    /**
+     * Call of one key
+     *
+     * @param <K> key type
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface KeyedCall<K, R> {
+        R call(K key) throws KrakenApiException;
+    }
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor running calls on {@link VirtualThreads#newExecutor()}, shut down on close
+     */
+    public FanOut() {
+        this(VirtualThreads.newExecutor(), true);
+    }
+
+    /**
+     * Constructor running calls on an executor, left running on close
+     *
+     * @param executor executor of calls
+     */
+    public FanOut(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private FanOut(ExecutorService executor, boolean ownExecutor) {
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Run one call per key concurrently and wait for all of them
+     *
+     * @param keys keys, e.g. pairs
+     * @param call call of a key
+     * @return results by key, in order of keys
+     * @throws KrakenApiException first failure, other calls being cancelled, or if interrupted
+     */
+    public <K, R> Map<K, R> invokeAll(Collection<K> keys, KeyedCall<K, R> call) throws KrakenApiException {
+        final ExecutorCompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        final Map<K, Future<R>> futures = new LinkedHashMap<>();
+        final List<Future<R>> submitted = new ArrayList<>(keys.size());
+
+        try {
+            for (K key : keys) {
+                if (!futures.containsKey(key)) {
+                    final Future<R> future = completion.submit(() -> call.call(key));
+                    futures.put(key, future);
+                    submitted.add(future);
+                }
+            }
+
+            for (int i = 0; i < submitted.size(); i++) {
+                completion.take().get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException("interrupted while waiting for calls", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof KrakenApiException) {
+                throw (KrakenApiException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } finally {
+            for (Future<R> future : submitted) {
+                future.cancel(true);
+            }
+        }
+
+        final Map<K, R> results = new LinkedHashMap<>();
+        for (Map.Entry<K, Future<R>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), done(entry.getValue()));
+        }
+        return results;
+    }
+
+    private static <R> R done(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            // unreachable, all futures completed successfully
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Shut down the executor if it was created by this fan-out
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
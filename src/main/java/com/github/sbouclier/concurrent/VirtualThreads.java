@@ -0,0 +1,77 @@
+package com.github.sbouclier.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors running each task on its own virtual thread when the runtime supports them
+ * <p>
+ * The library targets Java 8, so virtual threads of Java 21 are reached by reflection. On older runtimes,
+ * executors fall back on a cached pool of daemon platform threads, with the same semantics but without
+ * the scalability of virtual threads.
+ * <p>
+ * Blocking calls of {@link com.github.sbouclier.KrakenAPIClient} do not hold any monitor during I/O or waits,
+ * so they never pin the carrier thread of a virtual thread: pollers serialize requests with
+ * {@link java.util.concurrent.locks.ReentrantLock}, monitors only guard in-memory state and listeners are
+ * notified outside of them, and rate limiting sleeps without lock.
+ *
+ * @author Stéphane Bouclier
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+    private VirtualThreads() {
+    }
+
+    private static Method lookup() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the runtime supports virtual threads
+     *
+     * @return true on Java 21 and later
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread per task, or a cached pool of daemon platform threads
+     * if virtual threads are not supported
+     *
+     * @return new executor, to shut down once done
+     */
+    public static ExecutorService newExecutor() {
+        if (isSupported()) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                // fall back on platform threads
+            }
+        }
+        return Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
+
+    /**
+     * Factory of daemon platform threads
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "kraken-call-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
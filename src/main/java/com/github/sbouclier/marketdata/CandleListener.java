@@ -0,0 +1,31 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenApiException;
+
+/**
+ * Listener of candles closed by an {@link OHLCPoller}
+ * <p>
+ * Listeners are called on the polling thread while the series is locked, they should be quick.
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface CandleListener {
+
+    /**
+     * Called for each candle closed by a newer candle, in time order
+     *
+     * @param series series of the candle
+     * @param index  index of the closed candle in the series
+     */
+    void onCandleClosed(CandleSeries series, int index);
+
+    /**
+     * Called when a poll of a series fails, the series is left unchanged and polled again later
+     *
+     * @param series    polled series
+     * @param exception failure
+     */
+    default void onPollFailed(CandleSeries series, KrakenApiException exception) {
+    }
+}
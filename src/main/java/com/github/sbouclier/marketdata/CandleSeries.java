@@ -0,0 +1,280 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.result.ColumnarOHLCResult;
+
+/**
+ * Rolling candles of one pair and interval, stored in a fixed-capacity ring of primitive arrays
+ * <p>
+ * Candles are indexed from 0, the oldest kept candle, to <code>size() - 1</code>, the newest one which
+ * may still be forming. Merging a poll replaces the newest candle in place when Kraken returns it
+ * again, ignores older candles and appends newer ones, evicting the oldest candles once the ring is
+ * full. A candle is closed as soon as a newer candle is merged.
+ * <p>
+ * Instances are updated under their own monitor: readers on other threads must synchronize on the
+ * series to get a consistent view. Listeners are notified once the merge is done, outside the monitor.
+ *
+ * @author Stéphane Bouclier
+ * @see OHLCPoller
+ */
+public final class CandleSeries {
+
+    private final String pair;
+    private final Interval interval;
+    private final int capacity;
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] vwap;
+    private final double[] volume;
+    private final int[] count;
+
+    private int head;
+    private int size;
+
+    private Long lastId;
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor
+     *
+     * @param pair     pair name
+     * @param interval interval of candles
+     * @param capacity maximum number of kept candles
+     */
+    public CandleSeries(String pair, Interval interval, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.pair = pair;
+        this.interval = interval;
+        this.capacity = capacity;
+
+        time = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        vwap = new double[capacity];
+        volume = new double[capacity];
+        count = new int[capacity];
+    }
+
+    // -----------
+    // - UPDATE  -
+    // -----------
+
+    /**
+     * Merge candles of a poll, then notify the listener of closed candles still kept, oldest first
+     *
+     * @param columns  candles from getOHLCColumns, in time order
+     * @param lastId   cursor of the poll, kept for the next poll if not null
+     * @param listener listener of closed candles, may be null
+     * @return number of closed candles
+     */
+    public int merge(ColumnarOHLCResult.Columns columns, Long lastId, CandleListener listener) {
+        final int closed;
+        final int newest;
+        synchronized (this) {
+            closed = merge(columns, lastId);
+            newest = size - 1;
+        }
+
+        // outside the monitor, a listener doing I/O must not pin the carrier thread of a virtual thread
+        if (listener != null) {
+            for (int index = Math.max(0, newest - closed); index < newest; index++) {
+                listener.onCandleClosed(this, index);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Merge candles, closed candles being the ones just before the newest candle once merged
+     *
+     * @return number of closed candles
+     */
+    private int merge(ColumnarOHLCResult.Columns columns, Long lastId) {
+        int closed = 0;
+
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final long candleTime = columns.time[i];
+
+            int slot;
+            if (size == 0 || candleTime > time[slot(size - 1)]) {
+                if (size > 0) {
+                    closed++;
+                }
+                slot = append();
+            } else if (candleTime == time[slot(size - 1)]) {
+                slot = slot(size - 1);
+            } else {
+                continue;
+            }
+
+            time[slot] = candleTime;
+            open[slot] = columns.open[i];
+            high[slot] = columns.high[i];
+            low[slot] = columns.low[i];
+            close[slot] = columns.close[i];
+            vwap[slot] = columns.vwap[i];
+            volume[slot] = columns.volume[i];
+            count[slot] = columns.count[i];
+        }
+
+        if (lastId != null) {
+            this.lastId = lastId;
+        }
+        return closed;
+    }
+
+    private int append() {
+        if (size < capacity) {
+            return slot(size++);
+        }
+        final int slot = head;
+        head = head + 1 == capacity ? 0 : head + 1;
+        return slot;
+    }
+
+    private int slot(int index) {
+        final int slot = head + index;
+        return slot < capacity ? slot : slot - capacity;
+    }
+
+    // -----------
+    // - QUERIES -
+    // -----------
+
+    public String getPair() {
+        return pair;
+    }
+
+    public Interval getInterval() {
+        return interval;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get number of kept candles
+     *
+     * @return number of candles
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get cursor to poll candles since
+     *
+     * @return last id of the latest poll, null before the first poll
+     */
+    public synchronized Long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return time of the candle
+     */
+    public synchronized long getTime(int index) {
+        return time[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return open price of the candle
+     */
+    public synchronized double getOpen(int index) {
+        return open[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return high price of the candle
+     */
+    public synchronized double getHigh(int index) {
+        return high[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return low price of the candle
+     */
+    public synchronized double getLow(int index) {
+        return low[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return close price of the candle
+     */
+    public synchronized double getClose(int index) {
+        return close[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return volume weighted average price of the candle
+     */
+    public synchronized double getVwap(int index) {
+        return vwap[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return volume of the candle
+     */
+    public synchronized double getVolume(int index) {
+        return volume[checkedSlot(index)];
+    }
+
+    /**
+     * @param index candle index, 0 being the oldest
+     * @return number of trades of the candle
+     */
+    public synchronized int getCount(int index) {
+        return count[checkedSlot(index)];
+    }
+
+    /**
+     * Copy close prices, oldest first
+     *
+     * @param destination array of at least <code>size()</code> elements
+     * @return number of copied prices
+     */
+    public synchronized int copyCloses(double[] destination) {
+        final int firstPart = Math.min(size, capacity - head);
+        System.arraycopy(close, head, destination, 0, firstPart);
+        System.arraycopy(close, 0, destination, firstPart, size - firstPart);
+        return size;
+    }
+
+    private int checkedSlot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("candle " + index + " out of " + size);
+        }
+        return slot(index);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CandleSeries[" + pair + ", " + interval
+                + ", size=" + size + "/" + capacity
+                + ", lastTime=" + (size > 0 ? time[slot(size - 1)] : "-")
+                + ", lastId=" + lastId + "]";
+    }
+}
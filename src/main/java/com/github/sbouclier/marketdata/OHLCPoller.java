@@ -0,0 +1,230 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.result.ColumnarOHLCResult;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incremental OHLC poller keeping a rolling {@link CandleSeries} per pair and interval
+ * <p>
+ * The first poll of a series fetches all candles, next polls only request candles since the last id
+ * returned by the previous poll. The forming candle is replaced in place and listeners are notified
+ * of each candle once it is closed.
+ * <p>
+ * Polls are serialized without holding any monitor during the request, and listeners are notified once
+ * the poll is merged, outside the monitor of the series.
+ *
+ * <pre>
+ * OHLCPoller poller = new OHLCPoller(client);
+ * poller.subscribe("XXBTZEUR", Interval.ONE_MINUTE);
+ * poller.addListener((series, index) -&gt; System.out.println(series.getClose(index)));
+ * poller.start(scheduler, 30, TimeUnit.SECONDS);
+ * </pre>
+ *
+ * @author Stéphane Bouclier
+ */
+public class OHLCPoller {
+
+    /**
+     * Number of candles returned by Kraken without cursor
+     */
+    public static final int DEFAULT_CAPACITY = 720;
+
+    private final KrakenAPIClient client;
+    private final int capacity;
+
+    private final ConcurrentMap<String, CandleSeries> series = new ConcurrentHashMap<>();
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final List<CandleListener> listeners = new CopyOnWriteArrayList<>();
+    private final CandleListener dispatcher = new CandleListener() {
+        @Override
+        public void onCandleClosed(CandleSeries candles, int index) {
+            for (CandleListener listener : listeners) {
+                try {
+                    listener.onCandleClosed(candles, index);
+                } catch (RuntimeException ex) {
+                    onPollFailed(candles, new KrakenApiException("candle listener failed", ex));
+                }
+            }
+        }
+
+        @Override
+        public void onPollFailed(CandleSeries candles, KrakenApiException exception) {
+            for (CandleListener listener : listeners) {
+                try {
+                    listener.onPollFailed(candles, exception);
+                } catch (RuntimeException ex) {
+                    // nowhere left to report it, other listeners and next polls go on
+                }
+            }
+        }
+    };
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor keeping {@link #DEFAULT_CAPACITY} candles per series
+     *
+     * @param client Kraken client
+     */
+    public OHLCPoller(KrakenAPIClient client) {
+        this(client, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client   Kraken client
+     * @param capacity maximum number of candles per series
+     */
+    public OHLCPoller(KrakenAPIClient client, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.client = client;
+        this.capacity = capacity;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get or create series of a pair and interval
+     *
+     * @param pair     pair name, as returned by Kraken in results, e.g. XXBTZEUR
+     * @param interval interval of candles
+     * @return series
+     */
+    public CandleSeries subscribe(String pair, Interval interval) {
+        return series.computeIfAbsent(key(pair, interval), k -> new CandleSeries(pair, interval, capacity));
+    }
+
+    /**
+     * Stop polling a series
+     *
+     * @param pair     pair name
+     * @param interval interval of candles
+     * @return removed series, null if not subscribed
+     */
+    public CandleSeries unsubscribe(String pair, Interval interval) {
+        return series.remove(key(pair, interval));
+    }
+
+    /**
+     * Get series of a pair and interval
+     *
+     * @param pair     pair name
+     * @param interval interval of candles
+     * @return series, null if not subscribed
+     */
+    public CandleSeries getSeries(String pair, Interval interval) {
+        return series.get(key(pair, interval));
+    }
+
+    /**
+     * @return all subscribed series
+     */
+    public Collection<CandleSeries> getSeries() {
+        return Collections.unmodifiableCollection(series.values());
+    }
+
+    public void addListener(CandleListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CandleListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Poll new candles of a pair and interval, subscribing if needed
+     *
+     * @param pair     pair name
+     * @param interval interval of candles
+     * @return number of closed candles
+     * @throws KrakenApiException if the poll fails, the series is left unchanged
+     */
+    public int poll(String pair, Interval interval) throws KrakenApiException {
+        return poll(subscribe(pair, interval));
+    }
+
+    private int poll(CandleSeries candles) throws KrakenApiException {
+        pollLock.lock();
+        try {
+            final Long since = candles.getLastId();
+            final ColumnarOHLCResult result = since == null
+                    ? client.getOHLCColumns(candles.getPair(), candles.getInterval())
+                    : client.getOHLCColumns(candles.getPair(), candles.getInterval(), since);
+
+            final ColumnarOHLCResult.Columns columns = columnsOf(result, candles.getPair());
+            if (columns == null) {
+                return 0;
+            }
+            return candles.merge(columns, result.getLastId(), dispatcher);
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private static ColumnarOHLCResult.Columns columnsOf(ColumnarOHLCResult result, String pair) {
+        final Map<String, ColumnarOHLCResult.Columns> columns = result.getResult();
+        if (columns == null || columns.isEmpty()) {
+            return null;
+        }
+        final ColumnarOHLCResult.Columns pairColumns = columns.get(pair);
+        return pairColumns != null ? pairColumns : columns.values().iterator().next();
+    }
+
+    /**
+     * Poll all subscribed series, failures are reported to listeners and never stop polling: runtime
+     * exceptions of the client are wrapped in a {@link KrakenApiException}, and exceptions thrown by a
+     * listener are reported to the others
+     *
+     * @return number of closed candles
+     */
+    public int pollAll() {
+        int closed = 0;
+        for (CandleSeries candles : series.values()) {
+            try {
+                closed += poll(candles);
+            } catch (KrakenApiException ex) {
+                dispatcher.onPollFailed(candles, ex);
+            } catch (RuntimeException ex) {
+                dispatcher.onPollFailed(candles, new KrakenApiException("unable to poll OHLC", ex));
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Poll all subscribed series periodically
+     *
+     * @param scheduler scheduler running polls
+     * @param period    delay between the end of a poll and the start of the next one
+     * @param unit      unit of period
+     * @return future to cancel polling
+     */
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(this::pollAll, 0, period, unit);
+    }
+
+    private static String key(String pair, Interval interval) {
+        return pair + '/' + interval.name();
+    }
+}
@@ -0,0 +1,400 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.ColumnarRecentSpreadResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spread history of one pair, incrementally polled with the <code>last</code> cursor
+ * <p>
+ * Spreads are appended to a fixed-capacity ring of primitive arrays and numbered by a sequence starting
+ * at 0. The window of statistics is the ring itself: the current, minimum, maximum and mean spread of
+ * the kept spreads are maintained on append, with monotonic queues for extremes and a running sum for
+ * the mean, so queries are O(1) and appends amortized O(1).
+ * <p>
+ * Kraken may return again the spreads of the cursor second, they are skipped so that no spread is
+ * appended twice. Polls are serialized without holding any monitor during the request. Ring reads
+ * and writes are synchronized on the history.
+ *
+ * @author Stéphane Bouclier
+ */
+public class SpreadHistory {
+
+    /**
+     * Default number of kept spreads
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final KrakenAPIClient client;
+    private final String pair;
+    private final int capacity;
+
+    private final long[] time;
+    private final double[] bid;
+    private final double[] ask;
+    private final double[] spread;
+
+    private final Extremes minimums;
+    private final Extremes maximums;
+    private double sum;
+
+    private long nextSequence;
+    private int lastTimeCount;
+    private volatile Long lastId;
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final List<SpreadListener> listeners = new CopyOnWriteArrayList<>();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor keeping {@link #DEFAULT_CAPACITY} spreads
+     *
+     * @param client Kraken client
+     * @param pair   asset pair
+     */
+    public SpreadHistory(KrakenAPIClient client, String pair) {
+        this(client, pair, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client   Kraken client
+     * @param pair     asset pair
+     * @param capacity maximum number of kept spreads, i.e. window of statistics
+     */
+    public SpreadHistory(KrakenAPIClient client, String pair, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.client = client;
+        this.pair = pair;
+        this.capacity = capacity;
+
+        time = new long[capacity];
+        bid = new double[capacity];
+        ask = new double[capacity];
+        spread = new double[capacity];
+        minimums = new Extremes(false);
+        maximums = new Extremes(true);
+    }
+
+    // -----------
+    // - POLLING -
+    // -----------
+
+    /**
+     * Append spreads since the cursor of the previous poll
+     *
+     * @return number of appended spreads
+     * @throws KrakenApiException if the request fails, the history is left unchanged
+     */
+    public int poll() throws KrakenApiException {
+        pollLock.lock();
+        try {
+            final ColumnarRecentSpreadResult result = client.getRecentSpreadsColumns(pair, lastId);
+            return append(spreadsOf(result), result.getLastId());
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private ColumnarRecentSpreadResult.Columns spreadsOf(ColumnarRecentSpreadResult result) {
+        final Map<String, ColumnarRecentSpreadResult.Columns> spreads = result.getResult();
+        if (spreads == null || spreads.isEmpty()) {
+            return null;
+        }
+        final ColumnarRecentSpreadResult.Columns pairSpreads = spreads.get(pair);
+        return pairSpreads != null ? pairSpreads : spreads.values().iterator().next();
+    }
+
+    /**
+     * Append spreads, notifying listeners
+     *
+     * @param spreads spreads in time order, may be null
+     * @param lastId  cursor following the spreads, kept for the next poll if not null
+     * @return number of appended spreads
+     */
+    int append(ColumnarRecentSpreadResult.Columns spreads, Long lastId) {
+        final long from;
+        final long to;
+        synchronized (this) {
+            from = nextSequence;
+            final long lastTime = nextSequence > 0 ? time[slot(nextSequence - 1)] : Long.MIN_VALUE;
+            final int knownAtLastTime = lastTimeCount;
+            int seenAtLastTime = 0;
+
+            for (int i = 0, n = spreads != null ? spreads.size() : 0; i < n; i++) {
+                final long spreadTime = spreads.time[i];
+                if (spreadTime < lastTime || (spreadTime == lastTime && seenAtLastTime++ < knownAtLastTime)) {
+                    continue;
+                }
+                add(spreadTime, spreads.bid[i], spreads.ask[i]);
+            }
+
+            to = nextSequence;
+            if (lastId != null) {
+                this.lastId = lastId;
+            }
+        }
+
+        if (to > from) {
+            for (SpreadListener listener : listeners) {
+                listener.onSpreads(this, from, to);
+            }
+        }
+        return (int) (to - from);
+    }
+
+    private void add(long spreadTime, double spreadBid, double spreadAsk) {
+        final long sequence = nextSequence++;
+        final int slot = slot(sequence);
+        final double value = spreadAsk - spreadBid;
+
+        if (sequence >= capacity) {
+            sum -= spread[slot];
+        }
+        if (nextSequence > 1 && spreadTime == time[slot(sequence - 1)]) {
+            lastTimeCount++;
+        } else {
+            lastTimeCount = 1;
+        }
+
+        time[slot] = spreadTime;
+        bid[slot] = spreadBid;
+        ask[slot] = spreadAsk;
+        spread[slot] = value;
+
+        final long oldest = getOldestSequence();
+        minimums.add(sequence, value, oldest);
+        maximums.add(sequence, value, oldest);
+
+        if (slot == capacity - 1) {
+            // recompute to drop the rounding errors accumulated by the running sum
+            double total = 0;
+            for (int i = 0, n = size(); i < n; i++) {
+                total += spread[i];
+            }
+            sum = total;
+        } else {
+            sum += value;
+        }
+    }
+
+    /**
+     * Poll periodically, failures are reported to listeners and never stop polling: runtime exceptions of
+     * the client or of a listener are wrapped in a {@link KrakenApiException}
+     *
+     * @param scheduler scheduler running polls
+     * @param period    delay between the end of a poll and the start of the next one
+     * @param unit      unit of period
+     * @return future to cancel polling
+     */
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (KrakenApiException ex) {
+                reportFailure(ex);
+            } catch (RuntimeException ex) {
+                reportFailure(new KrakenApiException("unable to poll spreads", ex));
+            }
+        }, 0, period, unit);
+    }
+
+    private void reportFailure(KrakenApiException exception) {
+        for (SpreadListener listener : listeners) {
+            try {
+                listener.onPollFailed(this, exception);
+            } catch (RuntimeException ex) {
+                // nowhere left to report it, other listeners and next polls go on
+            }
+        }
+    }
+
+    public void addListener(SpreadListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SpreadListener listener) {
+        listeners.remove(listener);
+    }
+
+    // -----------
+    // - QUERIES -
+    // -----------
+
+    public String getPair() {
+        return pair;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get cursor of the next poll
+     *
+     * @return last id, null before the first poll
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Get sequence of the next appended spread, i.e. number of appended spreads
+     *
+     * @return next sequence
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Get sequence of the oldest kept spread
+     *
+     * @return oldest sequence
+     */
+    public synchronized long getOldestSequence() {
+        return Math.max(0, nextSequence - capacity);
+    }
+
+    /**
+     * Get number of kept spreads
+     *
+     * @return number of spreads
+     */
+    public synchronized int size() {
+        return (int) Math.min(nextSequence, capacity);
+    }
+
+    /**
+     * @return latest spread, NaN if empty
+     */
+    public synchronized double getCurrentSpread() {
+        return nextSequence > 0 ? spread[slot(nextSequence - 1)] : Double.NaN;
+    }
+
+    /**
+     * @return lowest kept spread, NaN if empty
+     */
+    public synchronized double getMinSpread() {
+        return minimums.value();
+    }
+
+    /**
+     * @return highest kept spread, NaN if empty
+     */
+    public synchronized double getMaxSpread() {
+        return maximums.value();
+    }
+
+    /**
+     * @return mean of kept spreads, NaN if empty
+     */
+    public synchronized double getMeanSpread() {
+        return nextSequence > 0 ? sum / size() : Double.NaN;
+    }
+
+    /**
+     * @param sequence spread sequence
+     * @return time of the spread, in seconds
+     */
+    public synchronized long getTime(long sequence) {
+        return time[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence spread sequence
+     * @return best bid
+     */
+    public synchronized double getBid(long sequence) {
+        return bid[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence spread sequence
+     * @return best ask
+     */
+    public synchronized double getAsk(long sequence) {
+        return ask[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence spread sequence
+     * @return best ask minus best bid
+     */
+    public synchronized double getSpread(long sequence) {
+        return spread[checkedSlot(sequence)];
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private int checkedSlot(long sequence) {
+        if (sequence < getOldestSequence() || sequence >= nextSequence) {
+            throw new IndexOutOfBoundsException("spread " + sequence + " out of [" + getOldestSequence() + ", " + nextSequence + ")");
+        }
+        return slot(sequence);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SpreadHistory[" + pair
+                + ", spreads=" + nextSequence
+                + ", kept=" + size() + "/" + capacity
+                + ", current=" + getCurrentSpread()
+                + ", min=" + getMinSpread()
+                + ", max=" + getMaxSpread() + "]";
+    }
+
+    /**
+     * Monotonic queue of sequences whose spreads are candidates for the extreme of the window
+     */
+    private final class Extremes {
+        private final boolean max;
+        private final long[] sequences = new long[capacity];
+        private int head;
+        private int size;
+
+        Extremes(boolean max) {
+            this.max = max;
+        }
+
+        void add(long sequence, double value, long oldest) {
+            while (size > 0 && sequences[head] < oldest) {
+                head = head + 1 == capacity ? 0 : head + 1;
+                size--;
+            }
+            while (size > 0 && dominated(spread[slot(sequences[index(size - 1)])], value)) {
+                size--;
+            }
+            sequences[index(size++)] = sequence;
+        }
+
+        private boolean dominated(double candidate, double value) {
+            return max ? candidate <= value : candidate >= value;
+        }
+
+        private int index(int position) {
+            final int index = head + position;
+            return index < capacity ? index : index - capacity;
+        }
+
+        double value() {
+            return size > 0 ? spread[slot(sequences[head])] : Double.NaN;
+        }
+    }
+}
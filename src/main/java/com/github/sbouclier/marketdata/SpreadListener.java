@@ -0,0 +1,30 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenApiException;
+
+/**
+ * Listener of spreads appended to a {@link SpreadHistory}
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface SpreadListener {
+
+    /**
+     * Called after each poll appending spreads, on the polling thread
+     *
+     * @param history      history of the spreads
+     * @param fromSequence sequence of the first appended spread
+     * @param toSequence   sequence following the last appended spread
+     */
+    void onSpreads(SpreadHistory history, long fromSequence, long toSequence);
+
+    /**
+     * Called when a scheduled poll fails, the history is left unchanged and polled again later
+     *
+     * @param history   polled history
+     * @param exception failure
+     */
+    default void onPollFailed(SpreadHistory history, KrakenApiException exception) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.TickerInformationResult;
+import com.github.sbouclier.result.TickerInformationResult.TickerInformation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ticker batcher coalescing ticker requests of concurrent callers
+ * <p>
+ * Pairs requested within a time window are fetched together: the batch is split into chunks of at most
+ * <code>maxPairsPerRequest</code> pairs, each chunk being one getTickerInformation call, chunks are
+ * requested in parallel and each caller gets back the tickers of its own pairs. A pair requested by several
+ * callers within the same window is fetched once.
+ * <p>
+ * A window ends after its time window or as soon as it is full, whichever comes first, the next window then
+ * starting with the next request.
+ * <p>
+ * Pairs must be named as returned by Kraken in results, e.g. XXBTZEUR. If a chunk fails, futures of all
+ * its pairs are completed exceptionally with a {@link KrakenApiException}.
+ *
+ * <pre>
+ * TickerBatcher batcher = new TickerBatcher(client, Executors.newScheduledThreadPool(4));
+ * batcher.getTicker("XXBTZEUR").thenAccept(ticker -&gt; System.out.println(ticker.lastTradeClosed));
+ * </pre>
+ *
+ * @author Stéphane Bouclier
+ */
+public class TickerBatcher {
+
+    /**
+     * Default time window of a batch, in milliseconds
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+
+    /**
+     * Default maximum number of pairs per request, keeping the query string short
+     */
+    public static final int DEFAULT_MAX_PAIRS_PER_REQUEST = 50;
+
+    private final KrakenAPIClient client;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final long window;
+    private final TimeUnit unit;
+    private final int maxPairsPerRequest;
+
+    private Map<String, CompletableFuture<TickerInformation>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> timer;
+    private long generation;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor with a window of {@link #DEFAULT_WINDOW_MILLIS} and {@link #DEFAULT_MAX_PAIRS_PER_REQUEST}
+     * pairs per request, chunks being requested on the scheduler
+     *
+     * @param client    Kraken client
+     * @param scheduler scheduler closing windows and requesting chunks
+     */
+    public TickerBatcher(KrakenAPIClient client, ScheduledExecutorService scheduler) {
+        this(client, scheduler, scheduler, DEFAULT_WINDOW_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_PAIRS_PER_REQUEST);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client             Kraken client
+     * @param scheduler          scheduler closing windows
+     * @param executor           executor requesting chunks, in parallel if it has several threads
+     * @param window             time window of a batch, starting with its first request
+     * @param unit               unit of window
+     * @param maxPairsPerRequest maximum number of pairs per request
+     */
+    public TickerBatcher(KrakenAPIClient client, ScheduledExecutorService scheduler, Executor executor,
+                         long window, TimeUnit unit, int maxPairsPerRequest) {
+        if (maxPairsPerRequest < 1) {
+            throw new IllegalArgumentException("maxPairsPerRequest must be positive: " + maxPairsPerRequest);
+        }
+        this.client = client;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.window = window;
+        this.unit = unit;
+        this.maxPairsPerRequest = maxPairsPerRequest;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get ticker of a pair with the next batch
+     *
+     * @param pair pair name, as returned by Kraken in results
+     * @return future ticker
+     */
+    public CompletableFuture<TickerInformation> getTicker(String pair) {
+        final CompletableFuture<TickerInformation> shared;
+        final boolean full;
+        synchronized (this) {
+            shared = pending.computeIfAbsent(pair, p -> new CompletableFuture<>());
+            full = pending.size() >= maxPairsPerRequest;
+            if (timer == null && !full) {
+                final long windowGeneration = generation;
+                timer = scheduler.schedule(() -> flush(windowGeneration), window, unit);
+            }
+        }
+        if (full) {
+            flush();
+        }
+        // dependent future, so that a caller cancelling its future does not cancel other callers
+        return shared.thenApply(ticker -> ticker);
+    }
+
+    /**
+     * Get tickers of pairs with the next batch
+     *
+     * @param pairs pair names, as returned by Kraken in results
+     * @return future tickers by pair, in order of pairs
+     */
+    public CompletableFuture<Map<String, TickerInformation>> getTickers(Collection<String> pairs) {
+        final Map<String, CompletableFuture<TickerInformation>> futures = new LinkedHashMap<>();
+        for (String pair : pairs) {
+            futures.put(pair, getTicker(pair));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    final Map<String, TickerInformation> tickers = new LinkedHashMap<>();
+                    futures.forEach((pair, future) -> tickers.put(pair, future.join()));
+                    return tickers;
+                });
+    }
+
+    /**
+     * Request pending pairs now, without waiting for the end of the window
+     */
+    public void flush() {
+        final Map<String, CompletableFuture<TickerInformation>> batch;
+        final ScheduledFuture<?> expired;
+        synchronized (this) {
+            expired = timer;
+            batch = closeWindow();
+        }
+        if (expired != null) {
+            expired.cancel(false);
+        }
+        requestChunks(batch);
+    }
+
+    /**
+     * Request pending pairs at the end of a window, unless the window was already flushed
+     *
+     * @param windowGeneration generation of the window
+     */
+    private void flush(long windowGeneration) {
+        final Map<String, CompletableFuture<TickerInformation>> batch;
+        synchronized (this) {
+            if (windowGeneration != generation) {
+                // stale timer of a window flushed once full, must not shorten the next window
+                return;
+            }
+            batch = closeWindow();
+        }
+        requestChunks(batch);
+    }
+
+    private Map<String, CompletableFuture<TickerInformation>> closeWindow() {
+        final Map<String, CompletableFuture<TickerInformation>> batch = pending;
+        pending = new LinkedHashMap<>();
+        timer = null;
+        generation++;
+        return batch;
+    }
+
+    private void requestChunks(Map<String, CompletableFuture<TickerInformation>> batch) {
+        final List<String> pairs = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < pairs.size(); from += maxPairsPerRequest) {
+            final List<String> chunk = pairs.subList(from, Math.min(from + maxPairsPerRequest, pairs.size()));
+            try {
+                executor.execute(() -> request(chunk, batch));
+            } catch (RuntimeException ex) {
+                fail(chunk, batch, new KrakenApiException("unable to request tickers", ex));
+            }
+        }
+    }
+
+    private void request(List<String> chunk, Map<String, CompletableFuture<TickerInformation>> batch) {
+        final TickerInformationResult result;
+        try {
+            requestCount.incrementAndGet();
+            result = client.getTickerInformation(chunk);
+        } catch (KrakenApiException ex) {
+            fail(chunk, batch, ex);
+            return;
+        } catch (RuntimeException ex) {
+            fail(chunk, batch, new KrakenApiException("unable to request tickers", ex));
+            return;
+        }
+
+        final Map<String, TickerInformation> tickers = result.getResult() != null ? result.getResult() : Collections.emptyMap();
+        for (String pair : chunk) {
+            final TickerInformation ticker = tickers.get(pair);
+            if (ticker != null) {
+                batch.get(pair).complete(ticker);
+            } else {
+                batch.get(pair).completeExceptionally(new KrakenApiException("no ticker returned for pair " + pair));
+            }
+        }
+    }
+
+    private static void fail(List<String> chunk, Map<String, CompletableFuture<TickerInformation>> batch, KrakenApiException ex) {
+        for (String pair : chunk) {
+            batch.get(pair).completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Get number of getTickerInformation calls
+     *
+     * @return number of requests
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return number of pairs waiting for the next batch
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+}
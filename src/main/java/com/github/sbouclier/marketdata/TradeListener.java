@@ -0,0 +1,30 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenApiException;
+
+/**
+ * Listener of trades appended to a {@link TradeTape}
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface TradeListener {
+
+    /**
+     * Called after each poll appending trades, on the polling thread
+     *
+     * @param tape         tape of the trades
+     * @param fromSequence sequence of the first appended trade
+     * @param toSequence   sequence following the last appended trade
+     */
+    void onTrades(TradeTape tape, long fromSequence, long toSequence);
+
+    /**
+     * Called when a scheduled poll fails, the tape is left unchanged and polled again later
+     *
+     * @param tape      polled tape
+     * @param exception failure
+     */
+    default void onPollFailed(TradeTape tape, KrakenApiException exception) {
+    }
+}
@@ -0,0 +1,336 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.ColumnarRecentTradeResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tape of public trades of one pair, continuously polled with the <code>last</code> cursor
+ * <p>
+ * Trades are appended to a preallocated ring of primitive arrays and numbered by a sequence starting
+ * at 0, so readers can follow the tape from any sequence. Each poll requests trades since the cursor
+ * of the previous poll, and requests again while Kraken returns full pages, so no trade is skipped
+ * between polls. Trades older than the last appended one are dropped, so none is appended twice.
+ * <p>
+ * Polls are serialized without holding any monitor during the request. Ring reads and writes are
+ * synchronized on the tape. Once more than <code>capacity</code> trades are appended, the oldest ones
+ * are overwritten, see {@link #getOldestSequence()}.
+ *
+ * @author Stéphane Bouclier
+ */
+public class TradeTape {
+
+    /**
+     * Maximum number of trades returned by Kraken per request
+     */
+    public static final int MAX_TRADES_PER_REQUEST = 1000;
+
+    /**
+     * Default number of kept trades
+     */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    private static final int MAX_REQUESTS_PER_POLL = 10;
+
+    private final KrakenAPIClient client;
+    private final String pair;
+    private final int capacity;
+
+    private final double[] price;
+    private final double[] volume;
+    private final double[] time;
+    private final byte[] buySell;
+    private final byte[] marketLimit;
+
+    private long nextSequence;
+    private volatile Long lastId;
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final List<TradeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor keeping {@link #DEFAULT_CAPACITY} trades, starting with the latest trades
+     *
+     * @param client Kraken client
+     * @param pair   asset pair
+     */
+    public TradeTape(KrakenAPIClient client, String pair) {
+        this(client, pair, DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client   Kraken client
+     * @param pair     asset pair
+     * @param capacity maximum number of kept trades
+     * @param since    cursor to start from, null to start with the latest trades
+     */
+    public TradeTape(KrakenAPIClient client, String pair, int capacity, Long since) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.client = client;
+        this.pair = pair;
+        this.capacity = capacity;
+        this.lastId = since;
+
+        price = new double[capacity];
+        volume = new double[capacity];
+        time = new double[capacity];
+        buySell = new byte[capacity];
+        marketLimit = new byte[capacity];
+    }
+
+    // -----------
+    // - POLLING -
+    // -----------
+
+    /**
+     * Append trades since the cursor of the previous poll
+     *
+     * @return number of appended trades
+     * @throws KrakenApiException if a request fails, trades of previous requests of this poll are kept
+     */
+    public int poll() throws KrakenApiException {
+        pollLock.lock();
+        try {
+            int appended = 0;
+            for (int request = 0; request < MAX_REQUESTS_PER_POLL; request++) {
+                final Long since = lastId;
+                final ColumnarRecentTradeResult result = client.getRecentTradesColumns(pair, since);
+                final ColumnarRecentTradeResult.Columns trades = tradesOf(result);
+
+                appended += append(trades, result.getLastId());
+
+                final int count = trades != null ? trades.size() : 0;
+                if (count < MAX_TRADES_PER_REQUEST || result.getLastId() == null || result.getLastId().equals(since)) {
+                    break;
+                }
+            }
+            return appended;
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private ColumnarRecentTradeResult.Columns tradesOf(ColumnarRecentTradeResult result) {
+        final Map<String, ColumnarRecentTradeResult.Columns> trades = result.getResult();
+        if (trades == null || trades.isEmpty()) {
+            return null;
+        }
+        final ColumnarRecentTradeResult.Columns pairTrades = trades.get(pair);
+        return pairTrades != null ? pairTrades : trades.values().iterator().next();
+    }
+
+    /**
+     * Append trades, notifying listeners
+     *
+     * @param trades trades in time order, may be null
+     * @param lastId cursor following the trades, kept for the next poll if not null
+     * @return number of appended trades
+     */
+    int append(ColumnarRecentTradeResult.Columns trades, Long lastId) {
+        final long from;
+        final long to;
+        synchronized (this) {
+            from = nextSequence;
+            for (int i = 0, n = trades != null ? trades.size() : 0; i < n; i++) {
+                if (nextSequence > 0 && trades.time[i] < time[slot(nextSequence - 1)]) {
+                    continue;
+                }
+
+                final int slot = slot(nextSequence++);
+                price[slot] = trades.price[i];
+                volume[slot] = trades.volume[i];
+                time[slot] = trades.time[i];
+                buySell[slot] = trades.buySell[i];
+                marketLimit[slot] = trades.marketLimit[i];
+            }
+            to = nextSequence;
+            if (lastId != null) {
+                this.lastId = lastId;
+            }
+        }
+
+        if (to > from) {
+            for (TradeListener listener : listeners) {
+                listener.onTrades(this, from, to);
+            }
+        }
+        return (int) (to - from);
+    }
+
+    /**
+     * Poll periodically, failures are reported to listeners and never stop polling: runtime exceptions of
+     * the client or of a listener are wrapped in a {@link KrakenApiException}
+     *
+     * @param scheduler scheduler running polls
+     * @param period    delay between the end of a poll and the start of the next one
+     * @param unit      unit of period
+     * @return future to cancel polling
+     */
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (KrakenApiException ex) {
+                reportFailure(ex);
+            } catch (RuntimeException ex) {
+                reportFailure(new KrakenApiException("unable to poll trades", ex));
+            }
+        }, 0, period, unit);
+    }
+
+    private void reportFailure(KrakenApiException exception) {
+        for (TradeListener listener : listeners) {
+            try {
+                listener.onPollFailed(this, exception);
+            } catch (RuntimeException ex) {
+                // nowhere left to report it, other listeners and next polls go on
+            }
+        }
+    }
+
+    public void addListener(TradeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TradeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // -----------
+    // - QUERIES -
+    // -----------
+
+    public String getPair() {
+        return pair;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get cursor of the next poll
+     *
+     * @return last id, null before the first poll
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Get sequence of the next appended trade, i.e. number of appended trades
+     *
+     * @return next sequence
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Get sequence of the oldest kept trade
+     *
+     * @return oldest sequence
+     */
+    public synchronized long getOldestSequence() {
+        return Math.max(0, nextSequence - capacity);
+    }
+
+    /**
+     * Get number of kept trades
+     *
+     * @return number of trades
+     */
+    public synchronized int size() {
+        return (int) Math.min(nextSequence, capacity);
+    }
+
+    /**
+     * Visit kept trades from a sequence
+     *
+     * @param fromSequence sequence of the first trade to visit, trades already overwritten are skipped
+     * @param visitor      visitor
+     * @return sequence following the last visited trade, to visit next trades later
+     */
+    public synchronized long forEach(long fromSequence, TradeVisitor visitor) {
+        for (long sequence = Math.max(fromSequence, getOldestSequence()); sequence < nextSequence; sequence++) {
+            final int slot = slot(sequence);
+            visitor.visit(sequence, price[slot], volume[slot], time[slot], buySell[slot], marketLimit[slot]);
+        }
+        return Math.max(fromSequence, nextSequence);
+    }
+
+    /**
+     * @param sequence trade sequence
+     * @return price of the trade
+     */
+    public synchronized double getPrice(long sequence) {
+        return price[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence trade sequence
+     * @return volume of the trade
+     */
+    public synchronized double getVolume(long sequence) {
+        return volume[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence trade sequence
+     * @return time of the trade, in seconds
+     */
+    public synchronized double getTime(long sequence) {
+        return time[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence trade sequence
+     * @return {@link ColumnarRecentTradeResult#BUY} or {@link ColumnarRecentTradeResult#SELL}
+     */
+    public synchronized byte getBuySell(long sequence) {
+        return buySell[checkedSlot(sequence)];
+    }
+
+    /**
+     * @param sequence trade sequence
+     * @return {@link ColumnarRecentTradeResult#MARKET} or {@link ColumnarRecentTradeResult#LIMIT}
+     */
+    public synchronized byte getMarketLimit(long sequence) {
+        return marketLimit[checkedSlot(sequence)];
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private int checkedSlot(long sequence) {
+        if (sequence < getOldestSequence() || sequence >= nextSequence) {
+            throw new IndexOutOfBoundsException("trade " + sequence + " out of [" + getOldestSequence() + ", " + nextSequence + ")");
+        }
+        return slot(sequence);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TradeTape[" + pair
+                + ", trades=" + nextSequence
+                + ", kept=" + size() + "/" + capacity
+                + ", lastId=" + lastId + "]";
+    }
+}
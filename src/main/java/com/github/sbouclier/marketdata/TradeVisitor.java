@@ -0,0 +1,22 @@
+package com.github.sbouclier.marketdata;
+
+/**
+ * Visitor of trades of a {@link TradeTape}, receiving primitive values only
+ *
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface TradeVisitor {
+
+    /**
+     * Visit a trade
+     *
+     * @param sequence    sequence of the trade in the tape
+     * @param price       price
+     * @param volume      volume
+     * @param time        time in seconds
+     * @param buySell     buy/sell code, see {@link com.github.sbouclier.result.ColumnarRecentTradeResult#BUY}
+     * @param marketLimit market/limit code, see {@link com.github.sbouclier.result.ColumnarRecentTradeResult#MARKET}
+     */
+    void visit(long sequence, double price, double volume, double time, byte buySell, byte marketLimit);
+}
@@ -0,0 +1,58 @@
+package com.github.sbouclier.metrics;
+
+import com.github.sbouclier.KrakenApiMethod;
+
+/**
+ * Metrics SPI, recording requests sent to Kraken API by method
+ * <p>
+ * Implementations are called on the threads sending requests, concurrently, so they must be thread-safe and
+ * should not block. All methods do nothing by default, see {@link #NOOP} and {@link InMemoryMetrics}.
+ *
+ * @author Stéphane Bouclier
+ */
+public interface ApiMetrics {
+
+    /**
+     * Metrics recording nothing, the default
+     */
+    ApiMetrics NOOP = new ApiMetrics() {
+    };
+
+    /**
+     * Record a request, successful or not
+     *
+     * @param method kraken method
+     */
+    default void recordRequest(KrakenApiMethod method) {
+    }
+
+    /**
+     * Record an error of a failed request
+     *
+     * @param method    kraken method
+     * @param errorCode kraken error code without its additional text, e.g. "EGeneral:Invalid arguments", or
+     *                  message of a client-side failure, e.g. "unable to query Kraken API"
+     */
+    default void recordError(KrakenApiMethod method, String errorCode) {
+    }
+
+    /**
+     * Record duration of a phase of a request, phases not measured for a request are not recorded
+     *
+     * @param method kraken method
+     * @param phase  phase
+     * @param nanos  duration in nanoseconds
+     */
+    default void recordTiming(KrakenApiMethod method, Phase phase, long nanos) {
+    }
+
+    /**
+     * Record bytes of a response
+     *
+     * @param method         kraken method
+     * @param bytesReceived  bytes of the response body
+     * @param bytesAllocated bytes allocated while reading and unmarshalling it, -1 if not supported by the JVM
+     */
+    default void recordBytes(KrakenApiMethod method, long bytesReceived, long bytesAllocated) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.sbouclier.metrics;
+
+import com.github.sbouclier.KrakenApiMethod;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics kept in memory, by method: requests, errors by code, histograms of phases, bytes received and
+ * allocated
+ * <p>
+ * Counters are lock-free, they can be read at any time, e.g. by a scheduled task exporting them to a
+ * monitoring system or printing {@link #report()}.
+ *
+ * @author Stéphane Bouclier
+ */
+public class InMemoryMetrics implements ApiMetrics {
+
+    private final MethodMetrics[] methods = new MethodMetrics[KrakenApiMethod.values().length];
+
+    public InMemoryMetrics() {
+        for (int i = 0; i < methods.length; i++) {
+            methods[i] = new MethodMetrics();
+        }
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    @Override
+    public void recordRequest(KrakenApiMethod method) {
+        methods[method.ordinal()].requests.increment();
+    }
+
+    @Override
+    public void recordError(KrakenApiMethod method, String errorCode) {
+        final ConcurrentMap<String, LongAdder> errors = methods[method.ordinal()].errors;
+        LongAdder count = errors.get(errorCode);
+        if (count == null) {
+            count = errors.computeIfAbsent(errorCode, code -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Override
+    public void recordTiming(KrakenApiMethod method, Phase phase, long nanos) {
+        methods[method.ordinal()].phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordBytes(KrakenApiMethod method, long bytesReceived, long bytesAllocated) {
+        final MethodMetrics metrics = methods[method.ordinal()];
+        metrics.bytesReceived.add(bytesReceived);
+        if (bytesAllocated >= 0) {
+            metrics.bytesAllocated.add(bytesAllocated);
+        }
+    }
+
+    public long getRequestCount(KrakenApiMethod method) {
+        return methods[method.ordinal()].requests.sum();
+    }
+
+    public long getErrorCount(KrakenApiMethod method) {
+        long count = 0;
+        for (LongAdder errors : methods[method.ordinal()].errors.values()) {
+            count += errors.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Get errors of a method by code
+     *
+     * @param method kraken method
+     * @return number of errors by code, sorted by code
+     */
+    public Map<String, Long> getErrorCounts(KrakenApiMethod method) {
+        final Map<String, Long> counts = new TreeMap<>();
+        methods[method.ordinal()].errors.forEach((code, count) -> counts.put(code, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Get histogram of a phase of a method
+     *
+     * @param method kraken method
+     * @param phase  phase
+     * @return live histogram, in nanoseconds
+     */
+    public LatencyHistogram getHistogram(KrakenApiMethod method, Phase phase) {
+        return methods[method.ordinal()].phases[phase.ordinal()];
+    }
+
+    public long getBytesReceived(KrakenApiMethod method) {
+        return methods[method.ordinal()].bytesReceived.sum();
+    }
+
+    /**
+     * @return bytes allocated while reading and unmarshalling responses, 0 if not supported by the JVM
+     */
+    public long getBytesAllocated(KrakenApiMethod method) {
+        return methods[method.ordinal()].bytesAllocated.sum();
+    }
+
+    public void reset() {
+        for (MethodMetrics metrics : methods) {
+            metrics.requests.reset();
+            metrics.errors.clear();
+            for (LatencyHistogram histogram : metrics.phases) {
+                histogram.reset();
+            }
+            metrics.bytesReceived.reset();
+            metrics.bytesAllocated.reset();
+        }
+    }
+
+    /**
+     * Build a text report of the methods called, one line per method and one per measured phase, durations
+     * in microseconds
+     *
+     * @return report
+     */
+    public String report() {
+        final StringBuilder report = new StringBuilder();
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            final MethodMetrics metrics = methods[method.ordinal()];
+            final long requests = metrics.requests.sum();
+            if (requests == 0) {
+                continue;
+            }
+
+            report.append(method)
+                    .append(" requests=").append(requests)
+                    .append(" errors=").append(getErrorCounts(method))
+                    .append(" bytesReceived=").append(metrics.bytesReceived.sum())
+                    .append(" bytesAllocated=").append(metrics.bytesAllocated.sum())
+                    .append('\n');
+            for (Phase phase : Phase.values()) {
+                final LatencyHistogram histogram = metrics.phases[phase.ordinal()];
+                if (histogram.getCount() > 0) {
+                    report.append("  ").append(phase)
+                            .append(" count=").append(histogram.getCount())
+                            .append(" mean=").append((long) histogram.getMean() / 1000)
+                            .append(" p50=").append(histogram.getPercentile(0.5) / 1000)
+                            .append(" p99=").append(histogram.getPercentile(0.99) / 1000)
+                            .append(" max=").append(histogram.getMax() / 1000)
+                            .append('\n');
+                }
+            }
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+
+    /**
+     * Metrics of one method
+     */
+    private static final class MethodMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder bytesAllocated = new LongAdder();
+
+        MethodMetrics() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+    }
+}
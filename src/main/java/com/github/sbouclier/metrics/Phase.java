@@ -0,0 +1,44 @@
+package com.github.sbouclier.metrics;
+
+/**
+ * Phase of a request, timed by {@link RequestTrace}
+ *
+ * @author Stéphane Bouclier
+ */
+public enum Phase {
+
+    /**
+     * Signature of a private request
+     */
+    SIGN,
+
+    /**
+     * TCP connection, only when the transport opens a new connection
+     */
+    CONNECT,
+
+    /**
+     * TLS handshake, only when the transport opens a new connection
+     */
+    TLS,
+
+    /**
+     * Wait from the request to the response headers
+     */
+    TTFB,
+
+    /**
+     * Time blocked reading the response body
+     */
+    DOWNLOAD,
+
+    /**
+     * Time unmarshalling the response body, without reads
+     */
+    PARSE,
+
+    /**
+     * Whole request, from its signature to its unmarshalled result
+     */
+    TOTAL
+}
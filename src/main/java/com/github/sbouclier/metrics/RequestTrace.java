@@ -0,0 +1,185 @@
+package com.github.sbouclier.metrics;
+
+import com.github.sbouclier.transport.ResponseHandler;
+import com.github.sbouclier.transport.StreamStatistics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Timings of one request, bound to the thread sending it
+ * <p>
+ * {@link com.github.sbouclier.HttpApiClient} begins a trace before each request when metrics are enabled, and
+ * ends it once the response is unmarshalled. In between, the layers sending the request add the phases they
+ * measure with {@link #record(Phase, long)}: the signer adds {@link Phase#SIGN}, pooled transports add
+ * {@link Phase#CONNECT} and {@link Phase#TLS} when they open a connection, and the {@link #wrap wrapped}
+ * response handler adds {@link Phase#TTFB}, {@link Phase#DOWNLOAD} and {@link Phase#PARSE}. Without trace on
+ * the thread, recording does nothing.
+ *
+ * @author Stéphane Bouclier
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final long[] nanos = new long[Phase.values().length];
+    private final RequestTrace previous;
+    private long bytesReceived = -1;
+    private long bytesAllocated = -1;
+
+    private RequestTrace(RequestTrace previous) {
+        this.previous = previous;
+        Arrays.fill(nanos, -1);
+    }
+
+    /**
+     * Begin a trace on the current thread
+     *
+     * @return trace, to {@link #end()} on the same thread
+     */
+    public static RequestTrace begin() {
+        final RequestTrace trace = new RequestTrace(CURRENT.get());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * End the trace, restoring the enclosing trace of the thread if any, and record {@link Phase#TOTAL}
+     */
+    public void end() {
+        add(Phase.TOTAL, System.nanoTime() - start);
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Add duration of a phase to the trace of the current thread, if any
+     *
+     * @param phase phase
+     * @param nanos duration in nanoseconds
+     */
+    public static void record(Phase phase, long nanos) {
+        final RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(phase, nanos);
+        }
+    }
+
+    /**
+     * Get trace of the current thread
+     *
+     * @return trace, null if no trace is recorded
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    private void add(Phase phase, long duration) {
+        final int i = phase.ordinal();
+        nanos[i] = Math.max(0, nanos[i]) + duration;
+    }
+
+    /**
+     * Wrap a handler to time the response: wait before it is called, reads of the body, and unmarshalling
+     *
+     * @param handler response body handler
+     * @return handler recording into this trace
+     */
+    public <R> ResponseHandler<R> wrap(ResponseHandler<R> handler) {
+        return body -> {
+            final long handlerStart = System.nanoTime();
+            add(Phase.TTFB, handlerStart - start - measured(Phase.SIGN) - measured(Phase.CONNECT) - measured(Phase.TLS));
+
+            final TimingInputStream timedBody = new TimingInputStream(body);
+            final long allocatedBefore = StreamStatistics.currentThreadAllocatedBytes();
+            try {
+                return handler.handle(timedBody);
+            } finally {
+                final long allocatedAfter = StreamStatistics.currentThreadAllocatedBytes();
+                if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                    bytesAllocated = allocatedAfter - allocatedBefore;
+                }
+                bytesReceived = timedBody.count;
+                add(Phase.DOWNLOAD, timedBody.nanos);
+                add(Phase.PARSE, System.nanoTime() - handlerStart - timedBody.nanos);
+            }
+        };
+    }
+
+    private long measured(Phase phase) {
+        return Math.max(0, nanos[phase.ordinal()]);
+    }
+
+    /**
+     * Get duration of a phase
+     *
+     * @param phase phase
+     * @return duration in nanoseconds, -1 if not measured
+     */
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return bytes of the response body, -1 if no response was read
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return bytes allocated while reading and unmarshalling the response, -1 if not measured
+     */
+    public long getBytesAllocated() {
+        return bytesAllocated;
+    }
+
+    /**
+     * Input stream counting bytes read and time blocked reading them
+     */
+    private static final class TimingInputStream extends FilterInputStream {
+        private long count;
+        private long nanos;
+
+        TimingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final long start = System.nanoTime();
+            final int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final long start = System.nanoTime();
+            final int n = super.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long start = System.nanoTime();
+            final long skipped = super.skip(n);
+            nanos += System.nanoTime() - start;
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.sbouclier.ratelimit;
+
+import com.github.sbouclier.KrakenApiMethod;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side mirror of the Kraken API call counter of one API key
+ * <p>
+ * Each call increases the counter by the cost of its method, and the counter decays at the rate of
+ * the verification tier. This is a token bucket whose state is the single instant when the counter
+ * gets back to zero: a call atomically reserves its cost and, if the counter would exceed its
+ * maximum, waits exactly until enough of it has decayed. Calls are therefore scheduled just-in-time
+ * in reservation order instead of failing with "EAPI:Rate limit exceeded".
+ * <p>
+ * All clients of an API key must share the same limiter, see {@link #forKey(String, VerificationTier)}.
+ *
+ * @author Stéphane Bouclier
+ */
+public class RateLimiter {
+
+    private static final ConcurrentMap<String, RateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final int maxCounter;
+    private final long nanosPerUnit;
+    private final long capacityNanos;
+    private final LongSupplier clock;
+
+    /**
+     * Instant, in {@link System#nanoTime()} scale, when the counter decays back to zero
+     */
+    private final AtomicLong emptyAt;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor using counter limits of a verification tier
+     *
+     * @param tier verification tier
+     */
+    public RateLimiter(VerificationTier tier) {
+        this(tier.getMaxCounter(), tier.getDecayPerSecond());
+    }
+
+    /**
+     * Constructor using custom counter limits, e.g. lower than the tier ones to keep a safety margin
+     *
+     * @param maxCounter     maximum counter
+     * @param decayPerSecond counter decay per second
+     */
+    public RateLimiter(int maxCounter, double decayPerSecond) {
+        this(maxCounter, decayPerSecond, System::nanoTime);
+    }
+
+    RateLimiter(int maxCounter, double decayPerSecond, LongSupplier clock) {
+        if (maxCounter <= 0 || decayPerSecond <= 0) {
+            throw new IllegalArgumentException("max counter and decay must be positive");
+        }
+        this.maxCounter = maxCounter;
+        this.nanosPerUnit = (long) (TimeUnit.SECONDS.toNanos(1) / decayPerSecond);
+        this.capacityNanos = maxCounter * nanosPerUnit;
+        this.clock = clock;
+        this.emptyAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Get limiter shared by all clients of an API key, creating it on first use
+     *
+     * @param apiKey API key
+     * @param tier   verification tier of the account, only used on creation
+     * @return rate limiter
+     */
+    public static RateLimiter forKey(String apiKey, VerificationTier tier) {
+        return LIMITERS.computeIfAbsent(apiKey, k -> new RateLimiter(tier));
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Reserve the cost of a call, waiting until it can be issued without exceeding the counter
+     *
+     * @param method Kraken API method
+     * @throws InterruptedException if interrupted while waiting, the reservation is kept
+     */
+    public void acquire(KrakenApiMethod method) throws InterruptedException {
+        final long delay = reserve(method.getCost());
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+
+    /**
+     * Reserve the cost of a call without waiting, for callers scheduling the call themselves
+     *
+     * @param method Kraken API method
+     * @return delay in nanoseconds before the call can be issued, 0 if it can be issued now
+     */
+    public long reserve(KrakenApiMethod method) {
+        return reserve(method.getCost());
+    }
+
+    /**
+     * Reserve the cost of a call only if it can be issued now
+     *
+     * @param method Kraken API method
+     * @return true if reserved
+     */
+    public boolean tryAcquire(KrakenApiMethod method) {
+        final int cost = method.getCost();
+        if (cost <= 0) {
+            acquired.increment();
+            return true;
+        }
+
+        final long now = clock.getAsLong();
+        long previous;
+        long next;
+        do {
+            previous = emptyAt.get();
+            next = latest(previous, now) + cost * nanosPerUnit;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+        } while (!emptyAt.compareAndSet(previous, next));
+
+        acquired.increment();
+        return true;
+    }
+
+    private long reserve(int cost) {
+        acquired.increment();
+        if (cost <= 0) {
+            return 0;
+        }
+
+        final long now = clock.getAsLong();
+        long previous;
+        long next;
+        do {
+            previous = emptyAt.get();
+            next = latest(previous, now) + cost * nanosPerUnit;
+        } while (!emptyAt.compareAndSet(previous, next));
+
+        final long delay = next - now - capacityNanos;
+        if (delay > 0) {
+            delayed.increment();
+            delayNanos.add(delay);
+            return delay;
+        }
+        return 0;
+    }
+
+    private static long latest(long a, long b) {
+        return a - b > 0 ? a : b;
+    }
+
+    /**
+     * Get current level of the call counter, including reserved calls still waiting
+     *
+     * @return call counter
+     */
+    public double getCounter() {
+        final long remaining = emptyAt.get() - clock.getAsLong();
+        return remaining > 0 ? (double) remaining / nanosPerUnit : 0;
+    }
+
+    public int getMaxCounter() {
+        return maxCounter;
+    }
+
+    /**
+     * Get number of calls which went through the limiter
+     *
+     * @return number of calls
+     */
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * Get number of calls which had to wait
+     *
+     * @return number of delayed calls
+     */
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    /**
+     * Get cumulated delay of calls which had to wait
+     *
+     * @param unit time unit
+     * @return cumulated delay
+     */
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(delayNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RateLimiter[counter=%.2f/%d, acquired=%d, delayed=%d, delayMillis=%d]",
+                getCounter(), maxCounter, getAcquired(), getDelayed(), getDelay(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.sbouclier.ratelimit;
+
+/**
+ * Kraken account verification tiers and their API call counter limits
+ *
+ * @author Stéphane Bouclier
+ */
+public enum VerificationTier {
+
+    STARTER(15, 0.33),
+    INTERMEDIATE(20, 0.5),
+    PRO(20, 1);
+
+    private int maxCounter;
+    private double decayPerSecond;
+
+    VerificationTier(int maxCounter, double decayPerSecond) {
+        this.maxCounter = maxCounter;
+        this.decayPerSecond = decayPerSecond;
+    }
+
+    /**
+     * Get maximum value of the call counter before Kraken locks the API key out
+     *
+     * @return maximum counter
+     */
+    public int getMaxCounter() {
+        return maxCounter;
+    }
+
+    /**
+     * Get decrease of the call counter per second
+     *
+     * @return counter decay per second
+     */
+    public double getDecayPerSecond() {
+        return decayPerSecond;
+    }
+}
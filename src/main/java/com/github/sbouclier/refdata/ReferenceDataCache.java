@@ -0,0 +1,341 @@
+package com.github.sbouclier.refdata;
+
+import com.github.sbouclier.JsonReaderRegistry;
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.input.InfoInput;
+import com.github.sbouclier.result.AssetPairsResult;
+import com.github.sbouclier.result.AssetsInformationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of reference data: asset pairs and assets information
+ * <p>
+ * Results are cached by method, {@link InfoInput} and set of names, regardless of their order. An entry is
+ * fresh during its time to live, and refreshed in background once {@link #REFRESH_AHEAD_RATIO} of it is
+ * elapsed, so that callers rarely wait. Once expired, it is still served during <code>maxStale</code>
+ * while being revalidated in background; only later, or on a miss, callers wait for the request.
+ * Concurrent loads of the same entry share one request, and no monitor is held during requests.
+ * <p>
+ * With a snapshot directory, each loaded result is also written to disk and read back on a miss, e.g.
+ * after a restart. A snapshot is served as an expired entry, so it is revalidated in background.
+ *
+ * @author Stéphane Bouclier
+ */
+public class ReferenceDataCache {
+
+    /**
+     * Default time to live, in minutes
+     */
+    public static final long DEFAULT_TTL_MINUTES = 60;
+
+    /**
+     * Part of the time to live after which an entry is refreshed in background
+     */
+    public static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    private final KrakenAPIClient client;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long maxStaleNanos;
+    private final Executor executor;
+    private final Path snapshotDirectory;
+    private final LongSupplier clock;
+    private final JsonReaderRegistry readers = JsonReaderRegistry.getDefault();
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor with a time to live of {@link #DEFAULT_TTL_MINUTES}, serving expired entries during
+     * the same time, refreshing on the common fork join pool and without snapshot
+     *
+     * @param client Kraken client
+     */
+    public ReferenceDataCache(KrakenAPIClient client) {
+        this(client, DEFAULT_TTL_MINUTES, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param client            Kraken client
+     * @param ttl               time to live of entries
+     * @param maxStale          time during which expired entries are still served while revalidated
+     * @param unit              unit of ttl and maxStale
+     * @param executor          executor of background refreshes
+     * @param snapshotDirectory directory of snapshots, null to disable snapshots
+     */
+    public ReferenceDataCache(KrakenAPIClient client, long ttl, long maxStale, TimeUnit unit,
+                              Executor executor, Path snapshotDirectory) {
+        this(client, ttl, maxStale, unit, executor, snapshotDirectory, System::nanoTime);
+    }
+
+    ReferenceDataCache(KrakenAPIClient client, long ttl, long maxStale, TimeUnit unit,
+                       Executor executor, Path snapshotDirectory, LongSupplier clock) {
+        if (ttl <= 0 || maxStale < 0) {
+            throw new IllegalArgumentException("ttl must be positive and maxStale not negative");
+        }
+        this.client = client;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.refreshAheadNanos = (long) (ttlNanos * REFRESH_AHEAD_RATIO);
+        this.maxStaleNanos = unit.toNanos(maxStale);
+        this.executor = executor;
+        this.snapshotDirectory = snapshotDirectory;
+        this.clock = clock;
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Get all tradable asset pairs
+     *
+     * @return asset pairs
+     * @throws KrakenApiException if the asset pairs are neither cached nor retrieved
+     */
+    public AssetPairsResult getAssetPairs() throws KrakenApiException {
+        return get("AssetPairs", AssetPairsResult.class, client::getAssetPairs);
+    }
+
+    /**
+     * Get tradable asset pairs
+     *
+     * @param info       informations to retrieve
+     * @param assetPairs asset pairs to retrieve
+     * @return asset pairs
+     * @throws KrakenApiException if the asset pairs are neither cached nor retrieved
+     */
+    public AssetPairsResult getAssetPairs(InfoInput info, String... assetPairs) throws KrakenApiException {
+        return get(key("AssetPairs-" + info.name(), assetPairs), AssetPairsResult.class,
+                () -> client.getAssetPairs(info, assetPairs));
+    }
+
+    /**
+     * Get information of all assets
+     *
+     * @return assets information
+     * @throws KrakenApiException if the assets information are neither cached nor retrieved
+     */
+    public AssetsInformationResult getAssetsInformation() throws KrakenApiException {
+        return get("Assets", AssetsInformationResult.class, client::getAssetsInformation);
+    }
+
+    /**
+     * Get assets information
+     *
+     * @param assets to retrieve information
+     * @return assets information
+     * @throws KrakenApiException if the assets information are neither cached nor retrieved
+     */
+    public AssetsInformationResult getAssetsInformation(String... assets) throws KrakenApiException {
+        return get(key("Assets", assets), AssetsInformationResult.class, () -> client.getAssetsInformation(assets));
+    }
+
+    /**
+     * Remove all entries from memory, snapshots are kept
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of calls served from memory or snapshot
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of calls waiting for a request
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of failed background refreshes, expired entries being served meanwhile
+     */
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    private static String key(String prefix, String... names) {
+        return prefix + "-" + String.join(",", new TreeSet<>(Arrays.asList(names)));
+    }
+
+    private <R> R get(String key, Class<R> resultClass, Loader<R> loader) throws KrakenApiException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = readSnapshot(key, resultClass);
+        }
+
+        if (entry == null || clock.getAsLong() - entry.loadedAt >= ttlNanos + maxStaleNanos) {
+            misses.increment();
+            return resultClass.cast(load(key, loader).value);
+        }
+
+        hits.increment();
+        if (clock.getAsLong() - entry.loadedAt >= refreshAheadNanos) {
+            refresh(key, entry, loader);
+        }
+        return resultClass.cast(entry.value);
+    }
+
+    private void refresh(String key, Entry entry, Loader<?> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (KrakenApiException | RuntimeException ex) {
+                    refreshFailures.increment();
+                    entry.refreshing.set(false);
+                } catch (Error ex) {
+                    refreshFailures.increment();
+                    entry.refreshing.set(false);
+                    throw ex;
+                }
+            });
+        } catch (RuntimeException ex) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private Entry load(String key, Loader<?> loader) throws KrakenApiException {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final CompletableFuture<Entry> existing = loads.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            final Object value = loader.load();
+            final Entry entry = new Entry(value, clock.getAsLong());
+            entries.put(key, entry);
+            future.complete(entry);
+            writeSnapshot(key, value);
+            return entry;
+        } catch (KrakenApiException | RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) throws KrakenApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException("interrupted while waiting for reference data", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof KrakenApiException) {
+                throw (KrakenApiException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    // -------------
+    // - SNAPSHOTS -
+    // -------------
+
+    private Path snapshotPath(String key) {
+        return snapshotDirectory.resolve(key.replaceAll("[^A-Za-z0-9.,_-]", "_") + ".json");
+    }
+
+    private Entry readSnapshot(String key, Class<?> resultClass) {
+        if (snapshotDirectory == null) {
+            return null;
+        }
+        final Path path = snapshotPath(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            final Object value = readers.getReader(resultClass).readValue(path.toFile());
+            // served as just expired, so that it is revalidated in background
+            final Entry entry = new Entry(value, clock.getAsLong() - ttlNanos);
+            final Entry existing = entries.putIfAbsent(key, entry);
+            return existing != null ? existing : entry;
+        } catch (IOException ex) {
+            // a corrupted snapshot is replaced by the next load
+            return null;
+        }
+    }
+
+    private void writeSnapshot(String key, Object value) {
+        if (snapshotDirectory == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(snapshotDirectory);
+            tmp = Files.createTempFile(snapshotDirectory, "snapshot", ".tmp");
+            readers.getMapper().writeValue(tmp.toFile(), value);
+            Files.move(tmp, snapshotPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // snapshots only speed up startup, the cache keeps working without them
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            // nothing more to do
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader<R> {
+        R load() throws KrakenApiException;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
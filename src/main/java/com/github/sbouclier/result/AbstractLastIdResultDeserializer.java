@@ -0,0 +1,104 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Base single pass deserializer of results having a "last" cursor next to the pairs
+ * <p>
+ * Kraken returns the cursor inside the result object, e.g. <code>{"XXBTZEUR":[...],"last":1501200000}</code>,
+ * which does not fit a <code>Map&lt;String, List&lt;E&gt;&gt;</code>. The cursor is captured while
+ * streaming the result object, the other fields are deserialized as values of pairs.
+ * <p>
+ * Last id is left null when the cursor is missing.
+ *
+ * @param <R> result type
+ * @param <V> value type of pairs
+ * @author Stéphane Bouclier
+ */
+abstract class AbstractLastIdResultDeserializer<R extends ResultWithLastId<Map<String, V>>, V> extends StdDeserializer<R> {
+
+    private static final String LAST = "last";
+
+    private final Supplier<R> resultFactory;
+
+    protected AbstractLastIdResultDeserializer(Class<R> resultClass, Supplier<R> resultFactory) {
+        super(resultClass);
+        this.resultFactory = resultFactory;
+    }
+
+    /**
+     * Deserialize value of a pair, current token being its first token
+     *
+     * @param p     parser
+     * @param ctxt  context
+     * @param field pair name
+     * @return value
+     * @throws IOException if value cannot be deserialized
+     */
+    protected abstract V deserializePair(JsonParser p, DeserializationContext ctxt, String field) throws IOException;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+            return (R) ctxt.handleUnexpectedToken(handledType(), p);
+        }
+
+        final R res = resultFactory.get();
+        res.setLastId(null);
+
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            final JsonToken token = p.nextToken();
+
+            if ("error".equals(field) && token == JsonToken.START_ARRAY) {
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    res.getError().add(p.getValueAsString());
+                }
+            } else if ("result".equals(field) && token == JsonToken.START_OBJECT) {
+                res.setResult(deserializeResult(p, ctxt, res));
+            } else {
+                p.skipChildren();
+            }
+        }
+
+        return res;
+    }
+
+    private Map<String, V> deserializeResult(JsonParser p, DeserializationContext ctxt, R res) throws IOException {
+        final Map<String, V> result = new LinkedHashMap<>();
+
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            final JsonToken token = p.nextToken();
+
+            if (LAST.equals(field) && token != JsonToken.START_ARRAY) {
+                res.setLastId(parseLastId(p, ctxt, token));
+            } else {
+                result.put(field, deserializePair(p, ctxt, field));
+            }
+        }
+
+        return result;
+    }
+
+    private Long parseLastId(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Long.valueOf(p.getText());
+            } catch (NumberFormatException ex) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), "not a valid last id");
+            }
+        }
+        return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java.io.IOException;
+
+/**
+ * Parsing helpers of columnar results, reading array elements straight into primitives
+ *
+ * @author Stéphane Bouclier
+ */
+final class ColumnParsing {
+
+    private static final long MAX_EXACT_MANTISSA = (1L << 53) / 10;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private ColumnParsing() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Move to next value of an array element
+     *
+     * @param p       parser
+     * @param element element name, for error message
+     * @return parser on the value
+     * @throws IOException if the element has no more values
+     */
+    static JsonParser next(JsonParser p, String element) throws IOException {
+        final JsonToken token = p.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            throw JsonMappingException.from(p, "missing values in " + element);
+        }
+        return p;
+    }
+
+    /**
+     * Read next value of an array element as double
+     */
+    static double nextDouble(JsonParser p, DeserializationContext ctxt, String element) throws IOException {
+        return parseDouble(next(p, element), ctxt);
+    }
+
+    /**
+     * Skip remaining values of an array element
+     */
+    static void skipToEndArray(JsonParser p) throws IOException {
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY && token != null; token = p.nextToken()) {
+            p.skipChildren();
+        }
+    }
+
+    /**
+     * Parse current number or numeric string without allocation when the value has at most 15
+     * significant digits, the result is then the correctly rounded double
+     */
+    static double parseDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+        final JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return Double.NaN;
+        }
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+            ctxt.handleUnexpectedToken(Double.TYPE, p);
+            return Double.NaN;
+        }
+
+        final char[] chars = p.getTextCharacters();
+        final int offset = p.getTextOffset();
+        final int end = offset + p.getTextLength();
+
+        int i = offset;
+        final boolean negative = i < end && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < end; i++) {
+            final char c = chars[i];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                return parseDoubleSlow(p, ctxt);
+            }
+        }
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(p, ctxt);
+        }
+
+        final double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(JsonParser p, DeserializationContext ctxt) throws IOException {
+        final String text = p.getText();
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException ex) {
+            throw ctxt.weirdStringException(text, Double.TYPE, "not a valid number");
+        }
+    }
+
+    /**
+     * Read first character of current string value, 0 if empty or null
+     */
+    static byte firstChar(JsonParser p) throws IOException {
+        if (p.getCurrentToken() != JsonToken.VALUE_STRING || p.getTextLength() == 0) {
+            return 0;
+        }
+        return (byte) p.getTextCharacters()[p.getTextOffset()];
+    }
+}
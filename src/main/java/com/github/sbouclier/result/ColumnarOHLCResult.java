@@ -0,0 +1,188 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Result from getOHLC in columnar representation
+ * <p>
+ * Candles of each pair are stored in parallel primitive arrays, one per OHLC field, filled straight
+ * from the parser: no object is allocated per candle. Arrays are trimmed to the number of candles,
+ * so indicators can loop over them directly.
+ *
+ * @author Stéphane Bouclier
+ * @see OHLCResult
+ */
+@JsonDeserialize(using = ColumnarOHLCResult.Deserializer.class)
+public class ColumnarOHLCResult extends ResultWithLastId<Map<String, ColumnarOHLCResult.Columns>> {
+
+    /**
+     * Candles of a pair, in time order
+     */
+    public static class Columns {
+        public long[] time;
+        public double[] open;
+        public double[] high;
+        public double[] low;
+        public double[] close;
+        public double[] vwap;
+        public double[] volume;
+        public int[] count;
+
+        private int size;
+
+        /**
+         * Constructor
+         *
+         * @param capacity initial number of candles
+         */
+        public Columns(int capacity) {
+            time = new long[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            vwap = new double[capacity];
+            volume = new double[capacity];
+            count = new int[capacity];
+        }
+
+        /**
+         * Add a candle
+         *
+         * @param time   candle time
+         * @param open   open price
+         * @param high   high price
+         * @param low    low price
+         * @param close  close price
+         * @param vwap   volume weighted average price
+         * @param volume volume
+         * @param count  number of trades
+         * @return index of the candle
+         */
+        public int add(long time, double open, double high, double low, double close, double vwap, double volume, int count) {
+            final int index = ensureCapacity();
+            this.time[index] = time;
+            this.open[index] = open;
+            this.high[index] = high;
+            this.low[index] = low;
+            this.close[index] = close;
+            this.vwap[index] = vwap;
+            this.volume[index] = volume;
+            this.count[index] = count;
+            return index;
+        }
+
+        private int ensureCapacity() {
+            if (size == time.length) {
+                resize(Math.max(16, size * 2));
+            }
+            return size++;
+        }
+
+        private void resize(int capacity) {
+            time = Arrays.copyOf(time, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            vwap = Arrays.copyOf(vwap, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            count = Arrays.copyOf(count, capacity);
+        }
+
+        /**
+         * Trim arrays to the number of candles
+         *
+         * @return this instance
+         */
+        public Columns trim() {
+            if (size < time.length) {
+                resize(size);
+            }
+            return this;
+        }
+
+        /**
+         * Get number of candles
+         *
+         * @return number of candles
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Find candle of a time
+         *
+         * @param time candle time
+         * @return candle index, or <code>(-(insertion index) - 1)</code> if there is no candle at this time
+         */
+        public int indexOf(long time) {
+            return Arrays.binarySearch(this.time, 0, size, time);
+        }
+
+        /**
+         * Read one candle from the parser, current token being its start array
+         */
+        void read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                ctxt.handleUnexpectedToken(OHLCResult.OHLC.class, p);
+                return;
+            }
+
+            final int index = ensureCapacity();
+            time[index] = ColumnParsing.next(p, "OHLC").getValueAsLong();
+            open[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            high[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            low[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            close[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            vwap[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            volume[index] = ColumnParsing.nextDouble(p, ctxt, "OHLC");
+            count[index] = ColumnParsing.next(p, "OHLC").getValueAsInt();
+            ColumnParsing.skipToEndArray(p);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("size", size)
+                    .append("firstTime", size > 0 ? time[0] : null)
+                    .append("lastTime", size > 0 ? time[size - 1] : null)
+                    .toString();
+        }
+    }
+
+    /**
+     * Deserializer filling columns while streaming the result
+     */
+    public static class Deserializer extends AbstractLastIdResultDeserializer<ColumnarOHLCResult, Columns> {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        public Deserializer() {
+            super(ColumnarOHLCResult.class, ColumnarOHLCResult::new);
+        }
+
+        @Override
+        protected Columns deserializePair(JsonParser p, DeserializationContext ctxt, String field) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                return (Columns) ctxt.handleUnexpectedToken(Columns.class, p);
+            }
+
+            final Columns columns = new Columns(INITIAL_CAPACITY);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                columns.read(p, ctxt);
+            }
+            return columns.trim();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Result from getRecentSpreads in columnar representation
+ * <p>
+ * Spreads of each pair are stored in parallel primitive arrays filled straight from the parser.
+ * Arrays may be longer than the number of spreads.
+ *
+ * @author Stéphane Bouclier
+ * @see RecentSpreadResult
+ */
+@JsonDeserialize(using = ColumnarRecentSpreadResult.Deserializer.class)
+public class ColumnarRecentSpreadResult extends ResultWithLastId<Map<String, ColumnarRecentSpreadResult.Columns>> {
+
+    /**
+     * Spreads of a pair, in time order
+     */
+    public static class Columns {
+        public long[] time;
+        public double[] bid;
+        public double[] ask;
+
+        private int size;
+
+        /**
+         * Constructor
+         *
+         * @param capacity initial number of spreads
+         */
+        public Columns(int capacity) {
+            time = new long[capacity];
+            bid = new double[capacity];
+            ask = new double[capacity];
+        }
+
+        /**
+         * Add a spread
+         *
+         * @param time time in seconds
+         * @param bid  best bid
+         * @param ask  best ask
+         * @return index of the spread
+         */
+        public int add(long time, double bid, double ask) {
+            final int index = ensureCapacity();
+            this.time[index] = time;
+            this.bid[index] = bid;
+            this.ask[index] = ask;
+            return index;
+        }
+
+        private int ensureCapacity() {
+            if (size == time.length) {
+                final int capacity = Math.max(16, size * 2);
+                time = Arrays.copyOf(time, capacity);
+                bid = Arrays.copyOf(bid, capacity);
+                ask = Arrays.copyOf(ask, capacity);
+            }
+            return size++;
+        }
+
+        /**
+         * Get number of spreads
+         *
+         * @return number of spreads
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Read one spread from the parser, current token being its start array
+         */
+        void read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                ctxt.handleUnexpectedToken(RecentSpreadResult.Spread.class, p);
+                return;
+            }
+
+            final int index = ensureCapacity();
+            time[index] = ColumnParsing.next(p, "spread").getValueAsLong();
+            bid[index] = ColumnParsing.nextDouble(p, ctxt, "spread");
+            ask[index] = ColumnParsing.nextDouble(p, ctxt, "spread");
+            ColumnParsing.skipToEndArray(p);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("size", size)
+                    .append("firstTime", size > 0 ? time[0] : null)
+                    .append("lastTime", size > 0 ? time[size - 1] : null)
+                    .toString();
+        }
+    }
+
+    /**
+     * Deserializer filling columns while streaming the result
+     */
+    public static class Deserializer extends AbstractLastIdResultDeserializer<ColumnarRecentSpreadResult, Columns> {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        public Deserializer() {
+            super(ColumnarRecentSpreadResult.class, ColumnarRecentSpreadResult::new);
+        }
+
+        @Override
+        protected Columns deserializePair(JsonParser p, DeserializationContext ctxt, String field) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                return (Columns) ctxt.handleUnexpectedToken(Columns.class, p);
+            }
+
+            final Columns columns = new Columns(INITIAL_CAPACITY);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                columns.read(p, ctxt);
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Result from getRecentTrades in columnar representation
+ * <p>
+ * Trades of each pair are stored in parallel primitive arrays filled straight from the parser, buy/sell
+ * and market/limit flags being kept as their one letter code. Miscellaneous info is skipped.
+ * Arrays may be longer than the number of trades.
+ *
+ * @author Stéphane Bouclier
+ * @see RecentTradeResult
+ */
+@JsonDeserialize(using = ColumnarRecentTradeResult.Deserializer.class)
+public class ColumnarRecentTradeResult extends ResultWithLastId<Map<String, ColumnarRecentTradeResult.Columns>> {
+
+    public static final byte BUY = 'b';
+    public static final byte SELL = 's';
+    public static final byte MARKET = 'm';
+    public static final byte LIMIT = 'l';
+
+    /**
+     * Trades of a pair, in time order
+     */
+    public static class Columns {
+        public double[] price;
+        public double[] volume;
+        public double[] time;
+        public byte[] buySell;
+        public byte[] marketLimit;
+
+        private int size;
+
+        /**
+         * Constructor
+         *
+         * @param capacity initial number of trades
+         */
+        public Columns(int capacity) {
+            price = new double[capacity];
+            volume = new double[capacity];
+            time = new double[capacity];
+            buySell = new byte[capacity];
+            marketLimit = new byte[capacity];
+        }
+
+        /**
+         * Add a trade
+         *
+         * @param price       price
+         * @param volume      volume
+         * @param time        time in seconds
+         * @param buySell     {@link #BUY} or {@link #SELL}
+         * @param marketLimit {@link #MARKET} or {@link #LIMIT}
+         * @return index of the trade
+         */
+        public int add(double price, double volume, double time, byte buySell, byte marketLimit) {
+            final int index = ensureCapacity();
+            this.price[index] = price;
+            this.volume[index] = volume;
+            this.time[index] = time;
+            this.buySell[index] = buySell;
+            this.marketLimit[index] = marketLimit;
+            return index;
+        }
+
+        private int ensureCapacity() {
+            if (size == time.length) {
+                resize(Math.max(16, size * 2));
+            }
+            return size++;
+        }
+
+        private void resize(int capacity) {
+            price = Arrays.copyOf(price, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            time = Arrays.copyOf(time, capacity);
+            buySell = Arrays.copyOf(buySell, capacity);
+            marketLimit = Arrays.copyOf(marketLimit, capacity);
+        }
+
+        /**
+         * Get number of trades
+         *
+         * @return number of trades
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Read one trade from the parser, current token being its start array
+         */
+        void read(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                ctxt.handleUnexpectedToken(RecentTradeResult.RecentTrade.class, p);
+                return;
+            }
+
+            final int index = ensureCapacity();
+            price[index] = ColumnParsing.nextDouble(p, ctxt, "trade");
+            volume[index] = ColumnParsing.nextDouble(p, ctxt, "trade");
+            time[index] = ColumnParsing.nextDouble(p, ctxt, "trade");
+            buySell[index] = ColumnParsing.firstChar(ColumnParsing.next(p, "trade"));
+            marketLimit[index] = ColumnParsing.firstChar(ColumnParsing.next(p, "trade"));
+            ColumnParsing.skipToEndArray(p);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("size", size)
+                    .append("firstTime", size > 0 ? time[0] : null)
+                    .append("lastTime", size > 0 ? time[size - 1] : null)
+                    .toString();
+        }
+    }
+
+    /**
+     * Deserializer filling columns while streaming the result
+     */
+    public static class Deserializer extends AbstractLastIdResultDeserializer<ColumnarRecentTradeResult, Columns> {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        public Deserializer() {
+            super(ColumnarRecentTradeResult.class, ColumnarRecentTradeResult::new);
+        }
+
+        @Override
+        protected Columns deserializePair(JsonParser p, DeserializationContext ctxt, String field) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                return (Columns) ctxt.handleUnexpectedToken(Columns.class, p);
+            }
+
+            final Columns columns = new Columns(INITIAL_CAPACITY);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                columns.read(p, ctxt);
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.sbouclier.result;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price and volume decimals of pairs, used to scale fixed-point values of market data results
+ * <p>
+ * Decimals are registered under both the pair name and its alternate name, as Kraken echoes the
+ * requested name in results. Instances are thread-safe and may be completed after use, e.g. when
+ * a new pair is listed.
+ *
+ * @author Stéphane Bouclier
+ * @see FixedPointModule
+ */
+public class FixedPointDecimals {
+
+    /**
+     * Decimals of one pair
+     */
+    public static final class PairDecimals {
+        public final int priceDecimals;
+        public final int volumeDecimals;
+
+        public PairDecimals(int priceDecimals, int volumeDecimals) {
+            this.priceDecimals = priceDecimals;
+            this.volumeDecimals = volumeDecimals;
+        }
+
+        @Override
+        public String toString() {
+            return "PairDecimals[price=" + priceDecimals + ", volume=" + volumeDecimals + "]";
+        }
+    }
+
+    private final Map<String, PairDecimals> decimals = new ConcurrentHashMap<>();
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor without any pair
+     */
+    public FixedPointDecimals() {
+    }
+
+    /**
+     * Constructor using decimals of asset pairs
+     *
+     * @param assetPairs result from getAssetPairs
+     */
+    public FixedPointDecimals(AssetPairsResult assetPairs) {
+        putAll(assetPairs);
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Register decimals of a pair
+     *
+     * @param pair           pair name
+     * @param priceDecimals  number of decimals of prices, from 0 to 18
+     * @param volumeDecimals number of decimals of volumes, from 0 to 18
+     * @return this instance
+     */
+    public FixedPointDecimals put(String pair, int priceDecimals, int volumeDecimals) {
+        checkDecimals(pair, priceDecimals);
+        checkDecimals(pair, volumeDecimals);
+
+        decimals.put(pair, new PairDecimals(priceDecimals, volumeDecimals));
+        return this;
+    }
+
+    /**
+     * Register decimals of asset pairs, under pair names and alternate names
+     *
+     * @param assetPairs result from getAssetPairs
+     * @return this instance
+     */
+    public FixedPointDecimals putAll(AssetPairsResult assetPairs) {
+        for (Map.Entry<String, AssetPairsResult.AssetPair> entry : assetPairs.getResult().entrySet()) {
+            final AssetPairsResult.AssetPair assetPair = entry.getValue();
+            if (assetPair.pairDecimals == null || assetPair.lotDecimals == null) {
+                continue;
+            }
+
+            put(entry.getKey(), assetPair.pairDecimals, assetPair.lotDecimals);
+            if (assetPair.alternatePairName != null) {
+                put(assetPair.alternatePairName, assetPair.pairDecimals, assetPair.lotDecimals);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get decimals of a pair
+     *
+     * @param pair pair name or alternate name
+     * @return decimals, null if pair is unknown
+     */
+    public PairDecimals get(String pair) {
+        return decimals.get(pair);
+    }
+
+    /**
+     * Get number of registered names
+     *
+     * @return number of names
+     */
+    public int size() {
+        return decimals.size();
+    }
+
+    private static void checkDecimals(String pair, int decimals) {
+        if (decimals < 0 || decimals > 18) {
+            throw new IllegalArgumentException("decimals of " + pair + " must be between 0 and 18: " + decimals);
+        }
+    }
+}
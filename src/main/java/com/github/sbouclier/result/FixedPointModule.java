@@ -0,0 +1,377 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.NumberDeserializers;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.github.sbouclier.utils.FixedPointUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Jackson module deserializing prices and volumes of market data results to fixed-point longs
+ * <p>
+ * Elements of order books, recent trades, recent spreads, OHLC and tickers get their <code>fixed*</code>
+ * fields set, scaled by the decimals of their pair, and their <code>BigDecimal</code> prices and
+ * volumes left null. Numbers are parsed straight from the parser buffer, so no <code>BigDecimal</code>
+ * is allocated. The pair is the enclosing field name of the result, it must be registered in the
+ * {@link FixedPointDecimals} otherwise deserialization fails.
+ * <p>
+ * Times, counts and trade attributes are deserialized as usual.
+ *
+ * @author Stéphane Bouclier
+ * @see com.github.sbouclier.JsonReaderRegistry#fixedPoint(FixedPointDecimals)
+ */
+public class FixedPointModule extends SimpleModule {
+
+    private final FixedPointDecimals decimals;
+
+    /**
+     * Constructor
+     *
+     * @param decimals decimals of pairs
+     */
+    public FixedPointModule(FixedPointDecimals decimals) {
+        super("FixedPointModule");
+        this.decimals = decimals;
+
+        addDeserializer(OrderBookResult.Market.class, new MarketDeserializer(decimals));
+        addDeserializer(RecentTradeResult.RecentTrade.class, new RecentTradeDeserializer(decimals));
+        addDeserializer(RecentSpreadResult.Spread.class, new SpreadDeserializer(decimals));
+        addDeserializer(OHLCResult.OHLC.class, new OHLCDeserializer(decimals));
+        addDeserializer(TickerInformationResult.TickerInformation.class, new TickerInformationDeserializer(decimals));
+    }
+
+    public FixedPointDecimals getDecimals() {
+        return decimals;
+    }
+
+    // -----------------
+    // - DESERIALIZERS -
+    // -----------------
+
+    /**
+     * Base deserializer of elements of a pair
+     */
+    abstract static class PairElementDeserializer<T> extends StdDeserializer<T> {
+
+        private final FixedPointDecimals decimals;
+
+        PairElementDeserializer(Class<T> elementClass, FixedPointDecimals decimals) {
+            super(elementClass);
+            this.decimals = decimals;
+        }
+
+        /**
+         * Find decimals of the closest enclosing field naming a pair
+         */
+        FixedPointDecimals.PairDecimals pairDecimals(JsonParser p) throws JsonMappingException {
+            for (JsonStreamContext context = p.getParsingContext(); context != null; context = context.getParent()) {
+                final String name = context.getCurrentName();
+                if (name != null) {
+                    final FixedPointDecimals.PairDecimals pairDecimals = decimals.get(name);
+                    if (pairDecimals != null) {
+                        return pairDecimals;
+                    }
+                }
+            }
+            throw JsonMappingException.from(p, "no fixed-point decimals for pair of " + handledType().getSimpleName());
+        }
+
+        /**
+         * Check that current token starts an array element
+         */
+        boolean startArray(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                ctxt.handleUnexpectedToken(handledType(), p);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Skip remaining values of an array element
+         */
+        static void endArray(JsonParser p) throws IOException {
+            for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY && token != null; token = p.nextToken()) {
+                p.skipChildren();
+            }
+        }
+
+        /**
+         * Read next value as fixed-point, 0 if null
+         */
+        long nextFixed(JsonParser p, DeserializationContext ctxt, int scale) throws IOException {
+            final JsonToken token = p.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                throw JsonMappingException.from(p, "missing values in " + handledType().getSimpleName());
+            }
+            return fixed(p, ctxt, scale);
+        }
+
+        /**
+         * Read current value as fixed-point, 0 if null
+         */
+        long fixed(JsonParser p, DeserializationContext ctxt, int scale) throws IOException {
+            switch (p.getCurrentToken()) {
+                case VALUE_STRING:
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    try {
+                        return FixedPointUtils.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength(), scale);
+                    } catch (NumberFormatException ex) {
+                        return fixedFallback(p, ctxt, scale);
+                    }
+                case VALUE_NULL:
+                    return 0;
+                default:
+                    ctxt.handleUnexpectedToken(Long.TYPE, p);
+                    return 0;
+            }
+        }
+
+        /**
+         * Slow path for exponents and out of range values
+         */
+        private long fixedFallback(JsonParser p, DeserializationContext ctxt, int scale) throws IOException {
+            final String text = p.getText();
+            try {
+                return FixedPointUtils.toFixed(new BigDecimal(text.trim()), scale);
+            } catch (NumberFormatException | ArithmeticException ex) {
+                throw ctxt.weirdStringException(text, Long.TYPE, "not a fixed-point number with " + scale + " decimals");
+            }
+        }
+
+        /**
+         * Read next value as integer, null if null
+         */
+        static Integer nextInteger(JsonParser p) throws IOException {
+            final JsonToken token = p.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                throw JsonMappingException.from(p, "missing values in array element");
+            }
+            return token == JsonToken.VALUE_NULL ? null : p.getValueAsInt();
+        }
+
+        /**
+         * Read next value as string, null if null
+         */
+        static String nextString(JsonParser p) throws IOException {
+            final JsonToken token = p.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                throw JsonMappingException.from(p, "missing values in array element");
+            }
+            return p.getValueAsString();
+        }
+    }
+
+    static class MarketDeserializer extends PairElementDeserializer<OrderBookResult.Market> {
+
+        MarketDeserializer(FixedPointDecimals decimals) {
+            super(OrderBookResult.Market.class, decimals);
+        }
+
+        @Override
+        public OrderBookResult.Market deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final FixedPointDecimals.PairDecimals pairDecimals = pairDecimals(p);
+
+            final OrderBookResult.Market market = new OrderBookResult.Market(null, null, null);
+            market.fixedPrice = nextFixed(p, ctxt, pairDecimals.priceDecimals);
+            market.fixedVolume = nextFixed(p, ctxt, pairDecimals.volumeDecimals);
+            market.timestamp = nextInteger(p);
+            endArray(p);
+            return market;
+        }
+    }
+
+    static class RecentTradeDeserializer extends PairElementDeserializer<RecentTradeResult.RecentTrade> {
+
+        RecentTradeDeserializer(FixedPointDecimals decimals) {
+            super(RecentTradeResult.RecentTrade.class, decimals);
+        }
+
+        @Override
+        public RecentTradeResult.RecentTrade deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final FixedPointDecimals.PairDecimals pairDecimals = pairDecimals(p);
+
+            final RecentTradeResult.RecentTrade trade = new RecentTradeResult.RecentTrade();
+            trade.fixedPrice = nextFixed(p, ctxt, pairDecimals.priceDecimals);
+            trade.fixedVolume = nextFixed(p, ctxt, pairDecimals.volumeDecimals);
+            p.nextToken();
+            trade.time = NumberDeserializers.BigDecimalDeserializer.instance.deserialize(p, ctxt);
+            trade.buySell = nextString(p);
+            trade.marketLimit = nextString(p);
+            trade.miscellaneous = nextString(p);
+            endArray(p);
+            return trade;
+        }
+    }
+
+    static class SpreadDeserializer extends PairElementDeserializer<RecentSpreadResult.Spread> {
+
+        SpreadDeserializer(FixedPointDecimals decimals) {
+            super(RecentSpreadResult.Spread.class, decimals);
+        }
+
+        @Override
+        public RecentSpreadResult.Spread deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final FixedPointDecimals.PairDecimals pairDecimals = pairDecimals(p);
+
+            final RecentSpreadResult.Spread spread = new RecentSpreadResult.Spread(nextInteger(p), null, null);
+            spread.fixedBid = nextFixed(p, ctxt, pairDecimals.priceDecimals);
+            spread.fixedAsk = nextFixed(p, ctxt, pairDecimals.priceDecimals);
+            endArray(p);
+            return spread;
+        }
+    }
+
+    static class OHLCDeserializer extends PairElementDeserializer<OHLCResult.OHLC> {
+
+        OHLCDeserializer(FixedPointDecimals decimals) {
+            super(OHLCResult.OHLC.class, decimals);
+        }
+
+        @Override
+        public OHLCResult.OHLC deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final FixedPointDecimals.PairDecimals pairDecimals = pairDecimals(p);
+            final int priceDecimals = pairDecimals.priceDecimals;
+
+            final OHLCResult.OHLC ohlc = new OHLCResult.OHLC();
+            ohlc.time = nextInteger(p);
+            ohlc.fixedOpen = nextFixed(p, ctxt, priceDecimals);
+            ohlc.fixedHigh = nextFixed(p, ctxt, priceDecimals);
+            ohlc.fixedLow = nextFixed(p, ctxt, priceDecimals);
+            ohlc.fixedClose = nextFixed(p, ctxt, priceDecimals);
+            ohlc.fixedVwap = nextFixed(p, ctxt, priceDecimals);
+            ohlc.fixedVolume = nextFixed(p, ctxt, pairDecimals.volumeDecimals);
+            ohlc.count = nextInteger(p);
+            endArray(p);
+            return ohlc;
+        }
+    }
+
+    static class TickerInformationDeserializer extends PairElementDeserializer<TickerInformationResult.TickerInformation> {
+
+        TickerInformationDeserializer(FixedPointDecimals decimals) {
+            super(TickerInformationResult.TickerInformation.class, decimals);
+        }
+
+        @Override
+        public TickerInformationResult.TickerInformation deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+                return (TickerInformationResult.TickerInformation) ctxt.handleUnexpectedToken(handledType(), p);
+            }
+            final FixedPointDecimals.PairDecimals pairDecimals = pairDecimals(p);
+            final int priceDecimals = pairDecimals.priceDecimals;
+            final int volumeDecimals = pairDecimals.volumeDecimals;
+
+            final TickerInformationResult.TickerInformation ticker = new TickerInformationResult.TickerInformation();
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+
+                switch (field) {
+                    case "a":
+                        ticker.ask = priceWholeLotVolume(p, ctxt, priceDecimals, volumeDecimals);
+                        break;
+                    case "b":
+                        ticker.bid = priceWholeLotVolume(p, ctxt, priceDecimals, volumeDecimals);
+                        break;
+                    case "c":
+                        ticker.lastTradeClosed = priceLotVolume(p, ctxt, priceDecimals, volumeDecimals);
+                        break;
+                    case "v":
+                        ticker.volume = todayLast24h(p, ctxt, volumeDecimals);
+                        break;
+                    case "p":
+                        ticker.volumeWeightAverage = todayLast24h(p, ctxt, priceDecimals);
+                        break;
+                    case "t":
+                        ticker.numberOfTrades = numberOfTrade(p, ctxt);
+                        break;
+                    case "l":
+                        ticker.low = todayLast24h(p, ctxt, priceDecimals);
+                        break;
+                    case "h":
+                        ticker.high = todayLast24h(p, ctxt, priceDecimals);
+                        break;
+                    case "o":
+                        ticker.fixedTodayOpenPrice = fixed(p, ctxt, priceDecimals);
+                        break;
+                    default:
+                        ctxt.handleUnknownProperty(p, this, ticker, field);
+                }
+            }
+            return ticker;
+        }
+
+        private TickerInformationResult.TickerInformation.PriceWholeLotVolume priceWholeLotVolume(
+                JsonParser p, DeserializationContext ctxt, int priceDecimals, int volumeDecimals) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final TickerInformationResult.TickerInformation.PriceWholeLotVolume value =
+                    new TickerInformationResult.TickerInformation.PriceWholeLotVolume();
+            value.fixedPrice = nextFixed(p, ctxt, priceDecimals);
+            value.wholeLotVolume = nextInteger(p);
+            value.fixedLotVolume = nextFixed(p, ctxt, volumeDecimals);
+            endArray(p);
+            return value;
+        }
+
+        private TickerInformationResult.TickerInformation.PriceLotVolume priceLotVolume(
+                JsonParser p, DeserializationContext ctxt, int priceDecimals, int volumeDecimals) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final TickerInformationResult.TickerInformation.PriceLotVolume value =
+                    new TickerInformationResult.TickerInformation.PriceLotVolume();
+            value.fixedPrice = nextFixed(p, ctxt, priceDecimals);
+            value.fixedLotVolume = nextFixed(p, ctxt, volumeDecimals);
+            endArray(p);
+            return value;
+        }
+
+        private TickerInformationResult.TickerInformation.TodayLast24h todayLast24h(
+                JsonParser p, DeserializationContext ctxt, int scale) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final TickerInformationResult.TickerInformation.TodayLast24h value =
+                    new TickerInformationResult.TickerInformation.TodayLast24h();
+            value.fixedToday = nextFixed(p, ctxt, scale);
+            value.fixedLast24hours = nextFixed(p, ctxt, scale);
+            endArray(p);
+            return value;
+        }
+
+        private TickerInformationResult.TickerInformation.NumberOfTrade numberOfTrade(
+                JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!startArray(p, ctxt)) {
+                return null;
+            }
+            final TickerInformationResult.TickerInformation.NumberOfTrade value =
+                    new TickerInformationResult.TickerInformation.NumberOfTrade();
+            value.today = nextInteger(p);
+            value.last24hours = nextInteger(p);
+            endArray(p);
+            return value;
+        }
+    }
+}
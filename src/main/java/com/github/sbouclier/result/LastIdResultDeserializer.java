@@ -0,0 +1,46 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Single pass deserializer of results having a "last" cursor next to lists of elements per pair
+ *
+ * @param <R> result type
+ * @param <E> element type
+ * @author Stéphane Bouclier
+ * @see AbstractLastIdResultDeserializer
+ */
+abstract class LastIdResultDeserializer<R extends ResultWithLastId<Map<String, List<E>>>, E>
+        extends AbstractLastIdResultDeserializer<R, List<E>> implements ResolvableDeserializer {
+
+    private final Class<E> elementClass;
+
+    private JsonDeserializer<Object> elementsDeserializer;
+
+    protected LastIdResultDeserializer(Class<R> resultClass, Supplier<R> resultFactory, Class<E> elementClass) {
+        super(resultClass, resultFactory);
+        this.elementClass = elementClass;
+    }
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+        final JavaType elementsType = ctxt.getTypeFactory().constructCollectionType(List.class, elementClass);
+        this.elementsDeserializer = ctxt.findRootValueDeserializer(elementsType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected List<E> deserializePair(JsonParser p, DeserializationContext ctxt, String field) throws IOException {
+        return (List<E>) elementsDeserializer.deserialize(p, ctxt);
+    }
+}
@@ -1,9 +1,11 @@
 package com.github.sbouclier.result;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.github.sbouclier.KrakenApiException;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -17,6 +19,7 @@ import java.util.*;
  *
  * @author Stéphane Bouclier
  */
+@JsonDeserialize(using = OHLCResult.Deserializer.class)
 public class OHLCResult extends ResultWithLastId<Map<String, List<OHLCResult.OHLC>>> {
 
     @JsonFormat(shape = JsonFormat.Shape.ARRAY)
@@ -31,6 +34,20 @@ public class OHLCResult extends ResultWithLastId<Map<String, List<OHLCResult.OHL
         public BigDecimal volume;
         public Integer count;
 
+        // fixed-point values, only set by FixedPointModule
+        @JsonIgnore
+        public long fixedOpen;
+        @JsonIgnore
+        public long fixedHigh;
+        @JsonIgnore
+        public long fixedLow;
+        @JsonIgnore
+        public long fixedClose;
+        @JsonIgnore
+        public long fixedVwap;
+        @JsonIgnore
+        public long fixedVolume;
+
         @Override
         public String toString() {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -44,4 +61,13 @@ public class OHLCResult extends ResultWithLastId<Map<String, List<OHLCResult.OHL
                     .toString();
         }
     }
+
+    /**
+     * Deserializer capturing last id while streaming the result
+     */
+    public static class Deserializer extends LastIdResultDeserializer<OHLCResult, OHLC> {
+        public Deserializer() {
+            super(OHLCResult.class, OHLCResult::new, OHLC.class);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.github.sbouclier.result;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -36,6 +37,12 @@ public class OrderBookResult extends Result<Map<String, OrderBookResult.OrderBoo
         public BigDecimal volume;
         public Integer timestamp;
 
+        // fixed-point values, only set by FixedPointModule
+        @JsonIgnore
+        public long fixedPrice;
+        @JsonIgnore
+        public long fixedVolume;
+
         private Market() {}
 
         public Market(BigDecimal price, BigDecimal volume, Integer timestamp) {
@@ -1,7 +1,9 @@
 package com.github.sbouclier.result;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -14,6 +16,7 @@ import java.util.Map;
  *
  * @author Stéphane Bouclier
  */
+@JsonDeserialize(using = RecentSpreadResult.Deserializer.class)
 public class RecentSpreadResult extends ResultWithLastId<Map<String, List<RecentSpreadResult.Spread>>> {
 
     @JsonFormat(shape = JsonFormat.Shape.ARRAY)
@@ -23,6 +26,12 @@ public class RecentSpreadResult extends ResultWithLastId<Map<String, List<Recent
         public BigDecimal bid;
         public BigDecimal ask;
 
+        // fixed-point values, only set by FixedPointModule
+        @JsonIgnore
+        public long fixedBid;
+        @JsonIgnore
+        public long fixedAsk;
+
         private Spread() {}
 
         public Spread(Integer time, BigDecimal bid, BigDecimal ask) {
@@ -40,4 +49,13 @@ public class RecentSpreadResult extends ResultWithLastId<Map<String, List<Recent
                     .toString();
         }
     }
+
+    /**
+     * Deserializer capturing last id while streaming the result
+     */
+    public static class Deserializer extends LastIdResultDeserializer<RecentSpreadResult, Spread> {
+        public Deserializer() {
+            super(RecentSpreadResult.class, RecentSpreadResult::new, Spread.class);
+        }
+    }
 }
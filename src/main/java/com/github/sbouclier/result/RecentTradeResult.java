@@ -1,7 +1,9 @@
 package com.github.sbouclier.result;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -14,6 +16,7 @@ import java.util.Map;
  *
  * @author Stéphane Bouclier
  */
+@JsonDeserialize(using = RecentTradeResult.Deserializer.class)
 public class RecentTradeResult extends ResultWithLastId<Map<String, List<RecentTradeResult.RecentTrade>>> {
 
     @JsonFormat(shape = JsonFormat.Shape.ARRAY)
@@ -27,6 +30,12 @@ public class RecentTradeResult extends ResultWithLastId<Map<String, List<RecentT
         public String marketLimit;
         public String miscellaneous;
 
+        // fixed-point values, only set by FixedPointModule
+        @JsonIgnore
+        public long fixedPrice;
+        @JsonIgnore
+        public long fixedVolume;
+
         @Override
         public String toString() {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -39,4 +48,13 @@ public class RecentTradeResult extends ResultWithLastId<Map<String, List<RecentT
                     .toString();
         }
     }
+
+    /**
+     * Deserializer capturing last id while streaming the result
+     */
+    public static class Deserializer extends LastIdResultDeserializer<RecentTradeResult, RecentTrade> {
+        public Deserializer() {
+            super(RecentTradeResult.class, RecentTradeResult::new, RecentTrade.class);
+        }
+    }
 }
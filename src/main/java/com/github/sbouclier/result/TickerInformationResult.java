@@ -1,6 +1,7 @@
 package com.github.sbouclier.result;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -25,6 +26,12 @@ public class TickerInformationResult extends Result<Map<String, TickerInformatio
             public Integer wholeLotVolume;
             public BigDecimal lotVolume;
 
+            // fixed-point values, only set by FixedPointModule
+            @JsonIgnore
+            public long fixedPrice;
+            @JsonIgnore
+            public long fixedLotVolume;
+
             @Override
             public String toString() {
                 return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -41,6 +48,12 @@ public class TickerInformationResult extends Result<Map<String, TickerInformatio
             public BigDecimal price;
             public BigDecimal lotVolume;
 
+            // fixed-point values, only set by FixedPointModule
+            @JsonIgnore
+            public long fixedPrice;
+            @JsonIgnore
+            public long fixedLotVolume;
+
             @Override
             public String toString() {
                 return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -56,6 +69,12 @@ public class TickerInformationResult extends Result<Map<String, TickerInformatio
             public BigDecimal today;
             public BigDecimal last24hours;
 
+            // fixed-point values, only set by FixedPointModule
+            @JsonIgnore
+            public long fixedToday;
+            @JsonIgnore
+            public long fixedLast24hours;
+
             @Override
             public String toString() {
                 return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -107,6 +126,10 @@ public class TickerInformationResult extends Result<Map<String, TickerInformatio
         @JsonProperty("o")
         public BigDecimal todayOpenPrice;
 
+        // fixed-point values, only set by FixedPointModule
+        @JsonIgnore
+        public long fixedTodayOpenPrice;
+
         @Override
         public String toString() {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -0,0 +1,68 @@
+package com.github.sbouclier.retry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.sbouclier.KrakenApiException;
+
+import java.io.IOException;
+
+/**
+ * Class of a failed call, deciding whether and how it is retried
+ *
+ * @author Stéphane Bouclier
+ */
+public enum ErrorClass {
+
+    /**
+     * I/O failure: connection refused or reset, timeout...
+     */
+    NETWORK,
+
+    /**
+     * "EAPI:Rate limit exceeded" or "EGeneral:Temporary lockout"
+     */
+    RATE_LIMIT,
+
+    /**
+     * "EService:Unavailable" or "EService:Busy"
+     */
+    SERVICE_UNAVAILABLE,
+
+    /**
+     * "EGeneral:Internal error"
+     */
+    INTERNAL_ERROR,
+
+    /**
+     * Any other failure, e.g. invalid arguments or unparseable response, never retried
+     */
+    FATAL;
+
+    /**
+     * Classify a failure
+     *
+     * @param exception failure
+     * @return error class
+     */
+    public static ErrorClass of(KrakenApiException exception) {
+        for (String error : exception.getErrors()) {
+            if (error == null) {
+                continue;
+            }
+            if (error.startsWith("EAPI:Rate limit") || error.startsWith("EGeneral:Temporary lockout")) {
+                return RATE_LIMIT;
+            }
+            if (error.startsWith("EService:Unavailable") || error.startsWith("EService:Busy")) {
+                return SERVICE_UNAVAILABLE;
+            }
+            if (error.startsWith("EGeneral:Internal error")) {
+                return INTERNAL_ERROR;
+            }
+        }
+
+        final Throwable cause = exception.getCause();
+        if (cause instanceof IOException && !(cause instanceof JsonProcessingException)) {
+            return NETWORK;
+        }
+        return FATAL;
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.sbouclier.retry;
+
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.KrakenApiMethod;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry, backoff and hedging policy of calls
+ * <p>
+ * Failures are classified by {@link ErrorClass}, each class having its own number of retries and exponential
+ * backoff: the n-th retry waits between half and all of <code>min(maxDelay, initialDelay * 2^n)</code>, the
+ * jitter spreading retries of concurrent callers. {@link ErrorClass#FATAL} failures are never retried.
+ * <p>
+ * With hedging, an attempt of a public method sends a duplicate request when the first one is slower than a
+ * percentile of the latencies of the method, and returns the first successful response, the other one being
+ * discarded. Both requests run on the hedging executor while the caller waits. Private methods are never
+ * hedged.
+ *
+ * <pre>
+ * RetryPolicy policy = RetryPolicy.builder()
+ *     .withBackoff(ErrorClass.RATE_LIMIT, 0, 0, 0, TimeUnit.SECONDS)
+ *     .withHedging(VirtualThreads.newExecutor(), 0.95, 50, TimeUnit.MILLISECONDS)
+ *     .build();
+ * </pre>
+ *
+ * @author Stéphane Bouclier
+ */
+public class RetryPolicy {
+
+    /**
+     * Number of latencies kept per method to compute the hedging delay
+     */
+    static final int LATENCY_WINDOW = 256;
+
+    /**
+     * Number of latencies needed before using the percentile instead of the minimum hedging delay
+     */
+    static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final Map<ErrorClass, Backoff> backoffs;
+    private final Executor hedgingExecutor;
+    private final double hedgingPercentile;
+    private final long minHedgingDelayNanos;
+    private final Sleeper sleeper;
+
+    private final Latencies[] latencies = new Latencies[KrakenApiMethod.values().length];
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * Call retried by the policy
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws KrakenApiException;
+    }
+
+    /**
+     * Wait before a retry
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private RetryPolicy(Builder builder) {
+        this.backoffs = new EnumMap<>(builder.backoffs);
+        this.hedgingExecutor = builder.hedgingExecutor;
+        this.hedgingPercentile = builder.hedgingPercentile;
+        this.minHedgingDelayNanos = builder.minHedgingDelayNanos;
+        this.sleeper = builder.sleeper;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Latencies();
+        }
+    }
+
+    /**
+     * Create a builder with default backoffs and without hedging:
+     * <ul>
+     * <li>{@link ErrorClass#NETWORK}: 3 retries, from 100 ms to 2 s</li>
+     * <li>{@link ErrorClass#RATE_LIMIT}: 2 retries, from 1 s to 10 s</li>
+     * <li>{@link ErrorClass#SERVICE_UNAVAILABLE}: 3 retries, from 500 ms to 5 s</li>
+     * <li>{@link ErrorClass#INTERNAL_ERROR}: 2 retries, from 200 ms to 2 s</li>
+     * </ul>
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * Execute a call, retrying it according to the class of its failures
+     *
+     * @param method kraken method
+     * @param call   call sending the request
+     * @return result
+     * @throws KrakenApiException last failure once retries are exhausted, or if interrupted while waiting
+     */
+    public <T> T execute(KrakenApiMethod method, Call<T> call) throws KrakenApiException {
+        final int[] retriesByClass = new int[ErrorClass.values().length];
+        while (true) {
+            try {
+                return attempt(method, call);
+            } catch (KrakenApiException ex) {
+                final ErrorClass errorClass = ErrorClass.of(ex);
+                final Backoff backoff = backoffs.get(errorClass);
+                final int retry = retriesByClass[errorClass.ordinal()]++;
+                if (backoff == null || retry >= backoff.maxRetries) {
+                    throw ex;
+                }
+
+                retries.increment();
+                try {
+                    sleeper.sleep(backoff.delayNanos(retry));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private <T> T attempt(KrakenApiMethod method, Call<T> call) throws KrakenApiException {
+        if (hedgingExecutor == null || method.isPrivate()) {
+            return timed(method, call);
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        send(method, call, result, pending);
+
+        try {
+            try {
+                return result.get(hedgingDelayNanos(method), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                if (pending.incrementAndGet() > 1) {
+                    hedges.increment();
+                    send(method, call, result, pending);
+                }
+                return result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KrakenApiException("interrupted while waiting for Kraken API", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof KrakenApiException) {
+                throw (KrakenApiException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    private <T> void send(KrakenApiMethod method, Call<T> call, CompletableFuture<T> result, AtomicInteger pending) {
+        final Runnable request = () -> {
+            try {
+                result.complete(timed(method, call));
+            } catch (KrakenApiException | RuntimeException | Error ex) {
+                // the attempt fails once all its requests failed, with the last failure
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(ex);
+                }
+            }
+        };
+        try {
+            hedgingExecutor.execute(request);
+        } catch (RuntimeException ex) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private <T> T timed(KrakenApiMethod method, Call<T> call) throws KrakenApiException {
+        final long start = System.nanoTime();
+        final T value = call.call();
+        latencies[method.ordinal()].record(System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Get delay after which an attempt of a method is hedged
+     *
+     * @param method kraken method
+     * @return delay in nanoseconds
+     */
+    long hedgingDelayNanos(KrakenApiMethod method) {
+        return Math.max(minHedgingDelayNanos, latencies[method.ordinal()].percentile(hedgingPercentile));
+    }
+
+    /**
+     * @return number of retries
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return number of hedged requests
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Backoff of an error class
+     */
+    private static final class Backoff {
+        final int maxRetries;
+        final long initialDelayNanos;
+        final long maxDelayNanos;
+
+        Backoff(int maxRetries, long initialDelayNanos, long maxDelayNanos) {
+            this.maxRetries = maxRetries;
+            this.initialDelayNanos = initialDelayNanos;
+            this.maxDelayNanos = maxDelayNanos;
+        }
+
+        long delayNanos(int retry) {
+            final long ceiling = retry >= 62 || initialDelayNanos > (maxDelayNanos >> retry)
+                    ? maxDelayNanos
+                    : initialDelayNanos << retry;
+            final long half = ceiling / 2;
+            return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+        }
+    }
+
+    /**
+     * Latest latencies of a method
+     */
+    private static final class Latencies {
+        private final long[] nanos = new long[LATENCY_WINDOW];
+        private long count;
+
+        synchronized void record(long latency) {
+            nanos[(int) (count++ % LATENCY_WINDOW)] = latency;
+        }
+
+        long percentile(double percentile) {
+            final long[] sorted;
+            synchronized (this) {
+                if (count < MIN_LATENCY_SAMPLES) {
+                    return 0;
+                }
+                sorted = Arrays.copyOf(nanos, (int) Math.min(count, LATENCY_WINDOW));
+            }
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+        }
+    }
+
+    /**
+     * Builder of {@link RetryPolicy}
+     */
+    public static class Builder {
+        private final Map<ErrorClass, Backoff> backoffs = new EnumMap<>(ErrorClass.class);
+        private Executor hedgingExecutor;
+        private double hedgingPercentile;
+        private long minHedgingDelayNanos;
+        private Sleeper sleeper = TimeUnit.NANOSECONDS::sleep;
+
+        private Builder() {
+            withBackoff(ErrorClass.NETWORK, 3, 100, 2000, TimeUnit.MILLISECONDS);
+            withBackoff(ErrorClass.RATE_LIMIT, 2, 1000, 10000, TimeUnit.MILLISECONDS);
+            withBackoff(ErrorClass.SERVICE_UNAVAILABLE, 3, 500, 5000, TimeUnit.MILLISECONDS);
+            withBackoff(ErrorClass.INTERNAL_ERROR, 2, 200, 2000, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Set backoff of an error class
+         *
+         * @param errorClass   error class, {@link ErrorClass#FATAL} cannot be retried
+         * @param maxRetries   maximum number of retries, 0 to never retry
+         * @param initialDelay delay ceiling of the first retry, doubled on each retry
+         * @param maxDelay     maximum delay ceiling
+         * @param unit         unit of delays
+         * @return builder
+         */
+        public Builder withBackoff(ErrorClass errorClass, int maxRetries, long initialDelay, long maxDelay, TimeUnit unit) {
+            if (errorClass == ErrorClass.FATAL) {
+                throw new IllegalArgumentException("fatal errors cannot be retried");
+            }
+            if (maxRetries < 0 || initialDelay < 0 || maxDelay < initialDelay) {
+                throw new IllegalArgumentException("invalid backoff of " + errorClass);
+            }
+            backoffs.put(errorClass, new Backoff(maxRetries, unit.toNanos(initialDelay), unit.toNanos(maxDelay)));
+            return this;
+        }
+
+        /**
+         * Hedge attempts of public methods slower than a percentile of their latencies
+         *
+         * @param executor   executor sending requests, with as many threads as concurrent requests
+         * @param percentile percentile of latencies, e.g. 0.95
+         * @param minDelay   minimum hedging delay, used until enough latencies are known
+         * @param unit       unit of minDelay
+         * @return builder
+         */
+        public Builder withHedging(Executor executor, double percentile, long minDelay, TimeUnit unit) {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile must be in ]0, 1]: " + percentile);
+            }
+            this.hedgingExecutor = executor;
+            this.hedgingPercentile = percentile;
+            this.minHedgingDelayNanos = unit.toNanos(minDelay);
+            return this;
+        }
+
+        Builder withSleeper(Sleeper sleeper) {
+            this.sleeper = sleeper;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.sbouclier.transport;
+
+import java.io.Closeable;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking http transport used by {@link com.github.sbouclier.AsyncHttpJsonClient}
+ *
+ * @author Stéphane Bouclier
+ */
+public interface AsyncHttpTransport extends Closeable {
+
+    /**
+     * Execute a GET request
+     *
+     * @param url full url including query string
+     * @return future response body
+     */
+    CompletableFuture<String> get(URL url);
+
+    /**
+     * Execute a form url-encoded POST request
+     *
+     * @param url      full url
+     * @param headers  request headers
+     * @param postData POST data, may be null or empty
+     * @return future response body
+     */
+    CompletableFuture<String> post(URL url, Map<String, String> headers, String postData);
+}
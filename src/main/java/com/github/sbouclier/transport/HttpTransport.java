@@ -0,0 +1,62 @@
+package com.github.sbouclier.transport;
+
+import com.github.sbouclier.utils.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Http transport used by {@link com.github.sbouclier.HttpJsonClient} to reach Kraken API
+ *
+ * @author Stéphane Bouclier
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Execute a GET request and stream response body to the handler
+     *
+     * @param url     full url including query string
+     * @param handler response body handler
+     * @return handled response
+     * @throws IOException
+     */
+    <R> R get(URL url, ResponseHandler<R> handler) throws IOException;
+
+    /**
+     * Execute a form url-encoded POST request and stream response body to the handler
+     *
+     * @param url      full url
+     * @param headers  request headers
+     * @param postData POST data, may be null or empty
+     * @param handler  response body handler
+     * @return handled response
+     * @throws IOException
+     */
+    <R> R post(URL url, Map<String, String> headers, String postData, ResponseHandler<R> handler) throws IOException;
+
+    /**
+     * Execute a GET request
+     *
+     * @param url full url including query string
+     * @return response body
+     * @throws IOException
+     */
+    default String get(URL url) throws IOException {
+        return get(url, StreamUtils::convert);
+    }
+
+    /**
+     * Execute a form url-encoded POST request
+     *
+     * @param url      full url
+     * @param headers  request headers
+     * @param postData POST data, may be null or empty
+     * @return response body
+     * @throws IOException
+     */
+    default String post(URL url, Map<String, String> headers, String postData) throws IOException {
+        return post(url, headers, postData, StreamUtils::convert);
+    }
+}
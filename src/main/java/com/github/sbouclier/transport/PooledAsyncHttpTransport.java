@@ -0,0 +1,268 @@
+package com.github.sbouclier.transport;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking http transport backed by a pool of keep-alive connections
+ * <p>
+ * Requests are multiplexed by a small number of I/O reactor threads, so many requests can
+ * be in flight without holding a thread each. Futures are completed on the I/O reactor threads.
+ *
+ * @author Stéphane Bouclier
+ */
+public class PooledAsyncHttpTransport implements AsyncHttpTransport {
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor with default settings
+     */
+    public PooledAsyncHttpTransport() {
+        this(new Builder());
+    }
+
+    private PooledAsyncHttpTransport(Builder builder) {
+        final SSLContext sslContext = builder.sslContext != null ? builder.sslContext : SSLContexts.createDefault();
+
+        final Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", new SSLIOSessionStrategy(sslContext))
+                .build();
+
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(builder.ioThreads)
+                .setConnectTimeout(builder.connectTimeoutMillis)
+                .setSoTimeout(builder.socketTimeoutMillis)
+                .build();
+
+        try {
+            this.connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig), registry);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("unable to start I/O reactor", ex);
+        }
+        this.connectionManager.setMaxTotal(builder.maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(builder.maxPerRoute);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(builder.connectTimeoutMillis)
+                .setConnectionRequestTimeout(builder.connectionRequestTimeoutMillis)
+                .setSocketTimeout(builder.socketTimeoutMillis)
+                .build();
+
+        this.httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .disableCookieManagement()
+                .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Create a builder to customize the connection pool
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    @Override
+    public CompletableFuture<String> get(URL url) {
+        try {
+            return execute(new HttpGet(url.toURI()));
+        } catch (URISyntaxException ex) {
+            return failed(new IOException("invalid url: " + url, ex));
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> post(URL url, Map<String, String> headers, String postData) {
+        final HttpPost request;
+        try {
+            request = new HttpPost(url.toURI());
+        } catch (URISyntaxException ex) {
+            return failed(new IOException("invalid url: " + url, ex));
+        }
+
+        if (headers != null) {
+            headers.forEach(request::addHeader);
+        }
+        if (postData != null && !postData.isEmpty()) {
+            request.setEntity(new StringEntity(postData, ContentType.APPLICATION_FORM_URLENCODED));
+        }
+
+        return execute(request);
+    }
+
+    /**
+     * Get statistics of the whole pool
+     *
+     * @return leased, pending, available and max connections
+     */
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private CompletableFuture<String> execute(HttpRequestBase request) {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+
+        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    final HttpEntity entity = response.getEntity();
+                    final int statusCode = response.getStatusLine().getStatusCode();
+                    final String body = entity != null ? EntityUtils.toString(entity, StandardCharsets.UTF_8) : "";
+
+                    if (statusCode >= 400) {
+                        future.completeExceptionally(new HttpResponseException(statusCode, response.getStatusLine().getReasonPhrase()));
+                    } else {
+                        future.complete(body);
+                    }
+                } catch (IOException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        return future;
+    }
+
+    private static CompletableFuture<String> failed(Throwable ex) {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * PooledAsyncHttpTransport builder
+     */
+    public static class Builder {
+        private int maxTotal = 200;
+        private int maxPerRoute = 100;
+        private int ioThreads = Runtime.getRuntime().availableProcessors();
+        private int connectTimeoutMillis = 10_000;
+        private int connectionRequestTimeoutMillis = 10_000;
+        private int socketTimeoutMillis = 30_000;
+        private SSLContext sslContext;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxTotal maximum number of connections in the pool
+         */
+        public Builder maxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * @param maxPerRoute maximum number of connections per host
+         */
+        public Builder maxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * @param ioThreads number of I/O reactor threads
+         */
+        public Builder ioThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout timeout to establish a connection
+         */
+        public Builder connectTimeout(int connectTimeout, TimeUnit unit) {
+            this.connectTimeoutMillis = (int) unit.toMillis(connectTimeout);
+            return this;
+        }
+
+        /**
+         * @param connectionRequestTimeout timeout to lease a connection from the pool
+         */
+        public Builder connectionRequestTimeout(int connectionRequestTimeout, TimeUnit unit) {
+            this.connectionRequestTimeoutMillis = (int) unit.toMillis(connectionRequestTimeout);
+            return this;
+        }
+
+        /**
+         * @param socketTimeout timeout waiting for data
+         */
+        public Builder socketTimeout(int socketTimeout, TimeUnit unit) {
+            this.socketTimeoutMillis = (int) unit.toMillis(socketTimeout);
+            return this;
+        }
+
+        /**
+         * @param sslContext SSL context shared by all connections
+         */
+        public Builder sslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        public PooledAsyncHttpTransport build() {
+            return new PooledAsyncHttpTransport(this);
+        }
+    }
+}
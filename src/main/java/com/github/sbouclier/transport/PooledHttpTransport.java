@@ -0,0 +1,344 @@
+package com.github.sbouclier.transport;
+
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.metrics.RequestTrace;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Http transport backed by a bounded pool of keep-alive connections
+ * <p>
+ * Connections are reused across requests, so TCP and TLS handshakes are only paid
+ * when the pool has to open a new connection. All connections share a single
+ * {@link SSLContext}, which lets JSSE resume TLS sessions when a connection is reopened.
+ * Idle and expired connections are evicted by a background thread.
+ *
+ * @author Stéphane Bouclier
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    // ----------------
+    // - CONSTRUCTORS -
+    // ----------------
+
+    /**
+     * Constructor with default settings
+     */
+    public PooledHttpTransport() {
+        this(new Builder());
+    }
+
+    private PooledHttpTransport(Builder builder) {
+        final SSLContext sslContext = builder.sslContext != null ? builder.sslContext : SSLContexts.createDefault();
+
+        final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new TimedPlainConnectionSocketFactory())
+                .register("https", new TimedSSLConnectionSocketFactory(sslContext))
+                .build();
+
+        this.connectionManager = new PoolingHttpClientConnectionManager(registry, null, null, null,
+                builder.timeToLiveMillis, TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(builder.maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(builder.maxPerRoute);
+        this.connectionManager.setValidateAfterInactivity(builder.validateAfterInactivityMillis);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(builder.connectTimeoutMillis)
+                .setConnectionRequestTimeout(builder.connectionRequestTimeoutMillis)
+                .setSocketTimeout(builder.socketTimeoutMillis)
+                .build();
+
+        final long keepAliveMillis = builder.keepAliveMillis;
+        final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(builder.maxIdleMillis, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+
+    /**
+     * Create a builder to customize the connection pool
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    @Override
+    public <R> R get(URL url, ResponseHandler<R> handler) throws IOException {
+        return execute(new HttpGet(toUri(url)), handler);
+    }
+
+    @Override
+    public <R> R post(URL url, Map<String, String> headers, String postData, ResponseHandler<R> handler) throws IOException {
+        final HttpPost request = new HttpPost(toUri(url));
+
+        if (headers != null) {
+            headers.forEach(request::addHeader);
+        }
+        if (postData != null && !postData.isEmpty()) {
+            request.setEntity(new StringEntity(postData, ContentType.APPLICATION_FORM_URLENCODED));
+        }
+
+        return execute(request, handler);
+    }
+
+    /**
+     * Get statistics of the whole pool
+     *
+     * @return leased, pending, available and max connections
+     */
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Get statistics of the pool for the host of the given url
+     *
+     * @param url url of the route
+     * @return leased, pending, available and max connections
+     */
+    public PoolStats getStats(URL url) {
+        final int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        final boolean secure = "https".equalsIgnoreCase(url.getProtocol());
+
+        return connectionManager.getStats(new HttpRoute(new HttpHost(url.getHost(), port, url.getProtocol()), null, secure));
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private <R> R execute(HttpRequestBase request, ResponseHandler<R> handler) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            final HttpEntity entity = response.getEntity();
+            final int statusCode = response.getStatusLine().getStatusCode();
+
+            try {
+                if (statusCode >= 400) {
+                    throw new HttpResponseException(statusCode, response.getStatusLine().getReasonPhrase());
+                }
+
+                try (InputStream body = entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0])) {
+                    return handler.handle(body);
+                }
+            } finally {
+                // entity must be fully consumed to release the connection back to the pool
+                EntityUtils.consume(entity);
+            }
+        }
+    }
+
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException ex) {
+            throw new IOException("invalid url: " + url, ex);
+        }
+    }
+
+    /**
+     * PooledHttpTransport builder
+     */
+    public static class Builder {
+        private int maxTotal = 20;
+        private int maxPerRoute = 10;
+        private long keepAliveMillis = 30_000;
+        private long maxIdleMillis = 60_000;
+        private long timeToLiveMillis = -1;
+        private int validateAfterInactivityMillis = 2_000;
+        private int connectTimeoutMillis = 10_000;
+        private int connectionRequestTimeoutMillis = 10_000;
+        private int socketTimeoutMillis = 30_000;
+        private SSLContext sslContext;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxTotal maximum number of connections in the pool
+         */
+        public Builder maxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * @param maxPerRoute maximum number of connections per host
+         */
+        public Builder maxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * @param keepAlive maximum time a connection is kept alive when the server does not specify it
+         */
+        public Builder keepAlive(long keepAlive, TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * @param maxIdle time after which an idle connection is evicted from the pool
+         */
+        public Builder maxIdle(long maxIdle, TimeUnit unit) {
+            this.maxIdleMillis = unit.toMillis(maxIdle);
+            return this;
+        }
+
+        /**
+         * @param timeToLive maximum lifetime of a connection, whatever its activity
+         */
+        public Builder timeToLive(long timeToLive, TimeUnit unit) {
+            this.timeToLiveMillis = unit.toMillis(timeToLive);
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivity inactivity period after which a connection is checked before reuse
+         */
+        public Builder validateAfterInactivity(int validateAfterInactivity, TimeUnit unit) {
+            this.validateAfterInactivityMillis = (int) unit.toMillis(validateAfterInactivity);
+            return this;
+        }
+
+        /**
+         * @param connectTimeout timeout to establish a connection
+         */
+        public Builder connectTimeout(int connectTimeout, TimeUnit unit) {
+            this.connectTimeoutMillis = (int) unit.toMillis(connectTimeout);
+            return this;
+        }
+
+        /**
+         * @param connectionRequestTimeout timeout to lease a connection from the pool
+         */
+        public Builder connectionRequestTimeout(int connectionRequestTimeout, TimeUnit unit) {
+            this.connectionRequestTimeoutMillis = (int) unit.toMillis(connectionRequestTimeout);
+            return this;
+        }
+
+        /**
+         * @param socketTimeout timeout waiting for data
+         */
+        public Builder socketTimeout(int socketTimeout, TimeUnit unit) {
+            this.socketTimeoutMillis = (int) unit.toMillis(socketTimeout);
+            return this;
+        }
+
+        /**
+         * @param sslContext SSL context shared by all connections
+         */
+        public Builder sslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        public PooledHttpTransport build() {
+            return new PooledHttpTransport(this);
+        }
+    }
+
+    /**
+     * Plain socket factory recording {@link Phase#CONNECT} into the request trace of the thread
+     */
+    private static final class TimedPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            final long start = System.nanoTime();
+            final Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            RequestTrace.record(Phase.CONNECT, System.nanoTime() - start);
+            return connected;
+        }
+    }
+
+    /**
+     * TLS socket factory recording {@link Phase#CONNECT} and {@link Phase#TLS} into the request trace of the
+     * thread, the handshake being done when the TCP socket is layered
+     */
+    private static final class TimedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        TimedSSLConnectionSocketFactory(SSLContext sslContext) {
+            super(sslContext);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            final RequestTrace trace = RequestTrace.current();
+            if (trace == null) {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            }
+
+            final long tlsBefore = Math.max(0, trace.getNanos(Phase.TLS));
+            final long start = System.nanoTime();
+            final Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            final long tls = Math.max(0, trace.getNanos(Phase.TLS)) - tlsBefore;
+            RequestTrace.record(Phase.CONNECT, System.nanoTime() - start - tls);
+            return connected;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            final long start = System.nanoTime();
+            final Socket layered = super.createLayeredSocket(socket, target, port, context);
+            RequestTrace.record(Phase.TLS, System.nanoTime() - start);
+            return layered;
+        }
+    }
+}
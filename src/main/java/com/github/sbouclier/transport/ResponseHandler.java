@@ -0,0 +1,23 @@
+package com.github.sbouclier.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Handler consuming a response body as it is received
+ *
+ * @param <R> handled result type
+ * @author Stéphane Bouclier
+ */
+@FunctionalInterface
+public interface ResponseHandler<R> {
+
+    /**
+     * Handle response body, the stream is closed by the caller
+     *
+     * @param body response body
+     * @return handled result
+     * @throws IOException
+     */
+    R handle(InputStream body) throws IOException;
+}
@@ -0,0 +1,163 @@
+package com.github.sbouclier.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of streamed responses: number of responses, bytes received and bytes allocated while
+ * reading and unmarshalling them
+ * <p>
+ * Allocated bytes are measured on the reading thread, they are only available on JVMs supporting
+ * thread allocated memory measurement (HotSpot does).
+ *
+ * @author Stéphane Bouclier
+ */
+public class StreamStatistics {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = allocationMXBean();
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesAllocated = new LongAdder();
+
+    /**
+     * Wrap a handler to record statistics of the responses it handles
+     *
+     * @param handler response body handler
+     * @return handler recording statistics
+     */
+    public <R> ResponseHandler<R> record(ResponseHandler<R> handler) {
+        return body -> {
+            final CountingInputStream countingBody = new CountingInputStream(body);
+            final long allocatedBefore = currentThreadAllocatedBytes();
+
+            try {
+                return handler.handle(countingBody);
+            } finally {
+                final long allocatedAfter = currentThreadAllocatedBytes();
+                if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                    bytesAllocated.add(allocatedAfter - allocatedBefore);
+                }
+                bytesReceived.add(countingBody.count);
+                responses.increment();
+            }
+        };
+    }
+
+    /**
+     * Record a response measured by the caller, e.g. by a {@link com.github.sbouclier.metrics.RequestTrace}
+     *
+     * @param received  bytes of the response body
+     * @param allocated bytes allocated while reading and unmarshalling it, -1 if not measured
+     */
+    public void record(long received, long allocated) {
+        if (allocated >= 0) {
+            bytesAllocated.add(allocated);
+        }
+        bytesReceived.add(Math.max(0, received));
+        responses.increment();
+    }
+
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * Get bytes allocated while reading and unmarshalling responses
+     *
+     * @return allocated bytes, 0 if not supported by the JVM
+     */
+    public long getBytesAllocated() {
+        return bytesAllocated.sum();
+    }
+
+    /**
+     * Check whether allocated bytes can be measured on this JVM
+     *
+     * @return true if supported
+     */
+    public static boolean isAllocationSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    public void reset() {
+        responses.reset();
+        bytesReceived.reset();
+        bytesAllocated.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StreamStatistics[responses=" + getResponses()
+                + ", bytesReceived=" + getBytesReceived()
+                + ", bytesAllocated=" + getBytesAllocated() + "]";
+    }
+
+    /**
+     * Get bytes allocated so far by the current thread
+     *
+     * @return allocated bytes, -1 if not supported by the JVM
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return sunBean;
+                }
+            }
+        } catch (LinkageError ex) {
+            // com.sun.management is not available on this JVM
+        }
+        return null;
+    }
+
+    /**
+     * Input stream counting bytes read
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
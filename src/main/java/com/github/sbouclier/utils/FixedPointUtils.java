@@ -0,0 +1,164 @@
+package com.github.sbouclier.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point utility class, a decimal number is represented by a long scaled by 10^decimals
+ *
+ * @author Stéphane Bouclier
+ */
+public final class FixedPointUtils {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Private constructor
+     */
+    private FixedPointUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get 10^decimals
+     *
+     * @param decimals number of decimals, from 0 to 18
+     * @return power of ten
+     */
+    public static long pow10(int decimals) {
+        return POWERS_OF_TEN[decimals];
+    }
+
+    /**
+     * Convert decimal to fixed-point, rounding half-even extra decimals
+     *
+     * @param value    decimal value
+     * @param decimals number of decimals
+     * @return scaled value
+     * @throws ArithmeticException if scaled value overflows a long
+     */
+    public static long toFixed(BigDecimal value, int decimals) {
+        return value.setScale(decimals, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Parse decimal text to fixed-point without allocation, rounding half-even extra decimals
+     *
+     * @param chars    text buffer, e.g. from {@link com.fasterxml.jackson.core.JsonParser#getTextCharacters()}
+     * @param offset   offset of the number in the buffer
+     * @param length   length of the number
+     * @param decimals number of decimals
+     * @return scaled value
+     * @throws NumberFormatException if text is not a plain decimal number or overflows a long
+     */
+    public static long parse(char[] chars, int offset, int length, int decimals) {
+        final int end = offset + length;
+        int i = offset;
+
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw invalidNumber(chars, offset, length);
+        }
+
+        long value = 0;
+        int fractionDigits = -1;
+        int digits = 0;
+        int roundingDigit = -1;
+        boolean sticky = false;
+
+        for (; i < end; i++) {
+            final char c = chars[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw invalidNumber(chars, offset, length);
+            }
+
+            if (fractionDigits >= decimals) {
+                if (roundingDigit < 0) {
+                    roundingDigit = c - '0';
+                } else if (c != '0') {
+                    sticky = true;
+                }
+                continue;
+            }
+
+            value = multiplyAddExact(value, c - '0', chars, offset, length);
+            digits++;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0) {
+            throw invalidNumber(chars, offset, length);
+        }
+
+        for (int d = Math.max(fractionDigits, 0); d < decimals; d++) {
+            value = multiplyAddExact(value, 0, chars, offset, length);
+        }
+
+        if (roundingDigit > 5 || (roundingDigit == 5 && (sticky || (value & 1) == 1))) {
+            value++;
+        }
+
+        return negative ? -value : value;
+    }
+
+    private static long multiplyAddExact(long value, int digit, char[] chars, int offset, int length) {
+        if (value > (Long.MAX_VALUE - digit) / 10) {
+            throw invalidNumber(chars, offset, length);
+        }
+        return value * 10 + digit;
+    }
+
+    private static NumberFormatException invalidNumber(char[] chars, int offset, int length) {
+        return new NumberFormatException("invalid fixed-point number: " + new String(chars, offset, length));
+    }
+
+    /**
+     * Parse decimal string to fixed-point, rounding half-even extra decimals
+     *
+     * @param text     decimal number
+     * @param decimals number of decimals
+     * @return scaled value
+     * @throws NumberFormatException if text is not a plain decimal number or overflows a long
+     */
+    public static long parse(String text, int decimals) {
+        return parse(text.toCharArray(), 0, text.length(), decimals);
+    }
+
+    /**
+     * Convert fixed-point to decimal
+     *
+     * @param value    scaled value
+     * @param decimals number of decimals
+     * @return decimal value
+     */
+    public static BigDecimal toBigDecimal(long value, int decimals) {
+        return BigDecimal.valueOf(value, decimals);
+    }
+
+    /**
+     * Convert fixed-point to double
+     *
+     * @param value    scaled value
+     * @param decimals number of decimals
+     * @return approximated value
+     */
+    public static double toDouble(long value, int decimals) {
+        return (double) value / POWERS_OF_TEN[decimals];
+    }
+}
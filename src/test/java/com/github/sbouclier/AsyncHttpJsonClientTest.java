@@ -0,0 +1,147 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.ratelimit.RateLimiter;
+import com.github.sbouclier.transport.AsyncHttpTransport;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * AsyncHttpJsonClient test
+ *
+ * @author Stéphane Bouclier
+ */
+public class AsyncHttpJsonClientTest {
+
+    @Test
+    public void should_execute_public_query_with_params() throws Exception {
+
+        // Given
+        AsyncHttpTransport mockTransport = Mockito.mock(AsyncHttpTransport.class);
+        Mockito.when(mockTransport.get(new URL("https://baseUrl/urlMethod?a=A&b=B&")))
+                .thenReturn(CompletableFuture.completedFuture("response"));
+
+        Map<String, String> params = new HashMap<>();
+        params.put("a", "A");
+        params.put("b", "B");
+
+        AsyncHttpJsonClient client = new AsyncHttpJsonClient(mockTransport);
+
+        // When
+        String result = client.executePublicQuery("https://baseUrl", "/urlMethod", params).get();
+
+        // Then
+        assertThat(result, equalTo("response"));
+    }
+
+    @Test
+    public void should_execute_private_query_with_signature() throws Exception {
+
+        // Given
+        AsyncHttpTransport mockTransport = Mockito.mock(AsyncHttpTransport.class);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("API-Key", "apiKey");
+        headers.put("API-Sign", "pmK1HtzTC8XQxUYJRgZ+Ae5aLdvH1cx6eJssELGVlWbt+pbFE96CYUzAujeqeDPijYTOEN5b/vrreWnURZij+w==");
+
+        Mockito.when(mockTransport.post(new URL("https://baseUrl/urlMethod"), headers, "nonce=123456"))
+                .thenReturn(CompletableFuture.completedFuture("response"));
+
+        AsyncHttpJsonClient spyClient = Mockito.spy(new AsyncHttpJsonClient("apiKey", "secret", mockTransport));
+        Mockito.doReturn("123456").when(spyClient).generateNonce();
+
+        // When
+        String result = spyClient.executePrivateQuery("https://baseUrl", "/urlMethod").get();
+
+        // Then
+        assertThat(result, equalTo("response"));
+    }
+
+    @Test
+    public void should_send_private_queries_one_at_a_time() throws Exception {
+
+        // Given
+        AsyncHttpTransport mockTransport = Mockito.mock(AsyncHttpTransport.class);
+        CompletableFuture<String> firstResponse = new CompletableFuture<>();
+        Mockito.when(mockTransport.post(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(firstResponse)
+                .thenReturn(CompletableFuture.completedFuture("second"));
+
+        AsyncHttpJsonClient client = new AsyncHttpJsonClient("apiKey", "secret", mockTransport);
+
+        // When
+        CompletableFuture<String> first = client.executePrivateQuery("https://baseUrl", "/urlMethod");
+        CompletableFuture<String> second = client.executePrivateQuery("https://baseUrl", "/urlMethod");
+
+        // Then
+        Mockito.verify(mockTransport, Mockito.times(1)).post(Mockito.any(), Mockito.any(), Mockito.any());
+        assertThat(second.isDone(), equalTo(false));
+
+        firstResponse.complete("first");
+
+        assertThat(first.get(), equalTo("first"));
+        assertThat(second.get(1, TimeUnit.SECONDS), equalTo("second"));
+        Mockito.verify(mockTransport, Mockito.times(2)).post(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void should_delay_private_queries_within_call_counter() throws Exception {
+
+        // Given
+        AsyncHttpTransport mockTransport = Mockito.mock(AsyncHttpTransport.class);
+        Mockito.when(mockTransport.post(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture("response"));
+
+        RateLimiter rateLimiter = new RateLimiter(1, 20);
+        AsyncHttpJsonClient client = new AsyncHttpJsonClient("apiKey", "secret", rateLimiter, mockTransport);
+        String urlMethod = KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0);
+
+        // When
+        long start = System.nanoTime();
+        client.executePrivateQuery("https://baseUrl", urlMethod).get(1, TimeUnit.SECONDS);
+        client.executePrivateQuery("https://baseUrl", urlMethod).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(40L));
+        assertThat(rateLimiter.getAcquired(), equalTo(2L));
+        assertThat(rateLimiter.getDelayed(), equalTo(1L));
+    }
+
+    @Test
+    public void should_fail_private_query_without_api_key() throws InterruptedException {
+
+        // Given
+        AsyncHttpJsonClient client = new AsyncHttpJsonClient(null, "secret", Mockito.mock(AsyncHttpTransport.class));
+
+        // When
+        try {
+            client.executePrivateQuery("https://baseUrl", "/urlMethod").get();
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(KrakenApiException.class));
+        }
+    }
+
+    @Test
+    public void should_close_transport() throws IOException {
+        AsyncHttpTransport mockTransport = Mockito.mock(AsyncHttpTransport.class);
+
+        new AsyncHttpJsonClient(mockTransport).close();
+
+        Mockito.verify(mockTransport).close();
+    }
+}
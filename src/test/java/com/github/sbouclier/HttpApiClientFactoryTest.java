@@ -1,8 +1,16 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.result.AccountBalanceResult;
+import com.github.sbouclier.result.Result;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.StreamStatistics;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -54,4 +62,57 @@ public class HttpApiClientFactoryTest {
         HttpApiClientFactory factory = new HttpApiClientFactory();
         factory.getHttpApiClient("key", "secret", KrakenApiMethod.SERVER_TIME);
     }
+
+    @Test
+    public void should_return_http_api_client_with_transport() {
+        HttpApiClientFactory factory = new HttpApiClientFactory(new ClientOptions().withTransport(Mockito.mock(HttpTransport.class)));
+
+        assertThat(factory.getHttpApiClient(KrakenApiMethod.SERVER_TIME), instanceOf(HttpApiClient.class));
+        assertThat(factory.getHttpApiClient("key", "secret", KrakenApiMethod.ACCOUNT_BALANCE), instanceOf(HttpApiClient.class));
+    }
+
+    @Test
+    public void should_reuse_public_http_api_client() {
+        HttpApiClientFactory factory = new HttpApiClientFactory();
+
+        assertThat(factory.getHttpApiClient(KrakenApiMethod.TICKER_INFORMATION), sameInstance(factory.getHttpApiClient(KrakenApiMethod.TICKER_INFORMATION)));
+        assertThat(factory.getHttpApiClient(KrakenApiMethod.TICKER_INFORMATION), not(sameInstance(factory.getHttpApiClient(KrakenApiMethod.ORDER_BOOK))));
+    }
+
+    @Test
+    public void should_reuse_private_http_api_client_per_key() {
+        HttpApiClientFactory factory = new HttpApiClientFactory();
+
+        HttpApiClient<? extends Result> client = factory.getHttpApiClient("key", "secret", KrakenApiMethod.OPEN_ORDERS);
+
+        assertThat(factory.getHttpApiClient("key", "secret", KrakenApiMethod.OPEN_ORDERS), sameInstance(client));
+        assertThat(factory.getHttpApiClient("otherKey", "secret", KrakenApiMethod.OPEN_ORDERS), not(sameInstance(client)));
+        assertThat(factory.getHttpApiClient("key", "otherSecret", KrakenApiMethod.OPEN_ORDERS), not(sameInstance(client)));
+    }
+
+    @Test(expected = KrakenApiException.class)
+    public void should_return_private_http_api_client_without_key() throws KrakenApiException {
+        HttpApiClientFactory factory = new HttpApiClientFactory();
+
+        HttpApiClient<AccountBalanceResult> client = (HttpApiClient<AccountBalanceResult>) factory.getHttpApiClient(null, null, KrakenApiMethod.ACCOUNT_BALANCE);
+        client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
+    }
+
+    @Test
+    public void should_share_request_coalescer() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        HttpApiClientFactory factory = new HttpApiClientFactory(new ClientOptions().withCoalescer(coalescer));
+
+        assertThat(factory.getCoalescer(), sameInstance(coalescer));
+        assertThat(new HttpApiClientFactory().getCoalescer(), nullValue());
+    }
+
+    @Test
+    public void should_disable_statistics_by_default() {
+        StreamStatistics statistics = new StreamStatistics();
+        HttpApiClientFactory factory = new HttpApiClientFactory(new ClientOptions().withStatistics(statistics));
+
+        assertThat(factory.getStatistics(), sameInstance(statistics));
+        assertThat(new HttpApiClientFactory().getStatistics(), nullValue());
+    }
 }
@@ -1,22 +1,38 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
+import com.github.sbouclier.circuitbreaker.CircuitOpenException;
+import com.github.sbouclier.metrics.InMemoryMetrics;
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.ratelimit.RateLimiter;
+import com.github.sbouclier.ratelimit.VerificationTier;
 import com.github.sbouclier.result.*;
+import com.github.sbouclier.retry.ErrorClass;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.ResponseHandler;
+import com.github.sbouclier.transport.StreamStatistics;
 import com.github.sbouclier.utils.StreamUtils;
 import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,6 +54,13 @@ public class HttpApiClientTest {
         verifyNoMoreInteractions(mockHttpJsonClient);
     }
 
+    private static Answer<Object> respondWith(String responseBody) {
+        return invocation -> {
+            ResponseHandler<?> handler = invocation.getArgument(3);
+            return handler.handle(new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)));
+        };
+    }
+
     @Test
     public void should_call_valid_public_method() throws IOException, KrakenApiException {
 
@@ -47,8 +70,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         ServerTimeResult result = client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
@@ -57,7 +82,7 @@ public class HttpApiClientTest {
         assertThat(result.getResult().unixtime, equalTo(1501271914L));
         assertThat(result.getResult().rfc1123, equalTo("Fri, 28 Jul 17 19:58:34 +0000"));
 
-        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)));
+        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -69,8 +94,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         try {
@@ -81,7 +108,7 @@ public class HttpApiClientTest {
             assertThat(ex.getMessage(), equalTo("[EGeneral:Invalid arguments]"));
         }
 
-        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)));
+        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -93,8 +120,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         try {
@@ -105,7 +134,7 @@ public class HttpApiClientTest {
             assertThat(ex.getMessage(), equalTo("[unable to query Kraken API]"));
         }
 
-        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)));
+        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -118,8 +147,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR,ETHEUR");
@@ -138,6 +168,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -151,8 +182,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR,ETHEUR");
@@ -169,6 +201,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -182,8 +215,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR,ETHEUR");
@@ -200,6 +234,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.TICKER_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -213,8 +248,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR");
@@ -233,6 +269,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -240,14 +277,15 @@ public class HttpApiClientTest {
     public void should_call_invalid_public_method_with_unextractable_last_id() throws IOException, KrakenApiException {
 
         // Given
-        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/invalid_arguments.mock.json");
+        final String mockResponseBody = "{\"error\":[],\"result\":{\"XXBTZEUR\":[]}}";
         HttpApiClient<OHLCResult> client = new HttpApiClient<>(mockHttpJsonClient);
 
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR");
@@ -265,6 +303,37 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
+                any());
+    }
+
+    @Test
+    public void should_call_invalid_public_method_with_error_and_no_last_id() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/invalid_arguments.mock.json");
+        HttpApiClient<OHLCResult> client = new HttpApiClient<>(mockHttpJsonClient);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        try {
+            client.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, new HashMap<>());
+
+            fail();
+        } catch (KrakenApiException ex) {
+            assertThat(ex.getMessage(), equalTo("[EGeneral:Invalid arguments]"));
+        }
+
+        verify(mockHttpJsonClient).executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -278,8 +347,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR");
@@ -297,6 +367,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -310,8 +381,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("pair", "BTCEUR");
@@ -329,6 +401,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePublicQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -341,8 +414,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         AccountBalanceResult result = client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
@@ -353,7 +428,7 @@ public class HttpApiClientTest {
         assertThat(result.getResult().get("XXRP"), Matchers.comparesEqualTo(BigDecimal.valueOf(100)));
         assertThat(result.getResult().get("BCH"), Matchers.comparesEqualTo(BigDecimal.valueOf(0.0472043520)));
 
-        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)));
+        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -365,8 +440,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         try {
@@ -377,7 +454,7 @@ public class HttpApiClientTest {
             assertThat(ex.getMessage(), equalTo("[EGeneral:Invalid arguments]"));
         }
 
-        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)));
+        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -389,8 +466,10 @@ public class HttpApiClientTest {
 
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
-                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)))
-        ).thenReturn(mockResponseBody);
+                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
 
         // When
         try {
@@ -401,7 +480,7 @@ public class HttpApiClientTest {
             assertThat(ex.getMessage(), equalTo("[unable to query Kraken API]"));
         }
 
-        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)));
+        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)), isNull(), any());
     }
 
     @Test
@@ -414,8 +493,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("txid", "OGRQC4-Q5C5N-2EYZDZ");
@@ -433,6 +513,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -446,8 +527,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("txid", "OGRQC4-Q5C5N-2EYZDZ");
@@ -464,6 +546,7 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
 
@@ -477,8 +560,9 @@ public class HttpApiClientTest {
         when(mockHttpJsonClient.executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any())
-        ).thenReturn(mockResponseBody.toString());
+        ).thenAnswer(respondWith(mockResponseBody.toString()));
 
         Map<String, String> params = new HashMap<>();
         params.put("txid", "OGRQC4-Q5C5N-2EYZDZ");
@@ -495,6 +579,285 @@ public class HttpApiClientTest {
         verify(mockHttpJsonClient).executePrivateQuery(
                 eq(KrakenAPIClient.BASE_URL),
                 eq(KrakenApiMethod.ORDERS_INFORMATION.getUrl(0)),
+                any(),
                 any());
     }
+
+    @Test
+    public void should_record_stream_statistics() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/order_book.mock.json");
+        final StreamStatistics statistics = new StreamStatistics();
+        HttpApiClient<OrderBookResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withStatistics(statistics), null);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.ORDER_BOOK.getUrl(0)),
+                any(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        OrderBookResult result = client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.ORDER_BOOK, OrderBookResult.class, new HashMap<>());
+
+        // Then
+        assertThat(result.getResult().size(), equalTo(1));
+        assertThat(statistics.getResponses(), equalTo(1L));
+        assertThat(statistics.getBytesReceived(), equalTo((long) mockResponseBody.getBytes(StandardCharsets.UTF_8).length));
+
+        verify(mockHttpJsonClient).executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.ORDER_BOOK.getUrl(0)),
+                any(),
+                any());
+    }
+
+    @Test
+    public void should_acquire_rate_limiter_on_private_call() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/ledgers_information.mock.json");
+        final RateLimiter rateLimiter = new RateLimiter(VerificationTier.STARTER);
+        HttpApiClient<LedgersInformationResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions(), rateLimiter);
+
+        when(mockHttpJsonClient.executePrivateQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.LEDGERS_INFORMATION.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.LEDGERS_INFORMATION, LedgersInformationResult.class);
+
+        // Then
+        assertThat(rateLimiter.getAcquired(), equalTo(1L));
+        assertThat(rateLimiter.getCounter(), Matchers.closeTo(2, 0.1));
+
+        verify(mockHttpJsonClient).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.LEDGERS_INFORMATION.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_coalesce_public_calls() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        HttpApiClient<OHLCResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withCoalescer(coalescer), null);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "XXBTZEUR");
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.OHLC.getUrl(0)),
+                eq(params),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        OHLCResult result = client.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, params);
+        client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, params);
+
+        // Then
+        assertThat(result.getLastId(), equalTo(1501200000L));
+        assertThat(coalescer.getRequestCount(), equalTo(2L));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+
+        verify(mockHttpJsonClient, times(2)).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.OHLC.getUrl(0)), eq(params), any());
+    }
+
+    @Test
+    public void should_retry_public_call_on_network_error() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        final RetryPolicy retryPolicy = RetryPolicy.builder()
+                .withBackoff(ErrorClass.NETWORK, 2, 1, 1, TimeUnit.MILLISECONDS)
+                .build();
+        HttpApiClient<ServerTimeResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withRetryPolicy(retryPolicy), null);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenThrow(new SocketTimeoutException("read timed out")).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        ServerTimeResult result = client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
+
+        // Then
+        assertThat(result.getResult().unixtime, equalTo(1501271914L));
+        assertThat(retryPolicy.getRetryCount(), equalTo(1L));
+
+        verify(mockHttpJsonClient, times(2)).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_retry_public_call_with_last_id_on_service_unavailable() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+        final RetryPolicy retryPolicy = RetryPolicy.builder()
+                .withBackoff(ErrorClass.SERVICE_UNAVAILABLE, 2, 1, 1, TimeUnit.MILLISECONDS)
+                .build();
+        HttpApiClient<OHLCResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withRetryPolicy(retryPolicy), null);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.OHLC.getUrl(0)),
+                any(),
+                any())
+        ).thenAnswer(respondWith("{\"error\":[\"EService:Unavailable\"]}")).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        OHLCResult result = client.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, new HashMap<>());
+
+        // Then
+        assertThat(result.getLastId(), equalTo(1501200000L));
+        assertThat(retryPolicy.getRetryCount(), equalTo(1L));
+
+        verify(mockHttpJsonClient, times(2)).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.OHLC.getUrl(0)), any(), any());
+    }
+
+    @Test
+    public void should_fail_fast_private_call_when_circuit_is_open() throws IOException, KrakenApiException {
+
+        // Given
+        final CircuitBreaker circuitBreaker = CircuitBreaker.builder().withWindow(2, 2).build();
+        HttpApiClient<AccountBalanceResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withCircuitBreaker(circuitBreaker), null);
+
+        when(mockHttpJsonClient.executePrivateQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)),
+                isNull(),
+                any())
+        ).thenThrow(new SocketTimeoutException("read timed out"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
+                fail();
+            } catch (KrakenApiException ex) {
+                assertThat(ex.getMessage(), equalTo("[unable to query Kraken API]"));
+            }
+        }
+
+        // When
+        try {
+            client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
+            fail();
+        } catch (CircuitOpenException ex) {
+
+            // Then
+            assertThat(ex.getMethod(), equalTo(KrakenApiMethod.ACCOUNT_BALANCE));
+        }
+
+        verify(mockHttpJsonClient, times(2)).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_record_metrics_of_public_call() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        HttpApiClient<ServerTimeResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withMetrics(metrics), null);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
+
+        // Then
+        assertThat(metrics.getRequestCount(KrakenApiMethod.SERVER_TIME), equalTo(1L));
+        assertThat(metrics.getErrorCount(KrakenApiMethod.SERVER_TIME), equalTo(0L));
+        assertThat(metrics.getBytesReceived(KrakenApiMethod.SERVER_TIME), equalTo((long) mockResponseBody.getBytes(StandardCharsets.UTF_8).length));
+        for (Phase phase : new Phase[]{Phase.TTFB, Phase.DOWNLOAD, Phase.PARSE, Phase.TOTAL}) {
+            assertThat(metrics.getHistogram(KrakenApiMethod.SERVER_TIME, phase).getCount(), equalTo(1L));
+        }
+        assertThat(metrics.getHistogram(KrakenApiMethod.SERVER_TIME, Phase.SIGN).getCount(), equalTo(0L));
+
+        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_record_stream_statistics_from_metrics_trace() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        final StreamStatistics statistics = new StreamStatistics();
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        HttpApiClient<ServerTimeResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withStatistics(statistics).withMetrics(metrics), null);
+
+        when(mockHttpJsonClient.executePublicQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.SERVER_TIME.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody));
+
+        // When
+        client.callPublic(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME, ServerTimeResult.class);
+
+        // Then
+        final long bytes = mockResponseBody.getBytes(StandardCharsets.UTF_8).length;
+        assertThat(statistics.getResponses(), equalTo(1L));
+        assertThat(statistics.getBytesReceived(), equalTo(bytes));
+        assertThat(metrics.getBytesReceived(KrakenApiMethod.SERVER_TIME), equalTo(bytes));
+
+        verify(mockHttpJsonClient).executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.SERVER_TIME.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_record_errors_of_private_call_by_code() throws IOException, KrakenApiException {
+
+        // Given
+        final String mockResponseBody = StreamUtils.getResourceAsString(this.getClass(), "json/invalid_arguments.mock.json");
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        HttpApiClient<AccountBalanceResult> client = new HttpApiClient<>(mockHttpJsonClient, new ClientOptions().withMetrics(metrics), null);
+
+        when(mockHttpJsonClient.executePrivateQuery(
+                eq(KrakenAPIClient.BASE_URL),
+                eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)),
+                isNull(),
+                any())
+        ).thenAnswer(respondWith(mockResponseBody)).thenThrow(new SocketTimeoutException("read timed out"));
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE, AccountBalanceResult.class);
+                fail();
+            } catch (KrakenApiException ex) {
+                // expected
+            }
+        }
+
+        // Then
+        Map<String, Long> errors = new HashMap<>();
+        errors.put("EGeneral:Invalid arguments", 1L);
+        errors.put("unable to query Kraken API", 1L);
+
+        assertThat(metrics.getRequestCount(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(2L));
+        assertThat(metrics.getErrorCounts(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(errors));
+        assertThat(metrics.getHistogram(KrakenApiMethod.ACCOUNT_BALANCE, Phase.TOTAL).getCount(), equalTo(2L));
+
+        verify(mockHttpJsonClient, times(2)).executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0)), isNull(), any());
+    }
+
+    @Test
+    public void should_extract_error_code() {
+        assertThat(HttpApiClient.errorCode("EGeneral:Invalid arguments:volume"), equalTo("EGeneral:Invalid arguments"));
+        assertThat(HttpApiClient.errorCode("EService:Unavailable"), equalTo("EService:Unavailable"));
+        assertThat(HttpApiClient.errorCode("unable to query Kraken API"), equalTo("unable to query Kraken API"));
+        assertThat(HttpApiClient.errorCode(null), equalTo("unknown"));
+    }
 }
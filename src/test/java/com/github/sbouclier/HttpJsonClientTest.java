@@ -1,6 +1,11 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.metrics.RequestTrace;
 import com.github.sbouclier.mock.MockHttpsURLConnection;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.ResponseHandler;
+import com.github.sbouclier.utils.StreamUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -16,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -269,4 +275,173 @@ public class HttpJsonClientTest {
         // Then
         assertThat(result, equalTo("response"));
     }
+
+    @Test
+    public void should_retrieve_public_json_response_through_transport() throws IOException {
+
+        // Given
+        final URL url = new URL("https://baseUrl/urlMethod?");
+        HttpTransport mockTransport = Mockito.mock(HttpTransport.class);
+        Mockito.when(mockTransport.get(url)).thenReturn("response");
+
+        HttpJsonClient client = new HttpJsonClient(mockTransport);
+
+        // When
+        String result = client.getPublicJsonResponse(url);
+
+        // Then
+        assertThat(result, equalTo("response"));
+        Mockito.verify(mockTransport).get(url);
+    }
+
+    @Test
+    public void should_retrieve_private_json_response_through_transport() throws IOException {
+
+        // Given
+        final URL url = new URL("https://baseUrl/urlMethod");
+        HttpTransport mockTransport = Mockito.mock(HttpTransport.class);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("API-Key", "apiKey");
+        headers.put("API-Sign", "signature");
+        Mockito.when(mockTransport.post(url, headers, "postData")).thenReturn("response");
+
+        HttpJsonClient client = new HttpJsonClient("apiKey", "secret", mockTransport);
+
+        // When
+        String result = client.getPrivateJsonResponse(url, "postData", "signature");
+
+        // Then
+        assertThat(result, equalTo("response"));
+        Mockito.verify(mockTransport).post(url, headers, "postData");
+    }
+
+    @Test
+    public void should_record_signature_into_request_trace() throws IOException, KrakenApiException {
+
+        // Given
+        HttpTransport mockTransport = Mockito.mock(HttpTransport.class);
+        Mockito.doReturn("response").when(mockTransport).post(any(), any(), any(), any());
+        HttpJsonClient client = new HttpJsonClient("apiKey", "c2VjcmV0", mockTransport);
+
+        // When
+        RequestTrace trace = RequestTrace.begin();
+        String result = client.executePrivateQuery("https://baseUrl", "/urlMethod", null, StreamUtils::convert);
+        trace.end();
+
+        // Then
+        assertThat(result, equalTo("response"));
+        assertThat(trace.getNanos(Phase.SIGN) >= 0, equalTo(true));
+    }
+
+    @Test
+    public void should_stream_public_response() throws IOException {
+
+        // Given
+        final MockHttpsURLConnection mockHttpURLConnection = new MockHttpsURLConnection(null);
+
+        final URLStreamHandler handler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL arg0) throws IOException {
+                return mockHttpURLConnection;
+            }
+        };
+
+        URL url = new URL("https", "baseUrl", 80, "", handler);
+        HttpJsonClient client = new HttpJsonClient();
+
+        // When
+        String result = client.getPublicResponse(url, StreamUtils::convert);
+
+        // Then
+        assertThat(result, equalTo("read inputstream"));
+    }
+
+    @Test
+    public void should_stream_private_response() throws IOException {
+
+        // Given
+        final MockHttpsURLConnection mockHttpURLConnection = new MockHttpsURLConnection(null);
+
+        final URLStreamHandler handler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL arg0) throws IOException {
+                return mockHttpURLConnection;
+            }
+        };
+
+        URL url = new URL("https", "baseUrl", 80, "", handler);
+        HttpJsonClient client = new HttpJsonClient("apiKey", "secret");
+
+        // When
+        String result = client.getPrivateResponse(url, "postData", "signature", StreamUtils::convert);
+
+        // Then
+        assertThat(result, equalTo("read inputstream"));
+    }
+
+    @Test
+    public void should_execute_public_query_with_handler_through_transport() throws IOException {
+
+        // Given
+        final URL url = new URL("https://baseUrl/urlMethod?a=A&");
+        final ResponseHandler<String> responseHandler = StreamUtils::convert;
+
+        HttpTransport mockTransport = Mockito.mock(HttpTransport.class);
+        Mockito.when(mockTransport.get(url, responseHandler)).thenReturn("response");
+
+        Map<String, String> params = new HashMap<>();
+        params.put("a", "A");
+
+        HttpJsonClient client = new HttpJsonClient(mockTransport);
+
+        // When
+        String result = client.executePublicQuery("https://baseUrl", "/urlMethod", params, responseHandler);
+
+        // Then
+        assertThat(result, equalTo("response"));
+        Mockito.verify(mockTransport).get(url, responseHandler);
+    }
+
+    @Test
+    public void should_execute_private_query_with_handler_through_transport() throws IOException, KrakenApiException {
+
+        // Given
+        final URL url = new URL("https://baseUrl/urlMethod");
+        final ResponseHandler<String> responseHandler = StreamUtils::convert;
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("API-Key", "apiKey");
+        headers.put("API-Sign", "pmK1HtzTC8XQxUYJRgZ+Ae5aLdvH1cx6eJssELGVlWbt+pbFE96CYUzAujeqeDPijYTOEN5b/vrreWnURZij+w==");
+
+        HttpTransport mockTransport = Mockito.mock(HttpTransport.class);
+        Mockito.when(mockTransport.post(url, headers, "nonce=123456", responseHandler)).thenReturn("response");
+
+        HttpJsonClient spyClient = Mockito.spy(new HttpJsonClient("apiKey", "secret", mockTransport));
+        Mockito.doReturn("123456").when(spyClient).generateNonce();
+
+        // When
+        String result = spyClient.executePrivateQuery("https://baseUrl", "/urlMethod", null, responseHandler);
+
+        // Then
+        assertThat(result, equalTo("response"));
+    }
+
+    @Test
+    public void should_share_nonces_between_clients_of_same_key() {
+
+        // Given
+        HttpJsonClient client1 = new HttpJsonClient("sharedApiKey", "secret");
+        HttpJsonClient client2 = new HttpJsonClient("sharedApiKey", "secret");
+
+        // When
+        long nonce1 = Long.parseLong(client1.generateNonce());
+        long nonce2 = Long.parseLong(client2.generateNonce());
+        long nonce3 = Long.parseLong(client1.generateNonce());
+
+        // Then
+        assertThat(nonce2, greaterThan(nonce1));
+        assertThat(nonce3, greaterThan(nonce2));
+        assertThat(NonceGenerator.forKey("sharedApiKey").getLast(), equalTo(nonce3));
+    }
 }
@@ -0,0 +1,82 @@
+package com.github.sbouclier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.sbouclier.result.OrderBookResult;
+import com.github.sbouclier.result.ServerTimeResult;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * JsonReaderRegistry test
+ *
+ * @author Stéphane Bouclier
+ */
+public class JsonReaderRegistryTest {
+
+    @Test
+    public void should_return_same_reader_for_same_class() {
+        JsonReaderRegistry registry = new JsonReaderRegistry();
+
+        ObjectReader reader = registry.getReader(OrderBookResult.class);
+
+        assertThat(registry.getReader(OrderBookResult.class), sameInstance(reader));
+        assertThat(registry.size(), equalTo(1));
+    }
+
+    @Test
+    public void should_warm_up_all_results() {
+        JsonReaderRegistry registry = new JsonReaderRegistry().warmUp();
+
+        assertThat(registry.size(), equalTo(KrakenApiMethod.values().length));
+    }
+
+    @Test
+    public void should_use_custom_mapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonReaderRegistry registry = new JsonReaderRegistry(mapper);
+
+        assertThat(registry.getMapper(), sameInstance(mapper));
+    }
+
+    @Test
+    public void should_return_default_registry() {
+        assertThat(JsonReaderRegistry.getDefault(), sameInstance(JsonReaderRegistry.getDefault()));
+    }
+
+    @Test
+    public void should_read_concurrently() throws Exception {
+
+        // Given
+        final String json = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        final JsonReaderRegistry registry = new JsonReaderRegistry();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Callable<ServerTimeResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(() -> registry.getReader(ServerTimeResult.class).readValue(json));
+        }
+
+        // When
+        List<Future<ServerTimeResult>> results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        // Then
+        for (Future<ServerTimeResult> result : results) {
+            assertThat(result.get().getResult().unixtime, equalTo(1501271914L));
+        }
+        assertThat(registry.size(), equalTo(1));
+    }
+}
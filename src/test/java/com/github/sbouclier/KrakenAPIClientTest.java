@@ -1,18 +1,28 @@
 package com.github.sbouclier;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.circuitbreaker.CircuitBreaker;
 import com.github.sbouclier.input.InfoInput;
 import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.metrics.ApiMetrics;
+import com.github.sbouclier.metrics.InMemoryMetrics;
 import com.github.sbouclier.mock.MockInitHelper;
+import com.github.sbouclier.ratelimit.VerificationTier;
 import com.github.sbouclier.result.*;
+import com.github.sbouclier.retry.RetryPolicy;
+import com.github.sbouclier.transport.HttpTransport;
+import com.github.sbouclier.transport.ResponseHandler;
 import com.github.sbouclier.utils.StreamUtils;
 import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -325,6 +335,107 @@ public class KrakenAPIClientTest {
         verify(mockClient).callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, OHLCResult.class, params);
     }
 
+    @Test
+    public void should_return_ohlc_columns() throws IOException, KrakenApiException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+        ColumnarOHLCResult mockResult = new ObjectMapper().readValue(jsonResult, ColumnarOHLCResult.class);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "BTCEUR");
+        params.put("interval", "1440");
+
+        // When
+        when(mockClientFactory.getHttpApiClient(KrakenApiMethod.OHLC)).thenReturn(mockClient);
+        when(mockClient.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params)).thenReturn(mockResult);
+
+        KrakenAPIClient client = new KrakenAPIClient(mockClientFactory);
+        ColumnarOHLCResult result = client.getOHLCColumns("BTCEUR", Interval.ONE_DAY);
+
+        // Then
+        assertEquals(720, result.getResult().get("XXBTZEUR").size());
+        assertEquals(result.getLastId().intValue(), 1501200000);
+
+        verify(mockClientFactory).getHttpApiClient(KrakenApiMethod.OHLC);
+        verify(mockClient).callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
+    }
+
+    @Test
+    public void should_return_ohlc_columns_since_long_id() throws IOException, KrakenApiException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+        ColumnarOHLCResult mockResult = new ObjectMapper().readValue(jsonResult, ColumnarOHLCResult.class);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "BTCEUR");
+        params.put("interval", "1440");
+        params.put("since", "4102444800");
+
+        // When
+        when(mockClientFactory.getHttpApiClient(KrakenApiMethod.OHLC)).thenReturn(mockClient);
+        when(mockClient.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params)).thenReturn(mockResult);
+
+        KrakenAPIClient client = new KrakenAPIClient(mockClientFactory);
+        ColumnarOHLCResult result = client.getOHLCColumns("BTCEUR", Interval.ONE_DAY, 4102444800L);
+
+        // Then
+        assertEquals(720, result.getResult().get("XXBTZEUR").size());
+
+        verify(mockClientFactory).getHttpApiClient(KrakenApiMethod.OHLC);
+        verify(mockClient).callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC, ColumnarOHLCResult.class, params);
+    }
+
+    @Test
+    public void should_return_recent_trades_columns() throws IOException, KrakenApiException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_trades.mock.json");
+        ColumnarRecentTradeResult mockResult = new ObjectMapper().readValue(jsonResult, ColumnarRecentTradeResult.class);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "XXBTZEUR");
+        params.put("since", "1501610764423910861");
+
+        // When
+        when(mockClientFactory.getHttpApiClient(KrakenApiMethod.RECENT_TRADES)).thenReturn(mockClient);
+        when(mockClient.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.RECENT_TRADES, ColumnarRecentTradeResult.class, params)).thenReturn(mockResult);
+
+        KrakenAPIClient client = new KrakenAPIClient(mockClientFactory);
+        ColumnarRecentTradeResult result = client.getRecentTradesColumns("XXBTZEUR", 1501610764423910861L);
+
+        // Then
+        assertEquals(1501610764423910861L, result.getLastId().longValue());
+
+        verify(mockClientFactory).getHttpApiClient(KrakenApiMethod.RECENT_TRADES);
+        verify(mockClient).callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.RECENT_TRADES, ColumnarRecentTradeResult.class, params);
+    }
+
+    @Test
+    public void should_return_recent_spreads_columns() throws IOException, KrakenApiException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_spread.mock.json");
+        ColumnarRecentSpreadResult mockResult = new ObjectMapper().readValue(jsonResult, ColumnarRecentSpreadResult.class);
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "XXBTZEUR");
+
+        // When
+        when(mockClientFactory.getHttpApiClient(KrakenApiMethod.RECENT_SPREADS)).thenReturn(mockClient);
+        when(mockClient.callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.RECENT_SPREADS, ColumnarRecentSpreadResult.class, params)).thenReturn(mockResult);
+
+        KrakenAPIClient client = new KrakenAPIClient(mockClientFactory);
+        ColumnarRecentSpreadResult result = client.getRecentSpreadsColumns("XXBTZEUR", null);
+
+        // Then
+        assertEquals(mockResult.getLastId(), result.getLastId());
+
+        verify(mockClientFactory).getHttpApiClient(KrakenApiMethod.RECENT_SPREADS);
+        verify(mockClient).callPublicWithLastId(KrakenAPIClient.BASE_URL, KrakenApiMethod.RECENT_SPREADS, ColumnarRecentSpreadResult.class, params);
+    }
+
     @Test
     public void should_return_order_book() throws IOException, KrakenApiException {
 
@@ -764,4 +875,122 @@ public class KrakenAPIClientTest {
         verify(mockClientFactory).getHttpApiClient("apiKey", "apiSecret", KrakenApiMethod.TRADE_VOLUME);
         verify(mockClient).callPrivate(KrakenAPIClient.BASE_URL, KrakenApiMethod.TRADE_VOLUME, TradeVolumeResult.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void should_build_client_with_transport() throws IOException, KrakenApiException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        final URL url = new URL(KrakenAPIClient.BASE_URL + KrakenApiMethod.SERVER_TIME.getUrl(0) + "?");
+
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.get(eq(url), any())).thenAnswer(invocation -> {
+            ResponseHandler<?> handler = invocation.getArgument(1);
+            return handler.handle(new ByteArrayInputStream(jsonResult.getBytes(StandardCharsets.UTF_8)));
+        });
+
+        JsonReaderRegistry readers = new JsonReaderRegistry();
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withCredentials("apiKey", "apiSecret")
+                .withTransport(mockTransport)
+                .withJsonReaders(readers)
+                .withWarmUp()
+                .build();
+        ServerTimeResult result = client.getServerTime();
+
+        // Then
+        assertThat(result.getResult().unixtime, equalTo(1501271914L));
+        assertThat(readers.size(), equalTo(KrakenApiMethod.values().length));
+        verify(mockTransport).get(eq(url), any());
+    }
+
+    @Test
+    public void should_build_client_with_rate_limit() {
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withCredentials("rateLimitedApiKey", "apiSecret")
+                .withRateLimit(VerificationTier.PRO)
+                .build();
+
+        // Then
+        assertThat(client.getRateLimiter().getMaxCounter(), equalTo(VerificationTier.PRO.getMaxCounter()));
+        assertThat(KrakenAPIClient.builder().withCredentials("apiKey", "apiSecret").build().getRateLimiter(), Matchers.nullValue());
+    }
+
+    @Test
+    public void should_build_client_with_request_coalescing() {
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withRequestCoalescing()
+                .build();
+
+        // Then
+        assertThat(client.getCoalescer().getRequestCount(), equalTo(0L));
+        assertThat(KrakenAPIClient.builder().build().getCoalescer(), Matchers.nullValue());
+    }
+
+    @Test
+    public void should_build_client_with_retry_policy() {
+
+        // Given
+        RetryPolicy retryPolicy = RetryPolicy.builder().build();
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withRetryPolicy(retryPolicy)
+                .build();
+
+        // Then
+        assertThat(client.getRetryPolicy(), Matchers.sameInstance(retryPolicy));
+        assertThat(KrakenAPIClient.builder().build().getRetryPolicy(), Matchers.nullValue());
+    }
+
+    @Test
+    public void should_build_client_with_circuit_breaker() {
+
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder().build();
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withCircuitBreaker(circuitBreaker)
+                .build();
+
+        // Then
+        assertThat(client.getCircuitBreaker(), Matchers.sameInstance(circuitBreaker));
+        assertThat(KrakenAPIClient.builder().build().getCircuitBreaker(), Matchers.nullValue());
+    }
+
+    @Test
+    public void should_build_client_with_metrics() {
+
+        // Given
+        InMemoryMetrics metrics = new InMemoryMetrics();
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withMetrics(metrics)
+                .build();
+
+        // Then
+        assertThat(client.getMetrics(), Matchers.sameInstance(metrics));
+        assertThat(KrakenAPIClient.builder().build().getMetrics(), Matchers.sameInstance(ApiMetrics.NOOP));
+    }
+
+    @Test
+    public void should_build_client_with_base_url() {
+
+        // When
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withBaseUrl("http://localhost:8080")
+                .build();
+
+        // Then
+        assertThat(client.getBaseUrl(), equalTo("http://localhost:8080"));
+        assertThat(KrakenAPIClient.builder().build().getBaseUrl(), equalTo(KrakenAPIClient.BASE_URL));
+    }
+}
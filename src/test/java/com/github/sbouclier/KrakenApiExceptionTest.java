@@ -39,5 +39,6 @@ public class KrakenApiExceptionTest {
         KrakenApiException ex = new KrakenApiException(errors);
 
         assertThat(ex.getMessage(), equalTo("[error 1, error 2, error 3]"));
+        assertThat(ex.getErrors(), equalTo(errors));
     }
 }
@@ -1,5 +1,7 @@
 package com.github.sbouclier;
 
+import com.github.sbouclier.result.LedgersResult;
+import com.github.sbouclier.result.ServerTimeResult;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -27,4 +29,25 @@ public class KrakenApiMethodTest {
     public void should_return_value() {
         assertThat(KrakenApiMethod.valueOf("SERVER_TIME"), equalTo(KrakenApiMethod.SERVER_TIME));
     }
+
+    @Test
+    public void should_return_result_class() {
+        assertThat(KrakenApiMethod.SERVER_TIME.getResultClass(), equalTo(ServerTimeResult.class));
+        assertThat(KrakenApiMethod.QUERY_LEDGERS.getResultClass(), equalTo(LedgersResult.class));
+    }
+
+    @Test
+    public void should_return_private() {
+        assertThat(KrakenApiMethod.SERVER_TIME.isPrivate(), equalTo(false));
+        assertThat(KrakenApiMethod.ACCOUNT_BALANCE.isPrivate(), equalTo(true));
+    }
+
+    @Test
+    public void should_return_cost() {
+        assertThat(KrakenApiMethod.SERVER_TIME.getCost(), equalTo(0));
+        assertThat(KrakenApiMethod.ACCOUNT_BALANCE.getCost(), equalTo(1));
+        assertThat(KrakenApiMethod.TRADES_HISTORY.getCost(), equalTo(2));
+        assertThat(KrakenApiMethod.LEDGERS_INFORMATION.getCost(), equalTo(2));
+        assertThat(KrakenApiMethod.QUERY_LEDGERS.getCost(), equalTo(2));
+    }
 }
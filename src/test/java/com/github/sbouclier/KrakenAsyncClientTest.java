@@ -0,0 +1,222 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.result.*;
+import com.github.sbouclier.utils.StreamUtils;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * KrakenAsyncClient test
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenAsyncClientTest {
+
+    private AsyncHttpJsonClient mockJsonClient;
+    private KrakenAsyncClient client;
+
+    @Before
+    public void setUp() {
+        mockJsonClient = mock(AsyncHttpJsonClient.class);
+        client = new KrakenAsyncClient(mockJsonClient, Runnable::run);
+    }
+
+    @Test
+    public void should_return_server_time() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/server_time.mock.json");
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME.getUrl(0), null))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        ServerTimeResult result = client.getServerTime().get();
+
+        // Then
+        assertThat(result.getResult().unixtime, equalTo(1501271914L));
+    }
+
+    @Test
+    public void should_return_ticker_information() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ticker_information.mock.json");
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "BTCEUR,ETHEUR");
+
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.TICKER_INFORMATION.getUrl(0), params))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        TickerInformationResult result = client.getTickerInformation(Arrays.asList("BTCEUR", "ETHEUR")).get();
+
+        // Then
+        assertThat(BigDecimal.valueOf(2352.76900), Matchers.comparesEqualTo(result.getResult().get("XXBTZEUR").ask.price));
+    }
+
+    @Test
+    public void should_return_ohlc_with_last_id() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "XXBTZEUR");
+        params.put("interval", "1440");
+
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC.getUrl(0), params))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        OHLCResult result = client.getOHLC("XXBTZEUR", Interval.ONE_DAY).get();
+
+        // Then
+        assertEquals(720, result.getResult().get("XXBTZEUR").size());
+        assertEquals(1501200000, result.getLastId().intValue());
+    }
+
+    @Test
+    public void should_return_ohlc_columns() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+
+        Map<String, String> params = new HashMap<>();
+        params.put("pair", "XXBTZEUR");
+        params.put("interval", "1440");
+        params.put("since", "1501200000");
+
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.OHLC.getUrl(0), params))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        ColumnarOHLCResult result = client.getOHLCColumns("XXBTZEUR", Interval.ONE_DAY, 1501200000).get();
+
+        // Then
+        assertEquals(720, result.getResult().get("XXBTZEUR").size());
+        assertEquals(1501200000, result.getLastId().intValue());
+    }
+
+    @Test
+    public void should_return_account_balance() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/account_balance.mock.json");
+        when(mockJsonClient.executePrivateQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0), null))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        AccountBalanceResult result = client.getAccountBalance().get();
+
+        // Then
+        assertThat(result.getResult().get("ZEUR"), Matchers.comparesEqualTo(BigDecimal.valueOf(86.1602)));
+    }
+
+    @Test
+    public void should_complete_exceptionally_with_kraken_error() throws Exception {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/invalid_arguments.mock.json");
+        when(mockJsonClient.executePrivateQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.TRADE_VOLUME.getUrl(0)), any()))
+                .thenReturn(CompletableFuture.completedFuture(jsonResult));
+
+        // When
+        try {
+            client.getTradeVolume().get();
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(KrakenApiException.class));
+            assertThat(ex.getCause().getMessage(), equalTo("[EGeneral:Invalid arguments]"));
+        }
+    }
+
+    @Test
+    public void should_complete_exceptionally_with_io_error() throws Exception {
+
+        // Given
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("connection reset"));
+
+        when(mockJsonClient.executePublicQuery(eq(KrakenAPIClient.BASE_URL), eq(KrakenApiMethod.ORDER_BOOK.getUrl(0)), any()))
+                .thenReturn(failed);
+
+        // When
+        try {
+            client.getOrderBook("XXBTZEUR").get();
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(KrakenApiException.class));
+            assertThat(ex.getCause().getMessage(), equalTo("[unable to query Kraken API]"));
+            assertThat(ex.getCause().getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void should_complete_exceptionally_with_runtime_error() throws Exception {
+
+        // Given
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME.getUrl(0), null))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        try {
+            client.getServerTime().get(1, TimeUnit.SECONDS);
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(KrakenApiException.class));
+            assertThat(ex.getCause().getMessage(), equalTo("[unable to query Kraken API]"));
+        }
+    }
+
+    @Test
+    public void should_complete_exceptionally_when_executor_rejects() throws Exception {
+
+        // Given
+        KrakenAsyncClient rejectingClient = new KrakenAsyncClient(mockJsonClient, task -> {
+            throw new RejectedExecutionException("shutdown");
+        });
+        when(mockJsonClient.executePublicQuery(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME.getUrl(0), null))
+                .thenReturn(CompletableFuture.completedFuture("{}"));
+
+        // When
+        try {
+            rejectingClient.getServerTime().get(1, TimeUnit.SECONDS);
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(KrakenApiException.class));
+            assertThat(ex.getCause().getCause(), instanceOf(RejectedExecutionException.class));
+        }
+    }
+
+    @Test
+    public void should_close_json_client() throws IOException {
+        client.close();
+
+        verify(mockJsonClient).close();
+    }
+}
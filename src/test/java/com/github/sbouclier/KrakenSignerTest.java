@@ -0,0 +1,116 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.utils.Base64Utils;
+import com.github.sbouclier.utils.ByteUtils;
+import com.github.sbouclier.utils.CryptoUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * KrakenSigner test
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenSignerTest {
+
+    private static final String SECRET = Base64Utils.base64Encode(ByteUtils.stringToBytes("my-kraken-api-secret"));
+
+    @Test
+    public void should_sign_request() throws KrakenApiException {
+        KrakenSigner signer = new KrakenSigner("secret");
+
+        String signature = signer.sign("/urlMethod", "123456", "nonce=123456");
+
+        assertThat(signature, equalTo("pmK1HtzTC8XQxUYJRgZ+Ae5aLdvH1cx6eJssELGVlWbt+pbFE96CYUzAujeqeDPijYTOEN5b/vrreWnURZij+w=="));
+    }
+
+    @Test
+    public void should_sign_same_as_crypto_utils() throws Exception {
+        KrakenSigner signer = new KrakenSigner(SECRET);
+
+        for (int i = 0; i < 3; i++) {
+            final String nonce = String.valueOf(1501271914000000L + i);
+            final String postData = "pair=XXBTZEUR&ordertxid=OQCLML-BW3P3-BUCMWZ&nonce=" + nonce;
+
+            assertThat(signer.sign("/0/private/OpenOrders", nonce, postData),
+                    equalTo(expectedSignature("/0/private/OpenOrders", nonce, postData)));
+        }
+    }
+
+    @Test
+    public void should_sign_non_ascii_and_long_post_data() throws Exception {
+        KrakenSigner signer = new KrakenSigner(SECRET);
+
+        final StringBuilder longPostData = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longPostData.append("txid").append(i).append("=OQCLML-BW3P3-BUCMWZ&");
+        }
+        longPostData.append("nonce=1");
+
+        assertThat(signer.sign("/0/private/Ledgers", "1", "asset=€&nonce=1"),
+                equalTo(expectedSignature("/0/private/Ledgers", "1", "asset=€&nonce=1")));
+        assertThat(signer.sign("/0/private/Ledgers", "1", longPostData.toString()),
+                equalTo(expectedSignature("/0/private/Ledgers", "1", longPostData.toString())));
+    }
+
+    @Test
+    public void should_sign_from_many_threads() throws Exception {
+        final KrakenSigner signer = new KrakenSigner(SECRET);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<String>> signatures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String nonce = String.valueOf(i);
+                signatures.add(executor.submit(() -> signer.sign("/0/private/Balance", nonce, "nonce=" + nonce)));
+            }
+
+            for (int i = 0; i < signatures.size(); i++) {
+                final String nonce = String.valueOf(i);
+                assertThat(signatures.get(i).get(), equalTo(expectedSignature("/0/private/Balance", nonce, "nonce=" + nonce)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_reuse_state_across_short_lived_threads() throws Exception {
+        final KrakenSigner signer = new KrakenSigner(SECRET);
+
+        for (int i = 0; i < 10; i++) {
+            final String nonce = String.valueOf(i);
+            final String[] signature = new String[1];
+            final Thread thread = new Thread(() -> {
+                try {
+                    signature[0] = signer.sign("/0/private/Balance", nonce, "nonce=" + nonce);
+                } catch (KrakenApiException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            thread.start();
+            thread.join();
+
+            assertThat(signature[0], equalTo(expectedSignature("/0/private/Balance", nonce, "nonce=" + nonce)));
+            assertThat(signer.getPooledCount(), equalTo(1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_fail_with_invalid_secret() {
+        new KrakenSigner("not base64 !");
+    }
+
+    private static String expectedSignature(String path, String nonce, String postData) throws Exception {
+        byte[] message = ByteUtils.concatArrays(ByteUtils.stringToBytes(path), CryptoUtils.sha256(nonce + postData));
+        return Base64Utils.base64Encode(CryptoUtils.hmacSha512(Base64Utils.base64Decode(SECRET), message));
+    }
+}
@@ -0,0 +1,507 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.ratelimit.VerificationTier;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process stand-in of the Kraken API, for end-to-end, load and latency tests without network
+ * <p>
+ * The simulator serves the {@link KrakenApiMethod methods} on the loopback interface, over HTTP or HTTPS,
+ * from the mock responses of the tests or from {@link ResponseGenerator generators}. Like Kraken, it checks
+ * the API key, the signature and the nonce of private calls, increases the call counter of the key by the
+ * cost of the method and decreases it by the decay of the verification tier, and answers errors in the JSON
+ * body. Latency and errors can be injected on each call.
+ * <p>
+ * Clients reach it with {@link KrakenAPIClient.Builder#withBaseUrl(String)}, with or without transport.
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenSimulator implements AutoCloseable {
+
+    private static final String KEY_STORE = "/simulator/localhost.p12";
+    private static final char[] KEY_STORE_PASSWORD = "simulator".toCharArray();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String baseUrl;
+    private final String apiKey;
+    private final KrakenSigner signer;
+    private final VerificationTier tier;
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final double errorRate;
+    private final String error;
+    private final Map<KrakenApiMethod, ResponseGenerator> generators;
+    private final Map<String, KrakenApiMethod> methodsByPath = new HashMap<>();
+    private final AtomicLongArray requests = new AtomicLongArray(KrakenApiMethod.values().length);
+    private final AtomicLongArray rejections = new AtomicLongArray(KrakenApiMethod.values().length);
+
+    private long lastNonce;
+    private double counter;
+    private long counterUpdate = System.nanoTime();
+
+    private KrakenSimulator(Builder builder) throws IOException {
+        this.apiKey = builder.apiKey;
+        this.signer = builder.apiSecret != null ? new KrakenSigner(builder.apiSecret) : null;
+        this.tier = builder.tier;
+        this.minLatencyNanos = builder.minLatencyNanos;
+        this.maxLatencyNanos = builder.maxLatencyNanos;
+        this.errorRate = builder.errorRate;
+        this.error = builder.error;
+        this.generators = new EnumMap<>(builder.generators);
+
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            methodsByPath.put(method.getUrl(0), method);
+        }
+
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port);
+        if (builder.sslContext != null) {
+            final HttpsServer httpsServer = HttpsServer.create(address, 0);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(builder.sslContext));
+            this.server = httpsServer;
+        } else {
+            this.server = HttpServer.create(address, 0);
+        }
+        this.executor = Executors.newFixedThreadPool(builder.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "kraken-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        this.baseUrl = (builder.sslContext != null ? "https://localhost:" : "http://localhost:") + server.getAddress().getPort();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Build a SSL context holding the self-signed certificate of the simulator for "localhost" and
+     * "127.0.0.1", to use on both sides: {@link Builder#withTls(SSLContext)} and the client transport
+     *
+     * @return SSL context
+     */
+    public static SSLContext localhostSslContext() {
+        try (InputStream in = KrakenSimulator.class.getResourceAsStream(KEY_STORE)) {
+            final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEY_STORE_PASSWORD);
+
+            final KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, KEY_STORE_PASSWORD);
+            final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(keyStore);
+
+            final SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+            return sslContext;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("unable to load simulator key store", ex);
+        }
+    }
+
+    // -----------
+    // - METHODS -
+    // -----------
+
+    /**
+     * @return base url of the simulator, e.g. "http://localhost:54321"
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Get number of calls received for a method, rejected ones included
+     *
+     * @param method kraken method
+     * @return number of calls
+     */
+    public long getRequestCount(KrakenApiMethod method) {
+        return requests.get(method.ordinal());
+    }
+
+    /**
+     * Get number of calls of a method answered with an error: authentication, rate limit or injected error
+     *
+     * @param method kraken method
+     * @return number of rejected calls
+     */
+    public long getRejectedCount(KrakenApiMethod method) {
+        return rejections.get(method.ordinal());
+    }
+
+    /**
+     * Reset request counts, call counter and last nonce
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < requests.length(); i++) {
+            requests.set(i, 0);
+            rejections.set(i, 0);
+        }
+        lastNonce = 0;
+        counter = 0;
+        counterUpdate = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final KrakenApiMethod method = methodsByPath.get(exchange.getRequestURI().getPath());
+            if (method == null) {
+                send(exchange, 404, errorBody("EGeneral:Unknown method"));
+                return;
+            }
+            requests.incrementAndGet(method.ordinal());
+
+            final String body = readBody(exchange.getRequestBody());
+            final String query = "POST".equals(exchange.getRequestMethod()) ? body : exchange.getRequestURI().getRawQuery();
+            final Map<String, String> params = parseParams(query);
+
+            delay();
+
+            String rejection = method.isPrivate() ? authenticate(exchange, method, params.get("nonce"), body) : null;
+            if (rejection == null) {
+                rejection = consume(method);
+            }
+            if (rejection == null && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                rejection = error;
+            }
+
+            if (rejection != null) {
+                rejections.incrementAndGet(method.ordinal());
+                send(exchange, 200, errorBody(rejection));
+            } else {
+                send(exchange, 200, generators.getOrDefault(method, Builder.FIXTURES).generate(method, params));
+            }
+        } catch (RuntimeException ex) {
+            send(exchange, 500, errorBody("EGeneral:Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String authenticate(HttpExchange exchange, KrakenApiMethod method, String nonce, String body) {
+        if (apiKey == null || !apiKey.equals(exchange.getRequestHeaders().getFirst("API-Key"))) {
+            return "EAPI:Invalid key";
+        }
+        if (nonce == null) {
+            return "EAPI:Invalid nonce";
+        }
+
+        final String signature;
+        try {
+            signature = signer.sign(method.getUrl(0), nonce, body);
+        } catch (KrakenApiException ex) {
+            return "EGeneral:Internal error";
+        }
+        if (!signature.equals(exchange.getRequestHeaders().getFirst("API-Sign"))) {
+            return "EAPI:Invalid signature";
+        }
+
+        final long value;
+        try {
+            value = Long.parseLong(nonce);
+        } catch (NumberFormatException ex) {
+            return "EAPI:Invalid nonce";
+        }
+        synchronized (this) {
+            if (value <= lastNonce) {
+                return "EAPI:Invalid nonce";
+            }
+            lastNonce = value;
+        }
+        return null;
+    }
+
+    /**
+     * Increase the call counter by the cost of the method, after decay since last call
+     */
+    private synchronized String consume(KrakenApiMethod method) {
+        if (tier == null || method.getCost() == 0) {
+            return null;
+        }
+
+        final long now = System.nanoTime();
+        counter = Math.max(0, counter - (now - counterUpdate) / 1e9 * tier.getDecayPerSecond());
+        counterUpdate = now;
+        if (counter + method.getCost() > tier.getMaxCounter()) {
+            return "EAPI:Rate limit exceeded";
+        }
+        counter += method.getCost();
+        return null;
+    }
+
+    private void delay() {
+        if (maxLatencyNanos <= 0) {
+            return;
+        }
+        final long nanos = minLatencyNanos == maxLatencyNanos
+                ? minLatencyNanos
+                : ThreadLocalRandom.current().nextLong(minLatencyNanos, maxLatencyNanos + 1);
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] errorBody(String error) {
+        return ("{\"error\":[\"" + error + "\"]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseParams(String query) throws UnsupportedEncodingException {
+        final Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            final int i = pair.indexOf('=');
+            if (i > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, i), "UTF-8"), URLDecoder.decode(pair.substring(i + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Generator of the response body of a method
+     */
+    @FunctionalInterface
+    public interface ResponseGenerator {
+
+        /**
+         * @param method kraken method called
+         * @param params query or POST parameters, nonce included for private methods
+         * @return JSON response body
+         */
+        byte[] generate(KrakenApiMethod method, Map<String, String> params);
+    }
+
+    // -----------
+    // - BUILDER -
+    // -----------
+
+    public static class Builder {
+
+        private static final Map<KrakenApiMethod, String> FIXTURE_NAMES = new EnumMap<>(KrakenApiMethod.class);
+        private static final ResponseGenerator FIXTURES = (method, params) -> fixture(FIXTURE_NAMES.get(method));
+
+        static {
+            FIXTURE_NAMES.put(KrakenApiMethod.SERVER_TIME, "server_time");
+            FIXTURE_NAMES.put(KrakenApiMethod.ASSET_INFORMATION, "assets_information");
+            FIXTURE_NAMES.put(KrakenApiMethod.ASSET_PAIRS, "asset_pairs");
+            FIXTURE_NAMES.put(KrakenApiMethod.TICKER_INFORMATION, "ticker_information");
+            FIXTURE_NAMES.put(KrakenApiMethod.OHLC, "ohlc");
+            FIXTURE_NAMES.put(KrakenApiMethod.ORDER_BOOK, "order_book");
+            FIXTURE_NAMES.put(KrakenApiMethod.RECENT_TRADES, "recent_trades");
+            FIXTURE_NAMES.put(KrakenApiMethod.RECENT_SPREADS, "recent_spread");
+            FIXTURE_NAMES.put(KrakenApiMethod.ACCOUNT_BALANCE, "account_balance");
+            FIXTURE_NAMES.put(KrakenApiMethod.TRADE_BALANCE, "trade_balance");
+            FIXTURE_NAMES.put(KrakenApiMethod.OPEN_ORDERS, "open_orders");
+            FIXTURE_NAMES.put(KrakenApiMethod.CLOSED_ORDERS, "closed_orders");
+            FIXTURE_NAMES.put(KrakenApiMethod.ORDERS_INFORMATION, "orders_information");
+            FIXTURE_NAMES.put(KrakenApiMethod.TRADES_HISTORY, "trades_history");
+            FIXTURE_NAMES.put(KrakenApiMethod.TRADES_INFORMATION, "trades_information");
+            FIXTURE_NAMES.put(KrakenApiMethod.OPEN_POSITIONS, "open_positions");
+            FIXTURE_NAMES.put(KrakenApiMethod.LEDGERS_INFORMATION, "ledgers_information");
+            FIXTURE_NAMES.put(KrakenApiMethod.QUERY_LEDGERS, "ledgers");
+            FIXTURE_NAMES.put(KrakenApiMethod.TRADE_VOLUME, "trade_volume");
+        }
+
+        private final Map<KrakenApiMethod, ResponseGenerator> generators = new EnumMap<>(KrakenApiMethod.class);
+        private String apiKey;
+        private String apiSecret;
+        private VerificationTier tier;
+        private long minLatencyNanos;
+        private long maxLatencyNanos;
+        private double errorRate;
+        private String error = "EService:Unavailable";
+        private SSLContext sslContext;
+        private int port;
+        private int threads = 8;
+
+        private Builder() {
+        }
+
+        /**
+         * Load a mock response of the tests
+         *
+         * @param name name of the mock, e.g. "order_book"
+         * @return response body
+         */
+        public static byte[] fixture(String name) {
+            final String path = "/json/" + name + ".mock.json";
+            try (InputStream in = KrakenSimulator.class.getResourceAsStream(path)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("unknown fixture: " + path);
+                }
+                return readBody(in).getBytes(StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         * Set the API key accepted by private methods, without credentials all private calls are rejected
+         *
+         * @param apiKey    API key
+         * @param apiSecret API secret, base64 encoded
+         * @return builder
+         */
+        public Builder withCredentials(String apiKey, String apiSecret) {
+            this.apiKey = apiKey;
+            this.apiSecret = apiSecret;
+            return this;
+        }
+
+        /**
+         * Enforce the call counter of a verification tier, calls exceeding it fail with "EAPI:Rate limit exceeded"
+         *
+         * @param tier verification tier of the account
+         * @return builder
+         */
+        public Builder withRateLimit(VerificationTier tier) {
+            this.tier = tier;
+            return this;
+        }
+
+        /**
+         * Delay each response by a random duration
+         *
+         * @param min  minimum latency
+         * @param max  maximum latency
+         * @param unit unit of latencies
+         * @return builder
+         */
+        public Builder withLatency(long min, long max, TimeUnit unit) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("latency must be in [0, max]: " + min + ", " + max);
+            }
+            this.minLatencyNanos = unit.toNanos(min);
+            this.maxLatencyNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Answer an error to a share of the calls accepted
+         *
+         * @param errorRate probability of an error, in [0, 1]
+         * @param error     Kraken error, e.g. "EService:Unavailable"
+         * @return builder
+         */
+        public Builder withErrors(double errorRate, String error) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("error rate must be in [0, 1]: " + errorRate);
+            }
+            this.errorRate = errorRate;
+            this.error = error;
+            return this;
+        }
+
+        /**
+         * Serve a method from a generator instead of its mock response
+         *
+         * @param method    kraken method
+         * @param generator response generator
+         * @return builder
+         */
+        public Builder withResponse(KrakenApiMethod method, ResponseGenerator generator) {
+            this.generators.put(method, generator);
+            return this;
+        }
+
+        /**
+         * Serve over HTTPS, e.g. with {@link KrakenSimulator#localhostSslContext()}
+         *
+         * @param sslContext SSL context holding the server certificate
+         * @return builder
+         */
+        public Builder withTls(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * @param port port to listen on, default is 0 for a free port
+         * @return builder
+         */
+        public Builder withPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param threads number of threads serving calls, default is 8
+         * @return builder
+         */
+        public Builder withThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Start the simulator
+         *
+         * @return started simulator, to close once done
+         * @throws IOException if the port cannot be bound
+         */
+        public KrakenSimulator start() throws IOException {
+            return new KrakenSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.ratelimit.VerificationTier;
+import com.github.sbouclier.result.ServerTimeResult;
+import com.github.sbouclier.transport.PooledHttpTransport;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * KrakenSimulator test
+ *
+ * @author Stéphane Bouclier
+ */
+public class KrakenSimulatorTest {
+
+    private static final String API_KEY = "simulatorKey";
+    private static final String API_SECRET = "a3Jha2VuLXNpbXVsYXRvci1zZWNyZXQta3Jha2VuLXNpbXVsYXRvci1zZWNyZXQ=";
+
+    private PooledHttpTransport transport;
+    private KrakenSimulator simulator;
+
+    @Before
+    public void setUp() {
+        this.transport = new PooledHttpTransport();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        transport.close();
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    private KrakenAPIClient client(String apiKey, String apiSecret) {
+        return KrakenAPIClient.builder()
+                .withCredentials(apiKey, apiSecret)
+                .withTransport(transport)
+                .withBaseUrl(simulator.getBaseUrl())
+                .build();
+    }
+
+    @Test
+    public void should_serve_public_methods_from_mock_responses() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder().start();
+        KrakenAPIClient client = client(null, null);
+
+        // When
+        ServerTimeResult serverTime = client.getServerTime();
+        client.getAssetsInformation();
+        client.getAssetPairs();
+        client.getTickerInformation(Arrays.asList("BTCEUR"));
+        client.getOHLC("BTCEUR", Interval.ONE_MINUTE);
+        client.getOrderBook("BTCEUR", 10);
+        client.getRecentTrades("BTCEUR");
+        client.getRecentSpreads("BTCEUR");
+
+        // Then
+        assertThat(serverTime.getResult().unixtime, equalTo(1501271914L));
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            assertThat(simulator.getRequestCount(method), equalTo(method.isPrivate() ? 0L : 1L));
+            assertThat(simulator.getRejectedCount(method), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void should_serve_client_without_transport() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder().withCredentials(API_KEY, API_SECRET).start();
+        KrakenAPIClient client = KrakenAPIClient.builder()
+                .withCredentials(API_KEY, API_SECRET)
+                .withBaseUrl(simulator.getBaseUrl())
+                .build();
+
+        // When
+        ServerTimeResult serverTime = client.getServerTime();
+
+        // Then
+        assertThat(serverTime.getResult().unixtime, equalTo(1501271914L));
+        assertThat(client.getAccountBalance().getResult().get("ZEUR").toPlainString(), equalTo("86.1602"));
+    }
+
+    @Test
+    public void should_serve_signed_private_methods() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder().withCredentials(API_KEY, API_SECRET).start();
+        KrakenAPIClient client = client(API_KEY, API_SECRET);
+
+        // When
+        client.getAccountBalance();
+        client.getTradeBalance();
+        client.getOpenOrders();
+        client.getClosedOrders();
+        client.getOrdersInformation(Arrays.asList("OGTT3Y-C6I3P-XRI6HX"));
+        client.getTradesHistory();
+        client.getTradesInformation(Arrays.asList("THVRQM-33VKH-UCI7BS"));
+        client.getOpenPositions(Arrays.asList("TF5GVO-T7ZZ2-6NBKBI"));
+        client.getLedgersInformation();
+        client.getLedgers(Arrays.asList("LGBRJU-SQZ4L-5HLS3C"));
+        client.getTradeVolume();
+
+        // Then
+        assertThat(client.getAccountBalance().getResult().get("ZEUR").toPlainString(), equalTo("86.1602"));
+        for (KrakenApiMethod method : KrakenApiMethod.values()) {
+            final long expected = method == KrakenApiMethod.ACCOUNT_BALANCE ? 2L : method.isPrivate() ? 1L : 0L;
+            assertThat(simulator.getRequestCount(method), equalTo(expected));
+            assertThat(simulator.getRejectedCount(method), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void should_reject_unknown_key_and_invalid_signature() throws IOException {
+
+        // Given
+        simulator = KrakenSimulator.builder().withCredentials(API_KEY, API_SECRET).start();
+
+        // When / Then
+        try {
+            client("otherKey", API_SECRET).getAccountBalance();
+            fail();
+        } catch (KrakenApiException ex) {
+            assertThat(ex.getErrors(), contains("EAPI:Invalid key"));
+        }
+        try {
+            client(API_KEY, "b3RoZXItc2VjcmV0").getAccountBalance();
+            fail();
+        } catch (KrakenApiException ex) {
+            assertThat(ex.getErrors(), contains("EAPI:Invalid signature"));
+        }
+        assertThat(simulator.getRejectedCount(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(2L));
+    }
+
+    @Test
+    public void should_reject_replayed_nonce() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder().withCredentials(API_KEY, API_SECRET).start();
+        String path = KrakenApiMethod.ACCOUNT_BALANCE.getUrl(0);
+        String postData = "nonce=1501609382482800";
+        String signature = new KrakenSigner(API_SECRET).sign(path, "1501609382482800", postData);
+
+        // When
+        String first = post(path, postData, signature);
+        String replayed = post(path, postData, signature);
+
+        // Then
+        assertThat(first, containsString("\"ZEUR\""));
+        assertThat(replayed, equalTo("{\"error\":[\"EAPI:Invalid nonce\"]}"));
+    }
+
+    private String post(String path, String postData, String signature) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(simulator.getBaseUrl() + path).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("API-Key", API_KEY);
+            connection.setRequestProperty("API-Sign", signature);
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(postData.getBytes(StandardCharsets.UTF_8));
+            }
+            return StreamUtils.convert(connection.getInputStream());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void should_enforce_call_counter_of_tier() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder()
+                .withCredentials(API_KEY, API_SECRET)
+                .withRateLimit(VerificationTier.STARTER)
+                .start();
+        KrakenAPIClient client = client(API_KEY, API_SECRET);
+
+        // When
+        for (int i = 0; i < 7; i++) {
+            client.getTradesHistory();
+        }
+        client.getServerTime();
+
+        // Then
+        try {
+            client.getTradesHistory();
+            fail();
+        } catch (KrakenApiException ex) {
+            assertThat(ex.getErrors(), contains("EAPI:Rate limit exceeded"));
+        }
+        assertThat(simulator.getRequestCount(KrakenApiMethod.TRADES_HISTORY), equalTo(8L));
+        assertThat(simulator.getRejectedCount(KrakenApiMethod.TRADES_HISTORY), equalTo(1L));
+        assertThat(simulator.getRejectedCount(KrakenApiMethod.SERVER_TIME), equalTo(0L));
+    }
+
+    @Test
+    public void should_inject_errors_and_latency() throws IOException {
+
+        // Given
+        simulator = KrakenSimulator.builder()
+                .withLatency(50, 60, TimeUnit.MILLISECONDS)
+                .withErrors(1, "EService:Unavailable")
+                .start();
+        KrakenAPIClient client = client(null, null);
+
+        // When
+        long start = System.nanoTime();
+        try {
+            client.getServerTime();
+            fail();
+        } catch (KrakenApiException ex) {
+
+            // Then
+            assertThat(ex.getErrors(), contains("EService:Unavailable"));
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(50L));
+        assertThat(simulator.getRejectedCount(KrakenApiMethod.SERVER_TIME), equalTo(1L));
+    }
+
+    @Test
+    public void should_serve_generated_response() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder()
+                .withResponse(KrakenApiMethod.SERVER_TIME, (method, params) ->
+                        "{\"error\":[],\"result\":{\"unixtime\":42,\"rfc1123\":\"\"}}".getBytes(StandardCharsets.UTF_8))
+                .start();
+
+        // When
+        ServerTimeResult result = client(null, null).getServerTime();
+
+        // Then
+        assertThat(result.getResult().unixtime, equalTo(42L));
+    }
+
+    @Test
+    public void should_serve_over_tls() throws IOException, KrakenApiException {
+
+        // Given
+        simulator = KrakenSimulator.builder()
+                .withTls(KrakenSimulator.localhostSslContext())
+                .start();
+        transport.close();
+        transport = PooledHttpTransport.builder().sslContext(KrakenSimulator.localhostSslContext()).build();
+
+        // When
+        ServerTimeResult result = client(null, null).getServerTime();
+
+        // Then
+        assertThat(simulator.getBaseUrl(), containsString("https://localhost:"));
+        assertThat(result.getResult().unixtime, equalTo(1501271914L));
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.sbouclier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * NonceGenerator test
+ *
+ * @author Stéphane Bouclier
+ */
+public class NonceGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void should_generate_microseconds_nonce() {
+        final long before = System.currentTimeMillis() * 1000;
+
+        long nonce = new NonceGenerator().next();
+
+        assertThat(nonce, greaterThan(before - 1000));
+        assertThat(nonce, not(greaterThan(System.currentTimeMillis() * 1000 + 1000)));
+    }
+
+    @Test
+    public void should_generate_strictly_increasing_nonces() {
+        NonceGenerator generator = new NonceGenerator();
+
+        long previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            long nonce = generator.next();
+            assertThat(nonce, greaterThan(previous));
+            previous = nonce;
+        }
+        assertThat(generator.getLast(), equalTo(previous));
+    }
+
+    @Test
+    public void should_resume_after_last_nonce() {
+        final long future = System.currentTimeMillis() * 1000 + 3_600_000_000L;
+        NonceGenerator generator = new NonceGenerator(future);
+
+        assertThat(generator.next(), equalTo(future + 1));
+        assertThat(generator.next(), equalTo(future + 2));
+    }
+
+    @Test
+    public void should_generate_unique_nonces_from_many_threads() throws Exception {
+        final NonceGenerator generator = new NonceGenerator();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            final List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] nonces = new long[10_000];
+                    for (int i = 0; i < nonces.length; i++) {
+                        nonces[i] = generator.next();
+                    }
+                    return nonces;
+                }));
+            }
+
+            final Set<Long> nonces = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                for (long nonce : future.get()) {
+                    nonces.add(nonce);
+                }
+            }
+            assertThat(nonces.size(), equalTo(80_000));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_store_and_load_last_nonce() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("nonce");
+        NonceGenerator generator = new NonceGenerator(Long.MAX_VALUE / 2);
+        generator.next();
+
+        generator.store(file);
+        NonceGenerator restored = NonceGenerator.load(file);
+
+        assertThat(restored.getLast(), equalTo(Long.MAX_VALUE / 2 + 1));
+        assertThat(restored.next(), equalTo(Long.MAX_VALUE / 2 + 2));
+    }
+
+    @Test
+    public void should_load_missing_file() throws IOException {
+        NonceGenerator generator = NonceGenerator.load(folder.getRoot().toPath().resolve("missing"));
+
+        assertThat(generator.getLast(), equalTo(0L));
+    }
+
+    @Test(expected = IOException.class)
+    public void should_fail_to_load_invalid_file() throws IOException {
+        final Path file = folder.newFile("invalid").toPath();
+        Files.write(file, "abc".getBytes(StandardCharsets.US_ASCII));
+
+        NonceGenerator.load(file);
+    }
+
+    @Test
+    public void should_share_generator_by_key() throws IOException {
+        assertThat(NonceGenerator.forKey("sharedKey"), sameInstance(NonceGenerator.forKey("sharedKey")));
+        assertThat(NonceGenerator.forKey("sharedKey"), not(sameInstance(NonceGenerator.forKey("otherKey"))));
+        assertThat(NonceGenerator.forKey("sharedKey", folder.getRoot().toPath().resolve("nonce")), sameInstance(NonceGenerator.forKey("sharedKey")));
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.sbouclier;
+
+import com.github.sbouclier.result.OrderBookResult;
+import com.github.sbouclier.result.ServerTimeResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RequestCoalescer test
+ *
+ * @author Stéphane Bouclier
+ */
+public class RequestCoalescerTest {
+
+    private RequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        coalescer = new RequestCoalescer();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Call blocking until released, counting requests
+     */
+    private static class BlockingCall implements RequestCoalescer.Call<ServerTimeResult> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger requests = new AtomicInteger();
+        volatile KrakenApiException failure;
+
+        @Override
+        public ServerTimeResult call() throws KrakenApiException {
+            requests.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return new ServerTimeResult();
+        }
+    }
+
+    private Future<ServerTimeResult> submit(RequestCoalescer.Call<ServerTimeResult> call) {
+        return executor.submit(() -> coalescer.execute(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME,
+                ServerTimeResult.class, null, call));
+    }
+
+    private void awaitWaiters(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getSharedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void should_share_call_in_flight() throws Exception {
+
+        // Given
+        BlockingCall call = new BlockingCall();
+
+        // When
+        Future<ServerTimeResult> first = submit(call);
+        assertTrue(call.started.await(5, TimeUnit.SECONDS));
+        Future<ServerTimeResult> second = submit(call);
+        Future<ServerTimeResult> third = submit(call);
+        awaitWaiters(2);
+        call.release.countDown();
+
+        // Then
+        assertThat(second.get(5, TimeUnit.SECONDS), sameInstance(first.get(5, TimeUnit.SECONDS)));
+        assertThat(third.get(5, TimeUnit.SECONDS), sameInstance(first.get()));
+        assertThat(call.requests.get(), equalTo(1));
+        assertThat(coalescer.getRequestCount(), equalTo(1L));
+        assertThat(coalescer.getSharedCount(), equalTo(2L));
+        assertThat(coalescer.getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    public void should_share_failure_of_call_in_flight() throws Exception {
+
+        // Given
+        BlockingCall call = new BlockingCall();
+        call.failure = new KrakenApiException("EService:Unavailable");
+
+        // When
+        Future<ServerTimeResult> first = submit(call);
+        assertTrue(call.started.await(5, TimeUnit.SECONDS));
+        Future<ServerTimeResult> second = submit(call);
+        awaitWaiters(1);
+        call.release.countDown();
+
+        // Then
+        for (Future<ServerTimeResult> future : new Future[]{first, second}) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("call should have failed");
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause(), sameInstance(call.failure));
+            }
+        }
+        assertThat(call.requests.get(), equalTo(1));
+    }
+
+    @Test
+    public void should_not_cache_completed_call() throws KrakenApiException {
+
+        // When
+        ServerTimeResult first = coalescer.execute(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME,
+                ServerTimeResult.class, null, ServerTimeResult::new);
+        ServerTimeResult second = coalescer.execute(KrakenAPIClient.BASE_URL, KrakenApiMethod.SERVER_TIME,
+                ServerTimeResult.class, Collections.emptyMap(), ServerTimeResult::new);
+
+        // Then
+        assertThat(second, not(sameInstance(first)));
+        assertThat(coalescer.getRequestCount(), equalTo(2L));
+        assertThat(coalescer.getSharedCount(), equalTo(0L));
+    }
+
+    @Test
+    public void should_not_share_calls_with_other_params() throws Exception {
+
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger requests = new AtomicInteger();
+        RequestCoalescer.Call<OrderBookResult> call = () -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new OrderBookResult();
+        };
+
+        // When
+        Future<OrderBookResult> btc = executor.submit(() -> coalescer.execute(KrakenAPIClient.BASE_URL, KrakenApiMethod.ORDER_BOOK,
+                OrderBookResult.class, Collections.singletonMap("pair", "XXBTZEUR"), call));
+        Future<OrderBookResult> eth = executor.submit(() -> coalescer.execute(KrakenAPIClient.BASE_URL, KrakenApiMethod.ORDER_BOOK,
+                OrderBookResult.class, Collections.singletonMap("pair", "XETHZEUR"), call));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // Then
+        assertThat(btc.get(5, TimeUnit.SECONDS), not(sameInstance(eth.get(5, TimeUnit.SECONDS))));
+        assertThat(requests.get(), equalTo(2));
+        assertThat(coalescer.getSharedCount(), equalTo(0L));
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.sbouclier.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.JsonReaderRegistry;
+import com.github.sbouclier.result.AssetPairsResult;
+import com.github.sbouclier.result.FixedPointDecimals;
+import com.github.sbouclier.result.OrderBookResult;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * LocalOrderBook test
+ *
+ * @author Stéphane Bouclier
+ */
+public class LocalOrderBookTest {
+
+    @Test
+    public void should_update_from_snapshot() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/order_book.mock.json");
+        OrderBookResult.OrderBook snapshot = new ObjectMapper().readValue(jsonResult, OrderBookResult.class).getResult().get("XXBTZEUR");
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 5, 8);
+
+        // When
+        int changes = book.update(snapshot);
+
+        // Then
+        assertThat(changes, equalTo(snapshot.bids.size() + snapshot.asks.size()));
+        assertThat(book.getBids().size(), equalTo(snapshot.bids.size()));
+        assertThat(book.getAsks().size(), equalTo(snapshot.asks.size()));
+        assertThat(book.toPrice(book.getBestAsk()), equalTo(new BigDecimal("2378.58700")));
+        assertThat(book.getAsks().getTimestamp(0), equalTo(1501320458));
+        assertThat(book.getAsks().getBestVolume(), equalTo(108_900_000L));
+        assertThat(book.getBestBid() < book.getBestAsk(), equalTo(true));
+        assertThat(book.getSpread(), equalTo(book.getBestAsk() - book.getBestBid()));
+        assertThat(book.getUpdates(), equalTo(1L));
+        assertThat(book.toString(), startsWith("LocalOrderBook[XXBTZEUR, bid="));
+    }
+
+    @Test
+    public void should_update_from_fixed_point_snapshot() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/order_book.mock.json");
+        JsonReaderRegistry readers = JsonReaderRegistry.fixedPoint(new FixedPointDecimals().put("XXBTZEUR", 5, 8));
+        OrderBookResult result = readers.getReader(OrderBookResult.class).readValue(jsonResult);
+        OrderBookResult.OrderBook snapshot = result.getResult().get("XXBTZEUR");
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 5, 8);
+
+        // When
+        book.update(snapshot);
+
+        // Then
+        assertThat(book.getBestAsk(), equalTo(237858700L));
+        assertThat(book.getAsks().getBestVolume(), equalTo(108_900_000L));
+        assertThat(book.getBids().size(), equalTo(snapshot.bids.size()));
+    }
+
+    @Test
+    public void should_use_asset_pair_decimals() {
+        AssetPairsResult.AssetPair assetPair = new AssetPairsResult.AssetPair();
+        assetPair.pairDecimals = 1;
+        assetPair.lotDecimals = 8;
+
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", assetPair);
+
+        assertThat(book.getPriceDecimals(), equalTo(1));
+        assertThat(book.getVolumeDecimals(), equalTo(8));
+        assertThat(book.toFixedPrice(new BigDecimal("2378.5")), equalTo(23785L));
+    }
+
+    @Test
+    public void should_report_diffs() {
+
+        // Given
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 1, 3);
+        book.update(snapshot(
+                Arrays.asList(market("100.0", "1.000"), market("99.0", "2.000"), market("98.0", "3.000")),
+                Arrays.asList(market("101.0", "1.000"), market("102.0", "2.000"))));
+
+        final List<String> changes = new ArrayList<>();
+
+        // When
+        int count = book.update(snapshot(
+                Arrays.asList(market("100.5", "0.500"), market("100.0", "1.000"), market("98.0", "4.000")),
+                Arrays.asList(market("101.0", "1.000"), market("102.0", "1.500"))),
+                (side, price, previousVolume, volume) -> changes.add(side + " " + price + " " + previousVolume + "->" + volume));
+
+        // Then
+        assertThat(count, equalTo(4));
+        assertThat(changes, contains(
+                "BID 1005 0->500",
+                "BID 990 2000->0",
+                "BID 980 3000->4000",
+                "ASK 1020 2000->1500"));
+    }
+
+    @Test
+    public void should_not_report_unchanged_snapshot() {
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 1, 3);
+        final OrderBookResult.OrderBook snapshot = snapshot(
+                Arrays.asList(market("100.0", "1.000")),
+                Arrays.asList(market("101.0", "1.000")));
+        book.update(snapshot);
+
+        final List<String> changes = new ArrayList<>();
+        assertThat(book.update(snapshot, (side, price, previousVolume, volume) -> changes.add(side.name())), equalTo(0));
+        assertThat(changes, empty());
+    }
+
+    @Test
+    public void should_query_depth() {
+
+        // Given
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 1, 3);
+        book.update(snapshot(
+                Arrays.asList(market("100.0", "1.000"), market("99.0", "2.000"), market("98.0", "3.000")),
+                Arrays.asList(market("101.0", "1.000"), market("102.0", "2.000"), market("104.0", "4.000"))));
+
+        BookSide bids = book.getBids();
+        BookSide asks = book.getAsks();
+
+        // Then
+        assertThat(bids.getVolumeAt(990), equalTo(2000L));
+        assertThat(bids.getVolumeAt(995), equalTo(0L));
+        assertThat(bids.indexOf(980), equalTo(2));
+        assertThat(bids.indexOf(995), equalTo(-2));
+
+        assertThat(bids.getCumulativeVolume(1), equalTo(3000L));
+        assertThat(bids.getCumulativeVolumeAt(990), equalTo(3000L));
+        assertThat(bids.getCumulativeVolumeAt(985), equalTo(3000L));
+        assertThat(bids.getCumulativeVolumeAt(1010), equalTo(0L));
+        assertThat(bids.getCumulativeVolumeAt(10), equalTo(6000L));
+
+        assertThat(asks.getCumulativeVolumeAt(1030), equalTo(3000L));
+        assertThat(asks.getCumulativeVolumeAt(1040), equalTo(7000L));
+        assertThat(asks.getPriceForVolume(1000), equalTo(1010L));
+        assertThat(asks.getPriceForVolume(1001), equalTo(1020L));
+        assertThat(asks.getPriceForVolume(7000), equalTo(1040L));
+        assertThat(asks.getPriceForVolume(7001), equalTo(0L));
+        assertThat(bids.getPriceForVolume(4000), equalTo(980L));
+    }
+
+    @Test
+    public void should_handle_empty_sides() {
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 1, 3);
+        book.update(snapshot(Arrays.asList(market("100.0", "1.000")), null));
+
+        assertThat(book.getAsks().isEmpty(), equalTo(true));
+        assertThat(book.getBestAsk(), equalTo(0L));
+        assertThat(book.getSpread(), equalTo(0L));
+        assertThat(book.getAsks().getCumulativeVolumeAt(1000), equalTo(0L));
+        assertThat(book.getAsks().getPriceForVolume(1), equalTo(0L));
+        assertThat(book.getSide(Side.BID).getBestPrice(), equalTo(1000L));
+    }
+
+    @Test
+    public void should_grow_beyond_initial_capacity() {
+        final List<OrderBookResult.Market> bids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            bids.add(market(String.valueOf(1000 - i), "1.000"));
+        }
+
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 0, 3);
+        book.update(snapshot(bids, null));
+
+        assertThat(book.getBids().size(), equalTo(500));
+        assertThat(book.getBids().getCumulativeVolume(499), equalTo(500_000L));
+        assertThat(book.getBids().getCumulativeVolumeAt(901), equalTo(100_000L));
+    }
+
+    @Test
+    public void should_reject_unsorted_snapshot_and_keep_levels() {
+        LocalOrderBook book = new LocalOrderBook("XXBTZEUR", 1, 3);
+        book.update(snapshot(Arrays.asList(market("100.0", "1.000")), Arrays.asList(market("101.0", "1.000"))));
+
+        try {
+            book.update(snapshot(Arrays.asList(market("99.0", "1.000")), Arrays.asList(market("103.0", "1.000"), market("102.0", "1.000"))));
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), startsWith("ASK levels must be sorted"));
+        }
+
+        assertThat(book.getBestBid(), equalTo(1000L));
+        assertThat(book.getBestAsk(), equalTo(1010L));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void should_fail_on_invalid_level() {
+        new LocalOrderBook("XXBTZEUR", 1, 3).getBids().getPrice(0);
+    }
+
+    private static OrderBookResult.OrderBook snapshot(List<OrderBookResult.Market> bids, List<OrderBookResult.Market> asks) {
+        OrderBookResult.OrderBook snapshot = new OrderBookResult.OrderBook();
+        snapshot.bids = bids;
+        snapshot.asks = asks;
+        return snapshot;
+    }
+
+    private static OrderBookResult.Market market(String price, String volume) {
+        return new OrderBookResult.Market(new BigDecimal(price), new BigDecimal(volume), 1501320458);
+    }
+}
@@ -0,0 +1,266 @@
+package com.github.sbouclier.circuitbreaker;
+
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.KrakenApiMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * CircuitBreaker test
+ *
+ * @author Stéphane Bouclier
+ */
+public class CircuitBreakerTest {
+
+    private AtomicLong clock;
+    private List<String> transitions;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        transitions = new ArrayList<>();
+        breaker = CircuitBreaker.builder()
+                .withWindow(4, 4)
+                .withFailureRateThreshold(0.5)
+                .withSlowCalls(1, TimeUnit.SECONDS, 0.75)
+                .withOpenDuration(10, TimeUnit.SECONDS, 2)
+                .withClock(clock::get)
+                .build();
+        breaker.addListener((method, from, to) -> transitions.add(method + ":" + from + "->" + to));
+    }
+
+    private static CircuitBreaker.Call<String> success() {
+        return () -> "result";
+    }
+
+    private static CircuitBreaker.Call<String> failure(KrakenApiException exception) {
+        return () -> {
+            throw exception;
+        };
+    }
+
+    private CircuitBreaker.Call<String> slow(long seconds) {
+        return () -> {
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+            return "result";
+        };
+    }
+
+    private static KrakenApiException networkError() {
+        return new KrakenApiException("unable to query Kraken API", new IOException("connection reset"));
+    }
+
+    private void call(KrakenApiMethod method, CircuitBreaker.Call<String> call) {
+        try {
+            breaker.execute(method, call);
+        } catch (KrakenApiException ex) {
+            // expected failures
+        }
+    }
+
+    @Test
+    public void should_stay_closed_below_minimum_calls() {
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            call(KrakenApiMethod.TICKER_INFORMATION, failure(networkError()));
+        }
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.TICKER_INFORMATION), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(transitions.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void should_open_on_failure_rate_and_fail_fast() throws KrakenApiException {
+
+        // Given
+        call(KrakenApiMethod.TICKER_INFORMATION, success());
+        call(KrakenApiMethod.TICKER_INFORMATION, failure(networkError()));
+        call(KrakenApiMethod.TICKER_INFORMATION, success());
+        call(KrakenApiMethod.TICKER_INFORMATION, failure(new KrakenApiException(Arrays.asList("EService:Unavailable"))));
+
+        // When
+        final AtomicInteger calls = new AtomicInteger();
+        try {
+            breaker.execute(KrakenApiMethod.TICKER_INFORMATION, () -> String.valueOf(calls.incrementAndGet()));
+            fail("circuit should be open");
+        } catch (CircuitOpenException ex) {
+            assertThat(ex.getMethod(), equalTo(KrakenApiMethod.TICKER_INFORMATION));
+            assertThat(ex.getState(), equalTo(CircuitBreaker.State.OPEN));
+        }
+
+        // Then
+        assertThat(calls.get(), equalTo(0));
+        assertThat(transitions, equalTo(Arrays.asList("TICKER_INFORMATION:CLOSED->OPEN")));
+        assertThat(breaker.getState(KrakenApiMethod.ORDER_BOOK), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.execute(KrakenApiMethod.ORDER_BOOK, success()), equalTo("result"));
+    }
+
+    @Test
+    public void should_not_count_invalid_calls_nor_rate_limit_errors() {
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.ACCOUNT_BALANCE, failure(new KrakenApiException(Arrays.asList("EGeneral:Invalid arguments"))));
+            call(KrakenApiMethod.ACCOUNT_BALANCE, failure(new KrakenApiException(Arrays.asList("EAPI:Rate limit exceeded"))));
+        }
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void should_open_on_slow_call_rate() {
+
+        // When
+        call(KrakenApiMethod.ORDER_BOOK, slow(2));
+        call(KrakenApiMethod.ORDER_BOOK, slow(1));
+        call(KrakenApiMethod.ORDER_BOOK, success());
+        call(KrakenApiMethod.ORDER_BOOK, slow(3));
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.ORDER_BOOK), equalTo(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void should_slide_window_over_latest_calls() {
+
+        // When
+        call(KrakenApiMethod.OHLC, failure(networkError()));
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.OHLC, success());
+        }
+        call(KrakenApiMethod.OHLC, failure(networkError()));
+
+        // Then, failure rate is 1/4 over the latest 4 calls
+        assertThat(breaker.getState(KrakenApiMethod.OHLC), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void should_close_after_successful_trial_calls() throws KrakenApiException {
+
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // When
+        final long first = breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+        final long second = breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+        try {
+            breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+            fail("trial calls should be limited");
+        } catch (CircuitOpenException ex) {
+            assertThat(ex.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+        }
+        breaker.record(KrakenApiMethod.SERVER_TIME, first, success());
+        breaker.record(KrakenApiMethod.SERVER_TIME, second, success());
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.SERVER_TIME), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(transitions, equalTo(Arrays.asList(
+                "SERVER_TIME:CLOSED->OPEN",
+                "SERVER_TIME:OPEN->HALF_OPEN",
+                "SERVER_TIME:HALF_OPEN->CLOSED")));
+    }
+
+    @Test
+    public void should_reopen_on_failed_trial_call() {
+
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        call(KrakenApiMethod.SERVER_TIME, success());
+        assertThat(breaker.getState(KrakenApiMethod.SERVER_TIME), equalTo(CircuitBreaker.State.OPEN));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // When
+        call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.SERVER_TIME), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(transitions.get(transitions.size() - 1), equalTo("SERVER_TIME:HALF_OPEN->OPEN"));
+    }
+
+    @Test
+    public void should_release_unused_trial_permission() throws KrakenApiException {
+
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+        final long permission = breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+
+        // When
+        breaker.releasePermission(KrakenApiMethod.SERVER_TIME, permission);
+
+        // Then
+        breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+    }
+
+    @Test
+    public void should_ignore_outcome_of_call_allowed_before_state_change() throws KrakenApiException {
+
+        // Given, a call allowed while closed is still in flight when the circuit opens then gets half-open
+        final long stale = breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        final long trial = breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+
+        // When
+        breaker.record(KrakenApiMethod.SERVER_TIME, stale, success());
+        breaker.record(KrakenApiMethod.SERVER_TIME, trial, success());
+
+        // Then, one trial call succeeded out of two
+        assertThat(breaker.getState(KrakenApiMethod.SERVER_TIME), equalTo(CircuitBreaker.State.HALF_OPEN));
+        breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+        try {
+            breaker.acquirePermission(KrakenApiMethod.SERVER_TIME);
+            fail("trial calls should be limited");
+        } catch (CircuitOpenException ex) {
+            assertThat(ex.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+        }
+    }
+
+    @Test
+    public void should_reset_circuit() {
+
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(KrakenApiMethod.SERVER_TIME, failure(networkError()));
+        }
+
+        // When
+        breaker.reset(KrakenApiMethod.SERVER_TIME);
+
+        // Then
+        assertThat(breaker.getState(KrakenApiMethod.SERVER_TIME), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(transitions.get(transitions.size() - 1), equalTo("SERVER_TIME:OPEN->CLOSED"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_invalid_window() {
+        CircuitBreaker.builder().withWindow(4, 5);
+    }
+}
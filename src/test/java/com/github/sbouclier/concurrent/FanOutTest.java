@@ -0,0 +1,117 @@
+package com.github.sbouclier.concurrent;
+
+import com.github.sbouclier.KrakenApiException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * FanOut test
+ *
+ * @author Stéphane Bouclier
+ */
+public class FanOutTest {
+
+    @Test
+    public void should_return_results_in_order_of_keys() throws KrakenApiException {
+
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        Map<String, String> results;
+        try (FanOut fanOut = new FanOut()) {
+            results = fanOut.invokeAll(Arrays.asList("XXBTZEUR", "XETHZEUR", "XLTCZEUR", "XXBTZEUR"), pair -> {
+                calls.incrementAndGet();
+                return pair.toLowerCase();
+            });
+        }
+
+        // Then
+        assertThat(results.keySet(), contains("XXBTZEUR", "XETHZEUR", "XLTCZEUR"));
+        assertThat(results.get("XETHZEUR"), equalTo("xethzeur"));
+        assertThat(calls.get(), equalTo(3));
+    }
+
+    @Test
+    public void should_run_calls_concurrently() throws KrakenApiException {
+
+        // Given
+        final int count = 50;
+        CountDownLatch allStarted = new CountDownLatch(count);
+
+        // When
+        Map<Integer, Boolean> results;
+        try (FanOut fanOut = new FanOut()) {
+            results = fanOut.invokeAll(IntStream.range(0, count).boxed().collect(Collectors.toList()), i -> {
+                allStarted.countDown();
+                try {
+                    return allStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new KrakenApiException("interrupted", ex);
+                }
+            });
+        }
+
+        // Then
+        assertThat(results.size(), equalTo(count));
+        assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    public void should_throw_first_failure_and_cancel_other_calls() throws Exception {
+
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        KrakenApiException failure = new KrakenApiException("EQuery:Unknown asset pair");
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        AtomicBoolean slowInterrupted = new AtomicBoolean();
+        CountDownLatch slowDone = new CountDownLatch(1);
+
+        // When
+        try (FanOut fanOut = new FanOut(executor)) {
+            fanOut.invokeAll(Arrays.asList("SLOW", "UNKNOWN"), pair -> {
+                if (pair.equals("UNKNOWN")) {
+                    while (slowStarted.getCount() > 0) {
+                        Thread.yield();
+                    }
+                    throw failure;
+                }
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException ex) {
+                    slowInterrupted.set(true);
+                } finally {
+                    slowDone.countDown();
+                }
+                return pair;
+            });
+            fail("fan-out should have failed");
+        } catch (KrakenApiException ex) {
+            assertThat(ex, sameInstance(failure));
+        }
+
+        // Then
+        assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        assertTrue(slowInterrupted.get());
+        assertThat(executor.isShutdown(), equalTo(false));
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.sbouclier.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * VirtualThreads test
+ *
+ * @author Stéphane Bouclier
+ */
+public class VirtualThreadsTest {
+
+    private static boolean isJava21OrLater() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    @Test
+    public void should_detect_virtual_threads_support() {
+        assertThat(VirtualThreads.isSupported(), equalTo(isJava21OrLater()));
+    }
+
+    @Test
+    public void should_run_tasks_on_new_executor() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertThat(thread.isDaemon(), equalTo(true));
+            assertThat(thread.getClass().getSimpleName().equals("VirtualThread"), equalTo(isJava21OrLater()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.result.ColumnarOHLCResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * CandleSeries test
+ *
+ * @author Stéphane Bouclier
+ */
+public class CandleSeriesTest {
+
+    static ColumnarOHLCResult.Columns candles(long... times) {
+        ColumnarOHLCResult.Columns columns = new ColumnarOHLCResult.Columns(times.length);
+        for (long time : times) {
+            columns.add(time, 1, 3, 0.5, time / 60.0, 2, 10, 5);
+        }
+        return columns;
+    }
+
+    @Test
+    public void should_merge_first_poll() {
+
+        // Given
+        CandleSeries series = new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 10);
+        List<Long> closed = new ArrayList<>();
+
+        // When
+        int count = series.merge(candles(60, 120, 180), 120L, (s, i) -> closed.add(s.getTime(i)));
+
+        // Then
+        assertThat(count, equalTo(2));
+        assertThat(closed, contains(60L, 120L));
+        assertThat(series.size(), equalTo(3));
+        assertThat(series.getTime(2), equalTo(180L));
+        assertThat(series.getClose(2), equalTo(3.0));
+        assertThat(series.getLastId(), equalTo(120L));
+    }
+
+    @Test
+    public void should_replace_forming_candle_and_ignore_older_ones() {
+
+        // Given
+        CandleSeries series = new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 10);
+        series.merge(candles(60, 120, 180), 120L, null);
+        List<Long> closed = new ArrayList<>();
+
+        ColumnarOHLCResult.Columns update = new ColumnarOHLCResult.Columns(2);
+        update.add(120, 9, 9, 9, 9, 9, 9, 9);
+        update.add(180, 1, 4, 0.5, 3.5, 2, 12, 6);
+
+        // When
+        int count = series.merge(update, 120L, (s, i) -> closed.add(s.getTime(i)));
+
+        // Then
+        assertThat(count, equalTo(0));
+        assertThat(closed, empty());
+        assertThat(series.size(), equalTo(3));
+        assertThat(series.getClose(1), equalTo(2.0));
+        assertThat(series.getClose(2), equalTo(3.5));
+        assertThat(series.getHigh(2), equalTo(4.0));
+        assertThat(series.getVolume(2), equalTo(12.0));
+        assertThat(series.getCount(2), equalTo(6));
+    }
+
+    @Test
+    public void should_evict_oldest_candles() {
+
+        // Given
+        CandleSeries series = new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 3);
+        series.merge(candles(60, 120, 180), 120L, null);
+
+        // When
+        int count = series.merge(candles(180, 240, 300), 240L, null);
+
+        // Then
+        assertThat(count, equalTo(2));
+        assertThat(series.size(), equalTo(3));
+        assertThat(series.getTime(0), equalTo(180L));
+        assertThat(series.getTime(2), equalTo(300L));
+
+        double[] closes = new double[3];
+        assertThat(series.copyCloses(closes), equalTo(3));
+        assertThat(closes[0], equalTo(3.0));
+        assertThat(closes[2], equalTo(5.0));
+        assertThat(series.toString(), startsWith("CandleSeries[XXBTZEUR, ONE_MINUTE, size=3/3, lastTime=300"));
+    }
+
+    @Test
+    public void should_keep_cursor_without_last_id() {
+        CandleSeries series = new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 3);
+
+        assertThat(series.getLastId(), nullValue());
+
+        series.merge(candles(60), 60L, null);
+        series.merge(candles(60), null, null);
+
+        assertThat(series.getLastId(), equalTo(60L));
+    }
+
+    @Test
+    public void should_notify_closed_candles_outside_monitor_once_merged() {
+
+        // Given
+        CandleSeries series = new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 3);
+        series.merge(candles(60, 120), 60L, null);
+        List<Long> closed = new ArrayList<>();
+        List<Boolean> locked = new ArrayList<>();
+
+        // When
+        int count = series.merge(candles(120, 180, 240, 300), 240L, (s, i) -> {
+            locked.add(Thread.holdsLock(s));
+            closed.add(s.getTime(i));
+        });
+
+        // Then, 120 is closed then evicted with the ring full
+        assertThat(count, equalTo(3));
+        assertThat(closed, contains(180L, 240L));
+        assertThat(locked, contains(false, false));
+        assertThat(series.getTime(0), equalTo(180L));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void should_fail_on_invalid_index() {
+        new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 3).getTime(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_fail_on_invalid_capacity() {
+        new CandleSeries("XXBTZEUR", Interval.ONE_MINUTE, 0);
+    }
+}
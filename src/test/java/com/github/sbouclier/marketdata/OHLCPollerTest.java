@@ -0,0 +1,162 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.input.Interval;
+import com.github.sbouclier.result.ColumnarOHLCResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.sbouclier.marketdata.CandleSeriesTest.candles;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.*;
+
+/**
+ * OHLCPoller test
+ *
+ * @author Stéphane Bouclier
+ */
+public class OHLCPollerTest {
+
+    private KrakenAPIClient mockClient;
+    private OHLCPoller poller;
+
+    @Before
+    public void setUp() {
+        mockClient = mock(KrakenAPIClient.class);
+        poller = new OHLCPoller(mockClient, 10);
+    }
+
+    private static ColumnarOHLCResult result(String pair, Long lastId, long... times) {
+        ColumnarOHLCResult result = new ColumnarOHLCResult();
+        result.setResult(Collections.singletonMap(pair, candles(times)));
+        result.setLastId(lastId);
+        return result;
+    }
+
+    @Test
+    public void should_poll_since_last_id() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE)).thenReturn(result("XXBTZEUR", 120L, 60, 120, 180));
+        when(mockClient.getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE, 120L)).thenReturn(result("XXBTZEUR", 180L, 180, 240));
+
+        List<Long> closed = new ArrayList<>();
+        poller.addListener((series, index) -> closed.add(series.getTime(index)));
+
+        // When
+        int first = poller.poll("XXBTZEUR", Interval.ONE_MINUTE);
+        int second = poller.poll("XXBTZEUR", Interval.ONE_MINUTE);
+
+        // Then
+        CandleSeries series = poller.getSeries("XXBTZEUR", Interval.ONE_MINUTE);
+        assertThat(first, equalTo(2));
+        assertThat(second, equalTo(1));
+        assertThat(closed, contains(60L, 120L, 180L));
+        assertThat(series.size(), equalTo(4));
+        assertThat(series.getLastId(), equalTo(180L));
+
+        verify(mockClient).getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE);
+        verify(mockClient).getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE, 120L);
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    @Test
+    public void should_use_single_pair_of_result() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getOHLCColumns("BTCEUR", Interval.ONE_HOUR)).thenReturn(result("XXBTZEUR", 3600L, 3600, 7200));
+
+        // When
+        poller.poll("BTCEUR", Interval.ONE_HOUR);
+
+        // Then
+        assertThat(poller.getSeries("BTCEUR", Interval.ONE_HOUR).size(), equalTo(2));
+    }
+
+    @Test
+    public void should_report_failures_and_continue() throws KrakenApiException {
+
+        // Given
+        KrakenApiException failure = new KrakenApiException("EService:Unavailable");
+        when(mockClient.getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE)).thenThrow(failure);
+        when(mockClient.getOHLCColumns("XETHZEUR", Interval.ONE_MINUTE)).thenReturn(result("XETHZEUR", 60L, 60, 120));
+
+        poller.subscribe("XXBTZEUR", Interval.ONE_MINUTE);
+        poller.subscribe("XETHZEUR", Interval.ONE_MINUTE);
+
+        List<KrakenApiException> failures = new ArrayList<>();
+        poller.addListener(new CandleListener() {
+            @Override
+            public void onCandleClosed(CandleSeries series, int index) {
+            }
+
+            @Override
+            public void onPollFailed(CandleSeries series, KrakenApiException exception) {
+                failures.add(exception);
+            }
+        });
+
+        // When
+        int closed = poller.pollAll();
+
+        // Then
+        assertThat(closed, equalTo(1));
+        assertThat(failures, contains(sameInstance(failure)));
+        assertThat(poller.getSeries("XXBTZEUR", Interval.ONE_MINUTE).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void should_report_runtime_failures_and_continue() throws KrakenApiException {
+
+        // Given
+        IllegalStateException failure = new IllegalStateException("connection pool shut down");
+        when(mockClient.getOHLCColumns("XXBTZEUR", Interval.ONE_MINUTE)).thenThrow(failure);
+        when(mockClient.getOHLCColumns("XETHZEUR", Interval.ONE_MINUTE)).thenReturn(result("XETHZEUR", 60L, 60, 120));
+
+        poller.subscribe("XXBTZEUR", Interval.ONE_MINUTE);
+        poller.subscribe("XETHZEUR", Interval.ONE_MINUTE);
+
+        List<Throwable> failures = new ArrayList<>();
+        poller.addListener(new CandleListener() {
+            @Override
+            public void onCandleClosed(CandleSeries series, int index) {
+                throw new IllegalArgumentException("listener failure");
+            }
+
+            @Override
+            public void onPollFailed(CandleSeries series, KrakenApiException exception) {
+                failures.add(exception.getCause());
+                throw new IllegalArgumentException("listener failure");
+            }
+        });
+
+        // When
+        int closed = poller.pollAll();
+
+        // Then
+        assertThat(closed, equalTo(1));
+        assertThat(failures, containsInAnyOrder(sameInstance(failure), instanceOf(IllegalArgumentException.class)));
+        assertThat(poller.getSeries("XETHZEUR", Interval.ONE_MINUTE).getLastId(), equalTo(60L));
+    }
+
+    @Test
+    public void should_subscribe_once() {
+        CandleSeries series = poller.subscribe("XXBTZEUR", Interval.ONE_DAY);
+
+        assertThat(poller.subscribe("XXBTZEUR", Interval.ONE_DAY), sameInstance(series));
+        assertThat(series.capacity(), equalTo(10));
+        assertThat(poller.getSeries().size(), equalTo(1));
+        assertThat(poller.unsubscribe("XXBTZEUR", Interval.ONE_DAY), sameInstance(series));
+        assertThat(poller.getSeries().size(), equalTo(0));
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.ColumnarRecentSpreadResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * SpreadHistory test
+ *
+ * @author Stéphane Bouclier
+ */
+public class SpreadHistoryTest {
+
+    private KrakenAPIClient mockClient;
+
+    @Before
+    public void setUp() {
+        mockClient = mock(KrakenAPIClient.class);
+    }
+
+    private static ColumnarRecentSpreadResult spreads(Long lastId, long[] times, double... asks) {
+        ColumnarRecentSpreadResult.Columns columns = new ColumnarRecentSpreadResult.Columns(times.length);
+        for (int i = 0; i < times.length; i++) {
+            columns.add(times[i], 100, asks[i]);
+        }
+        ColumnarRecentSpreadResult result = new ColumnarRecentSpreadResult();
+        result.setResult(Collections.singletonMap("XXBTZEUR", columns));
+        result.setLastId(lastId);
+        return result;
+    }
+
+    @Test
+    public void should_poll_since_last_id_and_skip_known_spreads() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getRecentSpreadsColumns("XXBTZEUR", null))
+                .thenReturn(spreads(11L, new long[]{10, 11, 11}, 101, 102, 103));
+        when(mockClient.getRecentSpreadsColumns("XXBTZEUR", 11L))
+                .thenReturn(spreads(12L, new long[]{11, 11, 11, 12}, 102, 103, 104, 105));
+
+        SpreadHistory history = new SpreadHistory(mockClient, "XXBTZEUR", 10);
+        List<String> batches = new ArrayList<>();
+        history.addListener((h, from, to) -> batches.add(from + "-" + to));
+
+        // When
+        int first = history.poll();
+        int second = history.poll();
+
+        // Then
+        assertThat(first, equalTo(3));
+        assertThat(second, equalTo(2));
+        assertThat(batches, contains("0-3", "3-5"));
+        assertThat(history.getLastId(), equalTo(12L));
+        assertThat(history.getTime(3), equalTo(11L));
+        assertThat(history.getSpread(3), equalTo(4.0));
+        assertThat(history.getBid(4), equalTo(100.0));
+        assertThat(history.getAsk(4), equalTo(105.0));
+        assertThat(history.getCurrentSpread(), equalTo(5.0));
+        assertThat(history.getMinSpread(), equalTo(1.0));
+        assertThat(history.getMaxSpread(), equalTo(5.0));
+        assertThat(history.getMeanSpread(), equalTo(3.0));
+    }
+
+    @Test
+    public void should_compute_window_statistics() {
+
+        // Given
+        final int capacity = 7;
+        SpreadHistory history = new SpreadHistory(mockClient, "XXBTZEUR", capacity);
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            // When
+            double ask = 100 + random.nextInt(50) / 10.0;
+            values.add(ask - 100);
+            history.append(spreads((long) i, new long[]{i}, ask).getResult().get("XXBTZEUR"), (long) i);
+
+            // Then
+            List<Double> window = values.subList(Math.max(0, values.size() - capacity), values.size());
+            double sum = 0;
+            for (double value : window) {
+                sum += value;
+            }
+            assertThat(history.getMinSpread(), equalTo(Collections.min(window)));
+            assertThat(history.getMaxSpread(), equalTo(Collections.max(window)));
+            assertThat(history.getMeanSpread(), closeTo(sum / window.size(), 1e-9));
+            assertThat(history.getCurrentSpread(), equalTo(window.get(window.size() - 1)));
+        }
+        assertThat(history.size(), equalTo(capacity));
+        assertThat(history.getOldestSequence(), equalTo(193L));
+        assertThat(history.toString(), startsWith("SpreadHistory[XXBTZEUR, spreads=200, kept=7/7"));
+    }
+
+    @Test
+    public void should_return_nan_when_empty() {
+        SpreadHistory history = new SpreadHistory(mockClient, "XXBTZEUR");
+
+        assertTrue(Double.isNaN(history.getCurrentSpread()));
+        assertTrue(Double.isNaN(history.getMinSpread()));
+        assertTrue(Double.isNaN(history.getMaxSpread()));
+        assertTrue(Double.isNaN(history.getMeanSpread()));
+        assertThat(history.capacity(), equalTo(SpreadHistory.DEFAULT_CAPACITY));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void should_fail_on_overwritten_spread() {
+        SpreadHistory history = new SpreadHistory(mockClient, "XXBTZEUR", 2);
+        history.append(spreads(3L, new long[]{1, 2, 3}, 101, 102, 103).getResult().get("XXBTZEUR"), 3L);
+
+        history.getSpread(0);
+    }
+
+    @Test
+    public void should_keep_polling_after_runtime_failures() throws Exception {
+
+        // Given
+        IllegalStateException failure = new IllegalStateException("connection pool shut down");
+        when(mockClient.getRecentSpreadsColumns("XXBTZEUR", null)).thenThrow(failure).thenReturn(spreads(11L, new long[]{10, 11}, 101, 102));
+
+        SpreadHistory history = new SpreadHistory(mockClient, "XXBTZEUR", 10);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        history.addListener(new SpreadListener() {
+            @Override
+            public void onSpreads(SpreadHistory h, long from, long to) {
+                throw new IllegalArgumentException("listener failure");
+            }
+
+            @Override
+            public void onPollFailed(SpreadHistory h, KrakenApiException exception) {
+                failures.add(exception.getCause());
+                throw new IllegalArgumentException("listener failure");
+            }
+        });
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        // When
+        try {
+            history.start(scheduler, 1, TimeUnit.MILLISECONDS);
+            verify(mockClient, timeout(1000).atLeast(3)).getRecentSpreadsColumns(eq("XXBTZEUR"), any());
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        // Then
+        assertThat(failures.get(0), sameInstance(failure));
+        assertThat(failures.get(1), instanceOf(IllegalArgumentException.class));
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.TickerInformationResult;
+import com.github.sbouclier.result.TickerInformationResult.TickerInformation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * TickerBatcher test
+ *
+ * @author Stéphane Bouclier
+ */
+public class TickerBatcherTest {
+
+    private KrakenAPIClient mockClient;
+    private ScheduledExecutorService scheduler;
+
+    private static final Map<String, TickerInformation> tickers = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        mockClient = mock(KrakenAPIClient.class);
+        scheduler = Executors.newScheduledThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static TickerInformation ticker(String pair) {
+        return tickers.computeIfAbsent(pair, p -> new TickerInformation());
+    }
+
+    private static TickerInformationResult result(List<String> pairs) {
+        Map<String, TickerInformation> result = new HashMap<>();
+        for (String pair : pairs) {
+            if (!pair.startsWith("UNKNOWN")) {
+                result.put(pair, ticker(pair));
+            }
+        }
+        TickerInformationResult tickerResult = new TickerInformationResult();
+        tickerResult.setResult(result);
+        return tickerResult;
+    }
+
+    @Test
+    public void should_coalesce_requests_of_a_window() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 10);
+
+        // When
+        CompletableFuture<TickerInformation> btc = batcher.getTicker("XXBTZEUR");
+        CompletableFuture<TickerInformation> eth = batcher.getTicker("XETHZEUR");
+        CompletableFuture<Map<String, TickerInformation>> both = batcher.getTickers(Arrays.asList("XETHZEUR", "XLTCZEUR"));
+        assertThat(batcher.getPendingCount(), equalTo(3));
+        batcher.flush();
+
+        // Then
+        assertThat(btc.get(), sameInstance(ticker("XXBTZEUR")));
+        assertThat(eth.get(), sameInstance(ticker("XETHZEUR")));
+        assertThat(both.get().keySet(), contains("XETHZEUR", "XLTCZEUR"));
+        assertThat(both.get().get("XLTCZEUR"), sameInstance(ticker("XLTCZEUR")));
+        assertThat(batcher.getRequestCount(), equalTo(1L));
+        assertThat(batcher.getPendingCount(), equalTo(0));
+
+        verify(mockClient).getTickerInformation(Arrays.asList("XXBTZEUR", "XETHZEUR", "XLTCZEUR"));
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    @Test
+    public void should_split_batch_in_chunks() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 2);
+
+        // When
+        CompletableFuture<Map<String, TickerInformation>> tickers = batcher.getTickers(Arrays.asList("A", "B", "C", "D", "E"));
+        batcher.flush();
+
+        // Then
+        assertThat(tickers.get().keySet(), contains("A", "B", "C", "D", "E"));
+        assertThat(batcher.getRequestCount(), equalTo(3L));
+
+        verify(mockClient).getTickerInformation(Arrays.asList("A", "B"));
+        verify(mockClient).getTickerInformation(Arrays.asList("C", "D"));
+        verify(mockClient).getTickerInformation(Arrays.asList("E"));
+    }
+
+    @Test
+    public void should_fail_callers_of_failed_chunk_only() throws Exception {
+
+        // Given
+        KrakenApiException failure = new KrakenApiException("EQuery:Unknown asset pair");
+        when(mockClient.getTickerInformation(Arrays.asList("A", "B"))).thenThrow(failure);
+        when(mockClient.getTickerInformation(Arrays.asList("C", "UNKNOWN"))).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 2);
+
+        // When
+        CompletableFuture<TickerInformation> a = batcher.getTicker("A");
+        CompletableFuture<TickerInformation> b = batcher.getTicker("B");
+        CompletableFuture<TickerInformation> c = batcher.getTicker("C");
+        CompletableFuture<TickerInformation> unknown = batcher.getTicker("UNKNOWN");
+        batcher.flush();
+
+        // Then
+        assertThat(c.get(), sameInstance(ticker("C")));
+        assertThat(causeOf(a), sameInstance(failure));
+        assertThat(causeOf(b), sameInstance(failure));
+        assertThat(causeOf(unknown), instanceOf(KrakenApiException.class));
+    }
+
+    @Test
+    public void should_flush_at_end_of_window() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, scheduler, 20, TimeUnit.MILLISECONDS, 10);
+
+        // When
+        CompletableFuture<TickerInformation> btc = batcher.getTicker("XXBTZEUR");
+        CompletableFuture<TickerInformation> eth = batcher.getTicker("XETHZEUR");
+
+        // Then
+        assertThat(btc.get(5, TimeUnit.SECONDS), sameInstance(ticker("XXBTZEUR")));
+        assertThat(eth.get(5, TimeUnit.SECONDS), sameInstance(ticker("XETHZEUR")));
+        assertThat(batcher.getRequestCount(), equalTo(1L));
+    }
+
+    @Test
+    public void should_flush_when_batch_is_full() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 2);
+
+        // When
+        CompletableFuture<TickerInformation> a = batcher.getTicker("A");
+        CompletableFuture<TickerInformation> b = batcher.getTicker("B");
+
+        // Then
+        assertTrue(a.isDone());
+        assertThat(b.get(), sameInstance(ticker("B")));
+        verify(mockClient).getTickerInformation(Arrays.asList("A", "B"));
+    }
+
+    @Test
+    public void should_not_shorten_next_window_with_timer_of_full_window() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> firstTimer = mock(ScheduledFuture.class);
+        ScheduledFuture<?> secondTimer = mock(ScheduledFuture.class);
+        doReturn(firstTimer, secondTimer).when(mockScheduler).schedule(any(Runnable.class), eq(1L), eq(TimeUnit.HOURS));
+        TickerBatcher batcher = new TickerBatcher(mockClient, mockScheduler, Runnable::run, 1, TimeUnit.HOURS, 2);
+        ArgumentCaptor<Runnable> timers = ArgumentCaptor.forClass(Runnable.class);
+
+        // When
+        batcher.getTicker("A");
+        batcher.getTicker("B");
+        CompletableFuture<TickerInformation> c = batcher.getTicker("C");
+        verify(mockScheduler, times(2)).schedule(timers.capture(), eq(1L), eq(TimeUnit.HOURS));
+        timers.getAllValues().get(0).run();
+
+        // Then
+        verify(firstTimer).cancel(false);
+        assertFalse(c.isDone());
+        assertThat(batcher.getPendingCount(), equalTo(1));
+
+        timers.getAllValues().get(1).run();
+        assertThat(c.get(), sameInstance(ticker("C")));
+        verify(mockClient).getTickerInformation(Arrays.asList("A", "B"));
+        verify(mockClient).getTickerInformation(Arrays.asList("C"));
+    }
+
+    @Test
+    public void should_fail_callers_with_kraken_exception_on_runtime_failure() throws Exception {
+
+        // Given
+        IllegalStateException failure = new IllegalStateException("unexpected");
+        when(mockClient.getTickerInformation(anyList())).thenThrow(failure);
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 10);
+
+        // When
+        CompletableFuture<TickerInformation> btc = batcher.getTicker("XXBTZEUR");
+        batcher.flush();
+
+        // Then
+        Throwable cause = causeOf(btc);
+        assertThat(cause, instanceOf(KrakenApiException.class));
+        assertThat(cause.getCause(), sameInstance(failure));
+    }
+
+    @Test
+    public void should_not_cancel_other_callers() throws Exception {
+
+        // Given
+        when(mockClient.getTickerInformation(anyList())).thenAnswer(invocation -> result(invocation.getArgument(0)));
+        TickerBatcher batcher = new TickerBatcher(mockClient, scheduler, Runnable::run, 1, TimeUnit.HOURS, 10);
+
+        // When
+        CompletableFuture<TickerInformation> first = batcher.getTicker("XXBTZEUR");
+        CompletableFuture<TickerInformation> second = batcher.getTicker("XXBTZEUR");
+        first.cancel(false);
+        batcher.flush();
+
+        // Then
+        assertFalse(second.isCancelled());
+        assertThat(second.get(), sameInstance(ticker("XXBTZEUR")));
+        verify(mockClient).getTickerInformation(Arrays.asList("XXBTZEUR"));
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("future should have failed");
+            return null;
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.sbouclier.marketdata;
+
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.result.ColumnarRecentTradeResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.*;
+
+/**
+ * TradeTape test
+ *
+ * @author Stéphane Bouclier
+ */
+public class TradeTapeTest {
+
+    private KrakenAPIClient mockClient;
+
+    @Before
+    public void setUp() {
+        mockClient = mock(KrakenAPIClient.class);
+    }
+
+    private static ColumnarRecentTradeResult trades(Long lastId, int count, double firstTime) {
+        ColumnarRecentTradeResult.Columns columns = new ColumnarRecentTradeResult.Columns(count);
+        for (int i = 0; i < count; i++) {
+            columns.add(2300 + i, 0.5, firstTime + i, ColumnarRecentTradeResult.BUY, ColumnarRecentTradeResult.LIMIT);
+        }
+        ColumnarRecentTradeResult result = new ColumnarRecentTradeResult();
+        result.setResult(Collections.singletonMap("XXBTZEUR", columns));
+        result.setLastId(lastId);
+        return result;
+    }
+
+    @Test
+    public void should_poll_since_last_id() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getRecentTradesColumns("XXBTZEUR", null)).thenReturn(trades(100L, 3, 1000));
+        when(mockClient.getRecentTradesColumns("XXBTZEUR", 100L)).thenReturn(trades(200L, 2, 1003));
+
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR");
+        List<String> batches = new ArrayList<>();
+        tape.addListener((t, from, to) -> batches.add(from + "-" + to));
+
+        // When
+        int first = tape.poll();
+        int second = tape.poll();
+
+        // Then
+        assertThat(first, equalTo(3));
+        assertThat(second, equalTo(2));
+        assertThat(batches, contains("0-3", "3-5"));
+        assertThat(tape.getNextSequence(), equalTo(5L));
+        assertThat(tape.getLastId(), equalTo(200L));
+        assertThat(tape.getPrice(3), equalTo(2300.0));
+        assertThat(tape.getTime(4), equalTo(1004.0));
+        assertThat(tape.getBuySell(4), equalTo(ColumnarRecentTradeResult.BUY));
+        assertThat(tape.getMarketLimit(4), equalTo(ColumnarRecentTradeResult.LIMIT));
+
+        verify(mockClient).getRecentTradesColumns("XXBTZEUR", null);
+        verify(mockClient).getRecentTradesColumns("XXBTZEUR", 100L);
+        verifyNoMoreInteractions(mockClient);
+    }
+
+    @Test
+    public void should_request_again_while_pages_are_full() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getRecentTradesColumns("XXBTZEUR", 1L)).thenReturn(trades(2L, TradeTape.MAX_TRADES_PER_REQUEST, 0));
+        when(mockClient.getRecentTradesColumns("XXBTZEUR", 2L)).thenReturn(trades(3L, 10, TradeTape.MAX_TRADES_PER_REQUEST));
+
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR", 100, 1L);
+
+        // When
+        int appended = tape.poll();
+
+        // Then
+        assertThat(appended, equalTo(TradeTape.MAX_TRADES_PER_REQUEST + 10));
+        assertThat(tape.size(), equalTo(100));
+        assertThat(tape.getOldestSequence(), equalTo(910L));
+        assertThat(tape.getTime(1009), equalTo(1009.0));
+        assertThat(tape.getLastId(), equalTo(3L));
+        verify(mockClient, times(2)).getRecentTradesColumns(eq("XXBTZEUR"), anyLong());
+    }
+
+    @Test
+    public void should_drop_older_trades() {
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR", 10, null);
+        tape.append(trades(1L, 3, 1000).getResult().get("XXBTZEUR"), 1L);
+
+        int appended = tape.append(trades(2L, 4, 1000).getResult().get("XXBTZEUR"), 2L);
+
+        assertThat(appended, equalTo(2));
+        assertThat(tape.getNextSequence(), equalTo(5L));
+        assertThat(tape.getTime(4), equalTo(1003.0));
+    }
+
+    @Test
+    public void should_visit_trades_from_sequence() {
+
+        // Given
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR", 4, null);
+        tape.append(trades(1L, 6, 1000).getResult().get("XXBTZEUR"), 1L);
+        List<Long> visited = new ArrayList<>();
+
+        // When
+        long next = tape.forEach(0, (sequence, price, volume, time, buySell, marketLimit) -> visited.add(sequence));
+
+        // Then
+        assertThat(visited, contains(2L, 3L, 4L, 5L));
+        assertThat(next, equalTo(6L));
+        assertThat(tape.forEach(next, (sequence, price, volume, time, buySell, marketLimit) -> visited.add(sequence)), equalTo(6L));
+        assertThat(tape.toString(), startsWith("TradeTape[XXBTZEUR, trades=6, kept=4/4"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void should_fail_on_overwritten_trade() {
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR", 4, null);
+        tape.append(trades(1L, 6, 1000).getResult().get("XXBTZEUR"), 1L);
+
+        tape.getPrice(1);
+    }
+
+    @Test
+    public void should_keep_polling_after_runtime_failures() throws Exception {
+
+        // Given
+        IllegalStateException failure = new IllegalStateException("connection pool shut down");
+        when(mockClient.getRecentTradesColumns("XXBTZEUR", null)).thenThrow(failure).thenReturn(trades(100L, 3, 1000));
+
+        TradeTape tape = new TradeTape(mockClient, "XXBTZEUR");
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        tape.addListener(new TradeListener() {
+            @Override
+            public void onTrades(TradeTape t, long from, long to) {
+                throw new IllegalArgumentException("listener failure");
+            }
+
+            @Override
+            public void onPollFailed(TradeTape t, KrakenApiException exception) {
+                failures.add(exception.getCause());
+                throw new IllegalArgumentException("listener failure");
+            }
+        });
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        // When
+        try {
+            tape.start(scheduler, 1, TimeUnit.MILLISECONDS);
+            verify(mockClient, timeout(1000).atLeast(3)).getRecentTradesColumns(eq("XXBTZEUR"), any());
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        // Then
+        assertThat(failures.get(0), sameInstance(failure));
+        assertThat(failures.get(1), instanceOf(IllegalArgumentException.class));
+    }
+}
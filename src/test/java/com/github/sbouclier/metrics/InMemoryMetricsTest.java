@@ -0,0 +1,88 @@
+package com.github.sbouclier.metrics;
+
+import com.github.sbouclier.KrakenApiMethod;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * InMemoryMetrics test
+ *
+ * @author Stéphane Bouclier
+ */
+public class InMemoryMetricsTest {
+
+    @Test
+    public void should_record_metrics_by_method() {
+
+        // Given
+        InMemoryMetrics metrics = new InMemoryMetrics();
+
+        // When
+        metrics.recordRequest(KrakenApiMethod.TICKER_INFORMATION);
+        metrics.recordRequest(KrakenApiMethod.TICKER_INFORMATION);
+        metrics.recordRequest(KrakenApiMethod.ORDER_BOOK);
+        metrics.recordError(KrakenApiMethod.TICKER_INFORMATION, "EQuery:Unknown asset pair");
+        metrics.recordError(KrakenApiMethod.TICKER_INFORMATION, "EQuery:Unknown asset pair");
+        metrics.recordError(KrakenApiMethod.TICKER_INFORMATION, "EService:Unavailable");
+        metrics.recordTiming(KrakenApiMethod.TICKER_INFORMATION, Phase.TOTAL, 2_000_000);
+        metrics.recordBytes(KrakenApiMethod.TICKER_INFORMATION, 512, 4096);
+        metrics.recordBytes(KrakenApiMethod.TICKER_INFORMATION, 256, -1);
+
+        // Then
+        Map<String, Long> errors = new HashMap<>();
+        errors.put("EQuery:Unknown asset pair", 2L);
+        errors.put("EService:Unavailable", 1L);
+
+        assertThat(metrics.getRequestCount(KrakenApiMethod.TICKER_INFORMATION), equalTo(2L));
+        assertThat(metrics.getRequestCount(KrakenApiMethod.ORDER_BOOK), equalTo(1L));
+        assertThat(metrics.getErrorCount(KrakenApiMethod.TICKER_INFORMATION), equalTo(3L));
+        assertThat(metrics.getErrorCounts(KrakenApiMethod.TICKER_INFORMATION), equalTo(errors));
+        assertThat(metrics.getErrorCount(KrakenApiMethod.ORDER_BOOK), equalTo(0L));
+        assertThat(metrics.getHistogram(KrakenApiMethod.TICKER_INFORMATION, Phase.TOTAL).getMax(), equalTo(2_000_000L));
+        assertThat(metrics.getHistogram(KrakenApiMethod.TICKER_INFORMATION, Phase.SIGN).getCount(), equalTo(0L));
+        assertThat(metrics.getBytesReceived(KrakenApiMethod.TICKER_INFORMATION), equalTo(768L));
+        assertThat(metrics.getBytesAllocated(KrakenApiMethod.TICKER_INFORMATION), equalTo(4096L));
+    }
+
+    @Test
+    public void should_report_called_methods() {
+
+        // Given
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.recordRequest(KrakenApiMethod.SERVER_TIME);
+        metrics.recordTiming(KrakenApiMethod.SERVER_TIME, Phase.TOTAL, 3_000_000);
+
+        // When
+        String report = metrics.report();
+
+        // Then
+        assertThat(report, containsString("SERVER_TIME requests=1 errors={}"));
+        assertThat(report, containsString("  TOTAL count=1 mean=3000 p50=3000 p99=3000 max=3000"));
+        assertThat(report, not(containsString("SIGN")));
+        assertThat(report, not(containsString("ORDER_BOOK")));
+    }
+
+    @Test
+    public void should_reset() {
+
+        // Given
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.recordRequest(KrakenApiMethod.SERVER_TIME);
+        metrics.recordError(KrakenApiMethod.SERVER_TIME, "EService:Unavailable");
+
+        // When
+        metrics.reset();
+
+        // Then
+        assertThat(metrics.getRequestCount(KrakenApiMethod.SERVER_TIME), equalTo(0L));
+        assertThat(metrics.getErrorCount(KrakenApiMethod.SERVER_TIME), equalTo(0L));
+        assertThat(metrics.report(), equalTo(""));
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.sbouclier.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * LatencyHistogram test
+ *
+ * @author Stéphane Bouclier
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void should_map_values_to_contiguous_buckets() {
+        for (long value = 0; value < 100_000; value++) {
+            final int bucket = LatencyHistogram.bucket(value);
+            assertThat(value <= LatencyHistogram.highestValue(bucket), equalTo(true));
+            assertThat(bucket == 0 || value > LatencyHistogram.highestValue(bucket - 1), equalTo(true));
+        }
+        assertThat(LatencyHistogram.highestValue(LatencyHistogram.bucket(Long.MAX_VALUE)), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void should_compute_percentiles_within_precision() {
+
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        // Then
+        assertThat(histogram.getCount(), equalTo(1000L));
+        assertThat(histogram.getMax(), equalTo(1_000_000L));
+        assertThat(histogram.getMean(), equalTo(500_500.0));
+        assertThat(histogram.getPercentile(0.5), allOf(greaterThanOrEqualTo(500_000L), lessThanOrEqualTo(562_500L)));
+        assertThat(histogram.getPercentile(0.99), allOf(greaterThanOrEqualTo(990_000L), lessThanOrEqualTo(1_000_000L)));
+        assertThat(histogram.getPercentile(1), equalTo(1_000_000L));
+    }
+
+    @Test
+    public void should_record_concurrently() throws InterruptedException {
+
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(histogram.getCount(), equalTo(40_000L));
+        assertThat(histogram.getSum(), equalTo(4 * 50_005_000L));
+        assertThat(histogram.getMax(), equalTo(10_000L));
+    }
+
+    @Test
+    public void should_reset() {
+
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+
+        // When
+        histogram.reset();
+
+        // Then
+        assertThat(histogram.getCount(), equalTo(0L));
+        assertThat(histogram.getMax(), equalTo(0L));
+        assertThat(histogram.getPercentile(0.5), equalTo(0L));
+    }
+}
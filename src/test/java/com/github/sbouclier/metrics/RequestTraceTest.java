@@ -0,0 +1,77 @@
+package com.github.sbouclier.metrics;
+
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * RequestTrace test
+ *
+ * @author Stéphane Bouclier
+ */
+public class RequestTraceTest {
+
+    @Test
+    public void should_record_phases_into_current_trace() {
+
+        // Given
+        RequestTrace trace = RequestTrace.begin();
+
+        // When
+        RequestTrace.record(Phase.SIGN, 10);
+        RequestTrace.record(Phase.SIGN, 5);
+        trace.end();
+        RequestTrace.record(Phase.SIGN, 100);
+
+        // Then
+        assertThat(trace.getNanos(Phase.SIGN), equalTo(15L));
+        assertThat(trace.getNanos(Phase.CONNECT), equalTo(-1L));
+        assertThat(trace.getNanos(Phase.TOTAL), greaterThanOrEqualTo(0L));
+        assertThat(RequestTrace.current(), nullValue());
+    }
+
+    @Test
+    public void should_restore_enclosing_trace() {
+
+        // Given
+        RequestTrace outer = RequestTrace.begin();
+        RequestTrace inner = RequestTrace.begin();
+
+        // When
+        inner.end();
+
+        // Then
+        assertThat(RequestTrace.current(), sameInstance(outer));
+        outer.end();
+        assertThat(RequestTrace.current(), nullValue());
+    }
+
+    @Test
+    public void should_time_response_handler() throws IOException {
+
+        // Given
+        RequestTrace trace = RequestTrace.begin();
+        byte[] body = "{\"error\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        String result = trace.wrap(StreamUtils::convert).handle(new ByteArrayInputStream(body));
+        trace.end();
+
+        // Then
+        assertThat(result, equalTo("{\"error\":[]}"));
+        assertThat(trace.getBytesReceived(), equalTo((long) body.length));
+        assertThat(trace.getNanos(Phase.TTFB), greaterThanOrEqualTo(0L));
+        assertThat(trace.getNanos(Phase.DOWNLOAD), greaterThanOrEqualTo(0L));
+        assertThat(trace.getNanos(Phase.PARSE), greaterThanOrEqualTo(0L));
+        assertThat(trace.getNanos(Phase.TOTAL) >= trace.getNanos(Phase.DOWNLOAD) + trace.getNanos(Phase.PARSE), equalTo(true));
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.sbouclier.ratelimit;
+
+import com.github.sbouclier.KrakenApiMethod;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * RateLimiter test
+ *
+ * @author Stéphane Bouclier
+ */
+public class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(123_456_789L);
+
+    @Test
+    public void should_not_count_public_methods() {
+        RateLimiter limiter = new RateLimiter(2, 1, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.reserve(KrakenApiMethod.SERVER_TIME), equalTo(0L));
+        }
+        assertThat(limiter.getCounter(), equalTo(0.0));
+        assertThat(limiter.getAcquired(), equalTo(10L));
+    }
+
+    @Test
+    public void should_count_method_costs() {
+        RateLimiter limiter = new RateLimiter(VerificationTier.STARTER);
+
+        limiter.reserve(KrakenApiMethod.ACCOUNT_BALANCE);
+        limiter.reserve(KrakenApiMethod.LEDGERS_INFORMATION);
+
+        assertThat(limiter.getCounter(), closeTo(3, 0.1));
+        assertThat(limiter.getMaxCounter(), equalTo(15));
+    }
+
+    @Test
+    public void should_delay_calls_exceeding_counter() {
+        RateLimiter limiter = new RateLimiter(3, 0.5, clock::get);
+
+        assertThat(limiter.reserve(KrakenApiMethod.TRADES_HISTORY), equalTo(0L));
+        assertThat(limiter.reserve(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(0L));
+        assertThat(limiter.reserve(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(TimeUnit.SECONDS.toNanos(2)));
+        assertThat(limiter.reserve(KrakenApiMethod.TRADES_HISTORY), equalTo(TimeUnit.SECONDS.toNanos(6)));
+
+        assertThat(limiter.getCounter(), equalTo(6.0));
+        assertThat(limiter.getDelayed(), equalTo(2L));
+        assertThat(limiter.getDelay(TimeUnit.SECONDS), equalTo(8L));
+    }
+
+    @Test
+    public void should_decay_counter() {
+        RateLimiter limiter = new RateLimiter(3, 0.5, clock::get);
+        limiter.reserve(KrakenApiMethod.TRADES_HISTORY);
+        limiter.reserve(KrakenApiMethod.ACCOUNT_BALANCE);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+        assertThat(limiter.getCounter(), equalTo(1.0));
+        assertThat(limiter.reserve(KrakenApiMethod.TRADES_HISTORY), equalTo(0L));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertThat(limiter.getCounter(), equalTo(0.0));
+    }
+
+    @Test
+    public void should_try_acquire_without_waiting() {
+        RateLimiter limiter = new RateLimiter(2, 1, clock::get);
+
+        assertThat(limiter.tryAcquire(KrakenApiMethod.TRADES_HISTORY), equalTo(true));
+        assertThat(limiter.tryAcquire(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(false));
+        assertThat(limiter.tryAcquire(KrakenApiMethod.SERVER_TIME), equalTo(true));
+        assertThat(limiter.getCounter(), equalTo(2.0));
+        assertThat(limiter.getDelayed(), equalTo(0L));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(limiter.tryAcquire(KrakenApiMethod.ACCOUNT_BALANCE), equalTo(true));
+    }
+
+    @Test
+    public void should_wait_just_in_time() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1, 20);
+
+        final long start = System.nanoTime();
+        limiter.acquire(KrakenApiMethod.ACCOUNT_BALANCE);
+        limiter.acquire(KrakenApiMethod.ACCOUNT_BALANCE);
+        limiter.acquire(KrakenApiMethod.ACCOUNT_BALANCE);
+
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(90)));
+        assertThat(limiter.getDelayed(), equalTo(2L));
+    }
+
+    @Test
+    public void should_share_limiter_by_key() {
+        assertThat(RateLimiter.forKey("apiKey", VerificationTier.PRO), sameInstance(RateLimiter.forKey("apiKey", VerificationTier.PRO)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_invalid_limits() {
+        new RateLimiter(0, 1);
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.sbouclier.refdata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.KrakenAPIClient;
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.input.InfoInput;
+import com.github.sbouclier.result.AssetPairsResult;
+import com.github.sbouclier.result.AssetsInformationResult;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReferenceDataCache test
+ *
+ * @author Stéphane Bouclier
+ */
+public class ReferenceDataCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private KrakenAPIClient mockClient;
+    private AtomicLong clock;
+    private AssetPairsResult pairs;
+    private AssetPairsResult newPairs;
+
+    @Before
+    public void setUp() throws IOException {
+        mockClient = mock(KrakenAPIClient.class);
+        clock = new AtomicLong();
+
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/asset_pairs.mock.json");
+        pairs = new ObjectMapper().readValue(jsonResult, AssetPairsResult.class);
+        newPairs = new ObjectMapper().readValue(jsonResult, AssetPairsResult.class);
+    }
+
+    private ReferenceDataCache cache(Path snapshotDirectory) {
+        return new ReferenceDataCache(mockClient, 100, 50, TimeUnit.NANOSECONDS, Runnable::run, snapshotDirectory, clock::get);
+    }
+
+    @Test
+    public void should_serve_fresh_entry_from_memory() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs()).thenReturn(pairs);
+        ReferenceDataCache cache = cache(null);
+
+        // When
+        AssetPairsResult first = cache.getAssetPairs();
+        clock.set(79);
+        AssetPairsResult second = cache.getAssetPairs();
+
+        // Then
+        assertThat(first, sameInstance(pairs));
+        assertThat(second, sameInstance(pairs));
+        assertThat(cache.getMissCount(), equalTo(1L));
+        assertThat(cache.getHitCount(), equalTo(1L));
+        verify(mockClient, times(1)).getAssetPairs();
+    }
+
+    @Test
+    public void should_refresh_ahead() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs()).thenReturn(pairs, newPairs);
+        ReferenceDataCache cache = cache(null);
+        cache.getAssetPairs();
+
+        // When
+        clock.set(80);
+        AssetPairsResult refreshing = cache.getAssetPairs();
+        clock.set(81);
+        AssetPairsResult refreshed = cache.getAssetPairs();
+
+        // Then
+        assertThat(refreshing, sameInstance(pairs));
+        assertThat(refreshed, sameInstance(newPairs));
+        verify(mockClient, times(2)).getAssetPairs();
+    }
+
+    @Test
+    public void should_serve_stale_while_revalidating() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs()).thenReturn(pairs, newPairs);
+        List<Runnable> refreshes = new ArrayList<>();
+        ReferenceDataCache cache = new ReferenceDataCache(mockClient, 100, 50, TimeUnit.NANOSECONDS,
+                refreshes::add, null, clock::get);
+        cache.getAssetPairs();
+
+        // When
+        clock.set(120);
+        AssetPairsResult stale = cache.getAssetPairs();
+        AssetPairsResult stillStale = cache.getAssetPairs();
+        refreshes.forEach(Runnable::run);
+        AssetPairsResult revalidated = cache.getAssetPairs();
+
+        // Then
+        assertThat(stale, sameInstance(pairs));
+        assertThat(stillStale, sameInstance(pairs));
+        assertThat(revalidated, sameInstance(newPairs));
+        assertThat(refreshes.size(), equalTo(1));
+        assertThat(cache.getMissCount(), equalTo(1L));
+    }
+
+    @Test
+    public void should_wait_for_request_once_too_stale() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs()).thenReturn(pairs, newPairs);
+        ReferenceDataCache cache = new ReferenceDataCache(mockClient, 100, 50, TimeUnit.NANOSECONDS,
+                runnable -> { }, null, clock::get);
+        cache.getAssetPairs();
+
+        // When
+        clock.set(149);
+        AssetPairsResult stale = cache.getAssetPairs();
+        clock.set(150);
+        AssetPairsResult reloaded = cache.getAssetPairs();
+
+        // Then
+        assertThat(stale, sameInstance(pairs));
+        assertThat(reloaded, sameInstance(newPairs));
+        assertThat(cache.getMissCount(), equalTo(2L));
+    }
+
+    @Test
+    public void should_keep_entry_when_refresh_fails() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs()).thenReturn(pairs).thenThrow(new KrakenApiException("EService:Unavailable"));
+        ReferenceDataCache cache = cache(null);
+        cache.getAssetPairs();
+
+        // When
+        clock.set(90);
+        AssetPairsResult result = cache.getAssetPairs();
+
+        // Then
+        assertThat(result, sameInstance(pairs));
+        assertThat(cache.getRefreshFailureCount(), equalTo(1L));
+    }
+
+    @Test(expected = KrakenApiException.class)
+    public void should_fail_on_miss_when_request_fails() throws KrakenApiException {
+        when(mockClient.getAssetPairs()).thenThrow(new KrakenApiException("EService:Unavailable"));
+
+        cache(null).getAssetPairs();
+    }
+
+    @Test
+    public void should_fail_concurrent_miss_when_loader_throws_error() throws Exception {
+
+        // Given
+        final Error error = new Error("loader failed");
+        final AtomicReference<Throwable> concurrentFailure = new AtomicReference<>();
+        ReferenceDataCache cache = cache(null);
+        Thread concurrent = new Thread(() -> {
+            try {
+                cache.getAssetPairs();
+            } catch (KrakenApiException | RuntimeException | Error ex) {
+                concurrentFailure.set(ex);
+            }
+        });
+        concurrent.setDaemon(true);
+        when(mockClient.getAssetPairs()).thenAnswer(invocation -> {
+            concurrent.start();
+            while (concurrent.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            throw error;
+        });
+
+        // When
+        try {
+            cache.getAssetPairs();
+            fail();
+        } catch (Error ex) {
+            assertThat(ex, sameInstance(error));
+        }
+        concurrent.join(1000);
+
+        // Then
+        assertThat(concurrent.isAlive(), equalTo(false));
+        assertThat(concurrentFailure.get(), sameInstance(error));
+        verify(mockClient, times(1)).getAssetPairs();
+    }
+
+    @Test
+    public void should_key_by_info_and_pair_set() throws KrakenApiException {
+
+        // Given
+        when(mockClient.getAssetPairs(InfoInput.MARGIN, "XETHZEUR", "XXBTZEUR")).thenReturn(pairs);
+        when(mockClient.getAssetPairs(InfoInput.FEES, "XETHZEUR", "XXBTZEUR")).thenReturn(newPairs);
+        ReferenceDataCache cache = cache(null);
+
+        // When
+        AssetPairsResult margin = cache.getAssetPairs(InfoInput.MARGIN, "XETHZEUR", "XXBTZEUR");
+        AssetPairsResult sameMargin = cache.getAssetPairs(InfoInput.MARGIN, "XXBTZEUR", "XETHZEUR");
+        AssetPairsResult fees = cache.getAssetPairs(InfoInput.FEES, "XETHZEUR", "XXBTZEUR");
+
+        // Then
+        assertThat(sameMargin, sameInstance(margin));
+        assertThat(fees, not(sameInstance(margin)));
+        verify(mockClient, times(1)).getAssetPairs(InfoInput.MARGIN, "XETHZEUR", "XXBTZEUR");
+        verify(mockClient, never()).getAssetPairs(InfoInput.MARGIN, "XXBTZEUR", "XETHZEUR");
+    }
+
+    @Test
+    public void should_start_from_snapshot() throws Exception {
+
+        // Given
+        final Path directory = folder.newFolder("snapshots").toPath();
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/assets_information.mock.json");
+        AssetsInformationResult assets = new ObjectMapper().readValue(jsonResult, AssetsInformationResult.class);
+        when(mockClient.getAssetsInformation()).thenReturn(assets);
+        cache(directory).getAssetsInformation();
+
+        // When
+        reset(mockClient);
+        when(mockClient.getAssetsInformation()).thenReturn(assets);
+        ReferenceDataCache restarted = new ReferenceDataCache(mockClient, 100, 50, TimeUnit.NANOSECONDS,
+                runnable -> { }, directory, clock::get);
+        AssetsInformationResult result = restarted.getAssetsInformation();
+
+        // Then
+        assertThat(result, not(sameInstance(assets)));
+        assertThat(result.getResult().keySet(), equalTo(assets.getResult().keySet()));
+        assertThat(result.getResult().get("XXBT").decimals, equalTo(assets.getResult().get("XXBT").decimals));
+        assertThat(restarted.getHitCount(), equalTo(1L));
+        verify(mockClient, never()).getAssetsInformation();
+    }
+
+    @Test
+    public void should_snapshot_asset_pairs() throws Exception {
+
+        // Given
+        final Path directory = folder.newFolder("snapshots").toPath();
+        when(mockClient.getAssetPairs(InfoInput.ALL, "XXBTZEUR")).thenReturn(pairs);
+        cache(directory).getAssetPairs(InfoInput.ALL, "XXBTZEUR");
+
+        // When
+        AssetPairsResult result = cache(directory).getAssetPairs(InfoInput.ALL, "XXBTZEUR");
+
+        // Then
+        assertThat(result.toString(), equalTo(pairs.toString()));
+        verify(mockClient, times(2)).getAssetPairs(InfoInput.ALL, "XXBTZEUR");
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+
+/**
+ * ColumnarOHLCResult test
+ *
+ * @author Stéphane Bouclier
+ */
+public class ColumnarOHLCResultTest {
+
+    @Test
+    public void should_read_columns() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+
+        // When
+        ColumnarOHLCResult result = new ObjectMapper().readValue(jsonResult, ColumnarOHLCResult.class);
+
+        // Then
+        ColumnarOHLCResult.Columns columns = result.getResult().get("XXBTZEUR");
+        assertThat(result.getError(), empty());
+        assertThat(result.getLastId(), equalTo(1501200000L));
+        assertThat(result.getResult().keySet(), contains("XXBTZEUR"));
+        assertThat(columns.size(), equalTo(720));
+        assertThat(columns.time.length, equalTo(720));
+        assertThat(columns.time[0], equalTo(1439164800L));
+        assertThat(columns.open[0], equalTo(243.4));
+        assertThat(columns.high[0], equalTo(247.59));
+        assertThat(columns.low[0], equalTo(240.8));
+        assertThat(columns.close[0], equalTo(241.39));
+        assertThat(columns.vwap[0], equalTo(242.56));
+        assertThat(columns.volume[0], equalTo(3745.06570199));
+        assertThat(columns.count[0], equalTo(2997));
+        assertThat(columns.time[719], equalTo(1501286400L));
+        assertThat(columns.indexOf(1501286400L), equalTo(719));
+    }
+
+    @Test
+    public void should_match_ohlc_result() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+
+        // When
+        ColumnarOHLCResult columnar = new ObjectMapper().readValue(jsonResult, ColumnarOHLCResult.class);
+        OHLCResult result = new ObjectMapper().readValue(jsonResult, OHLCResult.class);
+
+        // Then
+        ColumnarOHLCResult.Columns columns = columnar.getResult().get("XXBTZEUR");
+        List<OHLCResult.OHLC> candles = result.getResult().get("XXBTZEUR");
+        for (int i = 0; i < candles.size(); i++) {
+            OHLCResult.OHLC candle = candles.get(i);
+            assertThat(columns.time[i], equalTo(candle.time.longValue()));
+            assertThat(columns.open[i], equalTo(candle.open.doubleValue()));
+            assertThat(columns.high[i], equalTo(candle.high.doubleValue()));
+            assertThat(columns.low[i], equalTo(candle.low.doubleValue()));
+            assertThat(columns.close[i], equalTo(candle.close.doubleValue()));
+            assertThat(columns.vwap[i], equalTo(candle.vwap.doubleValue()));
+            assertThat(columns.volume[i], equalTo(candle.volume.doubleValue()));
+            assertThat(columns.count[i], equalTo(candle.count));
+        }
+    }
+
+    @Test
+    public void should_read_exponents_and_long_numbers() throws IOException {
+
+        // Given
+        final String jsonResult = "{\"error\":[],\"result\":{\"XXBTZEUR\":[[1501286400,2.381819E3,\"-1.5\","
+                + "\"0.12345678901234567890\",\"7\",\"2353.673\",\"1e-8\",286]],\"last\":\"1501286400\"}}";
+
+        // When
+        ColumnarOHLCResult result = new ObjectMapper().readValue(jsonResult, ColumnarOHLCResult.class);
+
+        // Then
+        ColumnarOHLCResult.Columns columns = result.getResult().get("XXBTZEUR");
+        assertThat(columns.open[0], equalTo(2381.819));
+        assertThat(columns.high[0], equalTo(-1.5));
+        assertThat(columns.low[0], equalTo(0.12345678901234567890));
+        assertThat(columns.close[0], equalTo(7.0));
+        assertThat(columns.volume[0], equalTo(1e-8));
+        assertThat(result.getLastId(), equalTo(1501286400L));
+        assertThat(columns.time.length, equalTo(1));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void should_fail_on_missing_values() throws IOException {
+        new ObjectMapper().readValue("{\"error\":[],\"result\":{\"XXBTZEUR\":[[1501286400,\"2381.819\"]]}}", ColumnarOHLCResult.class);
+    }
+
+    @Test
+    public void should_add_and_grow() {
+        ColumnarOHLCResult.Columns columns = new ColumnarOHLCResult.Columns(0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(columns.add(i * 60L, 1, 2, 0.5, 1.5, 1.2, 10, i), equalTo(i));
+        }
+
+        assertThat(columns.size(), equalTo(20));
+        assertThat(columns.trim().time.length, equalTo(20));
+        assertThat(columns.indexOf(61L), equalTo(-3));
+        assertThat(columns.toString(), startsWith("ColumnarOHLCResult.Columns[size=20,firstTime=0,lastTime=1140]"));
+    }
+}
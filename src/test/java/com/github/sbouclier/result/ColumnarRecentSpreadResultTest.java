@@ -0,0 +1,58 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+
+/**
+ * ColumnarRecentSpreadResult test
+ *
+ * @author Stéphane Bouclier
+ */
+public class ColumnarRecentSpreadResultTest {
+
+    @Test
+    public void should_match_recent_spread_result() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_spread.mock.json");
+
+        // When
+        ColumnarRecentSpreadResult columnar = new ObjectMapper().readValue(jsonResult, ColumnarRecentSpreadResult.class);
+        RecentSpreadResult result = new ObjectMapper().readValue(jsonResult, RecentSpreadResult.class);
+
+        // Then
+        ColumnarRecentSpreadResult.Columns columns = columnar.getResult().get("XXBTZEUR");
+        List<RecentSpreadResult.Spread> spreads = result.getResult().get("XXBTZEUR");
+        assertThat(columnar.getResult().keySet(), contains("XXBTZEUR"));
+        assertThat(columnar.getLastId(), equalTo(result.getLastId()));
+        assertThat(columns.size(), equalTo(spreads.size()));
+        for (int i = 0; i < spreads.size(); i++) {
+            RecentSpreadResult.Spread spread = spreads.get(i);
+            assertThat(columns.time[i], equalTo(spread.time.longValue()));
+            assertThat(columns.bid[i], equalTo(spread.bid.doubleValue()));
+            assertThat(columns.ask[i], equalTo(spread.ask.doubleValue()));
+        }
+        assertThat(columns.toString(), startsWith("ColumnarRecentSpreadResult.Columns[size=" + spreads.size()));
+    }
+
+    @Test
+    public void should_add_and_grow() {
+        ColumnarRecentSpreadResult.Columns spreads = new ColumnarRecentSpreadResult.Columns(0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(spreads.add(1501616056 + i, 2342.397, 2342.998), equalTo(i));
+        }
+
+        assertThat(spreads.size(), equalTo(20));
+        assertThat(spreads.time[19], equalTo(1501616075L));
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+
+/**
+ * ColumnarRecentTradeResult test
+ *
+ * @author Stéphane Bouclier
+ */
+public class ColumnarRecentTradeResultTest {
+
+    @Test
+    public void should_read_columns() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_trades.mock.json");
+
+        // When
+        ColumnarRecentTradeResult result = new ObjectMapper().readValue(jsonResult, ColumnarRecentTradeResult.class);
+
+        // Then
+        ColumnarRecentTradeResult.Columns trades = result.getResult().get("XXBTZEUR");
+        assertThat(result.getLastId(), equalTo(1501610764423910861L));
+        assertThat(result.getResult().keySet(), contains("XXBTZEUR"));
+        assertThat(trades.price[0], equalTo(2312.0));
+        assertThat(trades.volume[0], equalTo(4.37910702));
+        assertThat(trades.time[0], equalTo(1501609382.4828));
+        assertThat(trades.buySell[0], equalTo(ColumnarRecentTradeResult.BUY));
+        assertThat(trades.marketLimit[0], equalTo(ColumnarRecentTradeResult.LIMIT));
+    }
+
+    @Test
+    public void should_match_recent_trade_result() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_trades.mock.json");
+
+        // When
+        ColumnarRecentTradeResult columnar = new ObjectMapper().readValue(jsonResult, ColumnarRecentTradeResult.class);
+        RecentTradeResult result = new ObjectMapper().readValue(jsonResult, RecentTradeResult.class);
+
+        // Then
+        ColumnarRecentTradeResult.Columns columns = columnar.getResult().get("XXBTZEUR");
+        List<RecentTradeResult.RecentTrade> trades = result.getResult().get("XXBTZEUR");
+        assertThat(columns.size(), equalTo(trades.size()));
+        for (int i = 0; i < trades.size(); i++) {
+            RecentTradeResult.RecentTrade trade = trades.get(i);
+            assertThat(columns.price[i], equalTo(trade.price.doubleValue()));
+            assertThat(columns.volume[i], equalTo(trade.volume.doubleValue()));
+            assertThat(columns.time[i], equalTo(trade.time.doubleValue()));
+            assertThat((char) columns.buySell[i], equalTo(((String) trade.buySell).charAt(0)));
+            assertThat((char) columns.marketLimit[i], equalTo(trade.marketLimit.charAt(0)));
+        }
+    }
+
+    @Test
+    public void should_add_and_grow() {
+        ColumnarRecentTradeResult.Columns trades = new ColumnarRecentTradeResult.Columns(0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(trades.add(100 + i, 1, 1501609382 + i, ColumnarRecentTradeResult.SELL, ColumnarRecentTradeResult.MARKET), equalTo(i));
+        }
+
+        assertThat(trades.size(), equalTo(20));
+        assertThat(trades.price[19], equalTo(119.0));
+        assertThat(trades.toString(), startsWith("ColumnarRecentTradeResult.Columns[size=20"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.JsonReaderRegistry;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+
+/**
+ * FixedPointModule test
+ *
+ * @author Stéphane Bouclier
+ */
+public class FixedPointModuleTest {
+
+    private JsonReaderRegistry readers;
+
+    @Before
+    public void setUp() {
+        FixedPointDecimals decimals = new FixedPointDecimals()
+                .put("XXBTZEUR", 5, 8)
+                .put("XETHZEUR", 5, 8);
+        readers = JsonReaderRegistry.fixedPoint(decimals);
+    }
+
+    private <T> T read(String resource, Class<T> resultClass) throws IOException {
+        final String json = StreamUtils.getResourceAsString(this.getClass(), "json/" + resource);
+        return readers.getReader(resultClass).readValue(json);
+    }
+
+    @Test
+    public void should_read_order_book() throws IOException {
+        OrderBookResult result = read("order_book.mock.json", OrderBookResult.class);
+        OrderBookResult.Market ask = result.getResult().get("XXBTZEUR").asks.get(0);
+
+        assertThat(ask.fixedPrice, equalTo(237858700L));
+        assertThat(ask.fixedVolume, equalTo(108_900_000L));
+        assertThat(ask.timestamp, equalTo(1501320458));
+        assertThat(ask.price, nullValue());
+        assertThat(ask.volume, nullValue());
+    }
+
+    @Test
+    public void should_read_recent_trades() throws IOException {
+        RecentTradeResult result = read("recent_trades.mock.json", RecentTradeResult.class);
+        RecentTradeResult.RecentTrade trade = result.getResult().get("XXBTZEUR").get(0);
+
+        assertThat(trade.fixedPrice, equalTo(231200000L));
+        assertThat(trade.fixedVolume, equalTo(437910702L));
+        assertThat(trade.time, equalTo(new BigDecimal("1501609382.4828")));
+        assertThat(trade.buySell, equalTo("b"));
+        assertThat(trade.marketLimit, equalTo("l"));
+        assertThat(trade.miscellaneous, equalTo(""));
+        assertThat(trade.price, nullValue());
+        assertThat(result.getLastId(), equalTo(1501610764423910861L));
+    }
+
+    @Test
+    public void should_read_recent_spreads() throws IOException {
+        RecentSpreadResult result = read("recent_spread.mock.json", RecentSpreadResult.class);
+        RecentSpreadResult.Spread spread = result.getResult().get("XXBTZEUR").get(1);
+
+        assertThat(spread.time, equalTo(1501616057));
+        assertThat(spread.fixedBid, equalTo(234239700L));
+        assertThat(spread.fixedAsk, equalTo(234299800L));
+        assertThat(spread.bid, nullValue());
+    }
+
+    @Test
+    public void should_read_ohlc() throws IOException {
+        OHLCResult result = read("ohlc.mock.json", OHLCResult.class);
+        OHLCResult.OHLC ohlc = result.getResult().get("XXBTZEUR").get(0);
+
+        assertThat(ohlc.time, equalTo(1439164800));
+        assertThat(ohlc.fixedOpen, equalTo(24340000L));
+        assertThat(ohlc.fixedHigh, equalTo(24759000L));
+        assertThat(ohlc.fixedLow, equalTo(24080000L));
+        assertThat(ohlc.fixedClose, equalTo(24139000L));
+        assertThat(ohlc.fixedVwap, equalTo(24256000L));
+        assertThat(ohlc.fixedVolume, equalTo(374506570199L));
+        assertThat(ohlc.count, equalTo(2997));
+        assertThat(ohlc.open, nullValue());
+    }
+
+    @Test
+    public void should_read_ticker_information() throws IOException {
+        TickerInformationResult result = read("ticker_information.mock.json", TickerInformationResult.class);
+        TickerInformationResult.TickerInformation ticker = result.getResult().get("XETHZEUR");
+
+        assertThat(ticker.ask.fixedPrice, equalTo(15749201L));
+        assertThat(ticker.ask.wholeLotVolume, equalTo(14));
+        assertThat(ticker.ask.fixedLotVolume, equalTo(1_400_000_000L));
+        assertThat(ticker.bid.fixedPrice, equalTo(15734794L));
+        assertThat(ticker.lastTradeClosed.fixedPrice, equalTo(15703003L));
+        assertThat(ticker.lastTradeClosed.fixedLotVolume, equalTo(500_000_000L));
+        assertThat(ticker.volume.fixedToday, equalTo(150983494038L));
+        assertThat(ticker.volumeWeightAverage.fixedLast24hours, equalTo(16528600L));
+        assertThat(ticker.numberOfTrades.today, equalTo(316));
+        assertThat(ticker.low.fixedToday, equalTo(15703002L));
+        assertThat(ticker.high.fixedLast24hours, equalTo(17427560L));
+        assertThat(ticker.fixedTodayOpenPrice, equalTo(16351000L));
+        assertThat(ticker.todayOpenPrice, nullValue());
+        assertThat(ticker.ask.price, nullValue());
+    }
+
+    @Test
+    public void should_use_asset_pairs_decimals_and_alternate_names() throws IOException {
+        AssetPairsResult.AssetPair assetPair = new AssetPairsResult.AssetPair();
+        assetPair.alternatePairName = "XBTEUR";
+        assetPair.pairDecimals = 1;
+        assetPair.lotDecimals = 8;
+        AssetPairsResult assetPairs = new AssetPairsResult();
+        assetPairs.setResult(Collections.singletonMap("XXBTZEUR", assetPair));
+
+        FixedPointDecimals decimals = new FixedPointDecimals(assetPairs);
+        JsonReaderRegistry registry = JsonReaderRegistry.fixedPoint(decimals);
+
+        OrderBookResult result = registry.getReader(OrderBookResult.class)
+                .readValue("{\"error\":[],\"result\":{\"XBTEUR\":{\"asks\":[[\"2378.55\",\"1.5\",1501320458]],\"bids\":[]}}}");
+
+        assertThat(decimals.size(), equalTo(2));
+        assertThat(decimals.get("XBTEUR").priceDecimals, equalTo(1));
+        assertThat(result.getResult().get("XBTEUR").asks.get(0).fixedPrice, equalTo(23786L));
+        assertThat(result.getResult().get("XBTEUR").asks.get(0).fixedVolume, equalTo(150_000_000L));
+    }
+
+    @Test
+    public void should_read_exponent_numbers() throws IOException {
+        OrderBookResult result = readers.getReader(OrderBookResult.class)
+                .readValue("{\"error\":[],\"result\":{\"XXBTZEUR\":{\"asks\":[[2.3785E3,1e-8,1501320458]],\"bids\":[]}}}");
+
+        assertThat(result.getResult().get("XXBTZEUR").asks.get(0).fixedPrice, equalTo(237850000L));
+        assertThat(result.getResult().get("XXBTZEUR").asks.get(0).fixedVolume, equalTo(1L));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void should_fail_on_unknown_pair() throws IOException {
+        readers.getReader(OrderBookResult.class)
+                .readValue("{\"error\":[],\"result\":{\"XLTCZEUR\":{\"asks\":[[\"42.1\",\"1.0\",1501320458]],\"bids\":[]}}}");
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void should_fail_on_invalid_number() throws IOException {
+        readers.getReader(OrderBookResult.class)
+                .readValue("{\"error\":[],\"result\":{\"XXBTZEUR\":{\"asks\":[[\"abc\",\"1.0\",1501320458]],\"bids\":[]}}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_fail_on_invalid_decimals() {
+        new FixedPointDecimals().put("XXBTZEUR", 19, 8);
+    }
+
+    @Test
+    public void should_not_change_default_mode() throws IOException {
+        final String json = StreamUtils.getResourceAsString(this.getClass(), "json/order_book.mock.json");
+        OrderBookResult result = new ObjectMapper().readValue(json, OrderBookResult.class);
+        OrderBookResult.Market ask = result.getResult().get("XXBTZEUR").asks.get(0);
+
+        assertThat(ask.price, equalTo(new BigDecimal("2378.58700")));
+        assertThat(ask.fixedPrice, equalTo(0L));
+    }
+}
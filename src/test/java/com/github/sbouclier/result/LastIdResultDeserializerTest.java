@@ -0,0 +1,88 @@
+package com.github.sbouclier.result;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * LastIdResultDeserializer test
+ *
+ * @author Stéphane Bouclier
+ */
+public class LastIdResultDeserializerTest {
+
+    @Test
+    public void should_capture_numeric_last_id() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/ohlc.mock.json");
+
+        // When
+        OHLCResult result = new ObjectMapper().readValue(jsonResult, OHLCResult.class);
+
+        // Then
+        assertThat(result.getError(), empty());
+        assertThat(result.getLastId(), equalTo(1501200000L));
+        assertThat(result.getResult().keySet(), contains("XXBTZEUR"));
+        assertThat(result.getResult().get("XXBTZEUR").get(0).open, equalTo(new BigDecimal("243.400")));
+    }
+
+    @Test
+    public void should_capture_string_last_id() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/recent_trades.mock.json");
+
+        // When
+        RecentTradeResult result = new ObjectMapper().readValue(jsonResult, RecentTradeResult.class);
+
+        // Then
+        assertThat(result.getLastId(), equalTo(1501610764423910861L));
+        assertThat(result.getResult().keySet(), contains("XXBTZEUR"));
+        assertThat(result.getResult().get("XXBTZEUR").get(0).price, equalTo(new BigDecimal("2312.00000")));
+    }
+
+    @Test
+    public void should_capture_last_id_before_pairs() throws IOException {
+
+        // Given
+        final String jsonResult = "{\"error\":[],\"result\":{\"last\":1501616351,\"XXBTZEUR\":[[1501616351,\"2348.90000\",\"2349.00000\"]]}}";
+
+        // When
+        RecentSpreadResult result = new ObjectMapper().readValue(jsonResult, RecentSpreadResult.class);
+
+        // Then
+        assertThat(result.getLastId(), equalTo(1501616351L));
+        assertThat(result.getResult().get("XXBTZEUR").get(0).ask, equalTo(new BigDecimal("2349.00000")));
+    }
+
+    @Test
+    public void should_leave_last_id_null_when_missing() throws IOException {
+
+        // Given
+        final String jsonResult = StreamUtils.getResourceAsString(this.getClass(), "json/invalid_arguments.mock.json");
+
+        // When
+        OHLCResult result = new ObjectMapper().readValue(jsonResult, OHLCResult.class);
+
+        // Then
+        assertThat(result.getError(), contains("EGeneral:Invalid arguments"));
+        assertThat(result.getLastId(), nullValue());
+        assertThat(result.getResult(), nullValue());
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void should_fail_on_invalid_last_id() throws IOException {
+        new ObjectMapper().readValue("{\"error\":[],\"result\":{\"last\":\"abc\"}}", OHLCResult.class);
+    }
+}
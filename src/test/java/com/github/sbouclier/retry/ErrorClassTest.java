@@ -0,0 +1,41 @@
+package com.github.sbouclier.retry;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.github.sbouclier.KrakenApiException;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * ErrorClass test
+ *
+ * @author Stéphane Bouclier
+ */
+public class ErrorClassTest {
+
+    @Test
+    public void should_classify_kraken_errors() {
+        assertThat(ErrorClass.of(new KrakenApiException("EAPI:Rate limit exceeded")), equalTo(ErrorClass.RATE_LIMIT));
+        assertThat(ErrorClass.of(new KrakenApiException("EGeneral:Temporary lockout")), equalTo(ErrorClass.RATE_LIMIT));
+        assertThat(ErrorClass.of(new KrakenApiException("EService:Unavailable")), equalTo(ErrorClass.SERVICE_UNAVAILABLE));
+        assertThat(ErrorClass.of(new KrakenApiException("EService:Busy")), equalTo(ErrorClass.SERVICE_UNAVAILABLE));
+        assertThat(ErrorClass.of(new KrakenApiException("EGeneral:Internal error")), equalTo(ErrorClass.INTERNAL_ERROR));
+        assertThat(ErrorClass.of(new KrakenApiException(Arrays.asList("EQuery:Unknown asset pair", "EService:Busy"))), equalTo(ErrorClass.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    public void should_classify_network_errors() {
+        assertThat(ErrorClass.of(new KrakenApiException("unable to query Kraken API", new SocketTimeoutException())), equalTo(ErrorClass.NETWORK));
+    }
+
+    @Test
+    public void should_classify_other_errors_as_fatal() {
+        assertThat(ErrorClass.of(new KrakenApiException("EQuery:Unknown asset pair")), equalTo(ErrorClass.FATAL));
+        assertThat(ErrorClass.of(new KrakenApiException("unable to query Kraken API", new JsonParseException(null, "unexpected token"))), equalTo(ErrorClass.FATAL));
+        assertThat(ErrorClass.of(new KrakenApiException("unable to extract last id")), equalTo(ErrorClass.FATAL));
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.sbouclier.retry;
+
+import com.github.sbouclier.KrakenApiException;
+import com.github.sbouclier.KrakenApiMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * RetryPolicy test
+ *
+ * @author Stéphane Bouclier
+ */
+public class RetryPolicyTest {
+
+    private List<Long> sleeps;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        sleeps = new ArrayList<>();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private RetryPolicy.Builder builder() {
+        return RetryPolicy.builder().withSleeper(sleeps::add);
+    }
+
+    /**
+     * Call failing with given exceptions, then succeeding
+     */
+    private static RetryPolicy.Call<String> failing(AtomicInteger calls, KrakenApiException... failures) {
+        return () -> {
+            final int call = calls.getAndIncrement();
+            if (call < failures.length) {
+                throw failures[call];
+            }
+            return "result";
+        };
+    }
+
+    @Test
+    public void should_retry_with_exponential_backoff() throws KrakenApiException {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withBackoff(ErrorClass.SERVICE_UNAVAILABLE, 3, 100, 250, TimeUnit.NANOSECONDS)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+        KrakenApiException unavailable = new KrakenApiException("EService:Unavailable");
+
+        // When
+        String result = policy.execute(KrakenApiMethod.ORDER_BOOK, failing(calls, unavailable, unavailable, unavailable));
+
+        // Then
+        assertThat(result, equalTo("result"));
+        assertThat(calls.get(), equalTo(4));
+        assertThat(policy.getRetryCount(), equalTo(3L));
+        assertThat(sleeps.size(), equalTo(3));
+        assertThat(sleeps.get(0), allOf(greaterThanOrEqualTo(50L), lessThanOrEqualTo(100L)));
+        assertThat(sleeps.get(1), allOf(greaterThanOrEqualTo(100L), lessThanOrEqualTo(200L)));
+        assertThat(sleeps.get(2), allOf(greaterThanOrEqualTo(125L), lessThanOrEqualTo(250L)));
+    }
+
+    @Test
+    public void should_give_up_once_retries_of_class_are_exhausted() {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withBackoff(ErrorClass.RATE_LIMIT, 1, 1, 1, TimeUnit.SECONDS)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+        KrakenApiException rateLimit = new KrakenApiException("EAPI:Rate limit exceeded");
+        KrakenApiException lastRateLimit = new KrakenApiException("EAPI:Rate limit exceeded");
+
+        // When
+        try {
+            policy.execute(KrakenApiMethod.ORDER_BOOK, failing(calls, rateLimit, lastRateLimit));
+            fail("call should have failed");
+        } catch (KrakenApiException ex) {
+
+            // Then
+            assertThat(ex, sameInstance(lastRateLimit));
+        }
+        assertThat(calls.get(), equalTo(2));
+        assertThat(sleeps.size(), equalTo(1));
+    }
+
+    @Test
+    public void should_count_retries_per_class() throws KrakenApiException {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withBackoff(ErrorClass.NETWORK, 1, 10, 10, TimeUnit.NANOSECONDS)
+                .withBackoff(ErrorClass.INTERNAL_ERROR, 1, 1000, 1000, TimeUnit.NANOSECONDS)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = policy.execute(KrakenApiMethod.TICKER_INFORMATION, failing(calls,
+                new KrakenApiException("unable to query Kraken API", new IOException()),
+                new KrakenApiException("EGeneral:Internal error")));
+
+        // Then
+        assertThat(result, equalTo("result"));
+        assertThat(sleeps.size(), equalTo(2));
+        assertThat(sleeps.get(0), allOf(greaterThanOrEqualTo(5L), lessThanOrEqualTo(10L)));
+        assertThat(sleeps.get(1), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+    }
+
+    @Test
+    public void should_never_retry_fatal_errors() {
+
+        // Given
+        RetryPolicy policy = builder().build();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        try {
+            policy.execute(KrakenApiMethod.ORDER_BOOK, failing(calls, new KrakenApiException("EQuery:Unknown asset pair")));
+            fail("call should have failed");
+        } catch (KrakenApiException ex) {
+
+            // Then
+            assertThat(calls.get(), equalTo(1));
+            assertThat(sleeps.size(), equalTo(0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_allow_retrying_fatal_errors() {
+        RetryPolicy.builder().withBackoff(ErrorClass.FATAL, 1, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void should_hedge_slow_public_call() throws KrakenApiException {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withHedging(executor, 0.95, 10, TimeUnit.MILLISECONDS)
+                .build();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = policy.execute(KrakenApiMethod.ORDER_BOOK, () -> {
+            if (calls.getAndIncrement() == 0) {
+                try {
+                    // first request stalls until the call returns
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }
+            return "hedged";
+        });
+        release.countDown();
+
+        // Then
+        assertThat(result, equalTo("hedged"));
+        assertThat(calls.get(), equalTo(2));
+        assertThat(policy.getHedgeCount(), equalTo(1L));
+    }
+
+    @Test
+    public void should_not_hedge_private_call() throws KrakenApiException {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withHedging(executor, 0.95, 0, TimeUnit.MILLISECONDS)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = policy.execute(KrakenApiMethod.ACCOUNT_BALANCE, failing(calls));
+
+        // Then
+        assertThat(result, equalTo("result"));
+        assertThat(calls.get(), equalTo(1));
+        assertThat(policy.getHedgeCount(), equalTo(0L));
+    }
+
+    @Test
+    public void should_use_percentile_of_latencies_as_hedging_delay() throws KrakenApiException {
+
+        // Given
+        RetryPolicy policy = builder()
+                .withHedging(Runnable::run, 0.5, 1, TimeUnit.NANOSECONDS)
+                .build();
+
+        // When
+        final long before = policy.hedgingDelayNanos(KrakenApiMethod.OHLC);
+        for (int i = 0; i < RetryPolicy.MIN_LATENCY_SAMPLES; i++) {
+            policy.execute(KrakenApiMethod.OHLC, () -> {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "result";
+            });
+        }
+
+        // Then
+        assertThat(before, equalTo(1L));
+        assertThat(policy.hedgingDelayNanos(KrakenApiMethod.OHLC), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(2)));
+        assertThat(policy.hedgingDelayNanos(KrakenApiMethod.ORDER_BOOK), equalTo(1L));
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.sbouclier.transport;
+
+import com.github.sbouclier.utils.StreamUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.HttpResponseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * PooledAsyncHttpTransport test
+ *
+ * @author Stéphane Bouclier
+ */
+public class PooledAsyncHttpTransportTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            String body = exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getQuery() + " "
+                    + exchange.getRequestHeaders().getFirst("API-Key") + " "
+                    + StreamUtils.convert(exchange.getRequestBody());
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void should_execute_concurrent_gets() throws Exception {
+        try (PooledAsyncHttpTransport transport = PooledAsyncHttpTransport.builder().ioThreads(1).build()) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(transport.get(new URL(baseUrl + "/echo?i=" + i)));
+            }
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(futures.get(i).get(), equalTo("GET i=" + i + " null "));
+            }
+            assertThat(transport.getStats().getLeased(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void should_execute_post_with_headers() throws Exception {
+        try (PooledAsyncHttpTransport transport = new PooledAsyncHttpTransport()) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("API-Key", "key");
+
+            String result = transport.post(new URL(baseUrl + "/echo"), headers, "nonce=1").get();
+
+            assertThat(result, equalTo("POST null key nonce=1"));
+        }
+    }
+
+    @Test
+    public void should_complete_exceptionally_on_http_error() throws Exception {
+        try (PooledAsyncHttpTransport transport = new PooledAsyncHttpTransport()) {
+            transport.post(new URL(baseUrl + "/error"), Collections.emptyMap(), null).get();
+
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), instanceOf(HttpResponseException.class));
+        }
+    }
+}
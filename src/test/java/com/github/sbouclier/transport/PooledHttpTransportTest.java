@@ -0,0 +1,139 @@
+package com.github.sbouclier.transport;
+
+import com.github.sbouclier.metrics.Phase;
+import com.github.sbouclier.metrics.RequestTrace;
+import com.github.sbouclier.utils.StreamUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+/**
+ * PooledHttpTransport test
+ *
+ * @author Stéphane Bouclier
+ */
+public class PooledHttpTransportTest {
+
+    private HttpServer server;
+    private Set<Integer> clientPorts;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        clientPorts = new HashSet<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+
+            String body = exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getQuery() + " "
+                    + exchange.getRequestHeaders().getFirst("API-Key") + " "
+                    + StreamUtils.convert(exchange.getRequestBody());
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void should_execute_get() throws IOException {
+        try (PooledHttpTransport transport = new PooledHttpTransport()) {
+            String result = transport.get(new URL(baseUrl + "/echo?a=A"));
+
+            assertThat(result, equalTo("GET a=A null "));
+        }
+    }
+
+    @Test
+    public void should_execute_post_with_headers() throws IOException {
+        try (PooledHttpTransport transport = new PooledHttpTransport()) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("API-Key", "key");
+
+            String result = transport.post(new URL(baseUrl + "/echo"), headers, "nonce=1");
+
+            assertThat(result, equalTo("POST null key nonce=1"));
+        }
+    }
+
+    @Test
+    public void should_reuse_connection() throws IOException {
+        try (PooledHttpTransport transport = PooledHttpTransport.builder()
+                .maxTotal(4)
+                .maxPerRoute(2)
+                .keepAlive(10, TimeUnit.SECONDS)
+                .build()) {
+
+            URL url = new URL(baseUrl + "/echo");
+            transport.get(url);
+            transport.get(url);
+            transport.post(url, null, "nonce=1");
+
+            PoolStats stats = transport.getStats(url);
+
+            assertThat(clientPorts.size(), equalTo(1));
+            assertThat(stats.getAvailable(), equalTo(1));
+            assertThat(stats.getLeased(), equalTo(0));
+            assertThat(stats.getMax(), equalTo(2));
+            assertThat(transport.getStats().getMax(), equalTo(4));
+        }
+    }
+
+    @Test
+    public void should_record_connect_phase_of_new_connections_only() throws IOException {
+        try (PooledHttpTransport transport = new PooledHttpTransport()) {
+            URL url = new URL(baseUrl + "/echo");
+
+            RequestTrace first = RequestTrace.begin();
+            transport.get(url);
+            first.end();
+
+            RequestTrace second = RequestTrace.begin();
+            transport.get(url);
+            second.end();
+
+            assertThat(first.getNanos(Phase.CONNECT) >= 0, equalTo(true));
+            assertThat(first.getNanos(Phase.TLS), equalTo(-1L));
+            assertThat(second.getNanos(Phase.CONNECT), equalTo(-1L));
+        }
+    }
+
+    @Test(expected = HttpResponseException.class)
+    public void should_throw_exception_on_http_error() throws IOException {
+        try (PooledHttpTransport transport = new PooledHttpTransport()) {
+            transport.get(new URL(baseUrl + "/error"));
+        }
+    }
+}
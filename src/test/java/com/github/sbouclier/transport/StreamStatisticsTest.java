@@ -0,0 +1,70 @@
+package com.github.sbouclier.transport;
+
+import com.github.sbouclier.utils.StreamUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * StreamStatistics test
+ *
+ * @author Stéphane Bouclier
+ */
+public class StreamStatisticsTest {
+
+    @Test
+    public void should_count_responses_and_bytes() throws IOException {
+
+        // Given
+        StreamStatistics statistics = new StreamStatistics();
+        ResponseHandler<String> handler = statistics.record(StreamUtils::convert);
+
+        // When
+        String first = handler.handle(new ByteArrayInputStream("first".getBytes(StandardCharsets.UTF_8)));
+        String second = handler.handle(new ByteArrayInputStream("second".getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(first, equalTo("first"));
+        assertThat(second, equalTo("second"));
+        assertThat(statistics.getResponses(), equalTo(2L));
+        assertThat(statistics.getBytesReceived(), equalTo(11L));
+    }
+
+    @Test
+    public void should_measure_allocated_bytes() throws IOException {
+        assumeTrue(StreamStatistics.isAllocationSupported());
+
+        // Given
+        StreamStatistics statistics = new StreamStatistics();
+        ResponseHandler<Object> handler = statistics.record(body -> new byte[64 * 1024]);
+
+        // When
+        handler.handle(new ByteArrayInputStream(new byte[0]));
+
+        // Then
+        assertThat(statistics.getBytesAllocated(), greaterThan(64L * 1024));
+    }
+
+    @Test
+    public void should_reset() throws IOException {
+
+        // Given
+        StreamStatistics statistics = new StreamStatistics();
+        statistics.record(StreamUtils::convert).handle(new ByteArrayInputStream("body".getBytes(StandardCharsets.UTF_8)));
+
+        // When
+        statistics.reset();
+
+        // Then
+        assertThat(statistics.getResponses(), equalTo(0L));
+        assertThat(statistics.getBytesReceived(), equalTo(0L));
+        assertThat(statistics.getBytesAllocated(), equalTo(0L));
+    }
+}
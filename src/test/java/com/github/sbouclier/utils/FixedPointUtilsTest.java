@@ -0,0 +1,103 @@
+package com.github.sbouclier.utils;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fixed-point utility test
+ *
+ * @author Stéphane Bouclier
+ */
+public class FixedPointUtilsTest {
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void utilityClassTest() throws Throwable {
+        final Constructor<FixedPointUtils> constructor = FixedPointUtils.class.getDeclaredConstructor();
+        assertTrue(Modifier.isPrivate(constructor.getModifiers()));
+
+        constructor.setAccessible(true);
+
+        try {
+            constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @Test
+    public void should_convert_to_fixed() {
+        assertThat(FixedPointUtils.toFixed(new BigDecimal("2378.587"), 5), equalTo(237858700L));
+        assertThat(FixedPointUtils.toFixed(new BigDecimal("0.12345678"), 8), equalTo(12345678L));
+        assertThat(FixedPointUtils.toFixed(new BigDecimal("1.125"), 2), equalTo(112L));
+        assertThat(FixedPointUtils.toFixed(new BigDecimal("-3"), 1), equalTo(-30L));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void should_fail_on_overflow() {
+        FixedPointUtils.toFixed(new BigDecimal("100000000000"), 10);
+    }
+
+    @Test
+    public void should_convert_from_fixed() {
+        assertThat(FixedPointUtils.toBigDecimal(237858700L, 5), equalTo(new BigDecimal("2378.58700")));
+        assertThat(FixedPointUtils.toDouble(237858700L, 5), equalTo(2378.587));
+        assertThat(FixedPointUtils.pow10(8), equalTo(100_000_000L));
+    }
+
+    @Test
+    public void should_parse_fixed() {
+        assertThat(FixedPointUtils.parse("2378.587", 5), equalTo(237858700L));
+        assertThat(FixedPointUtils.parse("0.12345678", 8), equalTo(12345678L));
+        assertThat(FixedPointUtils.parse("1501609382", 0), equalTo(1501609382L));
+        assertThat(FixedPointUtils.parse("-3", 1), equalTo(-30L));
+        assertThat(FixedPointUtils.parse(".5", 1), equalTo(5L));
+        assertThat(FixedPointUtils.parse("12.", 2), equalTo(1200L));
+    }
+
+    @Test
+    public void should_parse_fixed_rounding_half_even() {
+        assertThat(FixedPointUtils.parse("1.125", 2), equalTo(112L));
+        assertThat(FixedPointUtils.parse("1.135", 2), equalTo(114L));
+        assertThat(FixedPointUtils.parse("1.1251", 2), equalTo(113L));
+        assertThat(FixedPointUtils.parse("1.12499", 2), equalTo(112L));
+        assertThat(FixedPointUtils.parse("-1.126", 2), equalTo(-113L));
+    }
+
+    @Test
+    public void should_parse_fixed_from_buffer() {
+        final char[] buffer = "[\"2378.587\",\"1.089\"]".toCharArray();
+
+        assertThat(FixedPointUtils.parse(buffer, 2, 8, 5), equalTo(237858700L));
+        assertThat(FixedPointUtils.parse(buffer, 13, 5, 3), equalTo(1089L));
+    }
+
+    @Test
+    public void should_parse_same_as_to_fixed() {
+        for (String text : new String[]{"0", "0.00001", "99999.99999", "2378.58749", "2378.58750", "2378.58751"}) {
+            assertThat(text, FixedPointUtils.parse(text, 4), equalTo(FixedPointUtils.toFixed(new BigDecimal(text), 4)));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void should_fail_to_parse_exponent() {
+        FixedPointUtils.parse("1e-5", 8);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void should_fail_to_parse_empty() {
+        FixedPointUtils.parse("", 2);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void should_fail_to_parse_overflow() {
+        FixedPointUtils.parse("100000000000", 10);
+    }
+}